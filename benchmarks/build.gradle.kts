@@ -0,0 +1,55 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+plugins {
+    id("ion-hive-serde.dependencies")
+    id("ion-hive-serde.conventions")
+}
+
+val jmhVersion = "1.37"
+
+// Benchmarks are compiled against Hive 3, like hive-common, and run against both Hive runtimes
+val benchmarkHive2 by configurations.creating
+val benchmarkHive3 by configurations.creating
+
+configurations {
+    compileOnly { extendsFrom(bundled.get(), hive3Runtime.get()) }
+}
+
+dependencies {
+    implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+
+    compileOnly(project(":hive-common"))
+    compileOnly(project(":hive3"))
+
+    benchmarkHive2(project(":hive2"))
+    benchmarkHive3(project(":hive3"))
+}
+
+tasks {
+    val hiveRuntimes = mapOf("Hive2" to benchmarkHive2, "Hive3" to benchmarkHive3)
+
+    hiveRuntimes.forEach { (hive, runtime) ->
+        create<JavaExec>("jmh$hive") {
+            group = "benchmark"
+            description = "Runs the JMH benchmarks against the $hive runtime."
+
+            val report = layout.buildDirectory.file("reports/jmh/${hive.lowercase()}.json")
+            classpath = sourceSets.main.get().output + configurations.runtimeClasspath.get() + runtime
+            mainClass.set("org.openjdk.jmh.Main")
+            // e.g. ./gradlew :benchmarks:jmhHive3 -Pjmh.include=SerDeBenchmark -Pjmh.args="-p encoding=binary"
+            args = listOf(project.findProperty("jmh.include")?.toString() ?: ".*") +
+                (project.findProperty("jmh.args")?.toString()?.split(" ")?.filter { it.isNotEmpty() } ?: listOf()) +
+                listOf("-prof", "gc", "-rf", "json", "-rff", report.get().asFile.path)
+
+            doFirst { report.get().asFile.parentFile.mkdirs() }
+        }
+    }
+
+    create("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks against all Hive runtimes."
+        dependsOn(hiveRuntimes.keys.map { "jmh$it" })
+    }
+}
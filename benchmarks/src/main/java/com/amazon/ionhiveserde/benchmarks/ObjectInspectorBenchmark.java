@@ -0,0 +1,138 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.benchmarks;
+
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonSystemBuilder;
+import com.amazon.ionhiveserde.IonHiveSerDe;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads a column of each primitive type through its object inspector. Every call deserializes the next record first,
+ * as object inspectors of scalar columns reuse their value for the same record, so {@link #deserialize()} is the
+ * baseline to subtract. Columns are top-level, the table parameters of the other benchmarks don't apply.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ObjectInspectorBenchmark {
+
+    private static final IonSystem ION = IonSystemBuilder.standard().build();
+    private static final String COLUMN_NAME = "value";
+    private static final long SEED = 42;
+
+    @Param({
+        "tinyint", "smallint", "int", "bigint", "float", "double", "boolean", "decimal(10,2)", "string", "char(10)",
+        "varchar(10)", "binary", "date", "timestamp"
+    })
+    public String type;
+
+    @Param({"true", "false"})
+    public boolean caseSensitive;
+
+    @Param({"binary", "text"})
+    public String encoding;
+
+    private IonHiveSerDe serDe;
+    private StructObjectInspector rowObjectInspector;
+    private StructField field;
+    private PrimitiveObjectInspector fieldObjectInspector;
+    private Writable[] records;
+
+    private int next;
+
+    /**
+     * Initializes a SerDe for a table with a single column of the benchmarked type.
+     */
+    @Setup
+    public void setUp() throws IOException, SerDeException {
+        final Properties properties = new Properties();
+        properties.setProperty(serdeConstants.LIST_COLUMNS, COLUMN_NAME);
+        properties.setProperty(serdeConstants.LIST_COLUMN_TYPES, type);
+        properties.setProperty("ion.encoding", encoding);
+        properties.setProperty("ion.path_extractor.case_sensitive", String.valueOf(caseSensitive));
+
+        serDe = new IonHiveSerDe();
+        serDe.initialize(new Configuration(), properties);
+        rowObjectInspector = (StructObjectInspector) serDe.getObjectInspector();
+        field = rowObjectInspector.getStructFieldRef(COLUMN_NAME);
+        fieldObjectInspector = (PrimitiveObjectInspector) field.getFieldObjectInspector();
+
+        final Random random = new Random(SEED);
+        records = new Writable[TableState.RECORD_COUNT];
+        for (int i = 0; i < records.length; i++) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (IonWriter writer = "binary".equals(encoding) ? ION.newBinaryWriter(out) : ION.newTextWriter(out)) {
+                writer.stepIn(IonType.STRUCT);
+                writer.setFieldName(COLUMN_NAME);
+                TableState.writeValue(writer, type, random);
+                writer.stepOut();
+            }
+            records[i] = "binary".equals(encoding) ? new BytesWritable(out.toByteArray()) : new Text(out.toByteArray());
+        }
+    }
+
+    private Object nextValue() throws SerDeException {
+        final Object row = serDe.deserialize(records[next]);
+        next = (next + 1) % records.length;
+
+        return rowObjectInspector.getStructFieldData(row, field);
+    }
+
+    /**
+     * Deserializes a record without reading its column.
+     */
+    @Benchmark
+    public Object deserialize() throws SerDeException {
+        final Object row = serDe.deserialize(records[next]);
+        next = (next + 1) % records.length;
+
+        return row;
+    }
+
+    /**
+     * Deserializes a record and reads its column as a Java object.
+     */
+    @Benchmark
+    public Object getPrimitiveJavaObject() throws SerDeException {
+        return fieldObjectInspector.getPrimitiveJavaObject(nextValue());
+    }
+
+    /**
+     * Deserializes a record and reads its column as a writable.
+     */
+    @Benchmark
+    public Object getPrimitiveWritableObject() throws SerDeException {
+        return fieldObjectInspector.getPrimitiveWritableObject(nextValue());
+    }
+}
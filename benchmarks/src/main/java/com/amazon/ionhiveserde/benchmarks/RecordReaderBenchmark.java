@@ -0,0 +1,111 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.benchmarks;
+
+import com.amazon.ionhiveserde.formats.IonInputFormat;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads the records of a local file with the record reader of {@link IonInputFormat}, reopening it at the end of the
+ * file. Case sensitivity only matters with a pushed down filter, which isn't set.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordReaderBenchmark extends TableState {
+
+    private static final int FILE_COPIES = 16;
+
+    private File file;
+    private JobConf job;
+    private FileSplit split;
+    private IonInputFormat inputFormat;
+
+    private RecordReader<Object, Object> reader;
+    private Object key;
+    private Object value;
+
+    /**
+     * Writes the records to a temporary file, {@value #FILE_COPIES} times.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("ion-hive-serde-benchmark", ".ion");
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < FILE_COPIES; i++) {
+                for (final byte[] record : records()) {
+                    out.write(record);
+                    // binary records are standalone documents, text ones are separated by newlines
+                    if (!"binary".equals(encoding)) {
+                        out.write('\n');
+                    }
+                }
+            }
+        }
+
+        job = new JobConf();
+        for (final Map.Entry<Object, Object> property : tableProperties().entrySet()) {
+            job.set(property.getKey().toString(), property.getValue().toString());
+        }
+        split = new FileSplit(new Path(file.toURI()), 0, file.length(), new String[0]);
+        inputFormat = new IonInputFormat();
+        inputFormat.configure(job);
+
+        openReader();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void openReader() throws IOException {
+        reader = inputFormat.getRecordReader(split, job, Reporter.NULL);
+        key = reader.createKey();
+        value = reader.createValue();
+    }
+
+    /**
+     * Closes the reader and deletes the file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reader.close();
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Reads the next record.
+     */
+    @Benchmark
+    public Object next() throws IOException {
+        if (!reader.next(key, value)) {
+            reader.close();
+            openReader();
+            reader.next(key, value);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,92 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.benchmarks;
+
+import com.amazon.ionhiveserde.IonHiveSerDe;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.io.Writable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Deserializes and serializes the records of the table with the SerDe. Deserializing only extracts the columns, values
+ * decoded on access are read by {@link #deserializeAndRead(Blackhole)}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerDeBenchmark extends TableState {
+
+    private IonHiveSerDe serDe;
+    private StructObjectInspector rowObjectInspector;
+    private Writable[] records;
+
+    private ObjectInspector standardObjectInspector;
+    private Object[] rows;
+
+    private int next;
+
+    /**
+     * Initializes the SerDe and copies the deserialized records to standard Java objects, as serialized by Hive.
+     */
+    @Setup
+    public void setUp() throws SerDeException {
+        serDe = newSerDe();
+        rowObjectInspector = (StructObjectInspector) serDe.getObjectInspector();
+
+        records = writables(records());
+
+        standardObjectInspector = standardObjectInspector(serDe);
+        rows = standardRows(serDe, records);
+    }
+
+    private int nextIndex() {
+        final int index = next;
+        next = (next + 1) % RECORD_COUNT;
+
+        return index;
+    }
+
+    /**
+     * Deserializes a record.
+     */
+    @Benchmark
+    public Object deserialize() throws SerDeException {
+        return serDe.deserialize(records[nextIndex()]);
+    }
+
+    /**
+     * Deserializes a record and reads all its columns.
+     */
+    @Benchmark
+    public void deserializeAndRead(final Blackhole blackhole) throws SerDeException {
+        final Object row = serDe.deserialize(records[nextIndex()]);
+        blackhole.consume(ObjectInspectorUtils.copyToStandardObject(
+            row,
+            rowObjectInspector,
+            ObjectInspectorCopyOption.WRITABLE));
+    }
+
+    /**
+     * Serializes a row.
+     */
+    @Benchmark
+    public Writable serialize() throws SerDeException {
+        return serDe.serialize(rows[nextIndex()], standardObjectInspector);
+    }
+}
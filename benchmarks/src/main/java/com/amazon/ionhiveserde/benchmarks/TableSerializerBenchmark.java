@@ -0,0 +1,106 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.benchmarks;
+
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonTextWriterBuilder;
+import com.amazon.ionhiveserde.IonHiveSerDe;
+import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import com.amazon.ionhiveserde.serializers.TableSerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes rows with the {@link TableSerializer} of the Hive version into a single writer, finished after every row
+ * like the SerDe does, without the buffer and writable the SerDe creates for each row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableSerializerBenchmark extends TableState {
+
+    private TableSerializer serializer;
+    private ObjectInspector standardObjectInspector;
+    private Object[] rows;
+
+    private ByteArrayOutputStream out;
+    private IonWriter writer;
+
+    private int next;
+
+    /**
+     * Exposes the table serializer of the Hive version.
+     */
+    private static final class SerializerSerDe extends IonHiveSerDe {
+
+        TableSerializer tableSerializer(final SerDeProperties properties) {
+            return getTableSerializer(properties);
+        }
+    }
+
+    /**
+     * Creates the serializer and the rows to serialize.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws SerDeException {
+        final Properties properties = tableProperties();
+        final SerDeProperties serDeProperties = new SerDeProperties(
+            properties,
+            Arrays.asList(properties.getProperty(serdeConstants.LIST_COLUMNS).split(",")),
+            TypeInfoUtils.getTypeInfosFromTypeString(properties.getProperty(serdeConstants.LIST_COLUMN_TYPES)));
+        serializer = new SerializerSerDe().tableSerializer(serDeProperties);
+
+        final IonHiveSerDe serDe = newSerDe();
+        standardObjectInspector = standardObjectInspector(serDe);
+        rows = standardRows(serDe, writables(records()));
+
+        out = new ByteArrayOutputStream();
+        writer = "binary".equals(encoding)
+            ? IonBinaryWriterBuilder.standard().build(out)
+            : IonTextWriterBuilder.standard().build(out);
+    }
+
+    /**
+     * Closes the writer.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Serializes a row.
+     */
+    @Benchmark
+    public int serialize() throws IOException {
+        serializer.serialize(writer, rows[next], standardObjectInspector);
+        writer.finish();
+        next = (next + 1) % RECORD_COUNT;
+
+        final int size = out.size();
+        out.reset();
+
+        return size;
+    }
+}
@@ -0,0 +1,243 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.benchmarks;
+
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.Timestamp;
+import com.amazon.ion.system.IonSystemBuilder;
+import com.amazon.ionhiveserde.IonHiveSerDe;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Table shared by the benchmarks, with its parameters. Columns cycle through the scalar types below, each nested in
+ * {@link #nestingDepth} structs, and records are generated with a fixed seed so every run reads the same data.
+ */
+@State(Scope.Thread)
+public abstract class TableState {
+
+    static final int RECORD_COUNT = 1024;
+
+    private static final IonSystem ION = IonSystemBuilder.standard().build();
+    private static final String[] COLUMN_TYPES = {
+        "int", "bigint", "double", "boolean", "string", "decimal(10,2)", "timestamp"
+    };
+    private static final String NESTED_FIELD = "f";
+    private static final long SEED = 42;
+
+    @Param({"4", "32"})
+    public int columnCount;
+
+    @Param({"0", "2"})
+    public int nestingDepth;
+
+    @Param({"true", "false"})
+    public boolean caseSensitive;
+
+    @Param({"binary", "text"})
+    public String encoding;
+
+    /**
+     * Returns the table properties, as set by Hive when initializing the SerDe.
+     *
+     * @return table properties.
+     */
+    Properties tableProperties() {
+        final List<String> columnNames = new ArrayList<>();
+        final List<String> columnTypes = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            columnNames.add(columnName(i));
+            columnTypes.add(columnType(i));
+        }
+
+        final Properties properties = new Properties();
+        properties.setProperty(serdeConstants.LIST_COLUMNS, String.join(",", columnNames));
+        // struct types contain commas, Hive separates column types with colons
+        properties.setProperty(serdeConstants.LIST_COLUMN_TYPES, String.join(":", columnTypes));
+        properties.setProperty("ion.encoding", encoding);
+        properties.setProperty("ion.path_extractor.case_sensitive", String.valueOf(caseSensitive));
+
+        return properties;
+    }
+
+    /**
+     * Creates a SerDe initialized for the table.
+     *
+     * @return initialized SerDe.
+     */
+    IonHiveSerDe newSerDe() {
+        final IonHiveSerDe serDe = new IonHiveSerDe();
+        serDe.initialize(new Configuration(), tableProperties());
+
+        return serDe;
+    }
+
+    /**
+     * Generates the records of the table, each one a standalone Ion document in the table encoding.
+     *
+     * @return encoded records.
+     */
+    List<byte[]> records() {
+        final Random random = new Random(SEED);
+        final List<byte[]> records = new ArrayList<>(RECORD_COUNT);
+
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (IonWriter writer = "binary".equals(encoding) ? ION.newBinaryWriter(out) : ION.newTextWriter(out)) {
+                writer.stepIn(IonType.STRUCT);
+                for (int column = 0; column < columnCount; column++) {
+                    writer.setFieldName(columnName(column));
+                    for (int depth = 0; depth < nestingDepth; depth++) {
+                        writer.stepIn(IonType.STRUCT);
+                        writer.setFieldName(NESTED_FIELD);
+                    }
+                    writeValue(writer, COLUMN_TYPES[column % COLUMN_TYPES.length], random);
+                    for (int depth = 0; depth < nestingDepth; depth++) {
+                        writer.stepOut();
+                    }
+                }
+                writer.stepOut();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            records.add(out.toByteArray());
+        }
+
+        return records;
+    }
+
+    /**
+     * Wraps the records in the writable the input format hands to the SerDe for the table encoding.
+     *
+     * @param records encoded records.
+     * @return writables.
+     */
+    Writable[] writables(final List<byte[]> records) {
+        final Writable[] writables = new Writable[records.size()];
+        for (int i = 0; i < writables.length; i++) {
+            writables[i] = "binary".equals(encoding) ? new BytesWritable(records.get(i)) : new Text(records.get(i));
+        }
+
+        return writables;
+    }
+
+    /**
+     * Returns the object inspector of the rows copied by {@link #standardRows(IonHiveSerDe, Writable[])}.
+     *
+     * @param serDe SerDe initialized for the table.
+     * @return standard Java object inspector.
+     */
+    static ObjectInspector standardObjectInspector(final IonHiveSerDe serDe) throws SerDeException {
+        return ObjectInspectorUtils.getStandardObjectInspector(
+            serDe.getObjectInspector(),
+            ObjectInspectorCopyOption.JAVA);
+    }
+
+    /**
+     * Deserializes the records and copies them to standard Java objects, like the rows serialized by Hive.
+     *
+     * @param serDe SerDe initialized for the table.
+     * @param records records to deserialize.
+     * @return standard Java rows.
+     */
+    static Object[] standardRows(final IonHiveSerDe serDe, final Writable[] records) throws SerDeException {
+        final Object[] rows = new Object[records.length];
+        for (int i = 0; i < records.length; i++) {
+            rows[i] = ObjectInspectorUtils.copyToStandardObject(
+                serDe.deserialize(records[i]),
+                serDe.getObjectInspector(),
+                ObjectInspectorCopyOption.JAVA);
+        }
+
+        return rows;
+    }
+
+    private static String columnName(final int column) {
+        return "column" + column;
+    }
+
+    private String columnType(final int column) {
+        final StringBuilder type = new StringBuilder();
+        for (int depth = 0; depth < nestingDepth; depth++) {
+            type.append("struct<").append(NESTED_FIELD).append(':');
+        }
+        type.append(COLUMN_TYPES[column % COLUMN_TYPES.length]);
+        for (int depth = 0; depth < nestingDepth; depth++) {
+            type.append('>');
+        }
+
+        return type.toString();
+    }
+
+    /**
+     * Writes a random value of a Hive primitive type.
+     */
+    static void writeValue(final IonWriter writer, final String type, final Random random) throws IOException {
+        switch (type) {
+            case "tinyint":
+                writer.writeInt((byte) random.nextInt());
+                break;
+            case "smallint":
+                writer.writeInt((short) random.nextInt());
+                break;
+            case "int":
+                writer.writeInt(random.nextInt());
+                break;
+            case "bigint":
+                writer.writeInt(random.nextLong());
+                break;
+            case "float":
+                writer.writeFloat(random.nextFloat());
+                break;
+            case "double":
+                writer.writeFloat(random.nextDouble());
+                break;
+            case "boolean":
+                writer.writeBool(random.nextBoolean());
+                break;
+            case "string":
+                writer.writeString(Long.toString(random.nextLong() & Long.MAX_VALUE, Character.MAX_RADIX));
+                break;
+            case "char(10)":
+            case "varchar(10)":
+                // fits the column length
+                writer.writeString(Integer.toString(random.nextInt() & Integer.MAX_VALUE, Character.MAX_RADIX));
+                break;
+            case "decimal(10,2)":
+                writer.writeDecimal(BigDecimal.valueOf(random.nextInt(100_000_000), 2));
+                break;
+            case "binary":
+                writer.writeBlob(Long.toString(random.nextLong()).getBytes(StandardCharsets.US_ASCII));
+                break;
+            case "date":
+            case "timestamp":
+                // a second of 2020
+                writer.writeTimestamp(Timestamp.forMillis(1_577_836_800_000L + random.nextInt(31_536_000) * 1000L, 0));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown column type: " + type);
+        }
+    }
+}
@@ -7,12 +7,15 @@ import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Cate
 
 import com.amazon.ion.IonException;
 import com.amazon.ion.IonReader;
-import com.amazon.ion.IonStruct;
-import com.amazon.ion.IonSystem;
 import com.amazon.ion.IonWriter;
-import com.amazon.ionhiveserde.caseinsensitivedecorator.IonStructCaseInsensitiveDecorator;
 import com.amazon.ionhiveserde.configuration.IonEncoding;
 import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import com.amazon.ionhiveserde.formats.IonCounters;
+import com.amazon.ionhiveserde.formats.IonCounters.Counter;
+import com.amazon.ionhiveserde.formats.IonOutputFormat;
+import com.amazon.ionhiveserde.formats.IonRecordWritable;
+import com.amazon.ionhiveserde.formats.IonRowWritable;
+import com.amazon.ionhiveserde.objectinspectors.IonRow;
 import com.amazon.ionhiveserde.serializers.TableSerializer;
 import com.amazon.ionpathextraction.PathExtractor;
 import java.io.ByteArrayOutputStream;
@@ -24,7 +27,9 @@ import java.util.List;
 import java.util.Properties;
 import javax.annotation.Nullable;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.JavaUtils;
 import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.hive.serde2.AbstractSerDe;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.SerDeStats;
@@ -45,11 +50,25 @@ import org.apache.hadoop.io.Writable;
  */
 public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
 
+    private static final int SYMBOL_TABLE_CONTEXT_CACHE_SIZE = 32;
+
+    // table property set by the metastore, see hive_metastoreConstants.FILE_OUTPUT_FORMAT
+    private static final String FILE_OUTPUT_FORMAT = "file.outputformat";
+
     private ObjectInspector objectInspector;
     protected SerDeProperties serDeProperties;
     private SerDeStats stats;
     private TableSerializer serializer;
     private IonFactory ionFactory;
+    private SymbolTableContextCache symbolTableContextCache;
+    private IonRowWritable rowWritable;
+    private PathExtractor<IonRow> pathExtractor;
+    private IonRow row;
+
+    // raw data size of the last row, reported like Hive's own SerDes do
+    private boolean lastOperationSerialize;
+    private long serializedSize;
+    private long deserializedSize;
 
     protected abstract TableSerializer getTableSerializer(SerDeProperties properties);
 
@@ -62,16 +81,45 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
         final List<String> columnNames = readColumnNames(properties);
         final List<TypeInfo> columnTypes = readColumnTypes(properties);
 
-        serDeProperties = new SerDeProperties(properties, columnNames, columnTypes);
+        // configuration, catalog, path extractors and object inspectors are shared by the SerDes of the same table
+        final TablePlan plan = TablePlan.get(
+            getClass(),
+            properties,
+            columnNames,
+            columnTypes,
+            this::getObjectInspectorForTable);
+        serDeProperties = plan.getSerDeProperties();
+        ionFactory = plan.getIonFactory();
+        objectInspector = plan.getObjectInspector();
+
+        if (serDeProperties.getStreamingOutput()) {
+            checkStreamingOutputFormat(properties.getProperty(FILE_OUTPUT_FORMAT));
+        }
+
+        // only the columns read by the query are extracted, see ColumnProjectionUtils
+        pathExtractor = serDeProperties.rowPathExtractor(readProjectedColumnIds(conf));
 
-        ionFactory = new IonFactory(serDeProperties);
+        // values are decoded when accessed, unless malformed values have to be detected before returning the row
+        row = new IonRow(
+            ionFactory.getDomFactory(),
+            serDeProperties.pathExtractorCaseSensitivity(),
+            !serDeProperties.getIgnoreMalformed(),
+            columnTypes);
+        symbolTableContextCache = new SymbolTableContextCache(
+            ionFactory,
+            serDeProperties.getCatalog(),
+            SYMBOL_TABLE_CONTEXT_CACHE_SIZE);
 
-        objectInspector = getObjectInspectorForTable(serDeProperties);
         serializer = getTableSerializer(serDeProperties);
+        rowWritable = new IonRowWritable(serializer, ionFactory, serDeProperties);
     }
 
     @Override
     public final Class<? extends Writable> getSerializedClass() {
+        if (serDeProperties.getStreamingOutput()) {
+            return IonRowWritable.class;
+        }
+
         return serDeProperties.getEncoding() == IonEncoding.BINARY
             ? BytesWritable.class
             : Text.class;
@@ -83,13 +131,33 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
             throw new SerDeException("Can only serialize struct types, got: " + objectInspector.getTypeName());
         }
 
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        lastOperationSerialize = true;
+
+        final IonCounters counters = IonCounters.get();
+        final long startTime = counters.start(Counter.SERIALIZE_NANOS);
 
+        // rows are copied by IonOutputFormat to a writer shared by the whole file, a row that can't be serialized
+        // fails here before anything is written to it
+        if (serDeProperties.getStreamingOutput()) {
+            try {
+                rowWritable.set(data, objectInspector);
+            } catch (IOException | IllegalArgumentException e) {
+                throw new SerDeException(e);
+            }
+            counters.stop(Counter.SERIALIZE_NANOS, startTime);
+            serializedSize = rowWritable.getLength();
+
+            return rowWritable;
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
         try (final IonWriter writer = newWriter(out)) {
             serializer.serialize(writer, data, objectInspector);
         } catch (IOException | IllegalArgumentException e) {
             throw new SerDeException(e);
         }
+        counters.stop(Counter.SERIALIZE_NANOS, startTime);
+        serializedSize = out.size();
 
         return serDeProperties.getEncoding() == IonEncoding.BINARY
             ? new BytesWritable(out.toByteArray())
@@ -120,29 +188,28 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
                 + blob.getClass());
         }
 
-        final IonSystem domFactory = ionFactory.getDomFactory();
-        try (final IonReader reader = ionFactory.newReader(bytes, 0, length)) {
-
-            /*
-                We're using an IonStruct here because:
-                1. We need a key-value store to carry column values
-                2. The top-level IonStruct as a context object carries the IonSystem which we use as a ValueFactory in
-                   the callbacks created in PathExtractionConfig
-                Refer to https://github.com/amazon-ion/ion-hive-serde/issues/61.
-            */
-            IonStruct struct = domFactory.newEmptyStruct();
-            if (!serDeProperties.pathExtractorCaseSensitivity()) {
-                struct = new IonStructCaseInsensitiveDecorator(struct);
-            }
-            final PathExtractor<IonStruct> pathExtractor = serDeProperties.pathExtractor();
+        lastOperationSerialize = false;
+        // the symbol table context of binary records is shared by the records of the same block, only the value counts
+        deserializedSize = blob instanceof IonRecordWritable
+            ? length - ((IonRecordWritable) blob).getValueOffset()
+            : length;
 
-            pathExtractor.match(reader, struct);
+        // lazy rows decode most values when they are accessed, after the extraction is timed
+        final IonCounters counters = IonCounters.get();
+        final long startTime = counters.start(Counter.EXTRACT_NANOS);
+        try {
+            // the row is reused, the previous record is no longer used once the next one is read
+            final IonReader reader = newReader(blob, bytes, length);
+            row.start(reader);
+            pathExtractor.match(reader, row);
+            counters.stop(Counter.EXTRACT_NANOS, startTime);
 
-            return struct;
+            return row;
 
         } catch (IonException e) {
             // skips if ignoring malformed
             if (serDeProperties.getIgnoreMalformed()) {
+                counters.increment(Counter.MALFORMED_RECORDS_SKIPPED, 1);
                 return null;
             }
 
@@ -154,6 +221,9 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
 
     @Override
     public final SerDeStats getSerDeStats() {
+        // the raw data size is the one of the last row serialized or deserialized, operators add it up for every row
+        stats.setRawDataSize(lastOperationSerialize ? serializedSize : deserializedSize);
+
         return stats;
     }
 
@@ -162,12 +232,63 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
         return objectInspector;
     }
 
+    /**
+     * Returns the properties the SerDe was initialized with, shared by the SerDes of the same table.
+     *
+     * @return SerDe properties.
+     */
+    public final SerDeProperties getSerDeProperties() {
+        return serDeProperties;
+    }
+
+    /**
+     * Returns the factory configured for the table, shared by the SerDes of the same table.
+     *
+     * @return configured {@link IonFactory}.
+     */
+    public final IonFactory getIonFactory() {
+        return ionFactory;
+    }
+
+    private IonReader newReader(final Writable blob, final byte[] bytes, final int length) throws IOException {
+        // binary records from IonInputFormat carry their symbol table context, which is resolved once and reused
+        if (blob instanceof IonRecordWritable && ((IonRecordWritable) blob).getSymbolTableContext() != null) {
+            return symbolTableContextCache.newReader((IonRecordWritable) blob);
+        }
+
+        return ionFactory.newReader(bytes, 0, length);
+    }
+
     private IonWriter newWriter(final OutputStream out) {
         return serDeProperties.getEncoding() == IonEncoding.BINARY
             ? ionFactory.newBinaryWriter(out)
             : ionFactory.newTextWriter(out);
     }
 
+    /**
+     * Rows are only serialized by {@link IonOutputFormat} with streaming output, any other output format would fail on
+     * the first row.
+     */
+    private static void checkStreamingOutputFormat(final @Nullable String outputFormat) {
+        // not set when the SerDe is used outside a table, e.g. to deserialize query results
+        if (outputFormat == null) {
+            return;
+        }
+
+        boolean ionOutputFormat;
+        try {
+            ionOutputFormat = IonOutputFormat.class.isAssignableFrom(
+                Class.forName(outputFormat, false, JavaUtils.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            ionOutputFormat = false;
+        }
+
+        if (!ionOutputFormat) {
+            throw new IllegalArgumentException(
+                "ion.output.streaming requires " + IonOutputFormat.class.getName() + ", was: " + outputFormat);
+        }
+    }
+
     private List<String> readColumnNames(final Properties tbl) {
         final String columnNameProperty = tbl.getProperty(serdeConstants.LIST_COLUMNS);
 
@@ -178,6 +299,14 @@ public abstract class AbstractIonHiveSerDe extends AbstractSerDe {
         return Arrays.asList(columnNameProperty.split(","));
     }
 
+    private List<Integer> readProjectedColumnIds(final @Nullable Configuration conf) {
+        if (conf == null || ColumnProjectionUtils.isReadAllColumns(conf)) {
+            return null;
+        }
+
+        return ColumnProjectionUtils.getReadColumnIDs(conf);
+    }
+
     private List<TypeInfo> readColumnTypes(final Properties tbl) {
         final String columnTypeProperty = tbl.getProperty(serdeConstants.LIST_COLUMN_TYPES);
 
@@ -3,6 +3,7 @@
 
 package com.amazon.ionhiveserde;
 
+import com.amazon.ion.IonCatalog;
 import com.amazon.ion.IonReader;
 import com.amazon.ion.IonSystem;
 import com.amazon.ion.IonWriter;
@@ -16,16 +17,17 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 /**
- * Factory for Ion reader writer and DOM factory.
+ * Factory for Ion reader writer and DOM factory. Thread safe, the SerDes sharing a {@link TablePlan} share its factory.
  */
 public class IonFactory {
 
     private final BaseProperties properties;
 
-    private IonSystem domFactory;
-    private IonReaderBuilder readerBuilder;
-    private IonTextWriterBuilder textWriterBuilder;
-    private IonBinaryWriterBuilder binaryWriterBuilder;
+    // created on first use, racing threads may create them more than once
+    private volatile IonSystem domFactory;
+    private volatile IonReaderBuilder readerBuilder;
+    private volatile IonTextWriterBuilder textWriterBuilder;
+    private volatile IonBinaryWriterBuilder binaryWriterBuilder;
 
     public IonFactory(final BaseProperties properties) {
         this.properties = properties;
@@ -54,6 +56,16 @@ public class IonFactory {
         return readerBuilder;
     }
 
+    /**
+     * Returns a copy of the configured reader builder using another catalog.
+     *
+     * @param catalog catalog used by the readers instead of the configured one.
+     * @return configured {@link IonReaderBuilder}.
+     */
+    IonReaderBuilder newReaderBuilder(final IonCatalog catalog) {
+        return getReaderBuilder().copy().withCatalog(catalog);
+    }
+
     /**
      * Returns a configured IonReader.
      *
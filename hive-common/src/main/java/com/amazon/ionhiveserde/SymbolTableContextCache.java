@@ -0,0 +1,198 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde;
+
+import com.amazon.ion.IonCatalog;
+import com.amazon.ion.IonList;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonStruct;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.SymbolTable;
+import com.amazon.ion.system.IonBinaryWriterBuilder;
+import com.amazon.ion.system.IonReaderBuilder;
+import com.amazon.ion.system.SimpleCatalog;
+import com.amazon.ionhiveserde.formats.IonRecordWritable;
+import com.amazon.ionhiveserde.formats.SymbolTableContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolves the {@link SymbolTableContext} of records read by {@code IonInputFormat} only once instead of once per row.
+ *
+ * <p>A context seen more than once has its symbols flattened into a shared symbol table, registered in a catalog only
+ * used by this cache, and is replaced by a small prefix that imports that table. Readers are then created over the
+ * prefix followed by the value bytes, so the local symbol tables of the context are not parsed again. Contexts are kept
+ * in a small LRU. Not thread safe, each SerDe instance has its own cache.
+ */
+final class SymbolTableContextCache {
+
+    private static final String TABLE_NAME_PREFIX = "com.amazon.ionhiveserde.context.";
+    private static final int TABLE_VERSION = 1;
+    private static final byte NULL_VALUE = 0x0F;
+
+    private final IonFactory ionFactory;
+    private final SimpleCatalog contextCatalog;
+    private final IonReaderBuilder readerBuilder;
+    private final Map<SymbolTableContext, ResolvedContext> contexts;
+
+    private int tableCount;
+    private SymbolTableContext lastContext;
+    private ResolvedContext lastResolved;
+    private byte[] buffer = new byte[1024];
+
+    /**
+     * Constructor.
+     *
+     * @param ionFactory factory used to read the contexts and records.
+     * @param catalog catalog configured for the table, used for symbol table imports in the contexts.
+     * @param maxSize maximum number of contexts kept.
+     */
+    SymbolTableContextCache(final IonFactory ionFactory, final IonCatalog catalog, final int maxSize) {
+        this.ionFactory = ionFactory;
+        this.contextCatalog = new SimpleCatalog();
+        this.readerBuilder = ionFactory.newReaderBuilder(new ContextCatalog(contextCatalog, catalog));
+        this.contexts = new LinkedHashMap<SymbolTableContext, ResolvedContext>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<SymbolTableContext, ResolvedContext> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+
+                final String tableName = eldest.getValue().tableName;
+                if (tableName != null) {
+                    contextCatalog.removeTable(tableName, TABLE_VERSION);
+                }
+
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Creates a reader for a binary record that has a symbol table context.
+     *
+     * @param record record read by IonInputFormat.
+     * @return reader positioned before the record value, only valid until the next call.
+     * @throws IOException if the context can't be read.
+     */
+    IonReader newReader(final IonRecordWritable record) throws IOException {
+        final byte[] bytes = record.getBytes();
+        final int length = record.getLength();
+
+        final ResolvedContext resolved = resolve(record.getSymbolTableContext());
+        if (resolved.prefix == null) {
+            return ionFactory.newReader(bytes, 0, length);
+        }
+
+        final byte[] prefix = resolved.prefix;
+        final int valueOffset = record.getValueOffset();
+        final int valueLength = length - valueOffset;
+        final int totalLength = prefix.length + valueLength;
+        if (buffer.length < totalLength) {
+            buffer = new byte[Math.max(totalLength, buffer.length * 2)];
+        }
+
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+        System.arraycopy(bytes, valueOffset, buffer, prefix.length, valueLength);
+
+        return readerBuilder.build(buffer, 0, totalLength);
+    }
+
+    private ResolvedContext resolve(final SymbolTableContext context) throws IOException {
+        ResolvedContext resolved = context == lastContext ? lastResolved : contexts.get(context);
+
+        if (resolved == null) {
+            // contexts used by a single record are not worth resolving
+            resolved = new ResolvedContext();
+            contexts.put(context, resolved);
+        } else if (resolved.prefix == null) {
+            resolved.tableName = TABLE_NAME_PREFIX + tableCount++;
+            resolved.prefix = newPrefix(context, resolved.tableName);
+        }
+
+        lastContext = context;
+        lastResolved = resolved;
+
+        return resolved;
+    }
+
+    private byte[] newPrefix(final SymbolTableContext context, final String tableName) throws IOException {
+        final IonSystem system = ionFactory.getDomFactory();
+
+        // reads a null value after the context so the reader has processed all local symbol tables
+        final byte[] contextBytes = context.toByteArray();
+        final byte[] document = Arrays.copyOf(contextBytes, contextBytes.length + 1);
+        document[contextBytes.length] = NULL_VALUE;
+
+        final SymbolTable symbolTable;
+        try (IonReader reader = ionFactory.newReader(document, 0, document.length)) {
+            reader.next();
+            symbolTable = reader.getSymbolTable();
+        }
+
+        // unknown symbols are kept as gaps so symbol ids are preserved
+        final IonList symbols = system.newEmptyList();
+        for (int sid = symbolTable.getSystemSymbolTable().getMaxId() + 1; sid <= symbolTable.getMaxId(); sid++) {
+            final String text = symbolTable.findKnownSymbol(sid);
+            symbols.add(text == null ? system.newNull() : system.newString(text));
+        }
+
+        final IonStruct struct = system.newEmptyStruct();
+        struct.put("name").newString(tableName);
+        struct.put("version").newInt(TABLE_VERSION);
+        struct.put("symbols", symbols);
+
+        final SymbolTable sharedTable;
+        try (IonReader reader = system.newReader(struct)) {
+            sharedTable = system.newSharedSymbolTable(reader);
+        }
+        contextCatalog.putTable(sharedTable);
+
+        // the prefix is everything a writer importing the table outputs before the first value
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (IonWriter writer = IonBinaryWriterBuilder.standard().withImports(sharedTable).build(out)) {
+            writer.writeNull();
+        }
+        final byte[] written = out.toByteArray();
+
+        return Arrays.copyOf(written, written.length - 1);
+    }
+
+    private static final class ResolvedContext {
+        private String tableName;
+        private byte[] prefix;
+    }
+
+    /**
+     * Catalog with the context tables, falling back to the table configured catalog.
+     */
+    private static final class ContextCatalog implements IonCatalog {
+
+        private final IonCatalog contextCatalog;
+        private final IonCatalog catalog;
+
+        ContextCatalog(final IonCatalog contextCatalog, final IonCatalog catalog) {
+            this.contextCatalog = contextCatalog;
+            this.catalog = catalog;
+        }
+
+        @Override
+        public SymbolTable getTable(final String name) {
+            final SymbolTable table = contextCatalog.getTable(name);
+
+            return table == null ? catalog.getTable(name) : table;
+        }
+
+        @Override
+        public SymbolTable getTable(final String name, final int version) {
+            final SymbolTable table = contextCatalog.getTable(name, version);
+
+            return table == null ? catalog.getTable(name, version) : table;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde;
+
+import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Immutable part of a SerDe initialized for a table: the parsed {@link SerDeProperties}, with the catalog and path
+ * extractors, the {@link IonFactory} and the table object inspector.
+ *
+ * <p>Hive initializes a SerDe for every partition, often several times per task, and containers reused by Tez or LLAP
+ * run many tasks in the same JVM. Plans are shared by every SerDe initialized with the same Ion properties, column
+ * names and column types in the JVM, kept in a bounded LRU. A plan is rebuilt when its catalog source changed, the
+ * catalog is validated through the cache of {@code CatalogConfig} when a plan is reused, which only checks the source
+ * once per {@code ion.catalog.revalidate_seconds}. Per row state, like the serializer and the deserialized row, stays
+ * in the SerDe.
+ */
+final class TablePlan {
+
+    private static final String ION_PROPERTY_PREFIX = "ion.";
+    private static final int MAX_PLANS = 64;
+
+    private static final Map<List<Object>, TablePlan> PLANS = new LinkedHashMap<List<Object>, TablePlan>(
+        16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<List<Object>, TablePlan> eldest) {
+            return size() > MAX_PLANS;
+        }
+    };
+
+    private final SerDeProperties serDeProperties;
+    private final IonFactory ionFactory;
+    private final ObjectInspector objectInspector;
+
+    private TablePlan(final SerDeProperties serDeProperties,
+                      final IonFactory ionFactory,
+                      final ObjectInspector objectInspector) {
+        this.serDeProperties = serDeProperties;
+        this.ionFactory = ionFactory;
+        this.objectInspector = objectInspector;
+    }
+
+    /**
+     * Returns the plan for a table, building it if it's not cached.
+     *
+     * @param serDeClass class of the SerDe, object inspectors depend on the Hive version.
+     * @param properties table properties, only the Ion properties are part of the plan.
+     * @param columnNames table column names in the same order as types.
+     * @param columnTypes table column types in the same order as names.
+     * @param objectInspectorFactory creates the table object inspector.
+     * @return plan for the table.
+     */
+    static TablePlan get(final Class<?> serDeClass,
+                         final Properties properties,
+                         final List<String> columnNames,
+                         final List<TypeInfo> columnTypes,
+                         final Function<SerDeProperties, ObjectInspector> objectInspectorFactory) {
+        // partitions of the same table have different properties, like their location, that don't affect the plan
+        final SortedMap<String, String> ionProperties = new TreeMap<>();
+        for (final String name : properties.stringPropertyNames()) {
+            if (name.startsWith(ION_PROPERTY_PREFIX)) {
+                ionProperties.put(name, properties.getProperty(name));
+            }
+        }
+        final List<Object> key = Arrays.asList(serDeClass.getName(), ionProperties, columnNames, columnTypes);
+
+        final TablePlan cached;
+        synchronized (PLANS) {
+            cached = PLANS.get(key);
+        }
+
+        // the catalog source is checked at most once per revalidation interval, see CatalogConfig
+        if (cached != null && cached.serDeProperties.isCatalogCurrent()) {
+            return cached;
+        }
+
+        // built outside of the lock as loading a catalog can be slow, a plan built concurrently is discarded
+        final SerDeProperties serDeProperties = new SerDeProperties(properties, columnNames, columnTypes);
+        final TablePlan built = new TablePlan(
+            serDeProperties,
+            new IonFactory(serDeProperties),
+            objectInspectorFactory.apply(serDeProperties));
+
+        synchronized (PLANS) {
+            final TablePlan plan = PLANS.get(key);
+            if (plan != null && plan != cached) {
+                return plan;
+            }
+
+            PLANS.put(key, built);
+            return built;
+        }
+    }
+
+    /**
+     * Removes all cached plans.
+     */
+    static void clear() {
+        synchronized (PLANS) {
+            PLANS.clear();
+        }
+    }
+
+    SerDeProperties getSerDeProperties() {
+        return serDeProperties;
+    }
+
+    IonFactory getIonFactory() {
+        return ionFactory;
+    }
+
+    ObjectInspector getObjectInspector() {
+        return objectInspector;
+    }
+}
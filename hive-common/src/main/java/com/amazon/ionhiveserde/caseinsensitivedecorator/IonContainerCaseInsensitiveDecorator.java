@@ -15,13 +15,18 @@ import com.amazon.ion.UnknownSymbolException;
 import com.amazon.ion.ValueVisitor;
 import com.amazon.ion.system.IonTextWriterBuilder;
 
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.jetbrains.annotations.NotNull;
 
 class IonContainerCaseInsensitiveDecorator implements IonContainer {
     IonContainer ionContainer;
 
+    // decorators of the nested containers, created on first access and returned on the following ones
+    private Map<IonValue, IonValue> wrappedChildren;
+
     public IonContainerCaseInsensitiveDecorator(final IonContainer c) {
         this.ionContainer = c;
     }
@@ -39,6 +44,7 @@ class IonContainerCaseInsensitiveDecorator implements IonContainer {
 
     @Override
     public boolean remove(final IonValue element) {
+        childrenChanged();
         return ionContainer.remove(element);
     }
 
@@ -49,11 +55,13 @@ class IonContainerCaseInsensitiveDecorator implements IonContainer {
 
     @Override
     public void clear() {
+        childrenChanged();
         ionContainer.clear();
     }
 
     @Override
     public void makeNull() {
+        childrenChanged();
         ionContainer.makeNull();
     }
 
@@ -188,6 +196,31 @@ class IonContainerCaseInsensitiveDecorator implements IonContainer {
         return ionContainer.toString();
     }
 
+    /**
+     * Wraps a child of the container, a nested container is only wrapped once.
+     *
+     * @param child child value of the container.
+     * @return a case insensitive decorator wrapped child.
+     */
+    IonValue wrapChild(final IonValue child) {
+        if (!(child instanceof IonContainer)) {
+            return child;
+        }
+
+        if (wrappedChildren == null) {
+            wrappedChildren = new IdentityHashMap<>();
+        }
+
+        return wrappedChildren.computeIfAbsent(child, IonCaseInsensitiveDecorator::wrapValue);
+    }
+
+    /**
+     * Discards the state derived from the children of the container when they are modified.
+     */
+    void childrenChanged() {
+        wrappedChildren = null;
+    }
+
     public class IteratorCaseInsensitiveDecorator implements Iterator<IonValue> {
         Iterator<IonValue> iterator;
 
@@ -202,7 +235,7 @@ class IonContainerCaseInsensitiveDecorator implements IonContainer {
 
         @Override
         public IonValue next() {
-            return IonCaseInsensitiveDecorator.wrapValue(iterator.next());
+            return wrapChild(iterator.next());
         }
     }
 }
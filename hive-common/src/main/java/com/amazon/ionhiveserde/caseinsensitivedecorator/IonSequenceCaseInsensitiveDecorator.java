@@ -29,7 +29,7 @@ public class IonSequenceCaseInsensitiveDecorator extends IonContainerCaseInsensi
     @Override
     public IonValue get(final int index) throws NullValueException, IndexOutOfBoundsException {
         IonValue v = ionSequence.get(index);
-        return IonCaseInsensitiveDecorator.wrapValue(v);
+        return wrapChild(v);
     }
 
     @Override
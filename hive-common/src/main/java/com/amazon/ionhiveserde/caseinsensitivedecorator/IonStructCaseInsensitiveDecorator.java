@@ -9,11 +9,15 @@ import com.amazon.ion.IonValue;
 import com.amazon.ion.SymbolToken;
 import com.amazon.ion.UnknownSymbolException;
 import com.amazon.ion.ValueFactory;
+import java.util.HashMap;
 import java.util.Map;
 
 public class IonStructCaseInsensitiveDecorator extends IonContainerCaseInsensitiveDecorator implements IonStruct {
     private final IonStruct ionStruct;
 
+    // first field of each case folded name, built on the first lookup that doesn't match the case of a field name
+    private Map<String, IonValue> fieldsByFoldedName;
+
     public IonStructCaseInsensitiveDecorator(final IonStruct s) {
         super(s);
         this.ionStruct = s;
@@ -34,42 +38,45 @@ public class IonStructCaseInsensitiveDecorator extends IonContainerCaseInsensiti
         IonValue v = ionStruct.get(fieldName);
 
         if (v == null) {
-            String match = findCaseInsensitiveFieldMatch(fieldName);
-            if (match != null) {
-                return IonCaseInsensitiveDecorator.wrapValue(ionStruct.get(match));
-            }
+            v = findCaseInsensitiveFieldMatch(fieldName);
         }
 
-        return IonCaseInsensitiveDecorator.wrapValue(v);
+        return wrapChild(v);
     }
 
     @Override
     public void put(final String fieldName, final IonValue child) throws ContainedValueException {
+        childrenChanged();
         ionStruct.put(fieldName, child);
     }
 
     @Override
     public ValueFactory put(final String fieldName) {
+        childrenChanged();
         return ionStruct.put(fieldName);
     }
 
     @Override
     public void putAll(final Map<? extends String, ? extends IonValue> m) {
+        childrenChanged();
         ionStruct.putAll(m);
     }
 
     @Override
     public void add(final String fieldName, final IonValue child) throws ContainedValueException {
+        childrenChanged();
         ionStruct.add(fieldName, child);
     }
 
     @Override
     public void add(final SymbolToken fieldName, final IonValue child) throws ContainedValueException {
+        childrenChanged();
         ionStruct.add(fieldName, child);
     }
 
     @Override
     public ValueFactory add(final String fieldName) {
+        childrenChanged();
         return ionStruct.add(fieldName);
     }
 
@@ -81,16 +88,19 @@ public class IonStructCaseInsensitiveDecorator extends IonContainerCaseInsensiti
        Refer to https://github.com/amazon-ion/ion-hive-serde/issues/60.
      */
     public IonValue remove(final String fieldName) {
+        childrenChanged();
         return IonCaseInsensitiveDecorator.wrapValue(ionStruct.remove(fieldName));
     }
 
     @Override
     public boolean removeAll(final String... fieldNames) {
+        childrenChanged();
         return ionStruct.removeAll(fieldNames);
     }
 
     @Override
     public boolean retainAll(final String... fieldNames) {
+        childrenChanged();
         return ionStruct.retainAll(fieldNames);
     }
 
@@ -108,13 +118,38 @@ public class IonStructCaseInsensitiveDecorator extends IonContainerCaseInsensiti
         return new IonStructCaseInsensitiveDecorator(ionStruct.clone());
     }
 
-    private String findCaseInsensitiveFieldMatch(final String fieldName) {
-        for (IonValue v : ionStruct) {
-            if (fieldName.equalsIgnoreCase(v.getFieldName())) {
-                return v.getFieldName();
+    @Override
+    void childrenChanged() {
+        super.childrenChanged();
+        fieldsByFoldedName = null;
+    }
+
+    private IonValue findCaseInsensitiveFieldMatch(final String fieldName) {
+        if (fieldsByFoldedName == null) {
+            fieldsByFoldedName = new HashMap<>();
+            for (IonValue v : ionStruct) {
+                final String name = v.getFieldName();
+                if (name != null) {
+                    fieldsByFoldedName.putIfAbsent(foldCase(name), v);
+                }
             }
         }
-        return null;
+
+        return fieldsByFoldedName.get(foldCase(fieldName));
+    }
+
+    /**
+     * Folds the case of every char the same way {@link String#equalsIgnoreCase(String)} compares them, names equal
+     * ignoring case have the same folded name. {@link String#toLowerCase} maps some chars to more than one, so names
+     * equal ignoring case could be missed and others found.
+     */
+    private static String foldCase(final String name) {
+        final char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+
+        return new String(chars);
     }
 
     private boolean hasCaseInsensitiveFieldMatch(final Object fieldName) {
@@ -28,6 +28,14 @@ public abstract class BaseProperties {
         return catalogConfig.getCatalog();
     }
 
+    /**
+     * @see CatalogConfig#isCurrent()
+     * @return false if the catalog source changed since it was loaded.
+     */
+    public boolean isCatalogCurrent() {
+        return catalogConfig.isCurrent();
+    }
+
     /**
      * @see CatalogConfig#getSymbolTableImports()
      * @return configured catalog.
@@ -43,4 +51,12 @@ public abstract class BaseProperties {
     public boolean getIgnoreMalformed() {
         return ignoreMalformedConfig.getIgnoreMalformed();
     }
+
+    /**
+     * @see IgnoreMalformedConfig#getDeadLetterDirectory()
+     * @return directory for skipped malformed records, null if not set.
+     */
+    public String getDeadLetterDirectory() {
+        return ignoreMalformedConfig.getDeadLetterDirectory();
+    }
 }
@@ -0,0 +1,36 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+
+/**
+ * Encapsulates the configuration for splitting binary Ion files without a record offset index.
+ */
+class BinarySplitConfig {
+
+    private static final String SPLIT_UNINDEXED_KEY = "ion.binary.split_unindexed";
+    private static final String DEFAULT_SPLIT_UNINDEXED = "false";
+
+    private final boolean splitUnindexed;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    BinarySplitConfig(final RawConfiguration configuration) {
+        splitUnindexed = Boolean.valueOf(
+            configuration.getOrDefault(SPLIT_UNINDEXED_KEY, DEFAULT_SPLIT_UNINDEXED));
+    }
+
+    /**
+     * Returns if binary files without a record offset index are split, each split starting at the first bytes that
+     * look like an Ion version marker. Bytes inside a value, e.g. a blob holding binary Ion, can look like one, so this
+     * is only safe for files whose values never contain them.
+     */
+    boolean getSplitUnindexed() {
+        return splitUnindexed;
+    }
+}
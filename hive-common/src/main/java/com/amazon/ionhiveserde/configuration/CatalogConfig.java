@@ -15,20 +15,45 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
  * Encapsulates catalog related configuration.
+ *
+ * <p>Loaded catalogs are kept in a process wide LRU keyed by source, so SerDes and input formats initialized for every
+ * partition and task don't load the same catalog again. A cached catalog is reused without checking its source for
+ * {@code ion.catalog.revalidate_seconds}, then a cached file catalog is reused while the file modification time and
+ * size are unchanged, and a cached URL catalog while the server answers a conditional request with not modified, using
+ * its ETag or last modification time. Catalog classes are only instantiated once.
  */
 class CatalogConfig {
 
     private static final String CATALOG_PREFIX = "ion.catalog";
     private static final String IMPORTS_KEY = "ion.symbol_table_imports";
+    private static final String STAGED_KEY = "ion.catalog.staged";
+    private static final String DEFAULT_STAGED = "false";
+    private static final String REVALIDATE_SECONDS_KEY = "ion.catalog.revalidate_seconds";
+    private static final String DEFAULT_REVALIDATE_SECONDS = "60";
+    private static final int MAX_CACHED_CATALOGS = 16;
 
     private static final IonCatalog EMPTY_CATALOG = new SimpleCatalog();
 
+    private static final Map<String, CachedCatalog> CATALOGS = new LinkedHashMap<String, CachedCatalog>(
+        16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedCatalog> eldest) {
+            return size() > MAX_CACHED_CATALOGS;
+        }
+    };
+
     private static IonCatalog catalogFromReader(final IonReader reader) {
         final SimpleCatalog catalog = new SimpleCatalog();
         while (reader.next() != null) {
@@ -41,17 +66,60 @@ class CatalogConfig {
         return catalog;
     }
 
+    private static IonCatalog catalogFromStream(final InputStream input) throws IOException {
+        try (final IonReader reader = IonReaderBuilder.standard().build(input)) {
+            return catalogFromReader(reader);
+        }
+    }
+
+    /**
+     * Removes all cached catalogs.
+     */
+    static void clearCache() {
+        synchronized (CATALOGS) {
+            CATALOGS.clear();
+        }
+    }
+
+    /**
+     * Catalog loaded from a source with the validator of the loaded version, null if it can't be validated, and the
+     * time it was last validated against its source.
+     */
+    private static final class CachedCatalog {
+
+        private final IonCatalog catalog;
+        private final String validator;
+        private volatile long validatedNanos;
+
+        private CachedCatalog(final IonCatalog catalog, final String validator) {
+            this.catalog = catalog;
+            this.validator = validator;
+            validatedNanos = System.nanoTime();
+        }
+    }
+
     private interface CatalogLoader {
 
-        IonCatalog loadCatalog(final String source);
+        /**
+         * Loads a catalog unless the cached one is still valid.
+         *
+         * @param source catalog source.
+         * @param cached catalog cached for the source, null if none.
+         * @return cached catalog if still valid, otherwise the loaded one.
+         */
+        CachedCatalog loadCatalog(final String source, final CachedCatalog cached);
     }
 
     private static class ClassCatalogLoader implements CatalogLoader {
 
         @Override
-        public IonCatalog loadCatalog(final String source) {
+        public CachedCatalog loadCatalog(final String source, final CachedCatalog cached) {
+            if (cached != null) {
+                return cached;
+            }
+
             try {
-                return (IonCatalog) Class.forName(source).newInstance();
+                return new CachedCatalog((IonCatalog) Class.forName(source).newInstance(), null);
             } catch (InstantiationException | IllegalAccessException | ClassNotFoundException e) {
                 throw new IllegalArgumentException(e);
             }
@@ -61,12 +129,15 @@ class CatalogConfig {
     private static class FileCatalogLoader implements CatalogLoader {
 
         @Override
-        public IonCatalog loadCatalog(final String source) {
-            try (
-                final InputStream input = new FileInputStream(new File(source));
-                final IonReader reader = IonReaderBuilder.standard().build(input)
-            ) {
-                return catalogFromReader(reader);
+        public CachedCatalog loadCatalog(final String source, final CachedCatalog cached) {
+            final File file = new File(source);
+            final String validator = file.lastModified() + "/" + file.length();
+            if (cached != null && validator.equals(cached.validator)) {
+                return cached;
+            }
+
+            try (final InputStream input = new FileInputStream(file)) {
+                return new CachedCatalog(catalogFromStream(input), validator);
             } catch (IOException e) {
                 throw new IllegalArgumentException(e);
             }
@@ -75,17 +146,57 @@ class CatalogConfig {
 
     private static class UrlCatalogLoader implements CatalogLoader {
 
+        private static final String ETAG_PREFIX = "etag:";
+        private static final String MODIFIED_PREFIX = "modified:";
+
         @Override
-        public IonCatalog loadCatalog(final String source) {
-            try (
-                final InputStream input = new URL(source).openStream();
-                final IonReader reader = IonReaderBuilder.standard().build(input)
-            ) {
-                return catalogFromReader(reader);
+        public CachedCatalog loadCatalog(final String source, final CachedCatalog cached) {
+            try {
+                final URLConnection connection = new URL(source).openConnection();
+                if (cached != null && cached.validator != null) {
+                    if (cached.validator.startsWith(ETAG_PREFIX)) {
+                        connection.setRequestProperty(
+                            "If-None-Match",
+                            cached.validator.substring(ETAG_PREFIX.length()));
+                    } else {
+                        connection.setIfModifiedSince(
+                            Long.parseLong(cached.validator.substring(MODIFIED_PREFIX.length())));
+                    }
+                }
+
+                try (final InputStream input = connection.getInputStream()) {
+                    final String validator = validatorOf(connection);
+                    if (cached != null && isNotModified(connection, cached.validator, validator)) {
+                        return cached;
+                    }
+
+                    return new CachedCatalog(catalogFromStream(input), validator);
+                }
             } catch (IOException e) {
                 throw new IllegalArgumentException(e);
             }
         }
+
+        private static String validatorOf(final URLConnection connection) {
+            final String etag = connection.getHeaderField("ETag");
+            if (etag != null) {
+                return ETAG_PREFIX + etag;
+            }
+
+            final long lastModified = connection.getLastModified();
+            return lastModified == 0 ? null : MODIFIED_PREFIX + lastModified;
+        }
+
+        private static boolean isNotModified(final URLConnection connection,
+                                             final String cachedValidator,
+                                             final String validator) throws IOException {
+            if (connection instanceof HttpURLConnection) {
+                return ((HttpURLConnection) connection).getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED;
+            }
+
+            // other protocols, like file, don't support conditional requests
+            return cachedValidator != null && cachedValidator.equals(validator);
+        }
     }
 
     enum CatalogSource {
@@ -101,13 +212,66 @@ class CatalogConfig {
             this.propertyKey = propertyKey;
         }
 
-        public IonCatalog load(final RawConfiguration configuration) {
+        public IonCatalog load(final RawConfiguration configuration, final long revalidateNanos) {
             return configuration.get(propertyKey)
-                .map(catalogLoader::loadCatalog)
+                .map(source -> load(configuration, source, revalidateNanos))
                 .orElse(EMPTY_CATALOG);
         }
+
+        private IonCatalog load(final RawConfiguration configuration,
+                                final String source,
+                                final long revalidateNanos) {
+            // a catalog staged with ADD FILE is localized in the working directory of every task
+            if (this != CLASS && Boolean.parseBoolean(configuration.getOrDefault(STAGED_KEY, DEFAULT_STAGED))) {
+                final File stagedFile = new File(stagedFileName(source));
+                if (stagedFile.isFile()) {
+                    return FILE.loadCached(stagedFile.getAbsolutePath(), revalidateNanos);
+                }
+            }
+
+            return loadCached(source, revalidateNanos);
+        }
+
+        private IonCatalog loadCached(final String source, final long revalidateNanos) {
+            final String key = name() + ":" + source;
+
+            final CachedCatalog cached;
+            synchronized (CATALOGS) {
+                cached = CATALOGS.get(key);
+            }
+
+            // the source is only checked once per interval, a file stat or a request to the server each time
+            if (cached != null && System.nanoTime() - cached.validatedNanos < revalidateNanos) {
+                return cached.catalog;
+            }
+
+            // loaded outside of the lock, loading a catalog from a URL can be slow
+            final CachedCatalog loaded = catalogLoader.loadCatalog(source, cached);
+            if (loaded == cached) {
+                cached.validatedNanos = System.nanoTime();
+            } else {
+                synchronized (CATALOGS) {
+                    CATALOGS.put(key, loaded);
+                }
+            }
+
+            return loaded.catalog;
+        }
+
+        private static String stagedFileName(final String source) {
+            String path = source;
+
+            final int queryStart = path.indexOf('?');
+            if (queryStart >= 0) {
+                path = path.substring(0, queryStart);
+            }
+
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
     }
 
+    private final RawConfiguration configuration;
+    private final long revalidateNanos;
     private final IonCatalog catalog;
     private final SymbolTable[] symbolTableImports;
 
@@ -117,12 +281,17 @@ class CatalogConfig {
      * @param configuration raw configuration.
      */
     CatalogConfig(final RawConfiguration configuration) {
+        this.configuration = configuration;
 
-        catalog = Arrays.stream(CatalogSource.values())
-            .filter(s -> configuration.containsKey(s.propertyKey))
-            .findFirst()
-            .map(s -> s.load(configuration))
-            .orElse(EMPTY_CATALOG);
+        final long revalidateSeconds = Long.parseLong(
+            configuration.getOrDefault(REVALIDATE_SECONDS_KEY, DEFAULT_REVALIDATE_SECONDS));
+        if (revalidateSeconds < 0) {
+            throw new IllegalArgumentException(
+                REVALIDATE_SECONDS_KEY + " must not be negative, was: " + revalidateSeconds);
+        }
+        revalidateNanos = TimeUnit.SECONDS.toNanos(revalidateSeconds);
+
+        catalog = loadCatalog(configuration, revalidateNanos);
 
         final String[] importNames = configuration.get(IMPORTS_KEY)
             .map(s -> s.split(","))
@@ -133,6 +302,24 @@ class CatalogConfig {
             .toArray(SymbolTable[]::new);
     }
 
+    private static IonCatalog loadCatalog(final RawConfiguration configuration, final long revalidateNanos) {
+        return Arrays.stream(CatalogSource.values())
+            .filter(s -> configuration.containsKey(s.propertyKey))
+            .findFirst()
+            .map(s -> s.load(configuration, revalidateNanos))
+            .orElse(EMPTY_CATALOG);
+    }
+
+    /**
+     * Validates the catalog through the cache of loaded catalogs, which only checks the source again once the
+     * revalidation interval has passed since it was last checked.
+     *
+     * @return false if the source changed since the catalog was loaded.
+     */
+    boolean isCurrent() {
+        return loadCatalog(configuration, revalidateNanos) == catalog;
+    }
+
     /**
      * Returns the configured ion catalog.
      */
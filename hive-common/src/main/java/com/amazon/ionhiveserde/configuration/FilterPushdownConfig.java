@@ -0,0 +1,68 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+
+/**
+ * Encapsulates the filter pushdown configuration, used by the input format to drop records that can't match the
+ * query filter before they are handed to the SerDe.
+ */
+class FilterPushdownConfig {
+
+    private static final String FILTER_PUSHDOWN_KEY = "ion.filter_pushdown";
+    private static final String DEFAULT_FILTER_PUSHDOWN = "true";
+
+    private final RawConfiguration configuration;
+    private final boolean filterPushdown;
+    private final boolean caseSensitive;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    FilterPushdownConfig(final RawConfiguration configuration) {
+        this.configuration = configuration;
+
+        filterPushdown = Boolean.valueOf(configuration.getOrDefault(FILTER_PUSHDOWN_KEY, DEFAULT_FILTER_PUSHDOWN));
+        caseSensitive = Boolean.valueOf(configuration.getOrDefault(
+            PathExtractionConfig.CASE_SENSITIVITY_KEY,
+            PathExtractionConfig.DEFAULT_CASE_SENSITIVITY));
+    }
+
+    /**
+     * Returns if filters pushed down by Hive are evaluated by the input format.
+     */
+    boolean getFilterPushdown() {
+        return filterPushdown;
+    }
+
+    /**
+     * Returns if top-level field names are matched to column names case sensitive.
+     */
+    boolean getCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Returns if the column is extracted from the top-level field with the same name, i.e. it doesn't have a custom
+     * path extractor.
+     *
+     * @param columnName column name.
+     * @return true if the column uses the default path extractor.
+     */
+    boolean hasDefaultPathExtractor(final String columnName) {
+        final String defaultSearchPath = String.format(PathExtractionConfig.PATH_EXTRACTOR_DEFAULT_FORMAT, columnName);
+        final String searchPath = configuration.getOrDefault(
+            String.format(PathExtractionConfig.PATH_EXTRACTOR_KEY_FORMAT, columnName),
+            defaultSearchPath);
+
+        return removeWhitespace(searchPath).equals(removeWhitespace(defaultSearchPath));
+    }
+
+    private static String removeWhitespace(final String searchPath) {
+        return searchPath.replaceAll("\\s", "");
+    }
+}
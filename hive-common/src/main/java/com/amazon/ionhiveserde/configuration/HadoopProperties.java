@@ -4,12 +4,19 @@
 package com.amazon.ionhiveserde.configuration;
 
 import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+import java.util.Set;
 
 /**
  * Encapsulates Ion related Hadoop job properties.
  */
 public class HadoopProperties extends BaseProperties {
 
+    private final NewlineDelimitedConfig newlineDelimitedConfig;
+    private final BinarySplitConfig binarySplitConfig;
+    private final FilterPushdownConfig filterPushdownConfig;
+    private final OutputIndexConfig outputIndexConfig;
+    private final LayoutConfig layoutConfig;
+
     /**
      * Constructor.
      *
@@ -17,5 +24,100 @@ public class HadoopProperties extends BaseProperties {
      */
     public HadoopProperties(final RawConfiguration configuration) {
         super(configuration);
+
+        newlineDelimitedConfig = new NewlineDelimitedConfig(configuration);
+        binarySplitConfig = new BinarySplitConfig(configuration);
+        filterPushdownConfig = new FilterPushdownConfig(configuration);
+        outputIndexConfig = new OutputIndexConfig(configuration);
+        layoutConfig = new LayoutConfig(configuration);
+    }
+
+    /**
+     * @see NewlineDelimitedConfig#getNewlineDelimited()
+     * @return if Ion text files are newline delimited.
+     */
+    public boolean getNewlineDelimited() {
+        return newlineDelimitedConfig.getNewlineDelimited();
+    }
+
+    /**
+     * @see BinarySplitConfig#getSplitUnindexed()
+     * @return if binary files without a record offset index are split.
+     */
+    public boolean getSplitUnindexedBinary() {
+        return binarySplitConfig.getSplitUnindexed();
+    }
+
+    /**
+     * @see FilterPushdownConfig#getFilterPushdown()
+     * @return if pushed down filters are evaluated by the input format.
+     */
+    public boolean getFilterPushdown() {
+        return filterPushdownConfig.getFilterPushdown();
+    }
+
+    /**
+     * @see FilterPushdownConfig#getCaseSensitive()
+     * @return if field names are matched to column names case sensitive.
+     */
+    public boolean getPathExtractorCaseSensitivity() {
+        return filterPushdownConfig.getCaseSensitive();
+    }
+
+    /**
+     * @see FilterPushdownConfig#hasDefaultPathExtractor(String)
+     * @param columnName column name.
+     * @return if the column is extracted from the top-level field with the same name.
+     */
+    public boolean hasDefaultPathExtractor(final String columnName) {
+        return filterPushdownConfig.hasDefaultPathExtractor(columnName);
+    }
+
+    /**
+     * @see OutputIndexConfig#getIndexInterval()
+     * @return minimum number of records between index entries, zero if no index is written.
+     */
+    public int getOutputIndexInterval() {
+        return outputIndexConfig.getIndexInterval();
+    }
+
+    /**
+     * @see OutputIndexConfig#getZoneMaps()
+     * @return if zone maps are written to the index.
+     */
+    public boolean getOutputZoneMaps() {
+        return outputIndexConfig.getZoneMaps();
+    }
+
+    /**
+     * @see OutputIndexConfig#getBloomFilterColumns()
+     * @return the columns with a Bloom filter.
+     */
+    public Set<String> getOutputBloomFilterColumns() {
+        return outputIndexConfig.getBloomFilterColumns();
+    }
+
+    /**
+     * @see OutputIndexConfig#getBloomFilterFpp()
+     * @return the false positive probability of the Bloom filters.
+     */
+    public double getOutputBloomFilterFpp() {
+        return outputIndexConfig.getBloomFilterFpp();
+    }
+
+    /**
+     * @see LayoutConfig#getLayout()
+     * @return layout of the rows in output files.
+     */
+    public IonLayout getLayout() {
+        return layoutConfig.getLayout();
+    }
+
+    /**
+     * @see LayoutConfig#getRowGroupRows()
+     * @return number of rows in each row group.
+     */
+    public int getRowGroupRows() {
+        return layoutConfig.getRowGroupRows();
     }
 }
@@ -12,8 +12,10 @@ class IgnoreMalformedConfig {
 
     private static final String IGNORE_MALFORMED_KEY = "ion.ignore_malformed";
     private static final String DEFAULT_IGNORE_MALFORMED = "false";
+    private static final String DEAD_LETTER_DIRECTORY_KEY = "ion.ignore_malformed.dead_letter_dir";
 
     private final boolean ignoreMalformed;
+    private final String deadLetterDirectory;
 
     /**
      * Constructor.
@@ -23,6 +25,7 @@ class IgnoreMalformedConfig {
     IgnoreMalformedConfig(final RawConfiguration configuration) {
         ignoreMalformed = Boolean.valueOf(
             configuration.getOrDefault(IGNORE_MALFORMED_KEY, DEFAULT_IGNORE_MALFORMED));
+        deadLetterDirectory = configuration.get(DEAD_LETTER_DIRECTORY_KEY).orElse(null);
     }
 
     /**
@@ -31,4 +34,13 @@ class IgnoreMalformedConfig {
     boolean getIgnoreMalformed() {
         return ignoreMalformed;
     }
+
+    /**
+     * Returns the directory where the raw bytes of skipped malformed records are written.
+     *
+     * @return directory, null if skipped records aren't written.
+     */
+    String getDeadLetterDirectory() {
+        return deadLetterDirectory;
+    }
 }
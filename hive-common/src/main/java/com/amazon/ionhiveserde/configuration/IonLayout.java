@@ -0,0 +1,20 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+/**
+ * Possible layouts of the rows in output files.
+ */
+public enum IonLayout {
+    /**
+     * Each row is a top-level Ion struct.
+     */
+    ROWS,
+
+    /**
+     * Blocks of rows are written as a directory followed by a binary Ion list per top-level field, so readers only
+     * read the columns projected by the query.
+     */
+    ROW_GROUPS
+}
@@ -0,0 +1,49 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+import java.util.Locale;
+
+/**
+ * Encapsulates the configuration of the layout of output files.
+ */
+class LayoutConfig {
+
+    private static final String LAYOUT_KEY = "ion.layout";
+    private static final String DEFAULT_LAYOUT = IonLayout.ROWS.name();
+    private static final String ROW_GROUP_ROWS_KEY = "ion.layout.row_group_rows";
+    private static final String DEFAULT_ROW_GROUP_ROWS = "10000";
+
+    private final IonLayout layout;
+    private final int rowGroupRows;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    LayoutConfig(final RawConfiguration configuration) {
+        layout = IonLayout.valueOf(configuration.getOrDefault(LAYOUT_KEY, DEFAULT_LAYOUT).toUpperCase(Locale.ROOT));
+        rowGroupRows = Integer.parseInt(configuration.getOrDefault(ROW_GROUP_ROWS_KEY, DEFAULT_ROW_GROUP_ROWS));
+
+        if (rowGroupRows <= 0) {
+            throw new IllegalArgumentException(ROW_GROUP_ROWS_KEY + " must be positive, was: " + rowGroupRows);
+        }
+    }
+
+    /**
+     * {@link IonLayout} of the rows in output files.
+     */
+    IonLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Number of rows in each row group.
+     */
+    int getRowGroupRows() {
+        return rowGroupRows;
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+
+/**
+ * Encapsulates the newline delimited Ion text configuration.
+ */
+class NewlineDelimitedConfig {
+
+    private static final String NEWLINE_DELIMITED_KEY = "ion.text.newline_delimited";
+    private static final String DEFAULT_NEWLINE_DELIMITED = "false";
+
+    private final boolean newlineDelimited;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    NewlineDelimitedConfig(final RawConfiguration configuration) {
+        newlineDelimited = Boolean.valueOf(
+            configuration.getOrDefault(NEWLINE_DELIMITED_KEY, DEFAULT_NEWLINE_DELIMITED));
+    }
+
+    /**
+     * Returns if Ion text files have a single top-level value per line, which allows them to be split on newlines.
+     */
+    boolean getNewlineDelimited() {
+        return newlineDelimited;
+    }
+}
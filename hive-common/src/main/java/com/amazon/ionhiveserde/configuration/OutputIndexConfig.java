@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Encapsulates the configuration of the index appended to output files, with record offsets, zone maps and Bloom
+ * filters.
+ */
+class OutputIndexConfig {
+
+    private static final String INDEX_INTERVAL_KEY = "ion.output.index_interval";
+    private static final String DEFAULT_INDEX_INTERVAL = "0";
+    private static final String ZONE_MAPS_KEY = "ion.output.zone_maps";
+    private static final String DEFAULT_ZONE_MAPS = "false";
+    private static final String BLOOM_FILTER_COLUMNS_KEY = "ion.output.bloom_filter_columns";
+    private static final String BLOOM_FILTER_FPP_KEY = "ion.output.bloom_filter_fpp";
+    private static final String DEFAULT_BLOOM_FILTER_FPP = "0.05";
+
+    private final int indexInterval;
+    private final boolean zoneMaps;
+    private final Set<String> bloomFilterColumns;
+    private final double bloomFilterFpp;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    OutputIndexConfig(final RawConfiguration configuration) {
+        indexInterval = Integer.parseInt(configuration.getOrDefault(INDEX_INTERVAL_KEY, DEFAULT_INDEX_INTERVAL));
+
+        if (indexInterval < 0) {
+            throw new IllegalArgumentException(INDEX_INTERVAL_KEY + " must not be negative, was: " + indexInterval);
+        }
+
+        zoneMaps = Boolean.valueOf(configuration.getOrDefault(ZONE_MAPS_KEY, DEFAULT_ZONE_MAPS));
+
+        bloomFilterColumns = configuration.get(BLOOM_FILTER_COLUMNS_KEY)
+            .map(s -> Arrays.stream(s.split(","))
+                .map(String::trim)
+                .filter(column -> !column.isEmpty())
+                .map(column -> column.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet()))
+            .orElse(Collections.emptySet());
+
+        bloomFilterFpp = Double.parseDouble(configuration.getOrDefault(BLOOM_FILTER_FPP_KEY, DEFAULT_BLOOM_FILTER_FPP));
+        if (!(bloomFilterFpp > 0 && bloomFilterFpp < 1)) {
+            throw new IllegalArgumentException(
+                BLOOM_FILTER_FPP_KEY + " must be between 0 and 1 exclusive, was: " + bloomFilterFpp);
+        }
+    }
+
+    /**
+     * Minimum number of records between two entries of the index, zero if no index is written.
+     */
+    int getIndexInterval() {
+        return indexInterval;
+    }
+
+    /**
+     * Returns if the index holds the min, max and null count of the top-level fields of the file and of each block of
+     * records between two entries.
+     */
+    boolean getZoneMaps() {
+        return zoneMaps;
+    }
+
+    /**
+     * Returns the lower case names of the columns whose values are added to a Bloom filter in each zone map.
+     */
+    Set<String> getBloomFilterColumns() {
+        return bloomFilterColumns;
+    }
+
+    /**
+     * Returns the false positive probability the Bloom filters are sized for.
+     */
+    double getBloomFilterFpp() {
+        return bloomFilterFpp;
+    }
+}
@@ -7,26 +7,36 @@ import com.amazon.ion.IonReader;
 import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonValue;
 import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+import com.amazon.ionhiveserde.objectinspectors.IonRow;
 import com.amazon.ionpathextraction.PathExtractor;
 import com.amazon.ionpathextraction.PathExtractorBuilder;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 
 /**
  * Encapsulates the path_extractor configuration.
  */
 class PathExtractionConfig {
 
-    private static final String PATH_EXTRACTOR_KEY_FORMAT = "ion.%s.path_extractor";
-    private static final String PATH_EXTRACTOR_DEFAULT_FORMAT = "( %s )";
-    private static final String CASE_SENSITIVITY_KEY = "ion.path_extractor.case_sensitive";
+    static final String PATH_EXTRACTOR_KEY_FORMAT = "ion.%s.path_extractor";
+    static final String PATH_EXTRACTOR_DEFAULT_FORMAT = "( %s )";
+    static final String CASE_SENSITIVITY_KEY = "ion.path_extractor.case_sensitive";
+    static final String DEFAULT_CASE_SENSITIVITY = "false";
+    private static final int MAX_ROW_PATH_EXTRACTORS = 16;
 
+    private final List<String> columnNames;
+    private final List<String> searchPathExpressions;
     private final PathExtractor<IonStruct> pathExtractor;
     private final Boolean caseSensitivity;
+    private final Map<List<Integer>, PathExtractor<IonRow>> rowPathExtractorByProjection;
 
     /**
      * Constructor.
@@ -35,27 +45,39 @@ class PathExtractionConfig {
      * @param columnNames table column names.
      */
     PathExtractionConfig(final RawConfiguration configuration, final List<String> columnNames) {
-        final Map<String, String> searchPathByColumnName = new HashMap<>();
+        this.columnNames = columnNames;
+        searchPathExpressions = new ArrayList<>(columnNames.size());
         for (final String columnName : columnNames) {
             final String searchPathExpression = configuration.getOrDefault(
                 String.format(PATH_EXTRACTOR_KEY_FORMAT, columnName),
                 String.format(PATH_EXTRACTOR_DEFAULT_FORMAT, columnName));
 
-            searchPathByColumnName.put(columnName, searchPathExpression);
+            searchPathExpressions.add(searchPathExpression);
         }
 
-        final boolean caseSensitivity = Boolean.parseBoolean(configuration.getOrDefault(CASE_SENSITIVITY_KEY, "false"));
-        this.caseSensitivity = caseSensitivity;
-        // Note: Serde property specifies case sensitivity, but path extractor APIs accept case insensitivity
-        final PathExtractorBuilder<IonStruct> builder = PathExtractorBuilder.<IonStruct>standard()
-                .withMatchRelativePaths(false)
-                .withMatchCaseInsensitive(!caseSensitivity);
+        caseSensitivity = Boolean.parseBoolean(
+            configuration.getOrDefault(CASE_SENSITIVITY_KEY, DEFAULT_CASE_SENSITIVITY));
+        // the config is shared by every SerDe of the table in the JVM, queries with many projections must not grow it
+        rowPathExtractorByProjection = new LinkedHashMap<List<Integer>, PathExtractor<IonRow>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<List<Integer>, PathExtractor<IonRow>> eldest) {
+                return size() > MAX_ROW_PATH_EXTRACTORS;
+            }
+        };
 
-        for (final Entry<String, String> entry : searchPathByColumnName.entrySet()) {
-            final String columnName = entry.getKey();
-            final String searchPathExpression = entry.getValue();
+        final List<Integer> allColumns = new ArrayList<>(columnNames.size());
+        for (int i = 0; i < columnNames.size(); i++) {
+            allColumns.add(i);
+        }
+        pathExtractor = buildPathExtractor(allColumns);
+    }
 
-            final BiFunction<IonReader, IonStruct, Integer> callback = (ionReader, struct) -> {
+    private PathExtractor<IonStruct> buildPathExtractor(final Collection<Integer> columnIds) {
+        return newPathExtractor(columnIds, columnId -> {
+            final String columnName = columnNames.get(columnId);
+
+            return (ionReader, struct) -> {
                 final IonValue ionValue = struct.getSystem().newValue(ionReader);
 
                 // Hive can't handle IonNull, and we will filter all IonNull later in object inspectors
@@ -63,11 +85,30 @@ class PathExtractionConfig {
 
                 return 0;
             };
+        });
+    }
+
+    /**
+     * Creates a path extractor with the configured search paths for the columns, and a callback per column, for
+     * readers that don't accumulate the matched values in an {@link IonStruct}.
+     *
+     * @param columnIds ids of the columns to match.
+     * @param callbackForColumn creates the callback invoked when the search path of a column matches.
+     * @param <T> type of the context passed to the callbacks.
+     * @return PathExtractor configured for matching the columns.
+     */
+    <T> PathExtractor<T> newPathExtractor(final Collection<Integer> columnIds,
+                                          final IntFunction<BiFunction<IonReader, T, Integer>> callbackForColumn) {
+        // Note: Serde property specifies case sensitivity, but path extractor APIs accept case insensitivity
+        final PathExtractorBuilder<T> builder = PathExtractorBuilder.<T>standard()
+                .withMatchRelativePaths(false)
+                .withMatchCaseInsensitive(!caseSensitivity);
 
-            builder.withSearchPath(searchPathExpression, callback);
+        for (final int columnId : columnIds) {
+            builder.withSearchPath(searchPathExpressions.get(columnId), callbackForColumn.apply(columnId));
         }
 
-        pathExtractor = builder.build();
+        return builder.build();
     }
 
     /**
@@ -79,6 +120,53 @@ class PathExtractionConfig {
         return pathExtractor;
     }
 
+    /**
+     * Returns a path extractor that sets the matched values in an {@link IonRow}, with the callback of each column
+     * bound to its column id. Only the projected columns are matched, so columns not read by a query are never
+     * materialized. Path extractors of the most recently used projections are cached.
+     *
+     * @param projectedColumnIds ids of the columns read by the query, null to read all columns.
+     * @return PathExtractor configured for matching the projected columns.
+     */
+    PathExtractor<IonRow> rowPathExtractor(final List<Integer> projectedColumnIds) {
+        final SortedSet<Integer> columnIds = new TreeSet<>();
+        if (projectedColumnIds == null) {
+            for (int i = 0; i < columnNames.size(); i++) {
+                columnIds.add(i);
+            }
+        } else {
+            for (final Integer columnId : projectedColumnIds) {
+                if (columnId >= 0 && columnId < columnNames.size()) {
+                    columnIds.add(columnId);
+                }
+            }
+        }
+
+        final List<Integer> key = new ArrayList<>(columnIds);
+        synchronized (rowPathExtractorByProjection) {
+            final PathExtractor<IonRow> cached = rowPathExtractorByProjection.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // built outside of the lock, a path extractor built concurrently for the same projection is replaced
+        final PathExtractor<IonRow> built = buildRowPathExtractor(key);
+        synchronized (rowPathExtractorByProjection) {
+            rowPathExtractorByProjection.put(key, built);
+        }
+
+        return built;
+    }
+
+    private PathExtractor<IonRow> buildRowPathExtractor(final Collection<Integer> columnIds) {
+        return newPathExtractor(columnIds, columnId -> (ionReader, row) -> {
+            row.match(columnId, ionReader);
+
+            return 0;
+        });
+    }
+
     /**
      * Returns a boolean that indicates if the pathExtractor is configured case sensitive.
 
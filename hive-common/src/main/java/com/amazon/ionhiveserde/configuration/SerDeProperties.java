@@ -3,14 +3,19 @@
 
 package com.amazon.ionhiveserde.configuration;
 
+import com.amazon.ion.IonReader;
 import com.amazon.ion.IonStruct;
 import com.amazon.ion.IonType;
 import com.amazon.ionhiveserde.AbstractIonHiveSerDe;
 import com.amazon.ionhiveserde.configuration.source.JavaPropertiesAdapter;
 import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+import com.amazon.ionhiveserde.objectinspectors.IonRow;
 import com.amazon.ionpathextraction.PathExtractor;
+import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
@@ -24,6 +29,7 @@ public class SerDeProperties extends BaseProperties {
     private final PathExtractionConfig pathExtractionConfig;
     private final SerializeAsConfig serializeAsConfig;
     private final SerializeNullConfig serializeNullConfig;
+    private final StreamingOutputConfig streamingOutputConfig;
     private final TimestampOffsetConfig timestampOffsetConfig;
     private final List<String> columnNames;
     private final List<TypeInfo> columnTypes;
@@ -52,6 +58,7 @@ public class SerDeProperties extends BaseProperties {
         pathExtractionConfig = new PathExtractionConfig(configuration, columnNames);
         serializeAsConfig = new SerializeAsConfig(configuration, columnTypes);
         serializeNullConfig = new SerializeNullConfig(configuration);
+        streamingOutputConfig = new StreamingOutputConfig(configuration);
         timestampOffsetConfig = new TimestampOffsetConfig(configuration);
         this.columnNames = columnNames;
         this.columnTypes = columnTypes;
@@ -90,6 +97,21 @@ public class SerDeProperties extends BaseProperties {
         return serializeNullConfig.getSerializeNull();
     }
 
+    /**
+     * @see StreamingOutputConfig#getStreaming()
+     * @return true if rows are written by a single writer per file.
+     */
+    public boolean getStreamingOutput() {
+        return streamingOutputConfig.getStreaming();
+    }
+
+    /**
+     * @see StreamingOutputConfig#getBlockRows()
+     * @return number of rows per block when streaming.
+     */
+    public int getOutputBlockRows() {
+        return streamingOutputConfig.getBlockRows();
+    }
 
     /**
      * @see FailOnOverflowConfig#failOnOverflowFor(String)
@@ -117,6 +139,29 @@ public class SerDeProperties extends BaseProperties {
         return pathExtractionConfig.pathExtractor();
     }
 
+    /**
+     * @see PathExtractionConfig#rowPathExtractor(List)
+     * @param projectedColumnIds ids of the columns read by the query, null to read all columns.
+     * @return {@link PathExtractor} that only matches the projected columns into an {@link IonRow}
+     */
+    public PathExtractor<IonRow> rowPathExtractor(final List<Integer> projectedColumnIds) {
+        return pathExtractionConfig.rowPathExtractor(projectedColumnIds);
+    }
+
+    /**
+     * @see PathExtractionConfig#newPathExtractor(Collection, IntFunction)
+     * @param columnIds ids of the columns to match.
+     * @param callbackForColumn creates the callback invoked when the search path of a column matches.
+     * @param <T> type of the context passed to the callbacks.
+     * @return {@link PathExtractor} with the configured search paths for the columns
+     */
+    public <T> PathExtractor<T> newPathExtractor(
+        final Collection<Integer> columnIds,
+        final IntFunction<BiFunction<IonReader, T, Integer>> callbackForColumn) {
+
+        return pathExtractionConfig.newPathExtractor(columnIds, callbackForColumn);
+    }
+
     /**
      * @return Boolean that indicates if the path extractor is configured case sensitive
      */
@@ -0,0 +1,50 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.configuration;
+
+import com.amazon.ionhiveserde.configuration.source.RawConfiguration;
+
+/**
+ * Encapsulates the streaming output configuration.
+ */
+class StreamingOutputConfig {
+
+    private static final String STREAMING_KEY = "ion.output.streaming";
+    private static final String DEFAULT_STREAMING = "false";
+    private static final String BLOCK_ROWS_KEY = "ion.output.block_rows";
+    private static final String DEFAULT_BLOCK_ROWS = "10000";
+
+    private final boolean streaming;
+    private final int blockRows;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration raw configuration.
+     */
+    StreamingOutputConfig(final RawConfiguration configuration) {
+        streaming = Boolean.valueOf(configuration.getOrDefault(STREAMING_KEY, DEFAULT_STREAMING));
+        blockRows = Integer.parseInt(configuration.getOrDefault(BLOCK_ROWS_KEY, DEFAULT_BLOCK_ROWS));
+
+        if (blockRows <= 0) {
+            throw new IllegalArgumentException(BLOCK_ROWS_KEY + " must be positive, was: " + blockRows);
+        }
+    }
+
+    /**
+     * Returns if rows are written by a single writer per file instead of being serialized by the SerDe as standalone
+     * Ion documents.
+     */
+    boolean getStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Number of rows written before the streaming writer is finished, starting a new Ion version marker and symbol
+     * table.
+     */
+    int getBlockRows() {
+        return blockRows;
+    }
+}
@@ -0,0 +1,478 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Frames the top-level values of a binary Ion stream without decoding them, which allows a file to be read starting
+ * from an arbitrary offset.
+ *
+ * <p>A split owns every top-level value that follows an Ion version marker (IVM) starting inside the split, up to the
+ * next IVM. Splits not starting at the beginning of the file scan forward to their first IVM, which resets the symbol
+ * table context so nothing before it is needed. The scan can't tell an IVM from the same bytes inside a value, so
+ * {@link IonRecordReader} only starts and ends splits at indexed IVMs, see {@link IonIndex}, unless splitting unindexed
+ * files is enabled. Local symbol tables can't be reliably recognized from raw bytes so they
+ * are never used as synchronization points, only tracked to build the context. Each record is handed over as the
+ * current {@link SymbolTableContext}, the IVM followed by the active local symbol tables, plus the raw bytes of the
+ * value.
+ *
+ * <p>After a malformed value the reader can {@link #resync()} to the next IVM of the split, the same way a split finds
+ * its first one.
+ */
+final class BinaryIonSplitReader implements Closeable {
+
+    private static final byte[] IVM = {(byte) 0xE0, 0x01, 0x00, (byte) 0xEA};
+    private static final int IVM_AS_INT = 0xE00100EA;
+
+    private static final int TYPE_NULL = 0x0;
+    private static final int TYPE_BOOL = 0x1;
+    private static final int TYPE_SYMBOL = 0x7;
+    private static final int TYPE_STRUCT = 0xD;
+    private static final int TYPE_ANNOTATION = 0xE;
+    private static final int LENGTH_VAR_UINT = 0xE;
+    private static final int LENGTH_NULL = 0xF;
+    private static final int LENGTH_SORTED_STRUCT = 0x1;
+
+    private static final int ION_SYMBOL_TABLE_SID = 3;
+    private static final int IMPORTS_SID = 6;
+
+    private static final int NOT_SYMBOL_TABLE = 0;
+    private static final int SYMBOL_TABLE_RESET = 1;
+    private static final int SYMBOL_TABLE_APPEND = 2;
+
+    // descriptor byte plus the largest VarUInt that fits an int
+    private static final int MAX_HEADER_LENGTH = 6;
+
+    private final InputStream in;
+    private final long start;
+    private final long end;
+
+    private final byte[] header = new byte[MAX_HEADER_LENGTH];
+    private byte[] scratch = new byte[1024];
+    private byte[] context = new byte[1024];
+    private int contextLength;
+    private SymbolTableContext symbolTableContext;
+    private boolean contextChanged;
+
+    private long position;
+    private long valueStart;
+    private int cursor;
+    private boolean synced;
+    private boolean finished;
+
+    /**
+     * Creates a split reader.
+     *
+     * @param in binary Ion stream positioned at the split start.
+     * @param start split start in the file.
+     * @param end split end in the file, exclusive.
+     */
+    BinaryIonSplitReader(final InputStream in, final long start, final long end) {
+        this.in = in;
+        this.start = start;
+        this.end = end;
+        this.position = start;
+
+        resetContext();
+    }
+
+    /**
+     * Current position in the file.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Position in the file of the last value read, or being read when it failed.
+     */
+    long getValueStart() {
+        return valueStart;
+    }
+
+    /**
+     * Reads the next top-level value owned by this split into value as a self-contained binary Ion document.
+     *
+     * @param value writable to be set with the symbol table context and value bytes.
+     * @return true if a value was read, false if the split has no more values.
+     * @throws IonException if the stream is not valid binary Ion.
+     */
+    boolean next(final IonRecordWritable value) throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        if (!synced) {
+            synced = true;
+            if (start != 0 && !seekToVersionMarker()) {
+                finished = true;
+                return false;
+            }
+        }
+
+        while (true) {
+            valueStart = position;
+            final int descriptor = in.read();
+            if (descriptor == -1) {
+                finished = true;
+                return false;
+            }
+            position++;
+            header[0] = (byte) descriptor;
+
+            if (descriptor == (IVM[0] & 0xFF)) {
+                readVersionMarker();
+
+                // IVMs are the synchronization points, an IVM past the end belongs to the next split
+                if (valueStart >= end) {
+                    finished = true;
+                    return false;
+                }
+
+                resetContext();
+                continue;
+            }
+
+            final int type = descriptor >>> 4;
+            final int lengthCode = descriptor & 0x0F;
+            final int headerLength;
+            final int bodyLength;
+            if (type == TYPE_BOOL || lengthCode == LENGTH_NULL) {
+                headerLength = 1;
+                bodyLength = 0;
+            } else if (lengthCode == LENGTH_VAR_UINT || (type == TYPE_STRUCT && lengthCode == LENGTH_SORTED_STRUCT)) {
+                headerLength = readVarUIntHeader();
+                bodyLength = decodeVarUInt(header, 1);
+            } else {
+                headerLength = 1;
+                bodyLength = lengthCode;
+            }
+
+            if (type == TYPE_NULL && lengthCode != LENGTH_NULL) {
+                // NOP padding
+                skipFully(bodyLength);
+                continue;
+            }
+
+            if (type == TYPE_ANNOTATION) {
+                final int totalLength = headerLength + bodyLength;
+                scratch = ensureCapacity(scratch, totalLength);
+                System.arraycopy(header, 0, scratch, 0, headerLength);
+                readFully(scratch, headerLength, bodyLength);
+
+                final int symbolTable = symbolTableKind(scratch, headerLength, totalLength);
+                if (symbolTable == SYMBOL_TABLE_APPEND) {
+                    appendToContext(scratch, totalLength);
+                    continue;
+                } else if (symbolTable == SYMBOL_TABLE_RESET) {
+                    resetContext();
+                    appendToContext(scratch, totalLength);
+                    continue;
+                }
+
+                final byte[] bytes = value.prepare(currentContext(), totalLength);
+                System.arraycopy(scratch, 0, bytes, contextLength, totalLength);
+                return true;
+            }
+
+            final byte[] bytes = value.prepare(currentContext(), headerLength + bodyLength);
+            System.arraycopy(header, 0, bytes, contextLength, headerLength);
+            readFully(bytes, contextLength + headerLength, bodyLength);
+            return true;
+        }
+    }
+
+    /**
+     * Skips the rest of a malformed value up to the next IVM that starts inside the split, which resets the symbol
+     * table context. Bytes of a value that happen to look like an IVM are taken as one, which is detected as long as
+     * the following bytes aren't valid Ion.
+     *
+     * @return true if the reader can read the values after the IVM, false if the split has no more IVMs.
+     */
+    boolean resync() throws IOException {
+        if (finished) {
+            return false;
+        }
+
+        synced = true;
+        if (!seekToVersionMarker()) {
+            finished = true;
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Skips forward to a position where an IVM starts, used to skip the blocks of values that can't match a filter.
+     *
+     * @param offset position of the IVM.
+     */
+    void skipTo(final long offset) throws IOException {
+        while (position < offset) {
+            final long count = in.skip(offset - position);
+            if (count > 0) {
+                position += count;
+            } else if (in.read() == -1) {
+                finished = true;
+                return;
+            } else {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Reads the next bytes as they are, past the split end if needed, used to read the columns of a row group that
+     * follow its directory, see {@link RowGroupReader}.
+     *
+     * @throws IonException if the stream ends before length bytes.
+     */
+    void readRaw(final byte[] bytes, final int length) throws IOException {
+        readFully(bytes, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Scans forward looking for the first IVM that starts inside the split.
+     */
+    private boolean seekToVersionMarker() throws IOException {
+        int window = 0;
+        while (position + 1 - IVM.length < end) {
+            final int b = in.read();
+            if (b == -1) {
+                return false;
+            }
+            position++;
+
+            window = (window << 8) | b;
+            if (window == IVM_AS_INT) {
+                resetContext();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void readVersionMarker() throws IOException {
+        for (int i = 1; i < IVM.length; i++) {
+            final int b = in.read();
+            if (b == -1) {
+                throw new IonException("Unexpected end of stream reading Ion version marker");
+            }
+            position++;
+
+            if ((byte) b != IVM[i]) {
+                throw new IonException("Unsupported Ion version marker");
+            }
+        }
+    }
+
+    private void resetContext() {
+        System.arraycopy(IVM, 0, context, 0, IVM.length);
+        contextLength = IVM.length;
+        contextChanged = true;
+    }
+
+    private void appendToContext(final byte[] bytes, final int length) {
+        context = ensureCapacity(context, contextLength + length);
+        System.arraycopy(bytes, 0, context, contextLength, length);
+        contextLength += length;
+        contextChanged = true;
+    }
+
+    /**
+     * Returns the context for the next record. Writers usually repeat the same symbol tables, for example every row
+     * written by a SerDe as a standalone document, so an unchanged context keeps the same instance.
+     */
+    private SymbolTableContext currentContext() {
+        if (contextChanged) {
+            contextChanged = false;
+
+            if (symbolTableContext == null || !symbolTableContext.contentEquals(context, contextLength)) {
+                symbolTableContext = new SymbolTableContext(context, contextLength);
+            }
+        }
+
+        return symbolTableContext;
+    }
+
+    /**
+     * Reads a VarUInt length from the stream into the header buffer.
+     *
+     * @return total header length, including the type descriptor.
+     */
+    private int readVarUIntHeader() throws IOException {
+        int i = 1;
+        while (true) {
+            if (i == MAX_HEADER_LENGTH) {
+                throw new IonException("Binary Ion value length is too large");
+            }
+
+            final int b = in.read();
+            if (b == -1) {
+                throw new IonException("Unexpected end of stream reading binary Ion value length");
+            }
+            position++;
+            header[i++] = (byte) b;
+
+            if ((b & 0x80) != 0) {
+                return i;
+            }
+        }
+    }
+
+    private void readFully(final byte[] bytes, final int offset, final int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            final int count = in.read(bytes, offset + read, length - read);
+            if (count == -1) {
+                throw new IonException("Unexpected end of stream reading binary Ion value");
+            }
+            read += count;
+            position += count;
+        }
+    }
+
+    private void skipFully(final int length) throws IOException {
+        int skipped = 0;
+        while (skipped < length) {
+            final long count = in.skip(length - skipped);
+            if (count <= 0) {
+                if (in.read() == -1) {
+                    throw new IonException("Unexpected end of stream skipping binary Ion padding");
+                }
+                skipped++;
+                position++;
+            } else {
+                skipped += count;
+                position += count;
+            }
+        }
+    }
+
+    private static byte[] ensureCapacity(final byte[] bytes, final int capacity) {
+        if (bytes.length >= capacity) {
+            return bytes;
+        }
+
+        return Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+
+    /**
+     * Checks if an annotation wrapper is a local symbol table, that is a struct annotated with $ion_symbol_table, and
+     * if it appends to the current symbol table, that is it has imports: $ion_symbol_table.
+     */
+    private int symbolTableKind(final byte[] bytes, final int offset, final int limit) {
+        cursor = offset;
+        final int annotationsLength = decodeVarUIntAtCursor(bytes, limit);
+        final int annotationsEnd = cursor + annotationsLength;
+        if (decodeVarUIntAtCursor(bytes, limit) != ION_SYMBOL_TABLE_SID) {
+            return NOT_SYMBOL_TABLE;
+        }
+
+        cursor = annotationsEnd;
+        checkBounds(limit);
+        final int descriptor = bytes[cursor++] & 0xFF;
+        final int lengthCode = descriptor & 0x0F;
+        if (descriptor >>> 4 != TYPE_STRUCT) {
+            return NOT_SYMBOL_TABLE;
+        }
+        if (lengthCode == LENGTH_NULL) {
+            return SYMBOL_TABLE_RESET;
+        }
+
+        final int structLength = lengthCode == LENGTH_VAR_UINT || lengthCode == LENGTH_SORTED_STRUCT
+            ? decodeVarUIntAtCursor(bytes, limit)
+            : lengthCode;
+        final int structEnd = cursor + structLength;
+
+        while (cursor < structEnd) {
+            final int fieldSid = decodeVarUIntAtCursor(bytes, limit);
+            final int fieldStart = cursor;
+            final int fieldEnd = skipValueAtCursor(bytes, limit);
+
+            // imports: $ion_symbol_table is encoded as symbol with a single byte representation
+            if (fieldSid == IMPORTS_SID
+                && fieldEnd - fieldStart == 2
+                && bytes[fieldStart] == (byte) ((TYPE_SYMBOL << 4) | 1)
+                && bytes[fieldStart + 1] == ION_SYMBOL_TABLE_SID) {
+                return SYMBOL_TABLE_APPEND;
+            }
+        }
+
+        return SYMBOL_TABLE_RESET;
+    }
+
+    private int skipValueAtCursor(final byte[] bytes, final int limit) {
+        checkBounds(limit);
+        final int descriptor = bytes[cursor++] & 0xFF;
+        final int type = descriptor >>> 4;
+        final int lengthCode = descriptor & 0x0F;
+
+        final int length;
+        if (type == TYPE_BOOL || lengthCode == LENGTH_NULL) {
+            length = 0;
+        } else if (lengthCode == LENGTH_VAR_UINT || (type == TYPE_STRUCT && lengthCode == LENGTH_SORTED_STRUCT)) {
+            length = decodeVarUIntAtCursor(bytes, limit);
+        } else {
+            length = lengthCode;
+        }
+
+        cursor += length;
+        if (cursor > limit) {
+            throw new IonException("Binary Ion value overflows its container");
+        }
+
+        return cursor;
+    }
+
+    private int decodeVarUIntAtCursor(final byte[] bytes, final int limit) {
+        long result = 0;
+        while (true) {
+            checkBounds(limit);
+            final int b = bytes[cursor++] & 0xFF;
+            result = (result << 7) | (b & 0x7F);
+            if (result > Integer.MAX_VALUE) {
+                throw new IonException("Binary Ion VarUInt is too large");
+            }
+
+            if ((b & 0x80) != 0) {
+                return (int) result;
+            }
+        }
+    }
+
+    private void checkBounds(final int limit) {
+        if (cursor >= limit) {
+            throw new IonException("Binary Ion value overflows its container");
+        }
+    }
+
+    private static int decodeVarUInt(final byte[] bytes, final int offset) {
+        long result = 0;
+        int i = offset;
+        while (true) {
+            final int b = bytes[i++] & 0xFF;
+            result = (result << 7) | (b & 0x7F);
+
+            if ((b & 0x80) != 0) {
+                if (result > Integer.MAX_VALUE) {
+                    throw new IonException("Binary Ion value length is too large");
+                }
+                return (int) result;
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bloom filter of the values of a field in a {@link ZoneMap}, used to skip the ranges of records that can't hold the
+ * constant of an equality or {@code IN} predicate. Values are hashed in the representation used by
+ * {@link FilterPredicate}, a {@link Long}, {@link Double} or {@link String}, and the bit positions are derived from
+ * the two halves of a 64 bit hash.
+ *
+ * <p>Filters are sized when built from the distinct hashes of a range of records, see {@link Hashes}, so they are
+ * only as large as needed for the false positive probability.
+ */
+final class BloomFilter {
+
+    private static final String HASH_FUNCTIONS_FIELD = "hash_functions";
+    private static final String BITS_FIELD = "bits";
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long DOUBLE_SEED = 0x9e3779b97f4a7c15L;
+
+    // bit positions are ints
+    private static final int MAX_WORDS = Integer.MAX_VALUE / Long.SIZE;
+
+    private final long[] bits;
+    private final int hashFunctions;
+
+    BloomFilter(final long[] bits, final int hashFunctions) {
+        if (bits.length == 0 || hashFunctions < 1) {
+            throw new IllegalArgumentException(
+                "Bloom filter has " + bits.length + " words and " + hashFunctions + " hash functions");
+        }
+
+        this.bits = bits;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Builds the smallest filter holding the hashes with the false positive probability.
+     */
+    static BloomFilter of(final Hashes hashes, final double fpp) {
+        final long[] values = hashes.distinct();
+        final int count = Math.max(values.length, 1);
+
+        final double optimalBits = -count * Math.log(fpp) / (Math.log(2) * Math.log(2));
+        final int words = (int) Math.max(1, Math.min(MAX_WORDS, Math.ceil(optimalBits / Long.SIZE)));
+        final int hashFunctions = (int) Math.max(1, Math.round(-Math.log(fpp) / Math.log(2)));
+
+        final BloomFilter filter = new BloomFilter(new long[words], hashFunctions);
+        for (final long value : values) {
+            filter.add(value);
+        }
+
+        return filter;
+    }
+
+    /**
+     * Hash of a value in the representation used by {@link FilterPredicate}.
+     */
+    static long hash(final Object value) {
+        if (value instanceof String) {
+            final String text = (String) value;
+            long hash = FNV_OFFSET_BASIS;
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+            }
+
+            return mix(hash);
+        }
+        if (value instanceof Double) {
+            // 0.0 and -0.0 are equal
+            final double number = (Double) value;
+            return mix(Double.doubleToLongBits(number == 0.0 ? 0.0 : number) ^ DOUBLE_SEED);
+        }
+
+        return mix((Long) value);
+    }
+
+    // finalizer of SplitMix64, spreads every input bit over the whole hash
+    private static long mix(final long value) {
+        long hash = value;
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+
+        return hash ^ (hash >>> 31);
+    }
+
+    private void add(final long hash) {
+        final long bitCount = (long) bits.length * Long.SIZE;
+        final int hash1 = (int) hash;
+        final int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            final long bit = position(hash1, hash2, i, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks if the filter may hold a value.
+     *
+     * @param value value in the representation used by {@link FilterPredicate}.
+     * @return false if the value was never added, true otherwise.
+     */
+    boolean mightContain(final Object value) {
+        if (!(value instanceof Long || value instanceof Double || value instanceof String)
+            || (value instanceof Double && Double.isNaN((Double) value))) {
+            return true;
+        }
+
+        final long hash = hash(value);
+        final long bitCount = (long) bits.length * Long.SIZE;
+        final int hash1 = (int) hash;
+        final int hash2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            final long bit = position(hash1, hash2, i, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long position(final int hash1, final int hash2, final int i, final long bitCount) {
+        int combined = hash1 + i * hash2;
+        if (combined < 0) {
+            combined = ~combined;
+        }
+
+        return combined % bitCount;
+    }
+
+    /**
+     * Writes the filter as an Ion struct:
+     * <pre>
+     * { hash_functions: 3, bits: {{ ... }} }
+     * </pre>
+     */
+    void writeTo(final IonWriter writer) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES);
+        buffer.asLongBuffer().put(bits);
+
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName(HASH_FUNCTIONS_FIELD);
+        writer.writeInt(hashFunctions);
+        writer.setFieldName(BITS_FIELD);
+        writer.writeBlob(buffer.array());
+        writer.stepOut();
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(IonWriter)}, the reader must be positioned on the struct.
+     *
+     * @return the filter, or null if it's invalid.
+     */
+    static BloomFilter readFrom(final IonReader reader) {
+        int hashFunctions = 0;
+        long[] bits = null;
+
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case HASH_FUNCTIONS_FIELD:
+                    hashFunctions = reader.intValue();
+                    break;
+                case BITS_FIELD:
+                    final byte[] bytes = reader.newBytes();
+                    bits = new long[bytes.length / Long.BYTES];
+                    ByteBuffer.wrap(bytes).asLongBuffer().get(bits);
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+
+        return bits == null || bits.length == 0 || hashFunctions < 1 ? null : new BloomFilter(bits, hashFunctions);
+    }
+
+    /**
+     * Hashes of the values added to a range of records, deduplicated when the buffer is full so repeated values don't
+     * grow it. Only {@link #MAX_DISTINCT} distinct hashes are kept, a range with more values gets no filter, which
+     * bounds the memory used for a file without blocks.
+     */
+    static final class Hashes {
+
+        // a filter for more values would be megabytes large, and read with the index of every split of the file
+        static final int MAX_DISTINCT = 1 << 20;
+
+        private long[] values = new long[64];
+        private int size;
+
+        /**
+         * Adds a hash.
+         *
+         * @return false if there are more than {@link #MAX_DISTINCT} distinct hashes, which must then be dropped.
+         */
+        boolean add(final long hash) {
+            if (size == values.length) {
+                compact();
+                if (size > MAX_DISTINCT) {
+                    return false;
+                }
+                if (size > values.length / 2) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            values[size++] = hash;
+
+            return true;
+        }
+
+        /**
+         * Adds the hashes of another range.
+         *
+         * @return false if there are more than {@link #MAX_DISTINCT} distinct hashes, see {@link #add(long)}.
+         */
+        boolean addAll(final Hashes other) {
+            for (int i = 0; i < other.size; i++) {
+                if (!add(other.values[i])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        long[] distinct() {
+            compact();
+
+            return Arrays.copyOf(values, size);
+        }
+
+        private void compact() {
+            Arrays.sort(values, 0, size);
+
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || values[i] != values[distinct - 1]) {
+                    values[distinct++] = values[i];
+                }
+            }
+            size = distinct;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import com.amazon.ionhiveserde.configuration.source.HadoopConfigurationAdapter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
+import org.apache.hadoop.mapred.FileInputFormat;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapred.lib.CombineFileInputFormat;
+import org.apache.hadoop.mapred.lib.CombineFileSplit;
+
+/**
+ * Hadoop input format for tables of many small Ion files, text or binary. Files, and the parts of the large ones, are
+ * packed into splits of up to {@code mapreduce.input.fileinputformat.split.maxsize} bytes by Hadoop's
+ * {@link CombineFileInputFormat}, preferring parts on the same node and then on the same rack, so a task reads many
+ * files instead of one. Files of different input directories, i.e. Hive partitions, are never in the same split.
+ *
+ * <p>Each file is read by the same record readers as {@link IonInputFormat}, which share the task's
+ * {@link IonFactory} and pushed down filter. Uncompressed files that are larger than a part are read to tell binary
+ * from text: text that isn't newline delimited, and binary without a record offset index unless
+ * {@code ion.binary.split_unindexed} is set, are kept whole. Smaller files are never opened.
+ *
+ * <p>Splits handed over by Hive's {@code CombineHiveInputFormat}, which combines the files of any input format, are
+ * read as a single file.
+ */
+public class CombineIonInputFormat extends CombineFileInputFormat<LongWritable, BytesWritable> {
+
+    private static final Log LOG = LogFactory.getLog(CombineIonInputFormat.class);
+
+    // used when the job doesn't limit the size of the splits, one split per node otherwise
+    private static final long DEFAULT_MAX_SPLIT_SIZE = 256L * 1024 * 1024;
+
+    // Hive shares input format instances between queries, the state of a getSplits call is kept in its thread
+    private final ThreadLocal<SplitContext> splitContext = new ThreadLocal<>();
+
+    /**
+     * Job of a getSplits call and the statuses of the files it listed, so isSplitable doesn't open the files that fit
+     * in a part.
+     */
+    private static final class SplitContext {
+
+        private final HadoopProperties properties;
+        private final IonFactory ionFactory;
+        private final CompressionCodecFactory compressionCodecs;
+        private final long maxSplitSize;
+        private final Map<Path, FileStatus> files = new HashMap<>();
+
+        SplitContext(final JobConf job) {
+            properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+            ionFactory = new IonFactory(properties);
+            compressionCodecs = new CompressionCodecFactory(job);
+
+            final long jobMaxSplitSize = job.getLong(
+                org.apache.hadoop.mapreduce.lib.input.FileInputFormat.SPLIT_MAXSIZE, 0);
+            maxSplitSize = jobMaxSplitSize == 0 ? DEFAULT_MAX_SPLIT_SIZE : jobMaxSplitSize;
+        }
+
+        // files are split in parts at block boundaries and every maxSplitSize bytes
+        boolean fitsInPart(final FileStatus status) {
+            return status.getLen() <= status.getBlockSize() && status.getLen() <= maxSplitSize;
+        }
+    }
+
+    @Override
+    protected FileStatus[] listStatus(final JobConf job) throws IOException {
+        final FileStatus[] files = super.listStatus(job);
+
+        final SplitContext context = splitContext.get();
+        if (context != null) {
+            for (final FileStatus file : files) {
+                context.files.put(file.getPath(), file);
+            }
+        }
+
+        return files;
+    }
+
+    @Override
+    protected boolean isSplitable(final FileSystem fs, final Path file) {
+        final SplitContext context = splitContext.get();
+        if (context == null) {
+            return false;
+        }
+
+        final CompressionCodec codec = context.compressionCodecs.getCodec(file);
+        final boolean newlineDelimited = context.properties.getNewlineDelimited();
+        if (codec != null && (!newlineDelimited || !(codec instanceof SplittableCompressionCodec))) {
+            return false;
+        }
+
+        // only uncompressed files split in several parts are read to tell binary from text
+        final FileStatus status = context.files.get(file);
+        if (codec == null && (newlineDelimited || (status != null && context.fitsInPart(status)))) {
+            return true;
+        }
+
+        try {
+            if (!IonInputFormat.isBinary(fs, file, codec)) {
+                return newlineDelimited;
+            }
+            if (codec != null) {
+                return false;
+            }
+
+            // binary files are only split at indexed version markers, see IonRecordReader
+            if (context.properties.getSplitUnindexedBinary()) {
+                return true;
+            }
+            final long length = status != null ? status.getLen() : fs.getFileStatus(file).getLen();
+            final IonIndex index = IonIndex.read(fs, file, length, context.ionFactory);
+            return index != null && index.getOffsets().length > 0;
+        } catch (IOException e) {
+            LOG.warn("Unable to check if " + file + " can be split, reading it as a single split", e);
+            return false;
+        }
+    }
+
+    @Override
+    public InputSplit[] getSplits(final JobConf job, final int numSplits) throws IOException {
+        final Path[] directories = FileInputFormat.getInputPaths(job);
+        final List<InputSplit> splits = new ArrayList<>();
+
+        final SplitContext context = new SplitContext(job);
+        splitContext.set(context);
+        try {
+            for (final Path directory : directories) {
+                final JobConf directoryJob = new JobConf(job);
+                FileInputFormat.setInputPaths(directoryJob, directory);
+                directoryJob.setLong(
+                    org.apache.hadoop.mapreduce.lib.input.FileInputFormat.SPLIT_MAXSIZE, context.maxSplitSize);
+
+                for (final InputSplit split : super.getSplits(directoryJob, numSplits)) {
+                    splits.add(new CombineIonSplit((CombineFileSplit) split));
+                }
+            }
+        } finally {
+            splitContext.remove();
+        }
+
+        LOG.info("Combined the files of " + directories.length + " directories into "
+            + splits.size() + " splits");
+
+        return splits.toArray(new InputSplit[0]);
+    }
+
+    @Override
+    public RecordReader<LongWritable, BytesWritable> getRecordReader(final InputSplit split,
+                                                                     final JobConf job,
+                                                                     final Reporter reporter) throws IOException {
+        final CombineIonSplit combineSplit;
+        if (split instanceof CombineIonSplit) {
+            combineSplit = (CombineIonSplit) split;
+        } else {
+            final FileSplit fileSplit = (FileSplit) split;
+            combineSplit = new CombineIonSplit(
+                new Path[] {fileSplit.getPath()},
+                new long[] {fileSplit.getStart()},
+                new long[] {fileSplit.getLength()},
+                fileSplit.getLocations());
+        }
+
+        return new CombineIonRecordReader(combineSplit, job, reporter);
+    }
+}
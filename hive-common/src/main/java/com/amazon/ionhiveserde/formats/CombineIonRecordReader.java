@@ -0,0 +1,139 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import com.amazon.ionhiveserde.configuration.source.HadoopConfigurationAdapter;
+import java.io.IOException;
+import org.apache.hadoop.hive.ql.io.IOContextMap;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Reads the file parts of a {@link CombineIonSplit} one after the other with the record readers of
+ * {@link IonInputFormat}. The {@link IonFactory}, the compression codecs and the pushed down filter are created once
+ * for the split instead of once per file. Lines of newline delimited text files are handed over as
+ * {@link BytesWritable} like every other record, the SerDe reads both the same way.
+ *
+ * <p>Like Hive's {@code CombineHiveRecordReader}, the Hive IO context is pointed at the file of each part when it's
+ * opened and the position is the one in that file, so the {@code INPUT__FILE__NAME} and
+ * {@code BLOCK__OFFSET__INSIDE__FILE} virtual columns are those of the file a record was read from.
+ */
+final class CombineIonRecordReader implements RecordReader<LongWritable, BytesWritable> {
+
+    private final CombineIonSplit split;
+    private final JobConf job;
+    private final Reporter reporter;
+    private final HadoopProperties properties;
+    private final IonFactory ionFactory;
+    private final CompressionCodecFactory compressionCodecs;
+    private final RecordFilter filter;
+
+    private int part = -1;
+    private RecordReader reader;
+    private Text line;
+    private long partsRead;
+    private long position;
+
+    CombineIonRecordReader(final CombineIonSplit split, final JobConf job, final Reporter reporter) {
+        this.split = split;
+        this.job = job;
+        this.reporter = reporter;
+        properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+        ionFactory = new IonFactory(properties);
+        compressionCodecs = new CompressionCodecFactory(job);
+        filter = RecordFilter.fromJob(job, properties, ionFactory);
+    }
+
+    @Override
+    public boolean next(final LongWritable key, final BytesWritable value) throws IOException {
+        while (true) {
+            if (reader == null && !nextPart()) {
+                return false;
+            }
+
+            if (nextRecord(key, value)) {
+                return true;
+            }
+
+            partsRead += split.getPartLength(part);
+            position = reader.getPos();
+            reader.close();
+            reader = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean nextRecord(final LongWritable key, final BytesWritable value) throws IOException {
+        if (line == null) {
+            return reader.next(key, value);
+        }
+
+        if (!reader.next(key, line)) {
+            return false;
+        }
+        value.set(line.getBytes(), 0, line.getLength());
+
+        return true;
+    }
+
+    private boolean nextPart() throws IOException {
+        if (++part == split.getNumParts()) {
+            return false;
+        }
+
+        final FileSplit fileSplit = split.getPart(part);
+        reporter.setStatus(fileSplit.toString());
+        // Hive sets the context once for the split, with the file of its first part
+        IOContextMap.get(job).setInputPath(fileSplit.getPath());
+
+        reader = IonInputFormat.newRecordReader(
+            fileSplit, job, compressionCodecs, properties, ionFactory, filter, reporter);
+        line = reader instanceof IonTextLineRecordReader ? ((IonTextLineRecordReader) reader).createValue() : null;
+
+        return true;
+    }
+
+    @Override
+    public LongWritable createKey() {
+        return new LongWritable();
+    }
+
+    @Override
+    public BytesWritable createValue() {
+        return new IonRecordWritable();
+    }
+
+    // position in the file being read, which Hive reports as BLOCK__OFFSET__INSIDE__FILE
+    @Override
+    public long getPos() throws IOException {
+        return reader == null ? position : reader.getPos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+        if (part >= split.getNumParts()) {
+            return 1.0F;
+        }
+
+        final long length = split.getLength();
+        final float partRead = reader == null ? 0.0F : reader.getProgress() * split.getPartLength(part);
+        return length == 0 ? 0.0F : Math.min(1.0F, (partsRead + partRead) / length);
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.lib.CombineFileSplit;
+
+/**
+ * Split of {@link CombineIonInputFormat} made of parts of many files, all in the same directory. It's a
+ * {@link FileSplit} of its first file with the length of all its parts, as Hive looks up the partition of a split by
+ * its path.
+ */
+public class CombineIonSplit extends FileSplit {
+
+    private Path[] paths;
+    private long[] starts;
+    private long[] lengths;
+
+    /**
+     * Constructor used when deserializing the split.
+     */
+    public CombineIonSplit() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param split parts of the files combined by Hadoop.
+     */
+    CombineIonSplit(final CombineFileSplit split) throws IOException {
+        this(split.getPaths(), split.getStartOffsets(), split.getLengths(), split.getLocations());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param paths file of each part.
+     * @param starts start of each part in its file.
+     * @param lengths length of each part.
+     * @param hosts hosts holding most of the data.
+     */
+    CombineIonSplit(final Path[] paths, final long[] starts, final long[] lengths, final String[] hosts) {
+        super(paths[0], starts[0], sum(lengths), hosts);
+        this.paths = paths;
+        this.starts = starts;
+        this.lengths = lengths;
+    }
+
+    private static long sum(final long[] lengths) {
+        long sum = 0;
+        for (final long length : lengths) {
+            sum += length;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Number of file parts in the split.
+     */
+    int getNumParts() {
+        return paths.length;
+    }
+
+    /**
+     * Split of the i-th file part.
+     */
+    FileSplit getPart(final int i) throws IOException {
+        return new FileSplit(paths[i], starts[i], lengths[i], getLocations());
+    }
+
+    /**
+     * Length of the i-th file part.
+     */
+    long getPartLength(final int i) {
+        return lengths[i];
+    }
+
+    @Override
+    public void write(final DataOutput out) throws IOException {
+        super.write(out);
+
+        out.writeInt(paths.length);
+        for (int i = 0; i < paths.length; i++) {
+            Text.writeString(out, paths[i].toString());
+            out.writeLong(starts[i]);
+            out.writeLong(lengths[i]);
+        }
+    }
+
+    @Override
+    public void readFields(final DataInput in) throws IOException {
+        super.readFields(in);
+
+        final int parts = in.readInt();
+        paths = new Path[parts];
+        starts = new long[parts];
+        lengths = new long[parts];
+        for (int i = 0; i < parts; i++) {
+            paths[i] = new Path(Text.readString(in));
+            starts[i] = in.readLong();
+            lengths[i] = in.readLong();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < paths.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(paths[i]).append(':').append(starts[i]).append('+').append(lengths[i]);
+        }
+
+        return builder.toString();
+    }
+}
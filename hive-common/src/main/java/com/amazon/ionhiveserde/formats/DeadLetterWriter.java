@@ -0,0 +1,113 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * Writes the raw bytes of the malformed records skipped by {@link IonRecordReader} to the dead letter directory, see
+ * {@link HadoopProperties#getDeadLetterDirectory()}. Each split writes its own Ion text file, created on the first
+ * skipped record, holding one struct per record with the file, the start and end offsets of the skipped bytes, the
+ * error and the bytes as a blob. Offsets of compressed files are in the decompressed stream.
+ *
+ * <p>The bytes of a skipped record are kept by the record reader while reading, see {@link RetainingInputStream}, and
+ * only the first {@value #MAX_BYTES} bytes of a record are written.
+ */
+final class DeadLetterWriter implements Closeable {
+
+    static final int MAX_BYTES = 1024 * 1024;
+
+    // set by MapReduce, other engines fall back to a random name
+    private static final String TASK_ATTEMPT_ID_KEY = "mapreduce.task.attempt.id";
+
+    private final JobConf job;
+    private final Path file;
+    private final Path deadLetterFile;
+    private final IonFactory ionFactory;
+
+    private OutputStream out;
+    private IonWriter writer;
+
+    private DeadLetterWriter(final JobConf job,
+                             final Path file,
+                             final Path deadLetterFile,
+                             final IonFactory ionFactory) {
+        this.job = job;
+        this.file = file;
+        this.deadLetterFile = deadLetterFile;
+        this.ionFactory = ionFactory;
+    }
+
+    /**
+     * Creates the dead letter writer of a split if a dead letter directory is configured.
+     *
+     * @param job job configuration.
+     * @param properties Ion job properties.
+     * @param ionFactory factory for the dead letter writer.
+     * @param file file being read.
+     * @param splitStart start of the split.
+     * @return dead letter writer, or null if skipped records aren't written.
+     */
+    static DeadLetterWriter fromJob(final JobConf job,
+                                    final HadoopProperties properties,
+                                    final IonFactory ionFactory,
+                                    final Path file,
+                                    final long splitStart) {
+        final String directory = properties.getDeadLetterDirectory();
+        if (directory == null) {
+            return null;
+        }
+
+        final String taskAttemptId = job.get(TASK_ATTEMPT_ID_KEY, UUID.randomUUID().toString());
+        final String name = String.format("%s-%s-%d.ion", taskAttemptId, file.getName(), splitStart);
+
+        return new DeadLetterWriter(job, file, new Path(directory, name), ionFactory);
+    }
+
+    /**
+     * Writes the bytes of a skipped record.
+     *
+     * @param start offset of the first skipped byte.
+     * @param end offset after the last skipped byte.
+     * @param error error that made the record skipped.
+     * @param bytes skipped bytes, at most {@value #MAX_BYTES}.
+     */
+    void write(final long start, final long end, final String error, final byte[] bytes) throws IOException {
+        if (writer == null) {
+            out = deadLetterFile.getFileSystem(job).create(deadLetterFile, false);
+            writer = ionFactory.newTextWriter(out);
+        }
+
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName("file");
+        writer.writeString(file.toString());
+        writer.setFieldName("start");
+        writer.writeInt(start);
+        writer.setFieldName("end");
+        writer.writeInt(end);
+        writer.setFieldName("error");
+        writer.writeString(error);
+        writer.setFieldName("bytes");
+        writer.writeBlob(bytes);
+        writer.stepOut();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            out.close();
+        }
+    }
+}
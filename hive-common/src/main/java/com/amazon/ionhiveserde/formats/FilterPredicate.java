@@ -0,0 +1,722 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ionhiveserde.formats.ZoneMap.ColumnRange;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFIn;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualOrLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPLessThan;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNot;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNotEqual;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNotNull;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNull;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Filter pushed down by Hive evaluated over the column values of a single record with SQL three-valued logic.
+ *
+ * <p>Only comparisons, IN and IS [NOT] NULL between a column and constants, combined with AND, OR and NOT, are
+ * supported. Anything else, as well as columns that can't be resolved, evaluates to {@link Truth#UNKNOWN}, so a record
+ * is only dropped when the filter is definitely false for it. Column values are either null for SQL NULL,
+ * {@link #UNKNOWN_VALUE} when the value can't be compared, or a {@link Long}, {@link Double}, {@link Boolean},
+ * {@link String} or {@link Instant} depending on the column type.
+ *
+ * <p>A predicate can also be evaluated over the {@link ColumnRange}s of a range of records, see {@link ZoneMap}, which
+ * gives the truth values it may take for those records. The records can be skipped if it can't be true for any of them,
+ * as Hive drops both false and unknown rows.
+ */
+abstract class FilterPredicate {
+
+    /**
+     * Column value that can't be evaluated.
+     */
+    static final Object UNKNOWN_VALUE = new Object();
+
+    // Hive 3 timestamp constants, this class is compiled for Hive 2 as well so the class can't be referenced
+    private static final String HIVE3_TIMESTAMP_CLASS = "org.apache.hadoop.hive.common.type.Timestamp";
+    private static final DateTimeFormatter HIVE3_TIMESTAMP_FORMAT = new DateTimeFormatterBuilder()
+        .appendPattern("uuuu-MM-dd HH:mm:ss")
+        .optionalStart()
+        .appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true)
+        .optionalEnd()
+        .toFormatter(Locale.ROOT);
+
+    /**
+     * Truth values a predicate may take over a range of records, see {@link #possibleTruths(ColumnRange[])}.
+     */
+    static final int MAY_BE_TRUE = 1;
+    static final int MAY_BE_FALSE = 2;
+    static final int MAY_BE_UNKNOWN = 4;
+    static final int MAY_BE_ANY = MAY_BE_TRUE | MAY_BE_FALSE | MAY_BE_UNKNOWN;
+
+    /**
+     * Predicate that can't be evaluated.
+     */
+    static final FilterPredicate ALWAYS_UNKNOWN = new FilterPredicate() {
+        @Override
+        Truth evaluate(final Object[] values) {
+            return Truth.UNKNOWN;
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            return MAY_BE_ANY;
+        }
+    };
+
+    /**
+     * SQL three-valued logic.
+     */
+    enum Truth {
+        TRUE, FALSE, UNKNOWN;
+
+        static Truth of(final boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        Truth not() {
+            switch (this) {
+                case TRUE:
+                    return FALSE;
+                case FALSE:
+                    return TRUE;
+                default:
+                    return UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Resolves the columns referenced by a filter to their index in the values array.
+     */
+    interface ColumnResolver {
+
+        /**
+         * Returns the index of the column or -1 if the column can't be evaluated.
+         */
+        int resolve(ExprNodeColumnDesc column);
+    }
+
+    abstract Truth evaluate(Object[] values);
+
+    /**
+     * Returns the truth values the predicate may take over a range of records, a combination of the MAY_BE flags.
+     *
+     * @param ranges range of each column, null if the column can't be bounded.
+     */
+    abstract int possibleTruths(ColumnRange[] ranges);
+
+    private static int negate(final int truths) {
+        return (truths & MAY_BE_UNKNOWN) | ((truths & MAY_BE_TRUE) << 1) | ((truths & MAY_BE_FALSE) >> 1);
+    }
+
+    private static int truths(final boolean mayBeTrue, final boolean mayBeFalse) {
+        return (mayBeTrue ? MAY_BE_TRUE : 0) | (mayBeFalse ? MAY_BE_FALSE : 0);
+    }
+
+    /**
+     * Returns the category of column types that can be evaluated, null otherwise.
+     */
+    static PrimitiveCategory supportedCategory(final TypeInfo typeInfo) {
+        if (!(typeInfo instanceof PrimitiveTypeInfo)) {
+            return null;
+        }
+
+        final PrimitiveCategory category = ((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory();
+        switch (category) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+            case STRING:
+            case TIMESTAMP:
+                return category;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Builds a predicate from a Hive filter expression.
+     *
+     * @param expression filter expression.
+     * @param resolver resolves the columns referenced by the filter.
+     * @return predicate, {@link #ALWAYS_UNKNOWN} if no part of the expression can be evaluated.
+     */
+    static FilterPredicate build(final ExprNodeDesc expression, final ColumnResolver resolver) {
+        if (!(expression instanceof ExprNodeGenericFuncDesc)) {
+            return ALWAYS_UNKNOWN;
+        }
+
+        final GenericUDF udf = ((ExprNodeGenericFuncDesc) expression).getGenericUDF();
+        final List<ExprNodeDesc> children = expression.getChildren();
+
+        if (udf instanceof GenericUDFOPAnd || udf instanceof GenericUDFOPOr) {
+            // unknown children are kept, dropping them would turn an unknown result into a definite one
+            final List<FilterPredicate> predicates = new ArrayList<>(children.size());
+            boolean allUnknown = true;
+            for (final ExprNodeDesc child : children) {
+                final FilterPredicate predicate = build(child, resolver);
+                allUnknown &= predicate == ALWAYS_UNKNOWN;
+                predicates.add(predicate);
+            }
+
+            if (allUnknown) {
+                return ALWAYS_UNKNOWN;
+            }
+
+            return udf instanceof GenericUDFOPAnd ? new And(predicates) : new Or(predicates);
+        }
+
+        if (udf instanceof GenericUDFOPNot && children.size() == 1) {
+            final FilterPredicate child = build(children.get(0), resolver);
+
+            return child == ALWAYS_UNKNOWN ? ALWAYS_UNKNOWN : new Not(child);
+        }
+
+        if ((udf instanceof GenericUDFOPNull || udf instanceof GenericUDFOPNotNull) && children.size() == 1) {
+            final int column = resolveColumn(children.get(0), resolver);
+
+            return column < 0 ? ALWAYS_UNKNOWN : new IsNull(column, udf instanceof GenericUDFOPNotNull);
+        }
+
+        if (udf instanceof GenericUDFIn && children.size() > 1) {
+            final int column = resolveColumn(children.get(0), resolver);
+            if (column < 0) {
+                return ALWAYS_UNKNOWN;
+            }
+
+            final PrimitiveCategory category = supportedCategory(children.get(0).getTypeInfo());
+            final List<Object> constants = new ArrayList<>(children.size() - 1);
+            for (final ExprNodeDesc child : children.subList(1, children.size())) {
+                if (!(child instanceof ExprNodeConstantDesc)) {
+                    return ALWAYS_UNKNOWN;
+                }
+                constants.add(normalize(category, ((ExprNodeConstantDesc) child).getValue()));
+            }
+
+            return new In(column, constants);
+        }
+
+        final Operator operator = Operator.of(udf);
+        if (operator != null && children.size() == 2) {
+            if (children.get(0) instanceof ExprNodeColumnDesc && children.get(1) instanceof ExprNodeConstantDesc) {
+                return comparison(children.get(0), operator, children.get(1), resolver);
+            }
+            if (children.get(1) instanceof ExprNodeColumnDesc && children.get(0) instanceof ExprNodeConstantDesc) {
+                return comparison(children.get(1), operator.flip(), children.get(0), resolver);
+            }
+        }
+
+        return ALWAYS_UNKNOWN;
+    }
+
+    private static FilterPredicate comparison(final ExprNodeDesc columnDesc,
+                                              final Operator operator,
+                                              final ExprNodeDesc constantDesc,
+                                              final ColumnResolver resolver) {
+        final int column = resolveColumn(columnDesc, resolver);
+        if (column < 0) {
+            return ALWAYS_UNKNOWN;
+        }
+
+        final PrimitiveCategory category = supportedCategory(columnDesc.getTypeInfo());
+        final Object constant = normalize(category, ((ExprNodeConstantDesc) constantDesc).getValue());
+
+        return new Comparison(column, operator, constant);
+    }
+
+    private static int resolveColumn(final ExprNodeDesc expression, final ColumnResolver resolver) {
+        if (!(expression instanceof ExprNodeColumnDesc)) {
+            return -1;
+        }
+
+        final ExprNodeColumnDesc column = (ExprNodeColumnDesc) expression;
+        if (column.getIsPartitionColOrVirtualCol() || supportedCategory(column.getTypeInfo()) == null) {
+            return -1;
+        }
+
+        return resolver.resolve(column);
+    }
+
+    /**
+     * Converts a constant to the representation used for values of the column category.
+     */
+    private static Object normalize(final PrimitiveCategory category, final Object constant) {
+        if (constant == null) {
+            return null;
+        }
+
+        switch (category) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                if (constant instanceof Byte || constant instanceof Short
+                    || constant instanceof Integer || constant instanceof Long) {
+                    return ((Number) constant).longValue();
+                }
+                return UNKNOWN_VALUE;
+            case DOUBLE:
+                if (constant instanceof Byte || constant instanceof Short || constant instanceof Integer
+                    || constant instanceof Long || constant instanceof Float || constant instanceof Double) {
+                    final double value = ((Number) constant).doubleValue();
+                    return Double.isNaN(value) ? UNKNOWN_VALUE : value;
+                }
+                return UNKNOWN_VALUE;
+            case BOOLEAN:
+                return constant instanceof Boolean ? constant : UNKNOWN_VALUE;
+            case STRING:
+                return constant instanceof String ? constant : UNKNOWN_VALUE;
+            case TIMESTAMP:
+                return normalizeTimestamp(constant);
+            default:
+                return UNKNOWN_VALUE;
+        }
+    }
+
+    /**
+     * Converts a timestamp constant to an instant. Column values are the UTC milliseconds of the Ion timestamps, which
+     * Hive 2 compares with its {@link Timestamp} constants as instants and Hive 3 with its own timestamps as UTC date
+     * times.
+     */
+    private static Object normalizeTimestamp(final Object constant) {
+        if (constant instanceof Timestamp) {
+            return ((Timestamp) constant).toInstant();
+        }
+
+        if (HIVE3_TIMESTAMP_CLASS.equals(constant.getClass().getName())) {
+            try {
+                return LocalDateTime.parse(constant.toString(), HIVE3_TIMESTAMP_FORMAT).toInstant(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                return UNKNOWN_VALUE;
+            }
+        }
+
+        return UNKNOWN_VALUE;
+    }
+
+    /**
+     * Compares two non null values of the same column, returns null if they can't be compared the same way Hive does.
+     */
+    static Integer compare(final Object value, final Object constant) {
+        if (value instanceof Long && constant instanceof Long) {
+            return Long.compare((Long) value, (Long) constant);
+        }
+
+        if (value instanceof Double && constant instanceof Double) {
+            final double left = (Double) value;
+            final double right = (Double) constant;
+
+            // -0.0 and 0.0 are equal or not depending on how Hive compares them
+            if (left == 0.0 && right == 0.0 && Double.compare(left, right) != 0) {
+                return null;
+            }
+
+            return Double.compare(left, right);
+        }
+
+        if (value instanceof Boolean && constant instanceof Boolean) {
+            return Boolean.compare((Boolean) value, (Boolean) constant);
+        }
+
+        if (value instanceof String && constant instanceof String) {
+            return compareCodePoints((String) value, (String) constant);
+        }
+
+        if (value instanceof Instant && constant instanceof Instant) {
+            return ((Instant) value).compareTo((Instant) constant);
+        }
+
+        return null;
+    }
+
+    /**
+     * Hive compares strings by their UTF-8 bytes, which is the same as comparing code points.
+     */
+    private static int compareCodePoints(final String left, final String right) {
+        int i = 0;
+        int j = 0;
+        while (i < left.length() && j < right.length()) {
+            final int leftCodePoint = left.codePointAt(i);
+            final int rightCodePoint = right.codePointAt(j);
+            if (leftCodePoint != rightCodePoint) {
+                return Integer.compare(leftCodePoint, rightCodePoint);
+            }
+
+            i += Character.charCount(leftCodePoint);
+            j += Character.charCount(rightCodePoint);
+        }
+
+        return Integer.compare(left.length() - i, right.length() - j);
+    }
+
+    /**
+     * Comparison operators.
+     */
+    enum Operator {
+        EQUAL, NOT_EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL;
+
+        static Operator of(final GenericUDF udf) {
+            if (udf instanceof GenericUDFOPEqual) {
+                return EQUAL;
+            }
+            if (udf instanceof GenericUDFOPNotEqual) {
+                return NOT_EQUAL;
+            }
+            if (udf instanceof GenericUDFOPLessThan) {
+                return LESS;
+            }
+            if (udf instanceof GenericUDFOPEqualOrLessThan) {
+                return LESS_OR_EQUAL;
+            }
+            if (udf instanceof GenericUDFOPGreaterThan) {
+                return GREATER;
+            }
+            if (udf instanceof GenericUDFOPEqualOrGreaterThan) {
+                return GREATER_OR_EQUAL;
+            }
+
+            return null;
+        }
+
+        /**
+         * Operator to use when the operands are swapped.
+         */
+        Operator flip() {
+            switch (this) {
+                case LESS:
+                    return GREATER;
+                case LESS_OR_EQUAL:
+                    return GREATER_OR_EQUAL;
+                case GREATER:
+                    return LESS;
+                case GREATER_OR_EQUAL:
+                    return LESS_OR_EQUAL;
+                default:
+                    return this;
+            }
+        }
+
+        /**
+         * Truth values of the comparison for values between two bounds, given how the bounds compare to the constant.
+         */
+        int possibleTruths(final int minComparison, final int maxComparison) {
+            switch (this) {
+                case EQUAL:
+                    return truths(minComparison <= 0 && maxComparison >= 0, minComparison != 0 || maxComparison != 0);
+                case NOT_EQUAL:
+                    return truths(minComparison != 0 || maxComparison != 0, minComparison <= 0 && maxComparison >= 0);
+                case LESS:
+                    return truths(minComparison < 0, maxComparison >= 0);
+                case LESS_OR_EQUAL:
+                    return truths(minComparison <= 0, maxComparison > 0);
+                case GREATER:
+                    return truths(maxComparison > 0, minComparison <= 0);
+                default:
+                    return truths(maxComparison >= 0, minComparison < 0);
+            }
+        }
+
+        boolean test(final int comparison) {
+            switch (this) {
+                case EQUAL:
+                    return comparison == 0;
+                case NOT_EQUAL:
+                    return comparison != 0;
+                case LESS:
+                    return comparison < 0;
+                case LESS_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    private static final class Comparison extends FilterPredicate {
+
+        private final int column;
+        private final Operator operator;
+        private final Object constant;
+
+        Comparison(final int column, final Operator operator, final Object constant) {
+            this.column = column;
+            this.operator = operator;
+            this.constant = constant;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            final Object value = values[column];
+            if (value == null || constant == null || value == UNKNOWN_VALUE || constant == UNKNOWN_VALUE) {
+                return Truth.UNKNOWN;
+            }
+
+            final Integer comparison = compare(value, constant);
+
+            return comparison == null ? Truth.UNKNOWN : Truth.of(operator.test(comparison));
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            final ColumnRange range = ranges[column];
+            if (range == null || constant == null || constant == UNKNOWN_VALUE) {
+                return MAY_BE_ANY;
+            }
+
+            final int nulls = range.getNullCount() > 0 ? MAY_BE_UNKNOWN : 0;
+            if (range.getNonNullCount() == 0) {
+                return nulls;
+            }
+
+            final Integer minComparison = compare(range.getMin(), constant);
+            final Integer maxComparison = compare(range.getMax(), constant);
+            if (minComparison == null || maxComparison == null) {
+                return MAY_BE_ANY;
+            }
+
+            // no value is equal to a constant missing from the Bloom filter
+            if (operator == Operator.EQUAL && !range.mightContain(constant)) {
+                return nulls | MAY_BE_FALSE;
+            }
+
+            return nulls | operator.possibleTruths(minComparison, maxComparison);
+        }
+    }
+
+    private static final class In extends FilterPredicate {
+
+        private final int column;
+        private final List<Object> constants;
+
+        In(final int column, final List<Object> constants) {
+            this.column = column;
+            this.constants = constants;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            final Object value = values[column];
+            if (value == null || value == UNKNOWN_VALUE) {
+                return Truth.UNKNOWN;
+            }
+
+            Truth result = Truth.FALSE;
+            for (final Object constant : constants) {
+                final Integer comparison = constant == null || constant == UNKNOWN_VALUE
+                    ? null
+                    : compare(value, constant);
+
+                if (comparison == null) {
+                    result = Truth.UNKNOWN;
+                } else if (comparison == 0) {
+                    return Truth.TRUE;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            final ColumnRange range = ranges[column];
+            if (range == null) {
+                return MAY_BE_ANY;
+            }
+
+            int truths = range.getNullCount() > 0 ? MAY_BE_UNKNOWN : 0;
+            if (range.getNonNullCount() == 0) {
+                return truths;
+            }
+
+            // values that don't match any constant are false, or unknown if a constant is null
+            truths |= MAY_BE_FALSE;
+            for (final Object constant : constants) {
+                if (constant == null || constant == UNKNOWN_VALUE) {
+                    truths |= MAY_BE_UNKNOWN;
+                    continue;
+                }
+
+                final Integer minComparison = compare(range.getMin(), constant);
+                final Integer maxComparison = compare(range.getMax(), constant);
+                if (minComparison == null || maxComparison == null) {
+                    return MAY_BE_ANY;
+                }
+                if (minComparison <= 0 && maxComparison >= 0 && range.mightContain(constant)) {
+                    truths |= MAY_BE_TRUE;
+                }
+            }
+
+            return truths;
+        }
+    }
+
+    private static final class IsNull extends FilterPredicate {
+
+        private final int column;
+        private final boolean negated;
+
+        IsNull(final int column, final boolean negated) {
+            this.column = column;
+            this.negated = negated;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            final Object value = values[column];
+            if (value == UNKNOWN_VALUE) {
+                return Truth.UNKNOWN;
+            }
+
+            final Truth isNull = Truth.of(value == null);
+
+            return negated ? isNull.not() : isNull;
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            final ColumnRange range = ranges[column];
+            if (range == null) {
+                return MAY_BE_ANY;
+            }
+
+            final int isNull = truths(range.getNullCount() > 0, range.getNonNullCount() > 0);
+
+            return negated ? negate(isNull) : isNull;
+        }
+    }
+
+    private static final class And extends FilterPredicate {
+
+        private final List<FilterPredicate> children;
+
+        And(final List<FilterPredicate> children) {
+            this.children = children;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            Truth result = Truth.TRUE;
+            for (final FilterPredicate child : children) {
+                final Truth truth = child.evaluate(values);
+                if (truth == Truth.FALSE) {
+                    return Truth.FALSE;
+                }
+                if (truth == Truth.UNKNOWN) {
+                    result = Truth.UNKNOWN;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            // true if every child may be true, unknown if every child may be true or unknown and one may be unknown
+            boolean mayBeTrue = true;
+            boolean mayBeFalse = false;
+            boolean mayBeTrueOrUnknown = true;
+            boolean mayBeUnknown = false;
+            for (final FilterPredicate child : children) {
+                final int truths = child.possibleTruths(ranges);
+                mayBeTrue &= (truths & MAY_BE_TRUE) != 0;
+                mayBeFalse |= (truths & MAY_BE_FALSE) != 0;
+                mayBeTrueOrUnknown &= (truths & (MAY_BE_TRUE | MAY_BE_UNKNOWN)) != 0;
+                mayBeUnknown |= (truths & MAY_BE_UNKNOWN) != 0;
+            }
+
+            return truths(mayBeTrue, mayBeFalse) | (mayBeTrueOrUnknown && mayBeUnknown ? MAY_BE_UNKNOWN : 0);
+        }
+    }
+
+    private static final class Or extends FilterPredicate {
+
+        private final List<FilterPredicate> children;
+
+        Or(final List<FilterPredicate> children) {
+            this.children = children;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            Truth result = Truth.FALSE;
+            for (final FilterPredicate child : children) {
+                final Truth truth = child.evaluate(values);
+                if (truth == Truth.TRUE) {
+                    return Truth.TRUE;
+                }
+                if (truth == Truth.UNKNOWN) {
+                    result = Truth.UNKNOWN;
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            // false if every child may be false, unknown if every child may be false or unknown and one may be unknown
+            boolean mayBeTrue = false;
+            boolean mayBeFalse = true;
+            boolean mayBeFalseOrUnknown = true;
+            boolean mayBeUnknown = false;
+            for (final FilterPredicate child : children) {
+                final int truths = child.possibleTruths(ranges);
+                mayBeTrue |= (truths & MAY_BE_TRUE) != 0;
+                mayBeFalse &= (truths & MAY_BE_FALSE) != 0;
+                mayBeFalseOrUnknown &= (truths & (MAY_BE_FALSE | MAY_BE_UNKNOWN)) != 0;
+                mayBeUnknown |= (truths & MAY_BE_UNKNOWN) != 0;
+            }
+
+            return truths(mayBeTrue, mayBeFalse) | (mayBeFalseOrUnknown && mayBeUnknown ? MAY_BE_UNKNOWN : 0);
+        }
+    }
+
+    private static final class Not extends FilterPredicate {
+
+        private final FilterPredicate child;
+
+        Not(final FilterPredicate child) {
+            this.child = child;
+        }
+
+        @Override
+        Truth evaluate(final Object[] values) {
+            return child.evaluate(values).not();
+        }
+
+        @Override
+        int possibleTruths(final ColumnRange[] ranges) {
+            return negate(child.possibleTruths(ranges));
+        }
+    }
+}
@@ -0,0 +1,196 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import org.apache.hadoop.hive.ql.exec.MapredContext;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Hadoop counters of the {@value #GROUP} group, reported by the record readers, the SerDe and the record writer so the
+ * time of a task can be split by stage from the job history.
+ *
+ * <p>Counters are accumulated in plain fields of a per thread instance, shared by the record reader, the SerDe and the
+ * record writer of a task which all run in the same thread. They are added to the reporter every
+ * {@value #FLUSH_INTERVAL} updates and when the record reader or writer is closed, the SerDe itself is never closed.
+ * The reporter is the one handed to the record reader or writer, or the one of Hive's {@link MapredContext} if there
+ * is none. Timers only measure one in every {@value #SAMPLE_INTERVAL} calls and report the sampled time multiplied by
+ * the interval, so the time counters are estimates.
+ */
+public final class IonCounters {
+
+    /**
+     * Counter group name.
+     */
+    public static final String GROUP = "IonSerDe";
+
+    static final int SAMPLE_INTERVAL = 16;
+    static final int FLUSH_INTERVAL = 4096;
+
+    /**
+     * Counters of the group, named after the enum constants.
+     */
+    public enum Counter {
+        /**
+         * Records read by the record readers, before the pushed down filter is applied.
+         */
+        RECORDS_READ,
+
+        /**
+         * Bytes of the records read by the record readers.
+         */
+        BYTES_READ,
+
+        /**
+         * Malformed records skipped when ignoring malformed records.
+         */
+        MALFORMED_RECORDS_SKIPPED,
+
+        /**
+         * Bytes of the malformed records skipped by the record readers.
+         */
+        MALFORMED_BYTES_SKIPPED,
+
+        /**
+         * Files and blocks of records skipped by the record readers as their zone maps can't match the filter.
+         */
+        ZONE_MAP_SKIPPED,
+
+        /**
+         * Records written by the record writer.
+         */
+        RECORDS_WRITTEN,
+
+        /**
+         * Estimated nanoseconds spent reading records, including the pushed down filter.
+         */
+        READ_NANOS,
+
+        /**
+         * Estimated nanoseconds spent extracting the columns of deserialized records.
+         */
+        EXTRACT_NANOS,
+
+        /**
+         * Estimated nanoseconds spent serializing rows.
+         */
+        SERIALIZE_NANOS,
+
+        /**
+         * Estimated nanoseconds spent writing records.
+         */
+        WRITE_NANOS
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private static final ThreadLocal<IonCounters> THREAD_COUNTERS = ThreadLocal.withInitial(IonCounters::new);
+
+    private final long[] values = new long[COUNTERS.length];
+    private final int[] calls = new int[COUNTERS.length];
+    private int updates;
+    private Reporter reporter;
+
+    IonCounters() {
+    }
+
+    /**
+     * Returns the counters of the current thread.
+     *
+     * @return thread counters.
+     */
+    public static IonCounters get() {
+        return THREAD_COUNTERS.get();
+    }
+
+    /**
+     * Sets the reporter of a record reader or writer, used until {@link #close()}.
+     *
+     * @param reporter reporter handed over by Hadoop, ignored if null or {@link Reporter#NULL}.
+     */
+    public void setReporter(final Reporter reporter) {
+        if (reporter != null && reporter != Reporter.NULL) {
+            this.reporter = reporter;
+        }
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param counter counter.
+     * @param amount amount added.
+     */
+    public void increment(final Counter counter, final long amount) {
+        values[counter.ordinal()] += amount;
+        updated();
+    }
+
+    /**
+     * Starts a timer if the call is sampled.
+     *
+     * @param timer time counter.
+     * @return start time to pass to {@link #stop(Counter, long)}, or -1 if the call is not sampled.
+     */
+    public long start(final Counter timer) {
+        // SAMPLE_INTERVAL is a power of two
+        if ((calls[timer.ordinal()]++ & (SAMPLE_INTERVAL - 1)) != 0) {
+            return -1;
+        }
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Stops a timer started by {@link #start(Counter)}.
+     *
+     * @param timer time counter.
+     * @param start start time, does nothing if -1.
+     */
+    public void stop(final Counter timer, final long start) {
+        if (start == -1) {
+            return;
+        }
+
+        increment(timer, (System.nanoTime() - start) * SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Adds the accumulated counters to the reporter, they are kept if there is no reporter yet.
+     */
+    public void flush() {
+        updates = 0;
+
+        final Reporter target = reporter == null ? taskReporter() : reporter;
+        if (target == null) {
+            return;
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0) {
+                target.incrCounter(GROUP, COUNTERS[i].name(), values[i]);
+                values[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Flushes the counters and forgets the reporter, called when a record reader or writer is closed as the thread
+     * can run other tasks afterwards.
+     */
+    public void close() {
+        flush();
+        reporter = null;
+    }
+
+    private void updated() {
+        if (++updates == FLUSH_INTERVAL) {
+            flush();
+        }
+    }
+
+    private static Reporter taskReporter() {
+        final MapredContext context = MapredContext.get();
+
+        return context == null ? null : context.getReporter();
+    }
+}
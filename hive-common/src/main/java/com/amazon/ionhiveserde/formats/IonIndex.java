@@ -0,0 +1,535 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ionhiveserde.IonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Record offset index of an Ion file, written by {@link IonOutputFormat} at the end of the file it indexes so it's
+ * moved with it when a job commits its output. Each entry holds the offset of an Ion version marker and the ordinal of
+ * the first record after it. The symbol table context is reset at every version marker, so an entry is a checkpoint
+ * that a reader can seek to without reading anything before it. Only binary files have entries.
+ *
+ * <p>The index can also hold the {@link ZoneMap} of the whole file and of each block of records between two entries.
+ *
+ * <p>The index is a single binary Ion value:
+ * <pre>
+ * ion_hive_serde_index::{
+ *   data_length: 1234,
+ *   offsets: [0, 512, ...],
+ *   rows: [0, 100, ...],
+ *   zone_map: { ... },           // optional
+ *   block_zone_maps: [{ ... }]   // optional, one per entry
+ * }
+ * </pre>
+ * It's stored after the data in a footer that every Ion reader skips: in binary files an Ion version marker followed
+ * by a NOP padding holding the index without its version marker, in text files a comment holding it in base64. Both
+ * end with the same fixed length ASCII trailer holding the offset of the footer and the CRC32 of the index:
+ * <pre>
+ *  ion_hive_serde_index 00000000000004d2 89abcdef *&#47;
+ * </pre>
+ * so the index is found reading the end of the file. A file that was appended to or rewritten without an index has no
+ * trailer at its end, and an index whose data length isn't the offset of its footer is ignored.
+ */
+final class IonIndex {
+
+    private static final Log LOG = LogFactory.getLog(IonIndex.class);
+
+    private static final String ANNOTATION = "ion_hive_serde_index";
+    private static final String DATA_LENGTH_FIELD = "data_length";
+    private static final String OFFSETS_FIELD = "offsets";
+    private static final String ROWS_FIELD = "rows";
+    private static final String ZONE_MAP_FIELD = "zone_map";
+    private static final String BLOCK_ZONE_MAPS_FIELD = "block_zone_maps";
+
+    private static final byte[] VERSION_MARKER = {(byte) 0xE0, 0x01, 0x00, (byte) 0xEA};
+    // NOP padding with a VarUInt length
+    private static final int PADDING_DESCRIPTOR = 0x0E;
+    private static final byte[] TEXT_FOOTER_START = "\n/* ".getBytes(StandardCharsets.US_ASCII);
+    private static final String TRAILER_START = " " + ANNOTATION + " ";
+    private static final String TRAILER_END = " */\n";
+    private static final int OFFSET_DIGITS = 16;
+    private static final int CRC_DIGITS = 8;
+    private static final int TRAILER_LENGTH =
+        TRAILER_START.length() + OFFSET_DIGITS + 1 + CRC_DIGITS + TRAILER_END.length();
+
+    private final long dataLength;
+    private final long[] offsets;
+    private final long[] rows;
+    private final ZoneMap zoneMap;
+    private final ZoneMap[] blockZoneMaps;
+
+    IonIndex(final long dataLength, final long[] offsets, final long[] rows) {
+        this(dataLength, offsets, rows, null, null);
+    }
+
+    IonIndex(final long dataLength,
+             final long[] offsets,
+             final long[] rows,
+             final ZoneMap zoneMap,
+             final ZoneMap[] blockZoneMaps) {
+        if (offsets.length != rows.length) {
+            throw new IllegalArgumentException("Index has " + offsets.length + " offsets and " + rows.length + " rows");
+        }
+        if (blockZoneMaps != null && blockZoneMaps.length != offsets.length) {
+            throw new IllegalArgumentException(
+                "Index has " + offsets.length + " offsets and " + blockZoneMaps.length + " block zone maps");
+        }
+
+        this.dataLength = dataLength;
+        this.offsets = offsets;
+        this.rows = rows;
+        this.zoneMap = zoneMap;
+        this.blockZoneMaps = blockZoneMaps;
+    }
+
+    long getDataLength() {
+        return dataLength;
+    }
+
+    long[] getOffsets() {
+        return offsets;
+    }
+
+    long[] getRows() {
+        return rows;
+    }
+
+    /**
+     * Zone map of the whole file, null if not collected.
+     */
+    ZoneMap getZoneMap() {
+        return zoneMap;
+    }
+
+    /**
+     * Zone maps of the blocks of records starting at each entry, null if not collected.
+     */
+    ZoneMap[] getBlockZoneMaps() {
+        return blockZoneMaps;
+    }
+
+    /**
+     * Offset after the last record of the block starting at an entry.
+     */
+    long blockEnd(final int entry) {
+        return entry + 1 < offsets.length ? offsets[entry + 1] : dataLength;
+    }
+
+    /**
+     * Returns the first checkpoint at or after a position, which is where a split starting at the position begins.
+     *
+     * @return offset of the checkpoint, or the data length if there's none.
+     */
+    long alignSplit(final long position) {
+        final int index = Arrays.binarySearch(offsets, position);
+        final int next = index >= 0 ? index : -index - 1;
+
+        return next < offsets.length ? offsets[next] : dataLength;
+    }
+
+    /**
+     * Appends the index to its data file as a footer, see the class documentation.
+     *
+     * @param out stream of the data file, positioned at the data length.
+     * @param text if the data file is Ion text.
+     * @param ionFactory factory for the index writer.
+     */
+    void writeFooter(final OutputStream out, final boolean text, final IonFactory ionFactory) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (IonWriter writer = ionFactory.newBinaryWriter(bytes)) {
+            writer.setTypeAnnotations(ANNOTATION);
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(DATA_LENGTH_FIELD);
+            writer.writeInt(dataLength);
+            writeList(writer, OFFSETS_FIELD, offsets);
+            writeList(writer, ROWS_FIELD, rows);
+            if (zoneMap != null) {
+                writer.setFieldName(ZONE_MAP_FIELD);
+                zoneMap.writeTo(writer);
+            }
+            if (blockZoneMaps != null) {
+                writer.setFieldName(BLOCK_ZONE_MAPS_FIELD);
+                writer.stepIn(IonType.LIST);
+                for (final ZoneMap blockZoneMap : blockZoneMaps) {
+                    blockZoneMap.writeTo(writer);
+                }
+                writer.stepOut();
+            }
+            writer.stepOut();
+        }
+
+        // the version marker is left out so the footer never holds a place where a split could start reading
+        final byte[] document = Arrays.copyOfRange(bytes.toByteArray(), VERSION_MARKER.length, bytes.size());
+        final CRC32 crc = new CRC32();
+        crc.update(document, 0, document.length);
+        final byte[] trailer = String.format(
+            Locale.ROOT, "%s%016x %08x%s", TRAILER_START, dataLength, crc.getValue(), TRAILER_END)
+            .getBytes(StandardCharsets.US_ASCII);
+
+        if (text) {
+            out.write(TEXT_FOOTER_START);
+            out.write(Base64.getEncoder().encode(document));
+        } else {
+            out.write(VERSION_MARKER);
+            out.write(PADDING_DESCRIPTOR);
+            writeVarUInt(out, document.length + trailer.length);
+            out.write(document);
+        }
+        out.write(trailer);
+    }
+
+    private static void writeVarUInt(final OutputStream out, final int value) throws IOException {
+        int shift = 28;
+        while (shift > 0 && value >>> shift == 0) {
+            shift -= 7;
+        }
+        for (; shift > 0; shift -= 7) {
+            out.write((value >>> shift) & 0x7F);
+        }
+        out.write((value & 0x7F) | 0x80);
+    }
+
+    private static void writeList(final IonWriter writer, final String fieldName, final long[] values)
+        throws IOException {
+
+        writer.setFieldName(fieldName);
+        writer.stepIn(IonType.LIST);
+        for (final long value : values) {
+            writer.writeInt(value);
+        }
+        writer.stepOut();
+    }
+
+    /**
+     * Reads the index in the footer of a file.
+     *
+     * @param fs file system of the file.
+     * @param file data file.
+     * @param fileLength current length of the data file.
+     * @param ionFactory factory for the index reader.
+     * @return the index, or null if the file has no index or it's stale or unreadable.
+     */
+    static IonIndex read(final FileSystem fs, final Path file, final long fileLength, final IonFactory ionFactory) {
+        if (fileLength < TRAILER_LENGTH) {
+            return null;
+        }
+
+        try (FSDataInputStream in = fs.open(file)) {
+            final byte[] trailer = new byte[TRAILER_LENGTH];
+            in.readFully(fileLength - TRAILER_LENGTH, trailer);
+            final String trailerText = new String(trailer, StandardCharsets.US_ASCII);
+            if (!trailerText.startsWith(TRAILER_START) || !trailerText.endsWith(TRAILER_END)) {
+                return null;
+            }
+
+            final int offsetStart = TRAILER_START.length();
+            final int crcStart = offsetStart + OFFSET_DIGITS + 1;
+            final long footerStart = Long.parseLong(
+                trailerText.substring(offsetStart, offsetStart + OFFSET_DIGITS), 16);
+            final long crc = Long.parseLong(trailerText.substring(crcStart, crcStart + CRC_DIGITS), 16);
+            final long footerLength = fileLength - TRAILER_LENGTH - footerStart;
+            if (footerStart < 0 || footerLength < 0 || footerLength > Integer.MAX_VALUE) {
+                LOG.warn("Ignoring invalid index footer of " + file);
+                return null;
+            }
+
+            final byte[] footer = new byte[(int) footerLength];
+            in.readFully(footerStart, footer);
+            final byte[] document = footerDocument(footer);
+            final CRC32 actualCrc = new CRC32();
+            if (document != null) {
+                actualCrc.update(document, 0, document.length);
+            }
+            if (document == null || actualCrc.getValue() != crc) {
+                LOG.warn("Ignoring corrupted index footer of " + file);
+                return null;
+            }
+
+            final byte[] value = new byte[VERSION_MARKER.length + document.length];
+            System.arraycopy(VERSION_MARKER, 0, value, 0, VERSION_MARKER.length);
+            System.arraycopy(document, 0, value, VERSION_MARKER.length, document.length);
+            try (IonReader reader = ionFactory.newReader(value, 0, value.length)) {
+                final IonIndex index = readIndex(reader);
+                if (index == null || index.dataLength != footerStart) {
+                    LOG.warn("Ignoring stale or invalid index of " + file);
+                    return null;
+                }
+
+                return index;
+            }
+        } catch (IOException | IonException | IllegalArgumentException e) {
+            LOG.warn("Unable to read the index of " + file + ", splitting it without it", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the index held by a footer, without its trailer, or null if it isn't a footer.
+     */
+    private static byte[] footerDocument(final byte[] footer) {
+        if (startsWith(footer, TEXT_FOOTER_START)) {
+            return Base64.getDecoder().decode(Arrays.copyOfRange(footer, TEXT_FOOTER_START.length, footer.length));
+        }
+
+        if (!startsWith(footer, VERSION_MARKER)
+            || footer.length <= VERSION_MARKER.length
+            || (footer[VERSION_MARKER.length] & 0xFF) != PADDING_DESCRIPTOR) {
+            return null;
+        }
+
+        // the padding holds the index and the trailer
+        long paddingLength = 0;
+        int i = VERSION_MARKER.length + 1;
+        while (true) {
+            if (i == footer.length || paddingLength > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            final int b = footer[i++] & 0xFF;
+            paddingLength = (paddingLength << 7) | (b & 0x7F);
+            if ((b & 0x80) != 0) {
+                break;
+            }
+        }
+
+        return paddingLength == footer.length - i + TRAILER_LENGTH
+            ? Arrays.copyOfRange(footer, i, footer.length)
+            : null;
+    }
+
+    private static boolean startsWith(final byte[] bytes, final byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static IonIndex readIndex(final IonReader reader) {
+        if (reader.next() != IonType.STRUCT || !Arrays.asList(reader.getTypeAnnotations()).contains(ANNOTATION)) {
+            return null;
+        }
+
+        long dataLength = -1;
+        long[] offsets = null;
+        long[] rows = null;
+        ZoneMap zoneMap = null;
+        ZoneMap[] blockZoneMaps = null;
+
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case DATA_LENGTH_FIELD:
+                    dataLength = reader.longValue();
+                    break;
+                case OFFSETS_FIELD:
+                    offsets = readList(reader);
+                    break;
+                case ROWS_FIELD:
+                    rows = readList(reader);
+                    break;
+                case ZONE_MAP_FIELD:
+                    zoneMap = ZoneMap.readFrom(reader);
+                    break;
+                case BLOCK_ZONE_MAPS_FIELD:
+                    final List<ZoneMap> zoneMaps = new ArrayList<>();
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        zoneMaps.add(ZoneMap.readFrom(reader));
+                    }
+                    reader.stepOut();
+                    blockZoneMaps = zoneMaps.toArray(new ZoneMap[0]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+
+        return dataLength < 0 || offsets == null || rows == null
+            ? null
+            : new IonIndex(dataLength, offsets, rows, zoneMap, blockZoneMaps);
+    }
+
+    private static long[] readList(final IonReader reader) {
+        long[] values = new long[16];
+        int size = 0;
+
+        reader.stepIn();
+        while (reader.next() != null) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = reader.longValue();
+        }
+        reader.stepOut();
+
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Collects the checkpoints of a file being written, keeping one every interval records, and the zone maps of the
+     * records between them. The Bloom filters of a block are built when the next one starts so only the hashes of the
+     * current block are kept in memory, the zone map of a file with blocks has no Bloom filters.
+     */
+    static final class Builder {
+
+        private final int interval;
+        private final boolean zoneMaps;
+        private final Set<String> bloomFilterFields;
+        private final double bloomFilterFpp;
+
+        private long[] offsets = new long[16];
+        private long[] rows = new long[16];
+        private int size;
+        private boolean checkpoints = true;
+
+        private long lastRow = Long.MIN_VALUE;
+
+        // zone maps of the closed blocks and of the current one, which also holds the records before the first entry
+        private final List<ZoneMap> blockZoneMaps = new ArrayList<>();
+        private ZoneMap zoneMap;
+
+        Builder(final int interval, final boolean zoneMaps) {
+            this(interval, zoneMaps, Collections.emptySet(), 0);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param interval minimum number of records between two checkpoints, 0 for no checkpoints.
+         * @param zoneMaps if zone maps are collected.
+         * @param bloomFilterFields lower case names of the fields with a Bloom filter, which also enable zone maps.
+         * @param bloomFilterFpp false positive probability of the Bloom filters.
+         */
+        Builder(final int interval,
+                final boolean zoneMaps,
+                final Set<String> bloomFilterFields,
+                final double bloomFilterFpp) {
+            this.interval = interval;
+            this.zoneMaps = zoneMaps || !bloomFilterFields.isEmpty();
+            this.bloomFilterFields = bloomFilterFields;
+            this.bloomFilterFpp = bloomFilterFpp;
+            this.zoneMap = newZoneMap();
+        }
+
+        private ZoneMap newZoneMap() {
+            return new ZoneMap(bloomFilterFields, bloomFilterFpp);
+        }
+
+        /**
+         * Adds a checkpoint if it's at least interval records after the last one.
+         *
+         * @param offset offset of the Ion version marker.
+         * @param row ordinal of the first record after it.
+         */
+        void checkpoint(final long offset, final long row) {
+            if (!checkpoints || interval == 0 || (size > 0 && row - lastRow < interval)) {
+                return;
+            }
+
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            offsets[size] = offset;
+            rows[size] = row;
+            lastRow = row;
+
+            if (size > 0) {
+                zoneMap.finishBloomFilters();
+                blockZoneMaps.add(zoneMap);
+                zoneMap = newZoneMap();
+            }
+            size++;
+        }
+
+        /**
+         * Drops the checkpoints, for files that can't be read from them.
+         */
+        void stopCheckpoints() {
+            checkpoints = false;
+            size = 0;
+            for (final ZoneMap blockZoneMap : blockZoneMaps) {
+                zoneMap.merge(blockZoneMap);
+            }
+            blockZoneMaps.clear();
+        }
+
+        boolean collectsZoneMaps() {
+            return zoneMaps;
+        }
+
+        /**
+         * Adds the records of the reader to the zone map of the current block.
+         */
+        void addRecords(final IonReader reader) {
+            try {
+                IonType type;
+                while ((type = reader.next()) != null) {
+                    zoneMap.add(reader, type);
+                }
+            } catch (IonException e) {
+                zoneMap.setUnknown();
+            }
+        }
+
+        /**
+         * Builds the index.
+         *
+         * @param dataLength length of the data file.
+         * @return the index, or null if it has nothing to read.
+         */
+        IonIndex build(final long dataLength) {
+            if (!zoneMaps) {
+                return size == 0
+                    ? null
+                    : new IonIndex(dataLength, Arrays.copyOf(offsets, size), Arrays.copyOf(rows, size));
+            }
+
+            zoneMap.finishBloomFilters();
+            if (size == 0) {
+                return new IonIndex(dataLength, new long[0], new long[0], zoneMap, null);
+            }
+
+            blockZoneMaps.add(zoneMap);
+            final ZoneMap[] blocks = blockZoneMaps.toArray(new ZoneMap[0]);
+            final ZoneMap fileZoneMap = new ZoneMap();
+            for (final ZoneMap blockZoneMap : blocks) {
+                fileZoneMap.merge(blockZoneMap);
+            }
+
+            return new IonIndex(
+                dataLength, Arrays.copyOf(offsets, size), Arrays.copyOf(rows, size), fileZoneMap, blocks);
+        }
+    }
+}
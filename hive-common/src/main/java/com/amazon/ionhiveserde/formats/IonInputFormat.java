@@ -3,182 +3,323 @@
 
 package com.amazon.ionhiveserde.formats;
 
-import com.amazon.ion.IonException;
-import com.amazon.ion.IonReader;
-import com.amazon.ion.IonWriter;
-import com.amazon.ion.util.IonStreamUtils;
 import com.amazon.ionhiveserde.IonFactory;
 import com.amazon.ionhiveserde.configuration.HadoopProperties;
 import com.amazon.ionhiveserde.configuration.source.HadoopConfigurationAdapter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.fs.Seekable;
-import org.apache.hadoop.io.BytesWritable;
-import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.compress.CodecPool;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
 import org.apache.hadoop.mapred.FileInputFormat;
 import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.JobConfigurable;
 import org.apache.hadoop.mapred.RecordReader;
 import org.apache.hadoop.mapred.Reporter;
 
 /**
- * Hadoop input format for Ion files, works for text and binary. Splits are based on top-level Ion values.
+ * Hadoop input format for Ion files, works for text and binary. Splits are based on top-level Ion values, uncompressed
+ * binary files with a record offset index can be split on its Ion version markers and newline delimited text files can
+ * be split on newlines.
+ *
+ * <p>Binary files with a record offset index, see {@link IonIndex}, have their splits moved to the indexed version
+ * markers so each split starts exactly at the first value it owns. Binary files without one are read as a single
+ * split, as the bytes of a version marker can also be inside a value, unless {@code ion.binary.split_unindexed} is
+ * set. When Hive pushes a filter down, files and splits whose zone maps can't match it are dropped.
  */
-public class IonInputFormat extends FileInputFormat {
+public class IonInputFormat extends FileInputFormat implements JobConfigurable {
 
     private static final Log LOG = LogFactory.getLog(IonInputFormat.class);
 
+    private CompressionCodecFactory compressionCodecs;
+
     @Override
-    protected boolean isSplitable(final FileSystem fs, final Path filename) {
-        return false;
+    public void configure(final JobConf job) {
+        compressionCodecs = new CompressionCodecFactory(job);
     }
 
+    // Hive reuses input format instances for every table, so nothing here depends on the table properties. Files that
+    // may be splittable are reported as such without reading them, getSplits checks the ones that were split
+    // afterwards with the properties of its job so small files are never opened on the client.
     @Override
-    public RecordReader getRecordReader(final InputSplit split, final JobConf job, final Reporter reporter)
-        throws IOException {
-
-        LOG.fatal(job);
-
-        final FileSplit fileSplit = (FileSplit) split;
-
-        reporter.setStatus(fileSplit.toString());
+    protected boolean isSplitable(final FileSystem fs, final Path filename) {
+        if (compressionCodecs == null) {
+            compressionCodecs = new CompressionCodecFactory(fs.getConf());
+        }
+        final CompressionCodec codec = compressionCodecs.getCodec(filename);
 
-        return new IonRecordReader(fileSplit, job);
+        return codec == null || codec instanceof SplittableCompressionCodec;
     }
 
-    private static class IonRecordReader implements RecordReader<LongWritable, BytesWritable> {
-        private final InputStream in;
-
-        private final HadoopProperties properties;
-        private final IonFactory ionFactory;
-        private final IonReader reader;
-        private final ByteArrayOutputStream out;
-        private final boolean isBinary;
-        private final long start;
-        private final long end;
-
-        private boolean isBinary(final InputStream inputStream) throws IOException {
-            try (InputStream input = inputStream) {
-                byte[] bytes = new byte[4];
-
-                input.read(bytes, 0, 4);
+    @Override
+    public InputSplit[] getSplits(final JobConf job, final int numSplits) throws IOException {
+        final InputSplit[] splits = super.getSplits(job, numSplits);
+
+        final HadoopProperties properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+        final IonFactory ionFactory = new IonFactory(properties);
+        final RecordFilter filter = RecordFilter.fromJob(job, properties, ionFactory);
+        final CompressionCodecFactory codecs = new CompressionCodecFactory(job);
+
+        // splits of the same file are contiguous and in order
+        final Map<Path, List<FileSplit>> splitsByFile = new LinkedHashMap<>();
+        for (final InputSplit split : splits) {
+            final FileSplit fileSplit = (FileSplit) split;
+            splitsByFile.computeIfAbsent(fileSplit.getPath(), path -> new ArrayList<>()).add(fileSplit);
+        }
 
-                return IonStreamUtils.isIonBinary(bytes);
-            }
+        // without a filter only files split in multiple parts need their index
+        if (filter == null && splitsByFile.size() == splits.length) {
+            return splits;
         }
 
-        IonRecordReader(final FileSplit fileSplit, final JobConf job)
-                throws IOException {
-            start = fileSplit.getStart();
-            // We don't handle the case that a FileSplit is starting at a position other than 0.
-            if (start != 0) {
-                throw new IOException(String.format("File split is at position %d, expected 0.", start));
+        final List<InputSplit> indexedSplits = new ArrayList<>(splits.length);
+        for (final Map.Entry<Path, List<FileSplit>> entry : splitsByFile.entrySet()) {
+            final List<FileSplit> fileSplits = entry.getValue();
+            if (filter == null && fileSplits.size() == 1) {
+                indexedSplits.addAll(fileSplits);
+                continue;
             }
-            end = start + fileSplit.getLength();
 
-            try (InputStream binCheck = getInputStream(fileSplit, job)) {
-                isBinary = isBinary(binCheck);
+            final Path path = entry.getKey();
+            final FileSystem fs = path.getFileSystem(job);
+            final IonIndex index = IonIndex.read(fs, path, fs.getFileStatus(path).getLen(), ionFactory);
+            final List<FileSplit> readableSplits = index != null && index.getOffsets().length > 0
+                ? fileSplits
+                : mergeUnsplittable(fs, fileSplits, codecs.getCodec(path), properties);
+            if (index == null) {
+                indexedSplits.addAll(readableSplits);
+            } else {
+                indexedSplits.addAll(indexSplits(readableSplits, index, filter));
             }
+        }
 
-            in = getInputStream(fileSplit, job);
+        if (indexedSplits.size() < splits.length) {
+            LOG.info("Skipped " + (splits.length - indexedSplits.size()) + " splits with the Ion indexes");
+        }
 
-            properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+        return indexedSplits.toArray(new InputSplit[0]);
+    }
 
-            ionFactory = new IonFactory(properties);
+    /**
+     * Merges the splits of a file without indexed version markers back into a single split when it can't be split:
+     * text that isn't newline delimited, compressed binary, or uncompressed binary unless splitting unindexed binary
+     * files is enabled, see {@link IonRecordReader}. Only the files split in multiple parts are read to tell binary
+     * from text.
+     *
+     * @param codec codec of the file, null if it's not compressed.
+     */
+    private static List<FileSplit> mergeUnsplittable(final FileSystem fs,
+                                                     final List<FileSplit> fileSplits,
+                                                     final CompressionCodec codec,
+                                                     final HadoopProperties properties) {
+        final FileSplit first = fileSplits.get(0);
+        final Path path = first.getPath();
+        if (fileSplits.size() == 1 || canSplit(fs, path, codec, properties)) {
+            return fileSplits;
+        }
 
-            reader = ionFactory.newReader(in);
+        final FileSplit last = fileSplits.get(fileSplits.size() - 1);
+        final long length = last.getStart() + last.getLength() - first.getStart();
 
-            out = new ByteArrayOutputStream();
-        }
+        return Collections.singletonList(new FileSplit(path, first.getStart(), length, first.getLocations()));
+    }
 
-        private InputStream getInputStream(final FileSplit fileSplit, final JobConf job) throws IOException {
-            final Path path = fileSplit.getPath();
-            final FileSystem fs = path.getFileSystem(job);
+    private static boolean canSplit(final FileSystem fs,
+                                    final Path path,
+                                    final CompressionCodec codec,
+                                    final HadoopProperties properties) {
+        final boolean newlineDelimited = properties.getNewlineDelimited();
+        final boolean splitBinary = codec == null && properties.getSplitUnindexedBinary();
+        if (newlineDelimited == splitBinary) {
+            return newlineDelimited;
+        }
 
-            CompressionCodecFactory compressionCodecs = new CompressionCodecFactory(job);
-            final CompressionCodec codec = compressionCodecs.getCodec(path);
+        try {
+            return isBinary(fs, path, codec) ? splitBinary : newlineDelimited;
+        } catch (IOException e) {
+            LOG.warn("Unable to check if " + path + " is binary Ion, reading it as a single split", e);
+            return false;
+        }
+    }
 
-            FSDataInputStream inputStream = fs.open(path);
+    /**
+     * Moves the boundaries of the splits of a file to the indexed checkpoints, and drops the splits whose zone maps
+     * can't match the filter.
+     */
+    private static List<FileSplit> indexSplits(final List<FileSplit> fileSplits,
+                                               final IonIndex index,
+                                               final RecordFilter filter) throws IOException {
+        if (filter != null && index.getZoneMap() != null && !filter.mayMatch(index.getZoneMap())) {
+            return Collections.emptyList();
+        }
 
-            return (codec == null) ? inputStream : codec.createInputStream(inputStream);
+        final List<FileSplit> aligned = fileSplits.size() > 1 && index.getOffsets().length > 0
+            ? alignSplits(fileSplits, index)
+            : fileSplits;
+        if (filter == null || index.getBlockZoneMaps() == null) {
+            return aligned;
         }
 
-        @Override
-        public final LongWritable createKey() {
-            return new LongWritable();
+        final ZoneMap[] blockZoneMaps = index.getBlockZoneMaps();
+        final boolean[] blockMatches = new boolean[blockZoneMaps.length];
+        for (int i = 0; i < blockZoneMaps.length; i++) {
+            blockMatches[i] = filter.mayMatch(blockZoneMaps[i]);
         }
 
-        @Override
-        public BytesWritable createValue() {
-            return new BytesWritable();
+        final List<FileSplit> matching = new ArrayList<>(aligned.size());
+        for (final FileSplit split : aligned) {
+            if (mayMatch(split, index, blockMatches)) {
+                matching.add(split);
+            }
         }
 
-        // CompressionInputStream and FSDataInputStream are both Seekable, but have no common
-        // Seekable parents. We can confidently cast our InputStream to Seekable.
-        @Override
-        public final long getPos() throws IOException {
-            return ((Seekable)in).getPos();
+        return matching;
+    }
+
+    /**
+     * Moves the boundaries of the splits of a file to the indexed checkpoints, dropping splits left empty.
+     */
+    static List<FileSplit> alignSplits(final List<FileSplit> fileSplits, final IonIndex index) throws IOException {
+        final List<FileSplit> aligned = new ArrayList<>(fileSplits.size());
+
+        long start = 0;
+        for (int i = 0; i < fileSplits.size(); i++) {
+            final FileSplit split = fileSplits.get(i);
+            final long end = i == fileSplits.size() - 1
+                ? split.getStart() + split.getLength()
+                : index.alignSplit(split.getStart() + split.getLength());
+
+            if (end > start) {
+                aligned.add(new FileSplit(split.getPath(), start, end - start, split.getLocations()));
+                start = end;
+            }
         }
 
-        @Override
-        public final void close() throws IOException {
-            this.in.close();
+        return aligned;
+    }
+
+    /**
+     * Checks if any block of records in a split may match the filter.
+     */
+    static boolean mayMatch(final FileSplit split, final IonIndex index, final boolean[] blockMatches) {
+        final long start = split.getStart();
+        final long end = start + split.getLength();
+        final long[] offsets = index.getOffsets();
+
+        // records before the first entry have no zone map
+        if (offsets.length == 0 || start < offsets[0]) {
+            return true;
         }
 
-        // We don't know why `progress` is equal to 0 instead of 1 when start == end, what Hadoop is doing since long
-        // times ago is setting it to 0.
-        //
-        // References:
-        // * The original split support issue: https://issues.apache.org/jira/browse/HADOOP-451
-        // * The original patch that introduced this: https://svn.apache.org/viewvc/lucene/hadoop/trunk/src/java/org/apa
-        // che/hadoop/mapred/TextInputFormat.java?r1=469596&r2=488438&pathrev=502021&diff_format=h
-        @Override
-        public final float getProgress() throws IOException {
-            float size = (this.end - this.start);
-            float progress = (this.getPos() - this.start);
-            return this.end == this.start ? 0.0F : Math.min(1.0F, progress / size);
+        for (int i = 0; i < offsets.length && offsets[i] < end; i++) {
+            if (index.blockEnd(i) > start && blockMatches[i]) {
+                return true;
+            }
         }
 
-        @Override
-        public final boolean next(final LongWritable key, final BytesWritable value) throws IOException {
-            try {
-                if (reader.next() == null) {
-                    return false;
-                }
+        return false;
+    }
 
-                out.reset();
+    @Override
+    public RecordReader getRecordReader(final InputSplit split, final JobConf job, final Reporter reporter)
+        throws IOException {
 
-                try (final IonWriter writer = newWriter(out)) {
-                    writer.writeValue(reader);
-                }
+        LOG.fatal(job);
 
-                byte[] newData = out.toByteArray();
-                value.set(newData, 0, newData.length);
+        final FileSplit fileSplit = (FileSplit) split;
 
-                return true;
-            } catch (IonException e) {
-                // skips rest of the split if ignoring malformed
-                if (properties.getIgnoreMalformed()) {
-                    return false;
-                }
+        reporter.setStatus(fileSplit.toString());
+
+        final HadoopProperties properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+        final IonFactory ionFactory = new IonFactory(properties);
+
+        return newRecordReader(fileSplit,
+                               job,
+                               new CompressionCodecFactory(job),
+                               properties,
+                               ionFactory,
+                               RecordFilter.fromJob(job, properties, ionFactory),
+                               reporter);
+    }
 
-                throw e;
+    /**
+     * Creates the reader of a file split, newline delimited text files are read by {@link IonTextLineRecordReader}
+     * and every other file by {@link IonRecordReader}. The file is opened once and the stream is handed over to the
+     * reader.
+     *
+     * @param compressionCodecs factory shared by the readers of a task, see {@link CombineIonRecordReader}.
+     * @param filter filter pushed down by Hive, null if there is none.
+     * @return a reader of {@code Text} for newline delimited text files, of {@code BytesWritable} otherwise.
+     */
+    static RecordReader newRecordReader(final FileSplit fileSplit,
+                                        final JobConf job,
+                                        final CompressionCodecFactory compressionCodecs,
+                                        final HadoopProperties properties,
+                                        final IonFactory ionFactory,
+                                        final RecordFilter filter,
+                                        final Reporter reporter) throws IOException {
+        final Path path = fileSplit.getPath();
+        final CompressionCodec codec = compressionCodecs.getCodec(path);
+        final FSDataInputStream fileIn = path.getFileSystem(job).open(path);
+
+        try {
+            if (properties.getNewlineDelimited() && !startsWithVersionMarker(fileIn, codec)) {
+                return new IonTextLineRecordReader(fileSplit, job, fileIn, codec, ionFactory, filter, reporter);
             }
+
+            return new IonRecordReader(fileSplit, job, fileIn, codec, properties, ionFactory, filter, reporter);
+        } catch (IOException | RuntimeException e) {
+            fileIn.close();
+            throw e;
+        }
+    }
+
+    static boolean isBinary(final FileSystem fs, final Path path, final CompressionCodec codec)
+        throws IOException {
+
+        try (FSDataInputStream fileIn = fs.open(path)) {
+            return startsWithVersionMarker(fileIn, codec);
+        }
+    }
+
+    /**
+     * Checks if a file starts with a binary Ion version marker, leaving the stream at the start of the file.
+     * Uncompressed files are checked with a positional read, compressed ones are decompressed with a pooled
+     * decompressor.
+     *
+     * @param codec codec of the file, null if it's not compressed.
+     */
+    static boolean startsWithVersionMarker(final FSDataInputStream fileIn, final CompressionCodec codec)
+        throws IOException {
+
+        if (codec == null) {
+            return IonRecordReader.startsWithVersionMarker(fileIn);
         }
 
-        private IonWriter newWriter(final ByteArrayOutputStream out) {
-            return isBinary
-                ? ionFactory.newBinaryWriter(out)
-                : ionFactory.newTextWriter(out);
+        final Decompressor decompressor = CodecPool.getDecompressor(codec);
+        try {
+            // the decompressed stream isn't closed, that would close the file
+            final InputStream input = codec.createInputStream(fileIn, decompressor);
+            return IonRecordReader.startsWithVersionMarker(
+                new PushbackInputStream(input, IonRecordReader.VERSION_MARKER_LENGTH));
+        } finally {
+            CodecPool.returnDecompressor(decompressor);
+            fileIn.seek(0);
         }
     }
 }
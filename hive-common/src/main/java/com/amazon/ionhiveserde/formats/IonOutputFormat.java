@@ -3,17 +3,32 @@
 
 package com.amazon.ionhiveserde.formats;
 
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.util.IonStreamUtils;
 import com.amazon.ionhiveserde.AbstractIonHiveSerDe;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import com.amazon.ionhiveserde.configuration.IonEncoding;
+import com.amazon.ionhiveserde.configuration.IonLayout;
+import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import com.amazon.ionhiveserde.configuration.source.HadoopConfigurationAdapter;
+import com.amazon.ionhiveserde.configuration.source.JavaPropertiesAdapter;
+import com.amazon.ionhiveserde.formats.IonCounters.Counter;
 import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
 import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
@@ -32,6 +47,21 @@ import org.apache.hadoop.util.Progressable;
  * </p>
  *
  * <p>
+ * With streaming output the SerDe hands over {@link IonRowWritable}s instead, which are copied to a single writer
+ * per file that is finished every block of rows.
+ * </p>
+ *
+ * <p>
+ * Uncompressed files can have an index appended to them with record offsets, for binary files, and zone maps, see
+ * {@link IonIndex}.
+ * </p>
+ *
+ * <p>
+ * With {@link IonLayout#ROW_GROUPS} every record is added to a {@link RowGroupWriter} instead and written as binary Ion
+ * once the group is full, whatever the encoding.
+ * </p>
+ *
+ * <p>
  * <strong>WARNING:</strong> Must be used with {@link AbstractIonHiveSerDe}.
  * </p>
  */
@@ -54,7 +84,10 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
             reporter = Optional.of((Reporter) progress);
         }
 
-        return new HadoopAdapter(new IonRecordWriter(fileOut, reporter, FileOutputFormat.getCompressOutput(job)));
+        final HadoopProperties properties = new HadoopProperties(new HadoopConfigurationAdapter(job));
+
+        return new HadoopAdapter(new IonRecordWriter(
+            fileOut, reporter, FileOutputFormat.getCompressOutput(job), properties));
     }
 
     @Override
@@ -66,6 +99,7 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
                                                              final Progressable progress)
         throws IOException {
         DataOutputStream out;
+        final FileSystem fs = finalOutPath.getFileSystem(jc);
         // If we are passed in a reporter, make sure we call incrCounters during write
         Optional<Reporter> reporter = Optional.empty();
         if (progress instanceof Reporter) {
@@ -74,14 +108,14 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
 
         if (isCompressed) {
             CompressionCodec codec = getCompressionCodec(jc);
-            FileSystem fs = finalOutPath.getFileSystem(jc);
             FSDataOutputStream fileOut = fs.create(finalOutPath, progress);
             out = new DataOutputStream(codec.createOutputStream(fileOut));
         } else {
-            final FileSystem fs = finalOutPath.getFileSystem(jc);
             out = fs.create(finalOutPath, progress);
         }
-        return new IonRecordWriter(out, reporter, isCompressed);
+
+        final HadoopProperties properties = new HadoopProperties(new JavaPropertiesAdapter(tableProperties));
+        return new IonRecordWriter(out, reporter, isCompressed, properties);
     }
 
     /**
@@ -102,11 +136,50 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
         private final DataOutputStream out;
         private final Optional<Reporter> reporter;
         private final boolean isCompressed;
+        private final IonCounters counters;
+
+        // index, only for uncompressed files where the position in the stream is the file offset
+        private final IonFactory ionFactory;
+        private IonIndex.Builder index;
+        private long records;
+        private boolean textOutput;
 
-        IonRecordWriter(final DataOutputStream out, final Optional<Reporter> reporter, final boolean isCompressed) {
+        // streaming output
+        private IonWriter rowWriter;
+        private CountingOutputStream rowOut;
+        private DataOutputBuffer blockCopy;
+        private int blockRows;
+        private int rowsInBlock;
+
+        // row groups
+        private RowGroupWriter rowGroup;
+        private int rowGroupRows;
+
+        IonRecordWriter(final DataOutputStream out,
+                        final Optional<Reporter> reporter,
+                        final boolean isCompressed,
+                        final HadoopProperties properties) {
             this.out = out;
             this.reporter = reporter;
             this.isCompressed = isCompressed;
+            this.counters = IonCounters.get();
+            reporter.ifPresent(counters::setReporter);
+
+            this.ionFactory = new IonFactory(properties);
+            final int indexInterval = properties.getOutputIndexInterval();
+            final boolean zoneMaps = properties.getOutputZoneMaps();
+            final Set<String> bloomFilterColumns = properties.getOutputBloomFilterColumns();
+            if ((indexInterval > 0 || zoneMaps || !bloomFilterColumns.isEmpty())
+                && !isCompressed
+                && out instanceof FSDataOutputStream) {
+                index = new IonIndex.Builder(
+                    indexInterval, zoneMaps, bloomFilterColumns, properties.getOutputBloomFilterFpp());
+            }
+
+            if (properties.getLayout() == IonLayout.ROW_GROUPS) {
+                rowGroup = new RowGroupWriter(ionFactory);
+                rowGroupRows = properties.getRowGroupRows();
+            }
         }
 
         @Override
@@ -116,13 +189,41 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
                 return;
             }
 
+            final long startTime = counters.start(Counter.WRITE_NANOS);
+            writeValue(value);
+            records++;
+            counters.stop(Counter.WRITE_NANOS, startTime);
+            counters.increment(Counter.RECORDS_WRITTEN, 1);
+        }
+
+        private void writeValue(final Writable value) throws IOException {
+            if (rowGroup != null) {
+                writeToRowGroup(value);
+                return;
+            }
+
+            if (value instanceof IonRowWritable) {
+                writeRow((IonRowWritable) value);
+                return;
+            }
+
             // The SerDe already serialized the data to a Writable as either Ion binary or text. The output format
             // only needs to flush those bytes out to the destination, and add the bytes written to the reporter
             // if needed.
 
+            finishBlock();
+
             if (value instanceof Text) {
                 final Text text = (Text) value;
                 final int bytesWritten = text.getLength();
+
+                // text has no version markers to resume reading from
+                textOutput = true;
+                if (index != null) {
+                    index.stopCheckpoints();
+                    addToZoneMap(text.getBytes(), bytesWritten);
+                }
+
                 long pos = out.size();
                 out.write(text.getBytes(), 0, bytesWritten);
                 updateBytesWritten(isCompressed ? out.size() - pos : bytesWritten);
@@ -130,6 +231,14 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
                 final BytesWritable bytesWritable = (BytesWritable) value;
                 final int bytesWritten = bytesWritable.getLength();
 
+                // every record serialized by the SerDe is a standalone document starting with a version marker
+                if (index != null && IonStreamUtils.isIonBinary(bytesWritable.getBytes(), 0, bytesWritten)) {
+                    index.checkpoint(getFilePosition(), records);
+                }
+                if (index != null) {
+                    addToZoneMap(bytesWritable.getBytes(), bytesWritten);
+                }
+
                 long pos = out.size();
                 out.write(bytesWritable.getBytes(), 0, bytesWritten);
                 updateBytesWritten(isCompressed ? out.size() - pos : bytesWritten);
@@ -138,13 +247,133 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
             }
         }
 
+        private void writeRow(final IonRowWritable row) throws IOException {
+            if (rowWriter == null) {
+                final SerDeProperties properties = row.getProperties();
+                final IonFactory ionFactory = row.getIonFactory();
+
+                // blocks are read again for the zone maps once finished
+                if (index != null && index.collectsZoneMaps()) {
+                    blockCopy = new DataOutputBuffer();
+                }
+
+                rowOut = new CountingOutputStream(out, blockCopy);
+                rowWriter = properties.getEncoding() == IonEncoding.BINARY
+                    ? ionFactory.newBinaryWriter(rowOut)
+                    : ionFactory.newTextWriter(rowOut);
+                blockRows = properties.getOutputBlockRows();
+                textOutput = properties.getEncoding() != IonEncoding.BINARY;
+                if (index != null && textOutput) {
+                    index.stopCheckpoints();
+                }
+            }
+
+            // a new block starts with a version marker
+            if (index != null && rowsInBlock == 0) {
+                index.checkpoint(getFilePosition(), records);
+            }
+
+            row.writeTo(rowWriter);
+
+            if (++rowsInBlock == blockRows) {
+                finishBlock();
+            }
+        }
+
+        private void writeToRowGroup(final Writable value) throws IOException {
+            final byte[] bytes;
+            final int length;
+            if (value instanceof IonRowWritable) {
+                bytes = ((IonRowWritable) value).getBytes();
+                length = ((IonRowWritable) value).getLength();
+            } else if (value instanceof BytesWritable) {
+                bytes = ((BytesWritable) value).getBytes();
+                length = ((BytesWritable) value).getLength();
+            } else if (value instanceof Text) {
+                bytes = ((Text) value).getBytes();
+                length = ((Text) value).getLength();
+            } else {
+                throw new IllegalArgumentException("Unknown writable type: " + value.getClass());
+            }
+
+            // a new group starts with a version marker
+            if (index != null && rowGroup.getRows() == 0) {
+                index.checkpoint(getFilePosition(), records);
+            }
+            if (index != null) {
+                addToZoneMap(bytes, length);
+            }
+
+            try (IonReader reader = ionFactory.newReader(bytes, 0, length)) {
+                rowGroup.add(reader);
+            }
+
+            if (rowGroup.getRows() >= rowGroupRows) {
+                finishRowGroup();
+            }
+        }
+
+        private void finishRowGroup() throws IOException {
+            final long pos = out.size();
+            rowGroup.writeTo(out);
+            updateBytesWritten(out.size() - pos);
+        }
+
+        // Finishing the writer ends the current block, the next row starts with a new Ion version marker and symbol
+        // table which keeps binary files splittable, see IonInputFormat.
+        private void finishBlock() throws IOException {
+            if (rowsInBlock == 0) {
+                return;
+            }
+
+            final long before = rowOut.getCount();
+            rowWriter.finish();
+            rowsInBlock = 0;
+            updateBytesWritten(rowOut.getCount() - before);
+
+            if (blockCopy != null) {
+                addToZoneMap(blockCopy.getData(), blockCopy.getLength());
+                blockCopy.reset();
+            }
+        }
+
+        private void addToZoneMap(final byte[] bytes, final int length) throws IOException {
+            if (!index.collectsZoneMaps()) {
+                return;
+            }
+
+            try (IonReader reader = ionFactory.newReader(bytes, 0, length)) {
+                index.addRecords(reader);
+            }
+        }
+
         @Override
         public void close(final boolean abort) throws IOException {
-            close();
+            if (!abort) {
+                finishBlock();
+                if (rowGroup != null) {
+                    finishRowGroup();
+                }
+            }
+
+            counters.close();
+
+            // the index is appended to the file so it's moved with it when the output is committed
+            if (!abort && index != null && records > 0) {
+                final IonIndex built = index.build(getFilePosition());
+                if (built != null) {
+                    built.writeFooter(out, textOutput, ionFactory);
+                }
+            }
+            out.close();
         }
 
         void close() throws IOException {
-            out.close();
+            close(false);
+        }
+
+        private long getFilePosition() throws IOException {
+            return ((FSDataOutputStream) out).getPos();
         }
 
         private void updateBytesWritten(final long bytesWritten) {
@@ -156,6 +385,51 @@ public class IonOutputFormat extends FileOutputFormat<Object, Writable> implemen
         }
     }
 
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final OutputStream copy;
+        private long count;
+
+        /**
+         * Constructor.
+         *
+         * @param out stream written to.
+         * @param copy stream that gets a copy of the bytes written, null if not needed.
+         */
+        CountingOutputStream(final OutputStream out, final OutputStream copy) {
+            super(out);
+            this.copy = copy;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+            }
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+            }
+            count += len;
+        }
+
+        // the writer doesn't own the stream, it's closed by the record writer
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
     private static class HadoopAdapter implements RecordWriter<Object, Writable> {
 
         private final IonRecordWriter recordWriter;
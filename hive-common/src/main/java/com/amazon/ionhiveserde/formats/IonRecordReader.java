@@ -0,0 +1,668 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.OffsetSpan;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ion.util.IonStreamUtils;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import com.amazon.ionhiveserde.formats.IonCounters.Counter;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Reads top-level Ion values from a {@link FileSplit} into {@link IonRecordWritable}s. Binary files are framed by
+ * {@link BinaryIonSplitReader} so they can be read from the indexed version markers of any split and values are
+ * handed over as their raw bytes, without re-encoding. Text files are read by an {@link IonReader}, which has no
+ * access to the raw text of a value, so each value is re-encoded, and must be read as a single split.
+ *
+ * <p>When ignoring malformed records, a malformed record is skipped and reading resumes at the next value that can be
+ * recognized without parsing the ones before it: the next Ion version marker of the split in binary, or the next line
+ * that starts without indentation or a closing delimiter in text. Skipped records can be written to a dead letter
+ * directory by {@link DeadLetterWriter}.
+ *
+ * <p>Binary files written as row groups are detected from the first record of the split and read by
+ * {@link RowGroupReader}, which only reads the columns of the fields projected by the query.
+ */
+final class IonRecordReader implements RecordReader<LongWritable, BytesWritable> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int VERSION_MARKER_LENGTH = 4;
+
+    private final FileSystem fs;
+    private final Path path;
+    private final CompressionCodec codec;
+    private final Decompressor decompressor;
+    private final InputStream in;
+
+    // bytes that may be part of a malformed record, only kept when they are needed
+    private final RetainingInputStream retained;
+
+    private final HadoopProperties properties;
+    private final IonFactory ionFactory;
+    private final boolean isBinary;
+    private final long start;
+    private final long end;
+
+    // binary files
+    private final BinaryIonSplitReader splitReader;
+
+    // text files, offsets of the values are only known when the reader provides them
+    private final DataOutputBuffer out;
+    private IonReader reader;
+    private boolean textOffsets;
+    private long segmentStart;
+    private long valueStart = -1;
+    private boolean valueRead;
+    private long scanPosition;
+    private boolean textFinished;
+
+    private final RecordFilter filter;
+    private final IonCounters counters;
+    private final DeadLetterWriter deadLetters;
+
+    // index of the file, read at most once
+    private IonIndex fileIndex;
+    private boolean fileIndexRead;
+
+    // zone maps of the file, see IonIndex
+    private IonIndex index;
+    private boolean[] skippedBlocks;
+    private int nextBlock;
+    private boolean fileSkipped;
+
+    private IonRecordWritable fallbackValue;
+
+    // row groups, the layout is checked on the first record of the split
+    private final Set<String> projectedFields;
+    private boolean layoutChecked;
+    private RowGroupReader rowGroupReader;
+    private boolean inRowGroup;
+
+    /**
+     * Constructor, the factory and filter are shared by the readers of the splits of a task, see
+     * {@link CombineIonRecordReader}.
+     *
+     * @param fileIn stream of the file, at any position, closed by the reader.
+     * @param codec codec of the file, null if it's not compressed.
+     * @param filter filter pushed down by Hive, null if there is none.
+     */
+    IonRecordReader(final FileSplit fileSplit,
+                    final JobConf job,
+                    final FSDataInputStream fileIn,
+                    final CompressionCodec codec,
+                    final HadoopProperties properties,
+                    final IonFactory ionFactory,
+                    final RecordFilter filter,
+                    final Reporter reporter) throws IOException {
+
+        start = fileSplit.getStart();
+        end = start + fileSplit.getLength();
+
+        path = fileSplit.getPath();
+        fs = path.getFileSystem(job);
+        this.codec = codec;
+
+        this.properties = properties;
+        this.ionFactory = ionFactory;
+        deadLetters = properties.getIgnoreMalformed()
+            ? DeadLetterWriter.fromJob(job, properties, ionFactory, path, start)
+            : null;
+
+        // the version marker is checked without losing the start of the stream
+        final InputStream input;
+        long readStart = start;
+        long readEnd = Long.MAX_VALUE;
+        if (codec == null) {
+            isBinary = startsWithVersionMarker(fileIn);
+            if (isBinary) {
+                final long[] bounds = binaryBounds();
+                if (bounds == null) {
+                    fileSkipped = true;
+                } else {
+                    readStart = bounds[0];
+                    readEnd = bounds[1];
+                }
+            }
+            fileIn.seek(readStart);
+            decompressor = null;
+            in = fileIn;
+            input = fileIn;
+        } else {
+            fileIn.seek(0);
+            decompressor = CodecPool.getDecompressor(codec);
+            in = codec.createInputStream(fileIn, decompressor);
+            final PushbackInputStream pushback = new PushbackInputStream(in, VERSION_MARKER_LENGTH);
+            isBinary = startsWithVersionMarker(pushback);
+            input = pushback;
+        }
+
+        // Only uncompressed binary files are splittable, see IonInputFormat#isSplitable. Engines that split the other
+        // files anyway, like CombineHiveInputFormat, read them whole in the split starting at 0.
+        if (start != 0 && (codec != null || !isBinary)) {
+            fileSkipped = true;
+        }
+
+        if (isBinary) {
+            // binary resyncs scanning forward, the bytes are only needed for the dead letters
+            retained = deadLetters != null ? new RetainingInputStream(input, readStart) : null;
+            splitReader = new BinaryIonSplitReader(
+                new BufferedInputStream(retained != null ? retained : input, BUFFER_SIZE), readStart, readEnd);
+            reader = null;
+            out = null;
+        } else {
+            // text is scanned again from the start of the malformed value to find the next one
+            retained = properties.getIgnoreMalformed() ? new RetainingInputStream(input, 0) : null;
+            splitReader = null;
+            out = new DataOutputBuffer();
+            startTextSegment(retained != null ? retained : input, 0);
+        }
+
+        this.filter = filter;
+        counters = IonCounters.get();
+        counters.setReporter(reporter);
+
+        if (filter != null && !fileSkipped) {
+            readZoneMaps();
+        }
+
+        projectedFields = isBinary ? projectedFields(job, properties, filter) : null;
+    }
+
+    /**
+     * Returns the top-level fields read by the query, or null if every field may be read, e.g. when a read column has
+     * a custom path extractor.
+     */
+    private static Set<String> projectedFields(final JobConf job,
+                                               final HadoopProperties properties,
+                                               final RecordFilter filter) {
+        if (ColumnProjectionUtils.isReadAllColumns(job)) {
+            return null;
+        }
+
+        final boolean caseSensitive = properties.getPathExtractorCaseSensitivity();
+        final Set<String> fields = new HashSet<>();
+        for (final String columnName : ColumnProjectionUtils.getReadColumnNames(job)) {
+            if (!properties.hasDefaultPathExtractor(columnName)) {
+                return null;
+            }
+            fields.add(caseSensitive ? columnName : columnName.toLowerCase(Locale.ROOT));
+        }
+
+        // the filter is evaluated on the rebuilt rows
+        if (filter != null) {
+            for (final String fieldName : filter.getFieldNames()) {
+                fields.add(caseSensitive ? fieldName : fieldName.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        return fields;
+    }
+
+    /**
+     * Returns the bounds of the bytes read by a split of an uncompressed binary file. Bytes inside a value, e.g. a
+     * blob holding binary Ion, can look like a version marker, so splits start and end at the indexed version markers,
+     * see {@link IonIndex#alignSplit(long)}, which are moved there by IonInputFormat#getSplits but not by engines that
+     * compute the splits themselves. Without an index the split starting at 0 reads the whole file, unless splitting
+     * unindexed binary files is enabled.
+     *
+     * @return start and end of the bytes to read, or null if the split has nothing to read.
+     */
+    private long[] binaryBounds() throws IOException {
+        final long fileLength = fs.getFileStatus(path).getLen();
+        if (start == 0 && end >= fileLength) {
+            return new long[] {start, end};
+        }
+
+        final IonIndex fileIndex = readIndex(fileLength);
+        if (fileIndex != null && fileIndex.getOffsets().length > 0) {
+            final long alignedStart = start == 0 ? 0 : fileIndex.alignSplit(start);
+            final long alignedEnd = fileIndex.alignSplit(end);
+
+            return alignedStart < alignedEnd ? new long[] {alignedStart, alignedEnd} : null;
+        }
+
+        if (properties.getSplitUnindexedBinary()) {
+            return new long[] {start, end};
+        }
+
+        return start == 0 ? new long[] {0, Long.MAX_VALUE} : null;
+    }
+
+    private IonIndex readIndex(final long fileLength) throws IOException {
+        if (!fileIndexRead) {
+            fileIndexRead = true;
+            fileIndex = IonIndex.read(fs, path, fileLength, ionFactory);
+        }
+
+        return fileIndex;
+    }
+
+    /**
+     * Checks the zone maps of the file against the filter, usually done by IonInputFormat#getSplits for the whole file
+     * but not by engines that compute the splits themselves.
+     */
+    private void readZoneMaps() throws IOException {
+        final IonIndex fileIndex = readIndex(fs.getFileStatus(path).getLen());
+        if (fileIndex == null) {
+            return;
+        }
+
+        if (fileIndex.getZoneMap() != null && !filter.mayMatch(fileIndex.getZoneMap())) {
+            fileSkipped = true;
+            counters.increment(Counter.ZONE_MAP_SKIPPED, 1);
+            return;
+        }
+
+        // blocks can only be skipped where the reader knows the position in the file
+        final ZoneMap[] blockZoneMaps = fileIndex.getBlockZoneMaps();
+        if (splitReader != null && codec == null && blockZoneMaps != null) {
+            index = fileIndex;
+            skippedBlocks = new boolean[blockZoneMaps.length];
+            for (int i = 0; i < blockZoneMaps.length; i++) {
+                skippedBlocks[i] = !filter.mayMatch(blockZoneMaps[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks if the file starts with a binary Ion version marker, without moving the stream.
+     */
+    static boolean startsWithVersionMarker(final FSDataInputStream fileIn) throws IOException {
+        final byte[] bytes = new byte[VERSION_MARKER_LENGTH];
+
+        int read = 0;
+        while (read < bytes.length) {
+            final int count = fileIn.read(read, bytes, read, bytes.length - read);
+            if (count == -1) {
+                return false;
+            }
+            read += count;
+        }
+
+        return IonStreamUtils.isIonBinary(bytes);
+    }
+
+    /**
+     * Checks if the stream starts with a binary Ion version marker, unreading the bytes read.
+     */
+    static boolean startsWithVersionMarker(final PushbackInputStream input) throws IOException {
+        final byte[] bytes = new byte[VERSION_MARKER_LENGTH];
+
+        int read = 0;
+        while (read < bytes.length) {
+            final int count = input.read(bytes, read, bytes.length - read);
+            if (count == -1) {
+                break;
+            }
+            read += count;
+        }
+        input.unread(bytes, 0, read);
+
+        return read == bytes.length && IonStreamUtils.isIonBinary(bytes);
+    }
+
+    @Override
+    public LongWritable createKey() {
+        return new LongWritable();
+    }
+
+    @Override
+    public BytesWritable createValue() {
+        return new IonRecordWritable();
+    }
+
+    // CompressionInputStream and FSDataInputStream are both Seekable, but have no common
+    // Seekable parents. We can confidently cast our InputStream to Seekable. Uncompressed binary files are read through
+    // a buffer so the split reader keeps track of the actual position.
+    @Override
+    public long getPos() throws IOException {
+        if (splitReader != null && codec == null) {
+            return splitReader.getPosition();
+        }
+
+        return ((Seekable) in).getPos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        counters.close();
+        if (deadLetters != null) {
+            deadLetters.close();
+        }
+        if (rowGroupReader != null) {
+            rowGroupReader.close();
+        }
+        try {
+            this.in.close();
+        } finally {
+            CodecPool.returnDecompressor(decompressor);
+        }
+    }
+
+    // We don't know why `progress` is equal to 0 instead of 1 when start == end, what Hadoop is doing since long
+    // times ago is setting it to 0.
+    //
+    // References:
+    // * The original split support issue: https://issues.apache.org/jira/browse/HADOOP-451
+    // * The original patch that introduced this: https://svn.apache.org/viewvc/lucene/hadoop/trunk/src/java/org/apa
+    // che/hadoop/mapred/TextInputFormat.java?r1=469596&r2=488438&pathrev=502021&diff_format=h
+    @Override
+    public float getProgress() throws IOException {
+        float size = (this.end - this.start);
+        float progress = (this.getPos() - this.start);
+        return this.end == this.start ? 0.0F : Math.min(1.0F, progress / size);
+    }
+
+    @Override
+    public boolean next(final LongWritable key, final BytesWritable value) throws IOException {
+        if (fileSkipped) {
+            return false;
+        }
+
+        final long startTime = counters.start(Counter.READ_NANOS);
+        try {
+            while (true) {
+                final boolean read;
+                try {
+                    read = nextRecord(value);
+                } catch (IonException e) {
+                    // skips the malformed record if ignoring malformed, and the rest of the split if it can't resync
+                    if (!properties.getIgnoreMalformed()) {
+                        throw e;
+                    }
+                    if (splitReader != null ? resyncBinary(e) : resyncText(e)) {
+                        continue;
+                    }
+                    return false;
+                }
+
+                if (!read) {
+                    return false;
+                }
+
+                counters.increment(Counter.RECORDS_READ, 1);
+                counters.increment(Counter.BYTES_READ, value.getLength());
+
+                // records that can't match the pushed down filter are never handed to the SerDe
+                if (filter == null || filter.accept(value.getBytes(), 0, value.getLength())) {
+                    return true;
+                }
+            }
+        } finally {
+            counters.stop(Counter.READ_NANOS, startTime);
+        }
+    }
+
+    private boolean nextRecord(final BytesWritable value) throws IOException {
+        if (splitReader != null) {
+            return nextBinary(value);
+        }
+
+        if (textFinished || reader.next() == null) {
+            return false;
+        }
+
+        valueStart = currentValueStart();
+        valueRead = false;
+        if (retained != null && valueStart != -1) {
+            retained.retainFrom(valueStart);
+        }
+        out.reset();
+
+        try (final IonWriter writer = ionFactory.newTextWriter(out)) {
+            writer.writeValue(reader);
+        }
+        valueRead = true;
+
+        value.set(out.getData(), 0, out.getLength());
+
+        return true;
+    }
+
+    private void startTextSegment(final InputStream input, final long offset) {
+        reader = ionFactory.newReader(input);
+        textOffsets = reader.asFacet(SpanProvider.class) != null;
+        segmentStart = offset;
+        valueStart = -1;
+        valueRead = false;
+        if (retained != null) {
+            retained.retainFrom(offset);
+        }
+    }
+
+    private long currentValueStart() {
+        if (!textOffsets) {
+            return -1;
+        }
+
+        final OffsetSpan span = reader.asFacet(SpanProvider.class).currentSpan().asFacet(OffsetSpan.class);
+        if (span == null) {
+            textOffsets = false;
+            return -1;
+        }
+
+        return segmentStart + span.getStartOffset();
+    }
+
+    private boolean resyncBinary(final IonException e) throws IOException {
+        inRowGroup = false;
+        final long malformedStart = splitReader.getValueStart();
+        final boolean resynced = splitReader.resync();
+        final long malformedEnd = resynced
+            ? splitReader.getPosition() - VERSION_MARKER_LENGTH
+            : splitReader.getPosition();
+
+        skipped(malformedStart, malformedEnd, e);
+
+        return resynced;
+    }
+
+    /**
+     * Resumes reading text at the next line that starts a value after the malformed one. The reader buffers ahead of
+     * the value it's reading, the bytes from the start of the value are scanned again from the retained ones.
+     */
+    private boolean resyncText(final IonException e) throws IOException {
+        reader.close();
+        if (!textOffsets) {
+            counters.increment(Counter.MALFORMED_RECORDS_SKIPPED, 1);
+            textFinished = true;
+            return false;
+        }
+
+        final long from = valueStart == -1 ? segmentStart : valueStart;
+        final BufferedInputStream input = new BufferedInputStream(retained.replayFrom(from), BUFFER_SIZE);
+        boolean found = true;
+        scanPosition = from;
+
+        // a value that was completely read is followed by the malformed data, which starts on a later line
+        long malformedStart = from;
+        if (valueStart != -1 && valueRead) {
+            found = nextValueLine(input);
+            malformedStart = scanPosition;
+        }
+        if (found) {
+            found = nextValueLine(input);
+        }
+
+        skipped(malformedStart, scanPosition, e);
+
+        if (!found) {
+            textFinished = true;
+            return false;
+        }
+
+        startTextSegment(input, scanPosition);
+        return true;
+    }
+
+    /**
+     * Moves the stream to the start of the next line that starts a value, indented lines and closing delimiters
+     * continue a value that started before.
+     *
+     * @return false if the stream ended before.
+     */
+    private boolean nextValueLine(final BufferedInputStream input) throws IOException {
+        boolean lineStart = false;
+        while (true) {
+            input.mark(1);
+            final int b = input.read();
+            if (b == -1) {
+                return false;
+            }
+
+            if (lineStart && startsValue(b)) {
+                input.reset();
+                return true;
+            }
+
+            scanPosition++;
+            lineStart = b == '\n';
+        }
+    }
+
+    private static boolean startsValue(final int b) {
+        switch (b) {
+            case ' ':
+            case '\t':
+            case '\r':
+            case '\n':
+            case '\f':
+            case 0x0B:
+            case '}':
+            case ']':
+            case ')':
+            case ',':
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private void skipped(final long malformedStart, final long malformedEnd, final IonException e)
+        throws IOException {
+
+        counters.increment(Counter.MALFORMED_RECORDS_SKIPPED, 1);
+        counters.increment(Counter.MALFORMED_BYTES_SKIPPED, malformedEnd - malformedStart);
+
+        if (deadLetters != null) {
+            final long bytesEnd = Math.min(malformedEnd, malformedStart + DeadLetterWriter.MAX_BYTES);
+            deadLetters.write(
+                malformedStart, malformedEnd, String.valueOf(e.getMessage()), retained.copy(malformedStart, bytesEnd));
+        }
+    }
+
+    private boolean nextBinary(final BytesWritable value) throws IOException {
+        while (true) {
+            if (inRowGroup) {
+                if (rowGroupReader.next(value)) {
+                    return true;
+                }
+                inRowGroup = false;
+            }
+
+            if (!nextBinaryValue(value)) {
+                return false;
+            }
+
+            // only files with a row group in their first record of the split are checked for every record
+            if (layoutChecked && rowGroupReader == null) {
+                return true;
+            }
+            layoutChecked = true;
+            if (!readRowGroupPart(value)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Starts reading the row group if the record is its directory. Columns of a row group whose directory is in the
+     * previous split are skipped.
+     *
+     * @return false if the record isn't part of a row group.
+     */
+    private boolean readRowGroupPart(final BytesWritable value) throws IOException {
+        try (IonReader reader = ionFactory.newReader(value.getBytes(), 0, value.getLength())) {
+            final String part = RowGroupReader.partOf(reader);
+            if (part == null) {
+                return false;
+            }
+
+            if (rowGroupReader == null) {
+                rowGroupReader = new RowGroupReader(
+                    ionFactory, projectedFields, properties.getPathExtractorCaseSensitivity());
+            }
+            if (RowGroupWriter.ROW_GROUP_ANNOTATION.equals(part)) {
+                rowGroupReader.start(reader, splitReader);
+                inRowGroup = true;
+            }
+
+            return true;
+        }
+    }
+
+    private boolean nextBinaryValue(final BytesWritable value) throws IOException {
+        if (index != null) {
+            skipBlocks();
+        }
+        if (retained != null) {
+            retained.retainFrom(splitReader.getPosition());
+        }
+
+        if (value instanceof IonRecordWritable) {
+            return splitReader.next((IonRecordWritable) value);
+        }
+
+        // values not created by createValue()
+        if (fallbackValue == null) {
+            fallbackValue = new IonRecordWritable();
+        }
+        if (!splitReader.next(fallbackValue)) {
+            return false;
+        }
+        value.set(fallbackValue.getBytes(), 0, fallbackValue.getLength());
+
+        return true;
+    }
+
+    /**
+     * Skips the blocks that can't match the filter starting at the current position. Values end right where the next
+     * block starts, a block the reader gets to in the middle, e.g. when the split doesn't start at an entry, is read.
+     */
+    private void skipBlocks() throws IOException {
+        final long[] offsets = index.getOffsets();
+        while (nextBlock < offsets.length && offsets[nextBlock] <= splitReader.getPosition()) {
+            if (offsets[nextBlock] == splitReader.getPosition() && skippedBlocks[nextBlock]) {
+                splitReader.skipTo(index.blockEnd(nextBlock));
+                counters.increment(Counter.ZONE_MAP_SKIPPED, 1);
+            }
+            nextBlock++;
+        }
+    }
+}
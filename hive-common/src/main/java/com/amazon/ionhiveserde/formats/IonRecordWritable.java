@@ -0,0 +1,66 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import java.io.DataInput;
+import java.io.IOException;
+import org.apache.hadoop.io.BytesWritable;
+
+/**
+ * Record produced by {@link IonInputFormat}. Binary records hold a self-contained binary Ion document made of the
+ * {@link SymbolTableContext} followed by the raw bytes of a single top-level value, as they were in the file. The
+ * writable is reused across records and the context is only copied into it when it changes.
+ */
+public class IonRecordWritable extends BytesWritable {
+
+    private SymbolTableContext symbolTableContext;
+
+    /**
+     * Symbol table context of the current record.
+     *
+     * @return the record symbol table context or null if the record is not binary Ion read from a file.
+     */
+    public SymbolTableContext getSymbolTableContext() {
+        return symbolTableContext;
+    }
+
+    /**
+     * Offset of the top-level value within {@link #getBytes()}, i.e. the symbol table context length.
+     *
+     * @return value offset.
+     */
+    public int getValueOffset() {
+        return symbolTableContext == null ? 0 : symbolTableContext.getLength();
+    }
+
+    /**
+     * Resizes the record for a value of valueLength bytes with the provided context, copying the context only if it
+     * differs from the current one.
+     *
+     * @return backing array where the value must be written starting at {@link #getValueOffset()}.
+     */
+    byte[] prepare(final SymbolTableContext context, final int valueLength) {
+        setSize(context.getLength() + valueLength);
+
+        final byte[] bytes = getBytes();
+        if (context != symbolTableContext) {
+            context.copyTo(bytes);
+            symbolTableContext = context;
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public void set(final byte[] newData, final int offset, final int length) {
+        symbolTableContext = null;
+        super.set(newData, offset, length);
+    }
+
+    @Override
+    public void readFields(final DataInput in) throws IOException {
+        symbolTableContext = null;
+        super.readFields(in);
+    }
+}
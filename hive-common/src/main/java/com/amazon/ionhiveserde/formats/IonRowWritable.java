@@ -0,0 +1,123 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonWriter;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import com.amazon.ionhiveserde.serializers.TableSerializer;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Row handed by the SerDe to {@link IonOutputFormat} when streaming output is enabled. The SerDe encodes the row to
+ * binary Ion as its own document, so serialization failures are reported by the SerDe before anything reaches the file,
+ * and the output format copies it into a writer shared by all rows in the file so symbols are interned once per block
+ * of rows. Only valid until the SerDe serializes the next row.
+ *
+ * <p>The encoded row can be serialized and read back as a {@link Writable}, it can only be read with the catalog of the
+ * table as its symbol table may import shared symbol tables.</p>
+ */
+public class IonRowWritable implements Writable {
+
+    private final TableSerializer serializer;
+    private final IonFactory ionFactory;
+    private final SerDeProperties properties;
+
+    private final DataOutputBuffer buffer = new DataOutputBuffer();
+    private IonWriter bufferWriter;
+
+    /**
+     * Constructor.
+     *
+     * @param serializer table serializer.
+     * @param ionFactory factory used to create the writers.
+     * @param properties SerDe properties.
+     */
+    public IonRowWritable(final TableSerializer serializer,
+                          final IonFactory ionFactory,
+                          final SerDeProperties properties) {
+        this.serializer = serializer;
+        this.ionFactory = ionFactory;
+        this.properties = properties;
+    }
+
+    /**
+     * Encodes the row to be written.
+     *
+     * @param data hive provided row.
+     * @param objectInspector object inspector for the row.
+     * @throws IOException if the writer fails.
+     * @throws IllegalArgumentException if the row can't be serialized, e.g. a value overflows its Hive type.
+     */
+    public void set(final Object data, final ObjectInspector objectInspector) throws IOException {
+        buffer.reset();
+        if (bufferWriter == null) {
+            bufferWriter = ionFactory.newBinaryWriter(buffer);
+        }
+
+        try {
+            serializer.serialize(bufferWriter, data, objectInspector);
+            bufferWriter.finish();
+        } catch (IOException | RuntimeException e) {
+            // the writer may be left inside the row, the next row gets a new one
+            bufferWriter = null;
+            buffer.reset();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the row as a top-level Ion struct.
+     *
+     * @param writer writer to copy the row to.
+     * @throws IOException if the writer fails.
+     */
+    public void writeTo(final IonWriter writer) throws IOException {
+        try (IonReader reader = ionFactory.newReader(buffer.getData(), 0, buffer.getLength())) {
+            writer.writeValues(reader);
+        }
+    }
+
+    /**
+     * Returns the buffer holding the row encoded as a binary Ion document, valid up to {@link #getLength()}.
+     */
+    byte[] getBytes() {
+        return buffer.getData();
+    }
+
+    /**
+     * Returns the length of the row encoded as a binary Ion document.
+     */
+    public int getLength() {
+        return buffer.getLength();
+    }
+
+    IonFactory getIonFactory() {
+        return ionFactory;
+    }
+
+    SerDeProperties getProperties() {
+        return properties;
+    }
+
+    @Override
+    public void write(final DataOutput out) throws IOException {
+        WritableUtils.writeVInt(out, buffer.getLength());
+        out.write(buffer.getData(), 0, buffer.getLength());
+    }
+
+    @Override
+    public void readFields(final DataInput in) throws IOException {
+        final int length = WritableUtils.readVInt(in);
+        buffer.reset();
+        buffer.write(in, length);
+    }
+}
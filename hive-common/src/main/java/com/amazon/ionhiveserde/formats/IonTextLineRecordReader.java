@@ -0,0 +1,238 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.formats.IonCounters.Counter;
+import java.io.IOException;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Seekable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.compress.CodecPool;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.SplitCompressionInputStream;
+import org.apache.hadoop.io.compress.SplittableCompressionCodec;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapreduce.lib.input.CompressedSplitLineReader;
+import org.apache.hadoop.mapreduce.lib.input.SplitLineReader;
+
+/**
+ * Reads newline delimited Ion text, each line holding a single top-level value. Lines are handed over as is, without
+ * being parsed, and splits are handled like Hadoop's TextInputFormat. Lines without a value, blank lines, Ion version
+ * markers, local symbol tables and comments, are skipped. Lines that can't match the filter pushed down by Hive are
+ * skipped as well.
+ *
+ * <p>Lines are read like Hadoop's {@code LineRecordReader} does, from the stream opened by
+ * {@link IonInputFormat#newRecordReader} instead of opening the file again. Files compressed with a codec that can't
+ * be split are read whole by the split starting at 0.
+ */
+final class IonTextLineRecordReader implements RecordReader<LongWritable, Text> {
+
+    private final SplitLineReader lineReader;
+    private final Seekable filePosition;
+    private final CompressionCodec codec;
+    private final Decompressor decompressor;
+    private final int maxLineLength;
+    private final long start;
+    private final long end;
+    private final boolean readWhole;
+    private final boolean fileSkipped;
+    private long pos;
+
+    private final IonFactory ionFactory;
+    private final RecordFilter filter;
+    private final IonCounters counters;
+
+    /**
+     * Constructor.
+     *
+     * @param fileIn stream of the file, at its start, closed by the reader.
+     * @param codec codec of the file, null if it's not compressed.
+     * @param ionFactory factory used to check the lines that may not hold a value.
+     * @param filter filter pushed down by Hive, null if there is none.
+     */
+    IonTextLineRecordReader(final FileSplit fileSplit,
+                            final JobConf job,
+                            final FSDataInputStream fileIn,
+                            final CompressionCodec codec,
+                            final IonFactory ionFactory,
+                            final RecordFilter filter,
+                            final Reporter reporter) throws IOException {
+
+        final long splitStart = fileSplit.getStart();
+        final long splitEnd = splitStart + fileSplit.getLength();
+        this.codec = codec;
+        maxLineLength = job.getInt(
+            org.apache.hadoop.mapreduce.lib.input.LineRecordReader.MAX_LINE_LENGTH, Integer.MAX_VALUE);
+
+        if (codec == null) {
+            fileIn.seek(splitStart);
+            decompressor = null;
+            lineReader = new SplitLineReader(fileIn, job, null);
+            filePosition = fileIn;
+            start = splitStart;
+            end = splitEnd;
+            readWhole = false;
+        } else if (codec instanceof SplittableCompressionCodec) {
+            decompressor = CodecPool.getDecompressor(codec);
+            final SplitCompressionInputStream compressedIn = ((SplittableCompressionCodec) codec).createInputStream(
+                fileIn, decompressor, splitStart, splitEnd, SplittableCompressionCodec.READ_MODE.BYBLOCK);
+            lineReader = new CompressedSplitLineReader(compressedIn, job, null);
+            filePosition = compressedIn;
+            start = compressedIn.getAdjustedStart();
+            end = compressedIn.getAdjustedEnd();
+            readWhole = false;
+        } else {
+            decompressor = CodecPool.getDecompressor(codec);
+            lineReader = new SplitLineReader(codec.createInputStream(fileIn, decompressor), job, null);
+            filePosition = fileIn;
+            start = splitStart;
+            end = splitEnd;
+            readWhole = true;
+        }
+
+        // only the split starting at 0 reads files that can't be split, see IonRecordReader
+        fileSkipped = readWhole && start != 0;
+
+        // the first line of a split belongs to the previous one, which reads past its end to finish its last line
+        pos = start;
+        if (start != 0 && !fileSkipped) {
+            pos += lineReader.readLine(new Text(), 0, maxBytesToConsume(pos));
+        }
+
+        this.ionFactory = ionFactory;
+        this.filter = filter;
+        counters = IonCounters.get();
+        counters.setReporter(reporter);
+    }
+
+    private int maxBytesToConsume(final long position) {
+        return codec != null
+            ? Integer.MAX_VALUE
+            : (int) Math.max(Math.min(Integer.MAX_VALUE, end - position), maxLineLength);
+    }
+
+    private long getFilePosition() throws IOException {
+        return codec != null ? filePosition.getPos() : pos;
+    }
+
+    // reads the next line of the split, skipping the ones longer than the maximum line length like Hadoop does
+    private boolean nextLine(final LongWritable key, final Text value) throws IOException {
+        if (fileSkipped) {
+            return false;
+        }
+
+        while (readWhole || getFilePosition() <= end || lineReader.needAdditionalRecordAfterSplit()) {
+            key.set(pos);
+            final int size = lineReader.readLine(value, maxLineLength, maxBytesToConsume(pos));
+            if (size == 0) {
+                return false;
+            }
+            pos += size;
+            if (size < maxLineLength) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public LongWritable createKey() {
+        return new LongWritable();
+    }
+
+    @Override
+    public Text createValue() {
+        return new Text();
+    }
+
+    @Override
+    public long getPos() throws IOException {
+        return pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        counters.close();
+        try {
+            lineReader.close();
+        } finally {
+            CodecPool.returnDecompressor(decompressor);
+        }
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+        if (start == end) {
+            return 0.0F;
+        }
+
+        return Math.min(1.0F, (getFilePosition() - start) / (float) (end - start));
+    }
+
+    @Override
+    public boolean next(final LongWritable key, final Text value) throws IOException {
+        final long startTime = counters.start(Counter.READ_NANOS);
+        try {
+            while (nextLine(key, value)) {
+                if (!hasValue(value)) {
+                    continue;
+                }
+
+                counters.increment(Counter.RECORDS_READ, 1);
+                counters.increment(Counter.BYTES_READ, value.getLength());
+
+                if (filter == null || filter.accept(value.getBytes(), 0, value.getLength())) {
+                    return true;
+                }
+            }
+
+            return false;
+        } finally {
+            counters.stop(Counter.READ_NANOS, startTime);
+        }
+    }
+
+    private boolean hasValue(final Text line) throws IOException {
+        final byte[] bytes = line.getBytes();
+        final int length = line.getLength();
+
+        int start = 0;
+        while (start < length && isWhitespace(bytes[start])) {
+            start++;
+        }
+        int end = length;
+        while (end > start && isWhitespace(bytes[end - 1])) {
+            end--;
+        }
+
+        if (end == start) {
+            return false;
+        }
+
+        // version markers and symbol tables start with a system symbol, only those lines and comments are parsed
+        if (bytes[start] != '$' && bytes[start] != '/') {
+            return true;
+        }
+
+        try (IonReader reader = ionFactory.newReader(bytes, start, end - start)) {
+            return reader.next() != null;
+        } catch (IonException e) {
+            // malformed lines are handed over to the SerDe, which reports them
+            return true;
+        }
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+}
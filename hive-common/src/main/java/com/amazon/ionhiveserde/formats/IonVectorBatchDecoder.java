@@ -0,0 +1,338 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonValue;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.caseinsensitivedecorator.IonCaseInsensitiveDecorator;
+import com.amazon.ionhiveserde.configuration.SerDeProperties;
+import com.amazon.ionpathextraction.PathExtractor;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorAssignRow;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils.ObjectInspectorCopyOption;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+
+/**
+ * Decodes Ion records straight into the column vectors of a {@link VectorizedRowBatch}, shared by the vectorized input
+ * formats of each Hive version.
+ *
+ * <p>Columns are matched with the configured path extractors and decoded from the {@link IonReader} without building
+ * Ion values when the Ion type maps directly to the column vector: booleans and integers into
+ * {@link LongColumnVector}s, floats into {@link DoubleColumnVector}s, text into {@link BytesColumnVector}s, numbers
+ * into {@link DecimalColumnVector}s and timestamps into {@link TimestampColumnVector}s. Everything else, including
+ * values that overflow the column type, is read as an {@link IonValue} and converted by the SerDe object inspectors,
+ * so the batch holds the same values as the row path.
+ */
+final class IonVectorBatchDecoder {
+
+    private final IonFactory ionFactory;
+    private final boolean ignoreMalformed;
+    private final boolean caseSensitive;
+    private final ColumnDecoder[] columns;
+    private final PathExtractor<VectorizedRowBatch> pathExtractor;
+    private final VectorAssignRow assignRow;
+
+    private int currentRow;
+
+    /**
+     * Constructor.
+     *
+     * @param ionFactory factory used to create the readers.
+     * @param properties SerDe properties of the table.
+     * @param rowObjectInspector SerDe object inspector for the table, used for values that aren't decoded directly.
+     * @param columnIds ids of the data columns to decode, which are also their index in the batch.
+     */
+    IonVectorBatchDecoder(final IonFactory ionFactory,
+                          final SerDeProperties properties,
+                          final StructObjectInspector rowObjectInspector,
+                          final List<Integer> columnIds) throws IOException {
+        this.ionFactory = ionFactory;
+        this.ignoreMalformed = properties.getIgnoreMalformed();
+        this.caseSensitive = properties.pathExtractorCaseSensitivity();
+
+        final List<? extends StructField> fields = rowObjectInspector.getAllStructFieldRefs();
+        final List<String> assignNames = new ArrayList<>(columnIds.size());
+        final List<ObjectInspector> assignObjectInspectors = new ArrayList<>(columnIds.size());
+
+        columns = new ColumnDecoder[properties.getColumnNames().size()];
+        for (final int columnId : columnIds) {
+            final TypeInfo typeInfo = properties.getColumnTypes().get(columnId);
+
+            columns[columnId] = new ColumnDecoder(
+                columnId,
+                typeInfo,
+                fields.get(columnId).getFieldObjectInspector(),
+                assignNames.size());
+
+            assignNames.add(properties.getColumnNames().get(columnId));
+            assignObjectInspectors.add(TypeInfoUtils.getStandardWritableObjectInspectorFromTypeInfo(typeInfo));
+        }
+
+        try {
+            assignRow = new VectorAssignRow();
+            assignRow.init(
+                ObjectInspectorFactory.getStandardStructObjectInspector(assignNames, assignObjectInspectors),
+                columnIds);
+        } catch (HiveException e) {
+            throw new IOException(e);
+        }
+
+        pathExtractor = properties.newPathExtractor(columnIds, columnId -> {
+            final ColumnDecoder column = columns[columnId];
+
+            return (reader, batch) -> {
+                column.read(reader, batch, currentRow);
+                return 0;
+            };
+        });
+    }
+
+    /**
+     * Prepares a batch to be filled with new rows.
+     */
+    void startBatch(final VectorizedRowBatch batch) {
+        batch.reset();
+
+        for (final ColumnDecoder column : columns) {
+            if (column != null && batch.cols[column.columnId] instanceof BytesColumnVector) {
+                ((BytesColumnVector) batch.cols[column.columnId]).initBuffer();
+            }
+        }
+    }
+
+    /**
+     * Decodes a record into a row of the batch.
+     *
+     * @param bytes buffer with a single Ion record, including any symbol tables it needs.
+     * @param length record length.
+     * @param batch batch to decode into.
+     * @param row row index in the batch.
+     * @return false if the record is malformed and malformed records are ignored, true otherwise.
+     */
+    boolean decode(final byte[] bytes, final int length, final VectorizedRowBatch batch, final int row)
+        throws IOException {
+
+        for (final ColumnDecoder column : columns) {
+            if (column != null) {
+                column.startRow(batch, row);
+            }
+        }
+
+        currentRow = row;
+        try (IonReader reader = ionFactory.newReader(bytes, 0, length)) {
+            pathExtractor.match(reader, batch);
+        } catch (IonException e) {
+            // skips if ignoring malformed
+            if (ignoreMalformed) {
+                return false;
+            }
+
+            throw e;
+        }
+
+        for (final ColumnDecoder column : columns) {
+            if (column != null) {
+                column.finishRow(batch, row);
+            }
+        }
+
+        return true;
+    }
+
+    private final class ColumnDecoder {
+
+        private final int columnId;
+        private final PrimitiveCategory category;
+        private final ObjectInspector objectInspector;
+        private final int assignIndex;
+
+        // values converted by the object inspector, the last matched value wins like in the row path
+        private IonValue fallbackValue;
+
+        ColumnDecoder(final int columnId,
+                      final TypeInfo typeInfo,
+                      final ObjectInspector objectInspector,
+                      final int assignIndex) {
+            this.columnId = columnId;
+            this.category = typeInfo instanceof PrimitiveTypeInfo
+                ? ((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory()
+                : null;
+            this.objectInspector = objectInspector;
+            this.assignIndex = assignIndex;
+        }
+
+        void startRow(final VectorizedRowBatch batch, final int row) {
+            setNull(batch.cols[columnId], row);
+            fallbackValue = null;
+        }
+
+        void read(final IonReader reader, final VectorizedRowBatch batch, final int row) {
+            final ColumnVector vector = batch.cols[columnId];
+            fallbackValue = null;
+
+            if (reader.isNullValue()) {
+                setNull(vector, row);
+            } else if (!readDirectly(reader, vector, row)) {
+                final IonValue value = ionFactory.getDomFactory().newValue(reader);
+                fallbackValue = caseSensitive ? value : IonCaseInsensitiveDecorator.wrapValue(value);
+            }
+        }
+
+        void finishRow(final VectorizedRowBatch batch, final int row) {
+            if (fallbackValue == null) {
+                return;
+            }
+
+            final Object standardObject = ObjectInspectorUtils.copyToStandardObject(
+                fallbackValue,
+                objectInspector,
+                ObjectInspectorCopyOption.WRITABLE);
+
+            if (standardObject == null) {
+                setNull(batch.cols[columnId], row);
+            } else {
+                batch.cols[columnId].isNull[row] = false;
+                assignRow.assignRowColumn(batch, row, assignIndex, standardObject);
+            }
+            fallbackValue = null;
+        }
+
+        /**
+         * Decodes the current value into the vector when it maps directly to the column type.
+         */
+        private boolean readDirectly(final IonReader reader, final ColumnVector vector, final int row) {
+            if (category == null) {
+                return false;
+            }
+
+            final IonType type = reader.getType();
+            switch (category) {
+                case BOOLEAN:
+                    if (type != IonType.BOOL) {
+                        return false;
+                    }
+                    ((LongColumnVector) vector).vector[row] = reader.booleanValue() ? 1 : 0;
+                    break;
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                    if (type != IonType.INT || reader.getIntegerSize() == IntegerSize.BIG_INTEGER) {
+                        return false;
+                    }
+
+                    // out of range values are handled by the object inspector, see FailOnOverflowConfig
+                    final long longValue = reader.longValue();
+                    if (!fitsIn(longValue)) {
+                        return false;
+                    }
+                    ((LongColumnVector) vector).vector[row] = longValue;
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    if (type != IonType.FLOAT) {
+                        return false;
+                    }
+
+                    final double doubleValue = reader.doubleValue();
+                    if (category == PrimitiveCategory.FLOAT && Double.compare((float) doubleValue, doubleValue) != 0) {
+                        return false;
+                    }
+                    ((DoubleColumnVector) vector).vector[row] = category == PrimitiveCategory.FLOAT
+                        ? (float) doubleValue
+                        : doubleValue;
+                    break;
+                case STRING:
+                    if (type != IonType.STRING && type != IonType.SYMBOL) {
+                        return false;
+                    }
+
+                    final String text = reader.stringValue();
+                    if (text == null) {
+                        return false;
+                    }
+                    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                    ((BytesColumnVector) vector).setVal(row, bytes, 0, bytes.length);
+                    break;
+                case DECIMAL:
+                    final BigDecimal decimal;
+                    if (type == IonType.DECIMAL) {
+                        decimal = reader.bigDecimalValue();
+                    } else if (type == IonType.INT) {
+                        decimal = new BigDecimal(reader.bigIntegerValue());
+                    } else {
+                        return false;
+                    }
+
+                    final HiveDecimal hiveDecimal = HiveDecimal.create(decimal);
+                    if (hiveDecimal == null) {
+                        setNull(vector, row);
+                        return true;
+                    }
+
+                    // sets null when the value doesn't fit the column precision and scale
+                    vector.isNull[row] = false;
+                    ((DecimalColumnVector) vector).set(row, hiveDecimal);
+                    return true;
+                case TIMESTAMP:
+                    if (type != IonType.TIMESTAMP) {
+                        return false;
+                    }
+
+                    // Hive timestamps don't have offset so we always map the ion timestamp to UTC
+                    ((TimestampColumnVector) vector).set(row, new Timestamp(reader.timestampValue().getMillis()));
+                    break;
+                default:
+                    return false;
+            }
+
+            vector.isNull[row] = false;
+            return true;
+        }
+
+        private boolean fitsIn(final long value) {
+            switch (category) {
+                case BYTE:
+                    return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+                case SHORT:
+                    return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+                case INT:
+                    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+                default:
+                    return true;
+            }
+        }
+
+        private void setNull(final ColumnVector vector, final int row) {
+            vector.isNull[row] = true;
+            vector.noNulls = false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ionhiveserde.AbstractIonHiveSerDe;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatchCtx;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.io.BinaryComparable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+
+/**
+ * Reads the records of {@link IonInputFormat} into {@link VectorizedRowBatch}es for Hive's vectorized execution, see
+ * {@link IonVectorBatchDecoder}. Only the data columns read by the query are decoded.
+ */
+final class IonVectorizedRecordReader implements RecordReader<NullWritable, VectorizedRowBatch> {
+
+    private static final String ION_PROPERTY_PREFIX = "ion.";
+
+    private final RecordReader<Writable, Writable> rowReader;
+    private final Writable rowKey;
+    private final Writable rowValue;
+    private final VectorizedRowBatchCtx batchContext;
+    private final Object[] partitionValues;
+    private final IonVectorBatchDecoder decoder;
+
+    /**
+     * Constructor.
+     *
+     * @param rowReader record reader created by {@link IonInputFormat}.
+     * @param fileSplit split being read.
+     * @param job job configuration, with the vectorized row batch context set by Hive.
+     * @param serDe uninitialized SerDe for the Hive version, provides the object inspectors.
+     */
+    @SuppressWarnings("unchecked")
+    IonVectorizedRecordReader(final RecordReader rowReader,
+                              final FileSplit fileSplit,
+                              final JobConf job,
+                              final AbstractIonHiveSerDe serDe) throws IOException {
+        this.rowReader = rowReader;
+        rowKey = this.rowReader.createKey();
+        rowValue = this.rowReader.createValue();
+
+        batchContext = Utilities.getVectorizedRowBatchCtx(job);
+        if (batchContext == null) {
+            throw new IOException("Vectorized row batch context is not set");
+        }
+
+        final int dataColumnCount = batchContext.getDataColumnCount();
+        final List<String> columnNames = Arrays.asList(batchContext.getRowColumnNames()).subList(0, dataColumnCount);
+        final List<TypeInfo> columnTypes = Arrays.asList(batchContext.getRowColumnTypeInfos())
+            .subList(0, dataColumnCount);
+
+        // the table properties are copied to the job by Hive, IonInputFormat reads its properties from there too
+        final Properties tableProperties = new Properties();
+        for (final Map.Entry<String, String> entry : job) {
+            if (entry.getKey().startsWith(ION_PROPERTY_PREFIX)) {
+                tableProperties.setProperty(entry.getKey(), entry.getValue());
+            }
+        }
+        tableProperties.setProperty(serdeConstants.LIST_COLUMNS, String.join(",", columnNames));
+        final List<String> typeNames = new ArrayList<>(dataColumnCount);
+        for (final TypeInfo typeInfo : columnTypes) {
+            typeNames.add(typeInfo.getTypeName());
+        }
+        tableProperties.setProperty(serdeConstants.LIST_COLUMN_TYPES, String.join(",", typeNames));
+
+        // the decoder uses the properties and factory of the SerDe, shared with the other readers of the table
+        final StructObjectInspector rowObjectInspector;
+        try {
+            serDe.initialize(job, tableProperties);
+            rowObjectInspector = (StructObjectInspector) serDe.getObjectInspector();
+        } catch (SerDeException e) {
+            throw new IOException(e);
+        }
+
+        decoder = new IonVectorBatchDecoder(
+            serDe.getIonFactory(),
+            serDe.getSerDeProperties(),
+            rowObjectInspector,
+            readColumnIds(job, dataColumnCount));
+
+        partitionValues = new Object[batchContext.getPartitionColumnCount()];
+        if (partitionValues.length > 0) {
+            VectorizedRowBatchCtx.getPartitionValues(batchContext, job, fileSplit, partitionValues);
+        }
+    }
+
+    private static List<Integer> readColumnIds(final JobConf job, final int dataColumnCount) {
+        final SortedSet<Integer> columnIds = new TreeSet<>();
+        if (ColumnProjectionUtils.isReadAllColumns(job)) {
+            for (int i = 0; i < dataColumnCount; i++) {
+                columnIds.add(i);
+            }
+        } else {
+            for (final Integer columnId : ColumnProjectionUtils.getReadColumnIDs(job)) {
+                if (columnId >= 0 && columnId < dataColumnCount) {
+                    columnIds.add(columnId);
+                }
+            }
+        }
+
+        return new ArrayList<>(columnIds);
+    }
+
+    @Override
+    public boolean next(final NullWritable key, final VectorizedRowBatch batch) throws IOException {
+        decoder.startBatch(batch);
+
+        int row = 0;
+        while (row < batch.getMaxSize() && rowReader.next(rowKey, rowValue)) {
+            final BinaryComparable record = (BinaryComparable) rowValue;
+
+            if (decoder.decode(record.getBytes(), record.getLength(), batch, row)) {
+                row++;
+            }
+        }
+        batch.size = row;
+
+        if (partitionValues.length > 0) {
+            batchContext.addPartitionColsToBatch(batch, partitionValues);
+        }
+
+        return row > 0;
+    }
+
+    @Override
+    public NullWritable createKey() {
+        return NullWritable.get();
+    }
+
+    @Override
+    public VectorizedRowBatch createValue() {
+        return batchContext.createVectorizedRowBatch();
+    }
+
+    @Override
+    public long getPos() throws IOException {
+        return rowReader.getPos();
+    }
+
+    @Override
+    public void close() throws IOException {
+        rowReader.close();
+    }
+
+    @Override
+    public float getProgress() throws IOException {
+        return rowReader.getProgress();
+    }
+}
@@ -0,0 +1,245 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ionhiveserde.IonFactory;
+import com.amazon.ionhiveserde.configuration.HadoopProperties;
+import com.amazon.ionhiveserde.formats.FilterPredicate.Truth;
+import com.amazon.ionhiveserde.formats.ZoneMap.ColumnRange;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.exec.SerializationUtilities;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * Drops records that can't match the filter Hive pushed down to the input format, before the SerDe materializes them.
+ * Records are read with a streaming {@link IonReader} that only looks at the top-level scalar fields referenced by the
+ * filter. Only columns extracted from the top-level field with the same name can be evaluated, and records that aren't
+ * a struct, are malformed or have the same field more than once are always kept. Hive still applies the filter to the
+ * rows returned, so keeping a record is always safe.
+ *
+ * <p>The filter is also evaluated over the {@link ZoneMap}s of files and blocks of rows so the ones without any row
+ * that can match it are skipped.
+ */
+final class RecordFilter {
+
+    private static final Log LOG = LogFactory.getLog(RecordFilter.class);
+
+    private final IonFactory ionFactory;
+    private final FilterPredicate predicate;
+    private final boolean caseSensitive;
+    private final String[] fieldNames;
+    private final PrimitiveCategory[] categories;
+    private final Object[] values;
+    private final boolean[] seen;
+
+    private RecordFilter(final IonFactory ionFactory,
+                         final FilterPredicate predicate,
+                         final boolean caseSensitive,
+                         final List<String> fieldNames,
+                         final List<PrimitiveCategory> categories) {
+        this.ionFactory = ionFactory;
+        this.predicate = predicate;
+        this.caseSensitive = caseSensitive;
+        this.fieldNames = fieldNames.toArray(new String[0]);
+        this.categories = categories.toArray(new PrimitiveCategory[0]);
+        this.values = new Object[this.fieldNames.length];
+        this.seen = new boolean[this.fieldNames.length];
+    }
+
+    /**
+     * Creates the filter for the expression pushed down in the job.
+     *
+     * @return filter or null if there is no filter or it can't be evaluated.
+     */
+    static RecordFilter fromJob(final JobConf job, final HadoopProperties properties, final IonFactory ionFactory) {
+        final String serializedExpression = job.get(TableScanDesc.FILTER_EXPR_CONF_STR);
+        if (!properties.getFilterPushdown() || serializedExpression == null || serializedExpression.isEmpty()) {
+            return null;
+        }
+
+        final ExprNodeGenericFuncDesc expression;
+        try {
+            expression = SerializationUtilities.deserializeExpression(serializedExpression);
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to read the pushed down filter, records won't be filtered", e);
+            return null;
+        }
+
+        final List<String> fieldNames = new ArrayList<>();
+        final List<PrimitiveCategory> categories = new ArrayList<>();
+        final FilterPredicate predicate = FilterPredicate.build(expression, column -> {
+            final String columnName = column.getColumn();
+            if (!properties.hasDefaultPathExtractor(columnName)) {
+                return -1;
+            }
+
+            final int index = fieldNames.indexOf(columnName);
+            if (index >= 0) {
+                return index;
+            }
+
+            fieldNames.add(columnName);
+            categories.add(FilterPredicate.supportedCategory(column.getTypeInfo()));
+
+            return fieldNames.size() - 1;
+        });
+
+        if (predicate == FilterPredicate.ALWAYS_UNKNOWN) {
+            return null;
+        }
+
+        return new RecordFilter(
+            ionFactory,
+            predicate,
+            properties.getPathExtractorCaseSensitivity(),
+            fieldNames,
+            categories);
+    }
+
+    /**
+     * Names of the top-level fields the filter reads.
+     */
+    String[] getFieldNames() {
+        return fieldNames;
+    }
+
+    /**
+     * Checks if the record may match the filter.
+     *
+     * @param bytes buffer with a single Ion record, including any symbol tables it needs.
+     * @param offset record offset.
+     * @param length record length.
+     * @return false if the filter is false for the record, true otherwise.
+     */
+    boolean accept(final byte[] bytes, final int offset, final int length) throws IOException {
+        Arrays.fill(values, null);
+        Arrays.fill(seen, false);
+
+        try (IonReader reader = ionFactory.newReader(bytes, offset, length)) {
+            if (reader.next() != IonType.STRUCT || reader.isNullValue()) {
+                return true;
+            }
+
+            reader.stepIn();
+            IonType type;
+            while ((type = reader.next()) != null) {
+                final int index = indexOf(reader.getFieldName());
+                if (index < 0) {
+                    continue;
+                }
+
+                // duplicated fields depend on how the SerDe resolves them
+                values[index] = seen[index] ? FilterPredicate.UNKNOWN_VALUE : readValue(reader, type, index);
+                seen[index] = true;
+            }
+        } catch (IonException e) {
+            // malformed records are handled by the SerDe
+            return true;
+        }
+
+        return predicate.evaluate(values) != Truth.FALSE;
+    }
+
+    /**
+     * Checks if any record of a zone map may match the filter.
+     *
+     * @param zoneMap zone map of the records.
+     * @return false if the filter can't be true for any of the records, true otherwise.
+     */
+    boolean mayMatch(final ZoneMap zoneMap) {
+        final ColumnRange[] ranges = new ColumnRange[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            ranges[i] = zoneMap.range(fieldNames[i], caseSensitive, categories[i]);
+        }
+
+        return (predicate.possibleTruths(ranges) & FilterPredicate.MAY_BE_TRUE) != 0;
+    }
+
+    private int indexOf(final String fieldName) {
+        if (fieldName == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (caseSensitive ? fieldNames[i].equals(fieldName) : fieldNames[i].equalsIgnoreCase(fieldName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Reads the current value as it would be seen by Hive, or {@link FilterPredicate#UNKNOWN_VALUE} for values that
+     * are converted by the object inspectors.
+     */
+    private Object readValue(final IonReader reader, final IonType type, final int index) {
+        if (reader.isNullValue()) {
+            return null;
+        }
+
+        final PrimitiveCategory category = categories[index];
+        switch (category) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                if (type != IonType.INT || reader.getIntegerSize() == IntegerSize.BIG_INTEGER) {
+                    return FilterPredicate.UNKNOWN_VALUE;
+                }
+
+                // out of range values either fail or overflow, see FailOnOverflowConfig
+                final long value = reader.longValue();
+                return fitsIn(category, value) ? value : FilterPredicate.UNKNOWN_VALUE;
+            case DOUBLE:
+                if (type != IonType.FLOAT || Double.isNaN(reader.doubleValue())) {
+                    return FilterPredicate.UNKNOWN_VALUE;
+                }
+
+                return reader.doubleValue();
+            case BOOLEAN:
+                return type == IonType.BOOL ? reader.booleanValue() : FilterPredicate.UNKNOWN_VALUE;
+            case STRING:
+                if (type != IonType.STRING && type != IonType.SYMBOL) {
+                    return FilterPredicate.UNKNOWN_VALUE;
+                }
+
+                final String text = reader.stringValue();
+                return text == null ? FilterPredicate.UNKNOWN_VALUE : text;
+            case TIMESTAMP:
+                // the object inspectors read the UTC milliseconds of the timestamp
+                return type == IonType.TIMESTAMP
+                    ? Instant.ofEpochMilli(reader.timestampValue().getMillis())
+                    : FilterPredicate.UNKNOWN_VALUE;
+            default:
+                return FilterPredicate.UNKNOWN_VALUE;
+        }
+    }
+
+    private static boolean fitsIn(final PrimitiveCategory category, final long value) {
+        switch (category) {
+            case BYTE:
+                return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+            case SHORT:
+                return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+            case INT:
+                return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+            default:
+                return true;
+        }
+    }
+}
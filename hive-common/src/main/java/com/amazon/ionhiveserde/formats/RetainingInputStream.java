@@ -0,0 +1,155 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+/**
+ * Keeps the bytes read from a stream starting at the first one that may still be needed, so {@link IonRecordReader}
+ * can scan the bytes of a malformed record again and write them as a dead letter without reading the file again, which
+ * for compressed files means decompressing it from the start.
+ *
+ * <p>Skipped bytes aren't kept, reading must not go back before a skip. Closing the stream doesn't close the underlying
+ * one, which is closed by its owner, so readers created over this stream can be closed.
+ */
+final class RetainingInputStream extends FilterInputStream {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int head;
+    private int tail;
+
+    // position in the file of buffer[head]
+    private long headPosition;
+
+    /**
+     * Constructor.
+     *
+     * @param in stream to read from.
+     * @param position position of the stream in the file.
+     */
+    RetainingInputStream(final InputStream in, final long position) {
+        super(in);
+        headPosition = position;
+    }
+
+    /**
+     * Position in the file after the last byte read.
+     */
+    long getPosition() {
+        return headPosition + tail - head;
+    }
+
+    /**
+     * Drops the bytes before a position, they won't be needed again.
+     *
+     * @param position position of the first byte that may still be needed.
+     */
+    void retainFrom(final long position) {
+        if (position <= headPosition) {
+            return;
+        }
+
+        final int dropped = (int) Math.min(tail - head, position - headPosition);
+        head += dropped;
+        headPosition += dropped;
+    }
+
+    /**
+     * Copies the retained bytes between two positions, clipped to the bytes that were retained.
+     *
+     * @param from position of the first byte.
+     * @param to position after the last byte.
+     * @return copied bytes.
+     */
+    byte[] copy(final long from, final long to) {
+        final long start = Math.max(from, headPosition);
+        final long end = Math.min(to, getPosition());
+        if (end <= start) {
+            return new byte[0];
+        }
+
+        final int offset = head + (int) (start - headPosition);
+        return Arrays.copyOfRange(buffer, offset, offset + (int) (end - start));
+    }
+
+    /**
+     * Returns a stream reading the retained bytes from a position and then the bytes of this stream.
+     *
+     * @param from position of the first byte, must be retained.
+     * @return stream starting at from.
+     */
+    InputStream replayFrom(final long from) {
+        return new SequenceInputStream(new ByteArrayInputStream(copy(from, getPosition())), this);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = in.read();
+        if (b != -1) {
+            ensureCapacity(1);
+            buffer[tail++] = (byte) b;
+        }
+
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        final int count = in.read(bytes, offset, length);
+        if (count > 0) {
+            ensureCapacity(count);
+            System.arraycopy(bytes, offset, buffer, tail, count);
+            tail += count;
+        }
+
+        return count;
+    }
+
+    @Override
+    public long skip(final long length) throws IOException {
+        final long position = getPosition();
+        final long count = in.skip(length);
+
+        head = 0;
+        tail = 0;
+        headPosition = position + Math.max(0, count);
+
+        return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Makes room for length more bytes, moving the retained bytes to the start of the buffer. The buffer grows when
+     * it would be more than half full, so bytes are moved a bounded number of times.
+     */
+    private void ensureCapacity(final int length) {
+        if (tail + length <= buffer.length) {
+            return;
+        }
+
+        final int retained = tail - head;
+        final byte[] target = (retained + length) * 2 > buffer.length
+            ? new byte[Math.max((retained + length) * 2, buffer.length * 2)]
+            : buffer;
+        System.arraycopy(buffer, head, target, 0, retained);
+        buffer = target;
+        head = 0;
+        tail = retained;
+    }
+}
@@ -0,0 +1,217 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonException;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ionhiveserde.IonFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.DataOutputBuffer;
+
+/**
+ * Rebuilds the rows of a row group written by {@link RowGroupWriter} from the columns read by the query. Only the
+ * columns of the projected fields are read, the others are skipped with the lengths in the directory, and each row is
+ * handed over as a standalone binary Ion struct with the projected fields, so the SerDe reads it like any other record.
+ * Untyped nulls are left out of the rows.
+ */
+final class RowGroupReader implements Closeable {
+
+    private final IonFactory ionFactory;
+    private final Set<String> fieldNames;
+    private final boolean caseSensitive;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<IonReader> readers = new ArrayList<>();
+    private long rows;
+    private long row;
+
+    private final DataOutputBuffer rowOut = new DataOutputBuffer();
+    private IonWriter rowWriter;
+
+    /**
+     * Constructor.
+     *
+     * @param ionFactory factory for the column readers and row writer.
+     * @param fieldNames fields to read, lower case if not case sensitive, null to read every field.
+     * @param caseSensitive if field names are matched case sensitive.
+     */
+    RowGroupReader(final IonFactory ionFactory, final Set<String> fieldNames, final boolean caseSensitive) {
+        this.ionFactory = ionFactory;
+        this.fieldNames = fieldNames;
+        this.caseSensitive = caseSensitive;
+    }
+
+    /**
+     * Checks if a record is part of a row group.
+     *
+     * @return the annotation of the row group part, or null for any other record.
+     */
+    static String partOf(final IonReader reader) {
+        if (reader.next() == null) {
+            return null;
+        }
+
+        for (final String annotation : reader.getTypeAnnotations()) {
+            if (RowGroupWriter.ROW_GROUP_ANNOTATION.equals(annotation)
+                || RowGroupWriter.COLUMN_ANNOTATION.equals(annotation)) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Starts reading a row group, reading the projected columns that follow its directory and skipping the others.
+     *
+     * @param directory reader positioned on the directory struct.
+     * @param splitReader split reader positioned right after the directory.
+     */
+    void start(final IonReader directory, final BinaryIonSplitReader splitReader) throws IOException {
+        close();
+
+        rows = -1;
+        row = 0;
+        final List<String> columnNames = new ArrayList<>();
+        final List<Long> lengths = new ArrayList<>();
+
+        directory.stepIn();
+        while (directory.next() != null) {
+            switch (directory.getFieldName()) {
+                case RowGroupWriter.ROWS_FIELD:
+                    rows = directory.longValue();
+                    break;
+                case RowGroupWriter.COLUMNS_FIELD:
+                    directory.stepIn();
+                    while (directory.next() != null) {
+                        readColumnEntry(directory, columnNames, lengths);
+                    }
+                    directory.stepOut();
+                    break;
+                default:
+                    break;
+            }
+        }
+        directory.stepOut();
+
+        if (rows < 0) {
+            throw new IonException("Row group directory without a row count");
+        }
+
+        for (int i = 0; i < columnNames.size(); i++) {
+            final String name = columnNames.get(i);
+            final long length = lengths.get(i);
+
+            if (!isProjected(name)) {
+                splitReader.skipTo(splitReader.getPosition() + length);
+                continue;
+            }
+
+            if (length > Integer.MAX_VALUE) {
+                throw new IonException("Row group column " + name + " is too large: " + length);
+            }
+            final byte[] bytes = new byte[(int) length];
+            splitReader.readRaw(bytes, bytes.length);
+
+            final IonReader reader = ionFactory.newReader(bytes, 0, bytes.length);
+            readers.add(reader);
+            names.add(name);
+            if (reader.next() != IonType.LIST
+                || !Arrays.asList(reader.getTypeAnnotations()).contains(RowGroupWriter.COLUMN_ANNOTATION)) {
+                throw new IonException("Row group column " + name + " isn't a column list");
+            }
+            reader.stepIn();
+        }
+    }
+
+    private static void readColumnEntry(final IonReader directory,
+                                        final List<String> columnNames,
+                                        final List<Long> lengths) {
+        String name = null;
+        long length = -1;
+
+        directory.stepIn();
+        while (directory.next() != null) {
+            switch (directory.getFieldName()) {
+                case RowGroupWriter.NAME_FIELD:
+                    name = directory.stringValue();
+                    break;
+                case RowGroupWriter.LENGTH_FIELD:
+                    length = directory.longValue();
+                    break;
+                default:
+                    break;
+            }
+        }
+        directory.stepOut();
+
+        if (name == null || length < 0) {
+            throw new IonException("Invalid row group directory entry");
+        }
+        columnNames.add(name);
+        lengths.add(length);
+    }
+
+    private boolean isProjected(final String name) {
+        return fieldNames == null || fieldNames.contains(caseSensitive ? name : name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes the next row of the group into the value.
+     *
+     * @return false if the group has no more rows.
+     */
+    boolean next(final BytesWritable value) throws IOException {
+        if (row == rows) {
+            return false;
+        }
+
+        if (rowWriter == null) {
+            rowWriter = ionFactory.newBinaryWriter(rowOut);
+        }
+
+        rowOut.reset();
+        rowWriter.stepIn(IonType.STRUCT);
+        for (int i = 0; i < readers.size(); i++) {
+            final IonReader reader = readers.get(i);
+            final IonType type = reader.next();
+            if (type == null) {
+                throw new IonException("Row group column " + names.get(i) + " has fewer than " + rows + " values");
+            }
+
+            if (type != IonType.NULL) {
+                rowWriter.setFieldName(names.get(i));
+                rowWriter.writeValue(reader);
+            }
+        }
+        rowWriter.stepOut();
+        // every row is a standalone document
+        rowWriter.finish();
+        row++;
+
+        value.set(rowOut.getData(), 0, rowOut.getLength());
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final IonReader reader : readers) {
+            reader.close();
+        }
+        readers.clear();
+        names.clear();
+        rows = 0;
+        row = 0;
+    }
+}
@@ -0,0 +1,155 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ionhiveserde.IonFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.hadoop.io.DataOutputBuffer;
+
+/**
+ * Writes rows as row groups, see {@link com.amazon.ionhiveserde.configuration.IonLayout#ROW_GROUPS}. The top-level
+ * fields of the rows added to a group are buffered as one binary Ion list per field, holding a value for every row of
+ * the group, and the group is written as a directory followed by the lists:
+ * <pre>
+ * $ion_1_0 ion_hive_serde_row_group::{ rows: 2, columns: [{ name: "id", length: 12 }, { name: "name", length: 20 }] }
+ * $ion_1_0 ion_hive_serde_column::[1, 2]
+ * $ion_1_0 ion_hive_serde_column::["foo", null]
+ * </pre>
+ * Every part starts with its own Ion version marker and symbol tables, so a reader can skip a column using the lengths
+ * in the directory without reading it. Fields missing from a row are written as an untyped null and fields repeated in
+ * a row keep their first value.
+ */
+final class RowGroupWriter {
+
+    static final String ROW_GROUP_ANNOTATION = "ion_hive_serde_row_group";
+    static final String COLUMN_ANNOTATION = "ion_hive_serde_column";
+    static final String ROWS_FIELD = "rows";
+    static final String COLUMNS_FIELD = "columns";
+    static final String NAME_FIELD = "name";
+    static final String LENGTH_FIELD = "length";
+
+    private final IonFactory ionFactory;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final DataOutputBuffer directory = new DataOutputBuffer();
+    private int rows;
+
+    private static final class Column {
+
+        private final DataOutputBuffer buffer = new DataOutputBuffer();
+        private IonWriter writer;
+        private int rows;
+    }
+
+    RowGroupWriter(final IonFactory ionFactory) {
+        this.ionFactory = ionFactory;
+    }
+
+    /**
+     * Number of rows in the current group.
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * Adds the rows of the reader to the current group.
+     *
+     * @throws IllegalArgumentException if a row isn't a struct.
+     */
+    void add(final IonReader reader) throws IOException {
+        IonType type;
+        while ((type = reader.next()) != null) {
+            if (type != IonType.STRUCT || reader.isNullValue()) {
+                throw new IllegalArgumentException("Row groups can only hold struct rows, got: " + type);
+            }
+
+            reader.stepIn();
+            while (reader.next() != null) {
+                final Column column = column(reader.getFieldName());
+                if (column.rows == rows) {
+                    column.writer.writeValue(reader);
+                    column.rows++;
+                }
+            }
+            reader.stepOut();
+
+            rows++;
+            for (final Column column : columns.values()) {
+                fill(column);
+            }
+        }
+    }
+
+    private Column column(final String fieldName) throws IOException {
+        Column column = columns.get(fieldName);
+        if (column == null) {
+            column = new Column();
+            column.writer = ionFactory.newBinaryWriter(column.buffer);
+            column.writer.setTypeAnnotations(COLUMN_ANNOTATION);
+            column.writer.stepIn(IonType.LIST);
+            fill(column);
+            columns.put(fieldName, column);
+        }
+
+        return column;
+    }
+
+    // missing values of the rows before the current one
+    private void fill(final Column column) throws IOException {
+        while (column.rows < rows) {
+            column.writer.writeNull();
+            column.rows++;
+        }
+    }
+
+    /**
+     * Writes the current group and starts a new one.
+     *
+     * @param out stream written to.
+     */
+    void writeTo(final OutputStream out) throws IOException {
+        if (rows == 0) {
+            return;
+        }
+
+        for (final Column column : columns.values()) {
+            column.writer.stepOut();
+            column.writer.close();
+        }
+
+        directory.reset();
+        try (IonWriter writer = ionFactory.newBinaryWriter(directory)) {
+            writer.setTypeAnnotations(ROW_GROUP_ANNOTATION);
+            writer.stepIn(IonType.STRUCT);
+            writer.setFieldName(ROWS_FIELD);
+            writer.writeInt(rows);
+            writer.setFieldName(COLUMNS_FIELD);
+            writer.stepIn(IonType.LIST);
+            for (final Map.Entry<String, Column> entry : columns.entrySet()) {
+                writer.stepIn(IonType.STRUCT);
+                writer.setFieldName(NAME_FIELD);
+                writer.writeString(entry.getKey());
+                writer.setFieldName(LENGTH_FIELD);
+                writer.writeInt(entry.getValue().buffer.getLength());
+                writer.stepOut();
+            }
+            writer.stepOut();
+            writer.stepOut();
+        }
+
+        out.write(directory.getData(), 0, directory.getLength());
+        for (final Column column : columns.values()) {
+            out.write(column.buffer.getData(), 0, column.buffer.getLength());
+        }
+
+        columns.clear();
+        rows = 0;
+    }
+}
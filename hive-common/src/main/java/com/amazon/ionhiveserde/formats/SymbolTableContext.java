@@ -0,0 +1,56 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import java.util.Arrays;
+
+/**
+ * Symbol table context of binary Ion records read by {@link IonInputFormat}: the Ion version marker followed by the
+ * local symbol tables in effect for the record. Consecutive records with the same context share the same instance so
+ * it can be used as an identity key by consumers that want to resolve it only once.
+ */
+public final class SymbolTableContext {
+
+    private final byte[] bytes;
+
+    SymbolTableContext(final byte[] bytes, final int length) {
+        this.bytes = Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Context length in bytes.
+     *
+     * @return number of bytes of the context.
+     */
+    public int getLength() {
+        return bytes.length;
+    }
+
+    /**
+     * Returns a copy of the context bytes, which are a valid binary Ion stream without any user values.
+     *
+     * @return copy of context bytes.
+     */
+    public byte[] toByteArray() {
+        return bytes.clone();
+    }
+
+    void copyTo(final byte[] destination) {
+        System.arraycopy(bytes, 0, destination, 0, bytes.length);
+    }
+
+    boolean contentEquals(final byte[] other, final int length) {
+        if (length != bytes.length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != other[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
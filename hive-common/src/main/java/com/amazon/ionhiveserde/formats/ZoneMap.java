@@ -0,0 +1,581 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.IonWriter;
+import com.amazon.ion.Timestamp;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+
+/**
+ * Minimum, maximum and null count of the top-level scalar fields of a range of records, a whole file or a block of it,
+ * used to skip the ranges that can't match the filter pushed down by Hive, see {@link RecordFilter#mayMatch(ZoneMap)}.
+ *
+ * <p>Statistics are collected from the Ion values as written, the same way {@link RecordFilter} reads them: int, float,
+ * bool, string or symbol and timestamp values are tracked, any other type, a field holding more than one type, a field
+ * repeated in a record or a very long string make the field unknown. A record that isn't a struct makes the whole zone
+ * map unknown. Fields missing from a record count as nulls.
+ *
+ * <p>The values of the configured fields can also be added to a {@link BloomFilter}, built once the range of records
+ * is complete, see {@link #finishBloomFilters()}. Bool and timestamp values have no Bloom filter. Zone maps merged from
+ * others only keep the Bloom filters of fields whose values are all still in memory.
+ */
+final class ZoneMap {
+
+    // longer strings aren't tracked so zone maps stay small
+    private static final int MAX_STRING_LENGTH = 1024;
+
+    private static final String ROW_COUNT_FIELD = "row_count";
+    private static final String UNKNOWN_FIELD = "unknown";
+    private static final String COLUMNS_FIELD = "columns";
+    private static final String NON_NULL_FIELD = "non_null";
+    private static final String MIN_FIELD = "min";
+    private static final String MAX_FIELD = "max";
+    private static final String BLOOM_FILTER_FIELD = "bloom_filter";
+
+    private final Map<String, ColumnStatistics> columns = new LinkedHashMap<>();
+    private final Set<String> recordFields = new HashSet<>();
+    private final Set<String> bloomFilterFields;
+    private final double bloomFilterFpp;
+    private long rowCount;
+    private boolean unknown;
+
+    ZoneMap() {
+        this(Collections.emptySet(), 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bloomFilterFields lower case names of the fields with a Bloom filter.
+     * @param bloomFilterFpp false positive probability of the Bloom filters.
+     */
+    ZoneMap(final Set<String> bloomFilterFields, final double bloomFilterFpp) {
+        this.bloomFilterFields = bloomFilterFields;
+        this.bloomFilterFpp = bloomFilterFpp;
+    }
+
+    /**
+     * Range of the values of a column as seen by Hive, from the statistics of its field.
+     */
+    static final class ColumnRange {
+
+        private final long nullCount;
+        private final long nonNullCount;
+        private final Object min;
+        private final Object max;
+        private final BloomFilter bloomFilter;
+
+        ColumnRange(final long nullCount,
+                    final long nonNullCount,
+                    final Object min,
+                    final Object max,
+                    final BloomFilter bloomFilter) {
+            this.nullCount = nullCount;
+            this.nonNullCount = nonNullCount;
+            this.min = min;
+            this.max = max;
+            this.bloomFilter = bloomFilter;
+        }
+
+        long getNullCount() {
+            return nullCount;
+        }
+
+        long getNonNullCount() {
+            return nonNullCount;
+        }
+
+        /**
+         * Smallest value, a {@link Long}, {@link Double}, {@link Boolean}, {@link String} or {@link Instant} as in
+         * {@link FilterPredicate}.
+         */
+        Object getMin() {
+            return min;
+        }
+
+        Object getMax() {
+            return max;
+        }
+
+        /**
+         * Checks if a non null value of the column may be equal to a constant.
+         *
+         * @param value constant in the representation used by {@link FilterPredicate}.
+         * @return false if no value is equal to the constant, true otherwise.
+         */
+        boolean mightContain(final Object value) {
+            return bloomFilter == null || bloomFilter.mightContain(value);
+        }
+    }
+
+    /**
+     * Value kinds, in the representation used by {@link FilterPredicate}.
+     */
+    private enum Kind {
+        NONE, LONG, DOUBLE, BOOLEAN, STRING, TIMESTAMP, UNKNOWN;
+
+        /**
+         * Checks if values of the kind are added to Bloom filters, equality lookups on the others are rare.
+         */
+        boolean hasBloomFilter() {
+            return this == LONG || this == DOUBLE || this == STRING;
+        }
+    }
+
+    private static final class ColumnStatistics {
+
+        private Kind kind = Kind.NONE;
+        private long nonNullCount;
+        private Object min;
+        private Object max;
+
+        // hashes of the values until the Bloom filter is built, null if the field has no Bloom filter
+        private BloomFilter.Hashes hashes;
+        private BloomFilter bloomFilter;
+
+        ColumnStatistics(final boolean withBloomFilter) {
+            hashes = withBloomFilter ? new BloomFilter.Hashes() : null;
+        }
+
+        void add(final Kind valueKind, final Object value) {
+            if (kind == Kind.UNKNOWN) {
+                return;
+            }
+            if (valueKind == Kind.UNKNOWN || (kind != Kind.NONE && kind != valueKind)) {
+                setUnknown();
+                return;
+            }
+
+            kind = valueKind;
+            nonNullCount++;
+            updateBounds(value);
+            if (hashes != null && valueKind.hasBloomFilter() && !hashes.add(BloomFilter.hash(value))) {
+                hashes = null;
+            }
+        }
+
+        void merge(final ColumnStatistics other) {
+            if (other.kind == Kind.NONE || kind == Kind.UNKNOWN) {
+                return;
+            }
+            if (other.kind == Kind.UNKNOWN || (kind != Kind.NONE && kind != other.kind)) {
+                setUnknown();
+                return;
+            }
+
+            kind = other.kind;
+            nonNullCount += other.nonNullCount;
+            updateBounds(other.min);
+            updateBounds(other.max);
+
+            if (hashes == null || other.hashes == null || !hashes.addAll(other.hashes)) {
+                hashes = null;
+                bloomFilter = null;
+            }
+        }
+
+        void finishBloomFilter(final double fpp) {
+            if (hashes != null && nonNullCount > 0 && kind.hasBloomFilter()) {
+                bloomFilter = BloomFilter.of(hashes, fpp);
+            }
+            hashes = null;
+        }
+
+        private void setUnknown() {
+            kind = Kind.UNKNOWN;
+            hashes = null;
+            bloomFilter = null;
+        }
+
+        private void updateBounds(final Object value) {
+            if (min == null || compareBounds(value, min) < 0) {
+                min = value;
+            }
+            if (max == null || compareBounds(value, max) > 0) {
+                max = value;
+            }
+        }
+
+        // doubles are ordered with -0.0 before 0.0, FilterPredicate doesn't compare them with a constant of the other
+        // sign so a bound of either sign is safe
+        private static int compareBounds(final Object value, final Object bound) {
+            if (value instanceof Double) {
+                return Double.compare((Double) value, (Double) bound);
+            }
+
+            return FilterPredicate.compare(value, bound);
+        }
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    boolean isUnknown() {
+        return unknown;
+    }
+
+    /**
+     * Marks the zone map as unknown, for records that couldn't be read.
+     */
+    void setUnknown() {
+        unknown = true;
+    }
+
+    /**
+     * Adds the record the reader is positioned on.
+     */
+    void add(final IonReader reader, final IonType type) {
+        rowCount++;
+        if (type != IonType.STRUCT || reader.isNullValue()) {
+            unknown = true;
+            return;
+        }
+
+        recordFields.clear();
+        reader.stepIn();
+        IonType fieldType;
+        while ((fieldType = reader.next()) != null) {
+            final String fieldName = reader.getFieldName();
+            if (fieldName == null) {
+                unknown = true;
+                continue;
+            }
+
+            final ColumnStatistics statistics = columns.computeIfAbsent(fieldName, this::newStatistics);
+            if (!recordFields.add(fieldName)) {
+                statistics.setUnknown();
+                continue;
+            }
+
+            addValue(statistics, reader, fieldType);
+        }
+        reader.stepOut();
+    }
+
+    private static void addValue(final ColumnStatistics statistics, final IonReader reader, final IonType type) {
+        if (reader.isNullValue()) {
+            return;
+        }
+
+        switch (type) {
+            case INT:
+                if (reader.getIntegerSize() == IntegerSize.BIG_INTEGER) {
+                    statistics.add(Kind.UNKNOWN, null);
+                } else {
+                    statistics.add(Kind.LONG, reader.longValue());
+                }
+                break;
+            case FLOAT:
+                final double value = reader.doubleValue();
+                statistics.add(Double.isNaN(value) ? Kind.UNKNOWN : Kind.DOUBLE, value);
+                break;
+            case BOOL:
+                statistics.add(Kind.BOOLEAN, reader.booleanValue());
+                break;
+            case STRING:
+            case SYMBOL:
+                final String text = reader.stringValue();
+                if (text == null || text.length() > MAX_STRING_LENGTH) {
+                    statistics.add(Kind.UNKNOWN, null);
+                } else {
+                    statistics.add(Kind.STRING, text);
+                }
+                break;
+            case TIMESTAMP:
+                // as read by the object inspectors, see RecordFilter
+                statistics.add(Kind.TIMESTAMP, Instant.ofEpochMilli(reader.timestampValue().getMillis()));
+                break;
+            default:
+                statistics.add(Kind.UNKNOWN, null);
+                break;
+        }
+    }
+
+    /**
+     * Adds the records of another zone map.
+     */
+    void merge(final ZoneMap other) {
+        rowCount += other.rowCount;
+        unknown |= other.unknown;
+        for (final Map.Entry<String, ColumnStatistics> entry : other.columns.entrySet()) {
+            columns.computeIfAbsent(entry.getKey(), this::newStatistics).merge(entry.getValue());
+        }
+    }
+
+    private ColumnStatistics newStatistics(final String fieldName) {
+        return new ColumnStatistics(bloomFilterFields.contains(fieldName.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Builds the Bloom filters from the values added so far, no value can be added or merged to them afterwards.
+     */
+    void finishBloomFilters() {
+        for (final ColumnStatistics statistics : columns.values()) {
+            statistics.finishBloomFilter(bloomFilterFpp);
+        }
+    }
+
+    /**
+     * Returns the range of a column read from the top-level field with the same name.
+     *
+     * @param fieldName field name.
+     * @param caseSensitive if field names are matched case sensitive.
+     * @param category category of the column type, see {@link FilterPredicate#supportedCategory}.
+     * @return the range, or null if the values of the column can't be bounded.
+     */
+    ColumnRange range(final String fieldName, final boolean caseSensitive, final PrimitiveCategory category) {
+        if (unknown) {
+            return null;
+        }
+
+        ColumnStatistics statistics = null;
+        for (final Map.Entry<String, ColumnStatistics> entry : columns.entrySet()) {
+            final String name = entry.getKey();
+            if (caseSensitive ? name.equals(fieldName) : name.equalsIgnoreCase(fieldName)) {
+                // fields that only differ in case may be in the same record
+                if (statistics != null) {
+                    return null;
+                }
+                statistics = entry.getValue();
+            }
+        }
+
+        // the field is in no record, every value is null
+        if (statistics == null) {
+            return new ColumnRange(rowCount, 0, null, null, null);
+        }
+
+        if (statistics.kind != Kind.NONE && statistics.kind != kindOf(category)) {
+            return null;
+        }
+        if (statistics.kind == Kind.LONG
+            && !(fitsIn(category, (Long) statistics.min) && fitsIn(category, (Long) statistics.max))) {
+            return null;
+        }
+
+        return new ColumnRange(
+            rowCount - statistics.nonNullCount,
+            statistics.nonNullCount,
+            statistics.min,
+            statistics.max,
+            statistics.bloomFilter);
+    }
+
+    private static Kind kindOf(final PrimitiveCategory category) {
+        switch (category) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case STRING:
+                return Kind.STRING;
+            case TIMESTAMP:
+                return Kind.TIMESTAMP;
+            default:
+                return Kind.UNKNOWN;
+        }
+    }
+
+    // out of range values either fail or overflow, see FailOnOverflowConfig
+    private static boolean fitsIn(final PrimitiveCategory category, final long value) {
+        switch (category) {
+            case BYTE:
+                return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+            case SHORT:
+                return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+            case INT:
+                return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Writes the zone map as an Ion struct:
+     * <pre>
+     * {
+     *   row_count: 10,
+     *   columns: {
+     *     id: { non_null: 10, min: 1, max: 10, bloom_filter: { hash_functions: 4, bits: {{ ... }} } },
+     *     payload: { unknown: true }
+     *   }
+     * }
+     * </pre>
+     */
+    void writeTo(final IonWriter writer) throws IOException {
+        writer.stepIn(IonType.STRUCT);
+        writer.setFieldName(ROW_COUNT_FIELD);
+        writer.writeInt(rowCount);
+        if (unknown) {
+            writer.setFieldName(UNKNOWN_FIELD);
+            writer.writeBool(true);
+        }
+
+        writer.setFieldName(COLUMNS_FIELD);
+        writer.stepIn(IonType.STRUCT);
+        for (final Map.Entry<String, ColumnStatistics> entry : columns.entrySet()) {
+            final ColumnStatistics statistics = entry.getValue();
+
+            writer.setFieldName(entry.getKey());
+            writer.stepIn(IonType.STRUCT);
+            if (statistics.kind == Kind.UNKNOWN) {
+                writer.setFieldName(UNKNOWN_FIELD);
+                writer.writeBool(true);
+            } else {
+                writer.setFieldName(NON_NULL_FIELD);
+                writer.writeInt(statistics.nonNullCount);
+                if (statistics.kind != Kind.NONE) {
+                    writer.setFieldName(MIN_FIELD);
+                    writeBound(writer, statistics.min);
+                    writer.setFieldName(MAX_FIELD);
+                    writeBound(writer, statistics.max);
+                }
+                if (statistics.bloomFilter != null) {
+                    writer.setFieldName(BLOOM_FILTER_FIELD);
+                    statistics.bloomFilter.writeTo(writer);
+                }
+            }
+            writer.stepOut();
+        }
+        writer.stepOut();
+
+        writer.stepOut();
+    }
+
+    private static void writeBound(final IonWriter writer, final Object value) throws IOException {
+        if (value instanceof Long) {
+            writer.writeInt((Long) value);
+        } else if (value instanceof Double) {
+            writer.writeFloat((Double) value);
+        } else if (value instanceof Boolean) {
+            writer.writeBool((Boolean) value);
+        } else if (value instanceof Instant) {
+            writer.writeTimestamp(Timestamp.forMillis(((Instant) value).toEpochMilli(), 0));
+        } else {
+            writer.writeString((String) value);
+        }
+    }
+
+    /**
+     * Reads a zone map written by {@link #writeTo(IonWriter)}, the reader must be positioned on the struct.
+     */
+    static ZoneMap readFrom(final IonReader reader) {
+        final ZoneMap zoneMap = new ZoneMap();
+
+        reader.stepIn();
+        while (reader.next() != null) {
+            switch (reader.getFieldName()) {
+                case ROW_COUNT_FIELD:
+                    zoneMap.rowCount = reader.longValue();
+                    break;
+                case UNKNOWN_FIELD:
+                    zoneMap.unknown = reader.booleanValue();
+                    break;
+                case COLUMNS_FIELD:
+                    reader.stepIn();
+                    while (reader.next() != null) {
+                        zoneMap.columns.put(reader.getFieldName(), readColumn(reader));
+                    }
+                    reader.stepOut();
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+
+        return zoneMap;
+    }
+
+    private static ColumnStatistics readColumn(final IonReader reader) {
+        final ColumnStatistics statistics = new ColumnStatistics(false);
+
+        reader.stepIn();
+        IonType type;
+        while ((type = reader.next()) != null) {
+            switch (reader.getFieldName()) {
+                case UNKNOWN_FIELD:
+                    if (reader.booleanValue()) {
+                        statistics.kind = Kind.UNKNOWN;
+                    }
+                    break;
+                case NON_NULL_FIELD:
+                    statistics.nonNullCount = reader.longValue();
+                    break;
+                case MIN_FIELD:
+                    statistics.min = readBound(reader, type);
+                    break;
+                case MAX_FIELD:
+                    statistics.max = readBound(reader, type);
+                    break;
+                case BLOOM_FILTER_FIELD:
+                    statistics.bloomFilter = BloomFilter.readFrom(reader);
+                    break;
+                default:
+                    break;
+            }
+        }
+        reader.stepOut();
+
+        if (statistics.kind != Kind.UNKNOWN && statistics.nonNullCount > 0) {
+            statistics.kind = kindOfBound(statistics.min);
+            if (statistics.max == null || kindOfBound(statistics.max) != statistics.kind) {
+                statistics.kind = Kind.UNKNOWN;
+            }
+        }
+
+        return statistics;
+    }
+
+    private static Object readBound(final IonReader reader, final IonType type) {
+        switch (type) {
+            case INT:
+                return reader.longValue();
+            case FLOAT:
+                return reader.doubleValue();
+            case BOOL:
+                return reader.booleanValue();
+            case STRING:
+                return reader.stringValue();
+            case TIMESTAMP:
+                return Instant.ofEpochMilli(reader.timestampValue().getMillis());
+            default:
+                return null;
+        }
+    }
+
+    private static Kind kindOfBound(final Object value) {
+        if (value instanceof Long) {
+            return Kind.LONG;
+        }
+        if (value instanceof Double) {
+            return Kind.DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return Kind.BOOLEAN;
+        }
+        if (value instanceof Instant) {
+            return Kind.TIMESTAMP;
+        }
+
+        return value instanceof String ? Kind.STRING : Kind.UNKNOWN;
+    }
+}
@@ -20,6 +20,10 @@ public abstract class AbstractIonPrimitiveJavaObjectInspector extends AbstractPr
 
     @Override
     public final Object copyObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).copy();
+        }
+
         final IonValue ionValue = (IonValue) o;
         if (isIonNull(ionValue)) {
             return null;
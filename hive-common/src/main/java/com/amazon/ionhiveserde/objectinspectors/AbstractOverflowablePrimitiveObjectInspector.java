@@ -43,6 +43,30 @@ abstract class AbstractOverflowablePrimitiveObjectInspector<T extends IonValue,
         return getValidatedPrimitiveJavaObject(ionValue);
     }
 
+    /**
+     * Gets the primitive Java representation of a scalar slot detecting and handling overflows.
+     *
+     * @param slot slot to read as a Java primitive.
+     * @return Java primitive representation.
+     */
+    final O getPrimitiveJavaObjectFromSlot(final ScalarSlot slot) {
+        return getValidatedPrimitiveJavaObject(validatedSlot(slot));
+    }
+
+    /**
+     * Detects and handles overflows of a scalar slot, so its value can be read without boxing it.
+     *
+     * @param slot slot to be validated.
+     * @return the slot.
+     */
+    final ScalarSlot validatedSlot(final ScalarSlot slot) {
+        if (failOnOverflow) {
+            validateSize(slot);
+        }
+
+        return slot;
+    }
+
     /**
      * Gets the primitive Java representation of an Ion value that has passed overflow validation.
      *
@@ -51,6 +75,14 @@ abstract class AbstractOverflowablePrimitiveObjectInspector<T extends IonValue,
      */
     protected abstract O getValidatedPrimitiveJavaObject(final T ionValue);
 
+    /**
+     * Gets the primitive Java representation of a scalar slot that has passed overflow validation.
+     *
+     * @param slot slot to read as a Java primitive.
+     * @return Java primitive representation.
+     */
+    protected abstract O getValidatedPrimitiveJavaObject(final ScalarSlot slot);
+
     /**
      * Validates if an ion value will overflow when converted to java primitive.
      *
@@ -58,4 +90,12 @@ abstract class AbstractOverflowablePrimitiveObjectInspector<T extends IonValue,
      * @throws IllegalArgumentException when detecting an overflow.
      */
     protected abstract void validateSize(final T ionValue);
+
+    /**
+     * Validates if a scalar slot will overflow when converted to java primitive.
+     *
+     * @param slot slot to be validated.
+     * @throws IllegalArgumentException when detecting an overflow.
+     */
+    protected abstract void validateSize(final ScalarSlot slot);
 }
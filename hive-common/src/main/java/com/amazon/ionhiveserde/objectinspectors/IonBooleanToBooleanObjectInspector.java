@@ -23,6 +23,11 @@ public class IonBooleanToBooleanObjectInspector extends AbstractIonPrimitiveJava
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                BooleanWritable::new,
+                (writable, slot) -> writable.set(slot.booleanValue()));
+        }
         if (isIonNull((IonValue) o)) {
             return null;
         }
@@ -37,6 +42,9 @@ public class IonBooleanToBooleanObjectInspector extends AbstractIonPrimitiveJava
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).booleanValue();
+        }
         if (isIonNull((IonValue) o)) {
             return null;
         }
@@ -21,6 +21,9 @@ public class IonFloatToDoubleObjectInspector extends AbstractIonPrimitiveJavaObj
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(DoubleWritable::new, (writable, slot) -> writable.set(slot.doubleValue()));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -30,11 +33,18 @@ public class IonFloatToDoubleObjectInspector extends AbstractIonPrimitiveJavaObj
 
     @Override
     public double get(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).doubleValue();
+        }
+
         return (double) getPrimitiveJavaObject(o);
     }
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).doubleValue();
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
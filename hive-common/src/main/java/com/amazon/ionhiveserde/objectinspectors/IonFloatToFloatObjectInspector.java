@@ -5,6 +5,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 
 import com.amazon.ion.IonFloat;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.FloatObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.io.FloatWritable;
@@ -16,12 +17,19 @@ public class IonFloatToFloatObjectInspector extends
         AbstractOverflowablePrimitiveObjectInspector<IonFloat, Float> implements
     FloatObjectInspector {
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<FloatWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set((float) validatedSlot(slot).doubleValue());
+
     public IonFloatToFloatObjectInspector(final boolean failOnOverflow) {
         super(TypeInfoFactory.floatTypeInfo, failOnOverflow);
     }
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(FloatWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -34,6 +42,11 @@ public class IonFloatToFloatObjectInspector extends
         return ionValue.floatValue();
     }
 
+    @Override
+    protected Float getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return (float) slot.doubleValue();
+    }
+
     @Override
     protected void validateSize(final IonFloat ionFloat) {
         final float f = ionFloat.floatValue();
@@ -45,13 +58,30 @@ public class IonFloatToFloatObjectInspector extends
         }
     }
 
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        final double d = slot.doubleValue();
+
+        if (Double.compare((float) d, d) != 0) {
+            throw new IllegalArgumentException(
+                "insufficient precision for " + slot.toString() + " as " + this.typeInfo.getTypeName());
+        }
+    }
+
     @Override
     public float get(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return (float) validatedSlot((ScalarSlot) o).doubleValue();
+        }
+
         return (float) getPrimitiveJavaObject(o);
     }
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
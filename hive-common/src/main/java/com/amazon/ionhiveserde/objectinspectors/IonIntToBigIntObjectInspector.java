@@ -6,6 +6,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 import com.amazon.ion.IntegerSize;
 import com.amazon.ion.IonInt;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.LongObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.io.LongWritable;
@@ -19,12 +20,19 @@ public class IonIntToBigIntObjectInspector extends AbstractOverflowablePrimitive
     public static final long MIN_VALUE = Long.MIN_VALUE;
     public static final long MAX_VALUE = Long.MAX_VALUE;
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<LongWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set(validatedSlot(slot).longValue());
+
     public IonIntToBigIntObjectInspector(final boolean failOnOverflow) {
         super(TypeInfoFactory.longTypeInfo, failOnOverflow);
     }
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(LongWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -37,6 +45,11 @@ public class IonIntToBigIntObjectInspector extends AbstractOverflowablePrimitive
         return ionValue.longValue();
     }
 
+    @Override
+    protected Long getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return slot.longValue();
+    }
+
     @Override
     protected void validateSize(final IonInt ionValue) {
         if (ionValue.getIntegerSize() == IntegerSize.BIG_INTEGER) {
@@ -45,13 +58,25 @@ public class IonIntToBigIntObjectInspector extends AbstractOverflowablePrimitive
         }
     }
 
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        // slots only hold ints that fit in a long
+    }
+
     @Override
     public long get(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return validatedSlot((ScalarSlot) o).longValue();
+        }
+
         return (long) getPrimitiveJavaObject(o);
     }
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
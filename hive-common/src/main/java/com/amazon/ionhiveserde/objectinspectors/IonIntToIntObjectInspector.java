@@ -6,6 +6,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 import com.amazon.ion.IntegerSize;
 import com.amazon.ion.IonInt;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.IntObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.io.IntWritable;
@@ -19,12 +20,19 @@ public class IonIntToIntObjectInspector extends AbstractOverflowablePrimitiveObj
     public static final int MIN_VALUE = Integer.MIN_VALUE;
     public static final int MAX_VALUE = Integer.MAX_VALUE;
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<IntWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set((int) validatedSlot(slot).longValue());
+
     public IonIntToIntObjectInspector(final boolean failOnOverflow) {
         super(TypeInfoFactory.intTypeInfo, failOnOverflow);
     }
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(IntWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -37,6 +45,11 @@ public class IonIntToIntObjectInspector extends AbstractOverflowablePrimitiveObj
         return ionValue.intValue();
     }
 
+    @Override
+    protected Integer getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return (int) slot.longValue();
+    }
+
     @Override
     protected void validateSize(final IonInt ionValue) {
         if (ionValue.getIntegerSize() != IntegerSize.INT) {
@@ -45,13 +58,29 @@ public class IonIntToIntObjectInspector extends AbstractOverflowablePrimitiveObj
         }
     }
 
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        final long value = slot.longValue();
+        if (value < MIN_VALUE || value > MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "insufficient precision for " + slot.toString() + " as " + this.typeInfo.getTypeName());
+        }
+    }
+
     @Override
     public int get(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return (int) validatedSlot((ScalarSlot) o).longValue();
+        }
+
         return (int) getPrimitiveJavaObject(o);
     }
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
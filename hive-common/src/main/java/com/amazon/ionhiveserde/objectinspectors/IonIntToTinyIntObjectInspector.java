@@ -6,6 +6,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 import com.amazon.ion.IntegerSize;
 import com.amazon.ion.IonInt;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.serde2.io.ByteWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.ByteObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
@@ -20,12 +21,19 @@ public class IonIntToTinyIntObjectInspector extends
     public static final int MIN_VALUE = -128;
     public static final int MAX_VALUE = 127;
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<ByteWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set((byte) validatedSlot(slot).longValue());
+
     public IonIntToTinyIntObjectInspector(final boolean failOnOverflow) {
         super(TypeInfoFactory.byteTypeInfo, failOnOverflow);
     }
 
     @Override
     public Object getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(ByteWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -38,6 +46,11 @@ public class IonIntToTinyIntObjectInspector extends
         return (byte) ionValue.intValue();
     }
 
+    @Override
+    protected Byte getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return (byte) slot.longValue();
+    }
+
     @Override
     protected void validateSize(final IonInt ionValue) {
         boolean correctIntSize = ionValue.getIntegerSize() == IntegerSize.INT;
@@ -48,6 +61,15 @@ public class IonIntToTinyIntObjectInspector extends
         }
     }
 
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        final long value = slot.longValue();
+        if (value < MIN_VALUE || value > MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "insufficient precision for " + slot.toString() + " as " + this.typeInfo.getTypeName());
+        }
+    }
+
     private boolean validRange(final IonInt ionValue) {
         // runs after checking that fits in a Java int
         int intValue = ionValue.intValue();
@@ -56,11 +78,18 @@ public class IonIntToTinyIntObjectInspector extends
 
     @Override
     public byte get(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return (byte) validatedSlot((ScalarSlot) o).longValue();
+        }
+
         return (byte) getPrimitiveJavaObject(o);
     }
 
     @Override
     public Object getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
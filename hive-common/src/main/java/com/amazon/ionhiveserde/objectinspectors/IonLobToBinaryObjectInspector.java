@@ -23,6 +23,11 @@ public class IonLobToBinaryObjectInspector extends AbstractIonPrimitiveJavaObjec
 
     @Override
     public BytesWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                BytesWritable::new,
+                (writable, slot) -> writable.set(slot.bytesValue(), 0, slot.bytesValue().length));
+        }
         if (isIonNull((IonValue) o)) {
             return null;
         }
@@ -32,6 +37,9 @@ public class IonLobToBinaryObjectInspector extends AbstractIonPrimitiveJavaObjec
 
     @Override
     public byte[] getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).bytesValue();
+        }
         if (isIonNull((IonValue) o)) {
             return null;
         }
@@ -25,6 +25,11 @@ public class IonNumberToDecimalObjectInspector extends AbstractIonPrimitiveJavaO
 
     @Override
     public HiveDecimalWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                HiveDecimalWritable::new,
+                (writable, slot) -> writable.set(HiveDecimal.create(slot.bigDecimalValue())));
+        }
         if (isIonNull((IonValue) o)) {
             return null;
         }
@@ -34,6 +39,10 @@ public class IonNumberToDecimalObjectInspector extends AbstractIonPrimitiveJavaO
 
     @Override
     public HiveDecimal getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return HiveDecimal.create(((ScalarSlot) o).bigDecimalValue());
+        }
+
         final IonValue value = (IonValue) o;
         if (isIonNull(value)) {
             return null;
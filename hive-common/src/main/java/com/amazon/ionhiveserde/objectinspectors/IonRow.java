@@ -0,0 +1,169 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.objectinspectors;
+
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonSystem;
+import com.amazon.ion.IonValue;
+import com.amazon.ion.SeekableReader;
+import com.amazon.ion.Span;
+import com.amazon.ion.SpanProvider;
+import com.amazon.ionhiveserde.caseinsensitivedecorator.IonCaseInsensitiveDecorator;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+
+/**
+ * Row deserialized by the SerDe, adapted for the table struct by {@link IonStructToStructInspector}. Column values are
+ * indexed by column id.
+ *
+ * <p>Scalar values of primitive columns are read straight from the reader into the {@link ScalarSlot} of the column
+ * when the Ion type is one the column object inspector accepts, no Ion value is created for them. Other values, such
+ * as containers or non-text values of string columns, are read as Ion values.
+ *
+ * <p>When lazy, matching a column only records the span of its value in the record, and the value is decoded on first
+ * access and kept for the following ones. Rows discarded after reading a few columns, for example by a filter, never
+ * decode the other columns. The reader is kept open to decode the values, so a row is only valid until the next record
+ * is read, like the buffers of the record reader. Readers that can't seek always decode the values when matched.
+ */
+public final class IonRow {
+
+    private final IonSystem domFactory;
+    private final boolean caseSensitive;
+    private final boolean lazy;
+    private final ScalarSlot[] slots;
+    private final boolean[] slotsSet;
+    private final Span[] spans;
+    private final IonValue[] values;
+
+    private IonReader reader;
+    private SpanProvider spanProvider;
+    private SeekableReader seekableReader;
+
+    /**
+     * Constructor.
+     *
+     * @param domFactory factory used to decode the values.
+     * @param caseSensitive if field names of nested structs are case sensitive.
+     * @param lazy if Ion values are decoded on first access instead of when matched.
+     * @param columnTypes types of the table columns.
+     */
+    public IonRow(final IonSystem domFactory,
+                  final boolean caseSensitive,
+                  final boolean lazy,
+                  final List<TypeInfo> columnTypes) {
+        this.domFactory = domFactory;
+        this.caseSensitive = caseSensitive;
+        this.lazy = lazy;
+
+        final int columnCount = columnTypes.size();
+        this.slots = new ScalarSlot[columnCount];
+        this.slotsSet = new boolean[columnCount];
+        this.spans = new Span[columnCount];
+        this.values = new IonValue[columnCount];
+
+        for (int i = 0; i < columnCount; i++) {
+            final TypeInfo typeInfo = columnTypes.get(i);
+            if (typeInfo instanceof PrimitiveTypeInfo) {
+                slots[i] = new ScalarSlot(((PrimitiveTypeInfo) typeInfo).getPrimitiveCategory());
+            }
+        }
+    }
+
+    /**
+     * Starts a new record, closing the reader of the previous one.
+     *
+     * @param reader reader for the record, used to decode the column values until the next record.
+     */
+    public void start(final IonReader reader) throws IOException {
+        close();
+        Arrays.fill(slotsSet, false);
+        Arrays.fill(spans, null);
+        Arrays.fill(values, null);
+
+        this.reader = reader;
+        if (lazy) {
+            spanProvider = reader.asFacet(SpanProvider.class);
+            seekableReader = reader.asFacet(SeekableReader.class);
+        }
+    }
+
+    /**
+     * Sets the value of a column to the current value of the reader, the last match of a column wins.
+     *
+     * @param columnId column id.
+     * @param reader record reader positioned on the matched value.
+     */
+    public void match(final int columnId, final IonReader reader) {
+        slotsSet[columnId] = false;
+        spans[columnId] = null;
+        values[columnId] = null;
+
+        // Hive can't handle IonNull, null values are never decoded
+        if (reader.isNullValue()) {
+            return;
+        }
+
+        final ScalarSlot slot = slots[columnId];
+        if (slot != null && slot.read(reader)) {
+            slotsSet[columnId] = true;
+        } else if (spanProvider != null && seekableReader != null) {
+            spans[columnId] = spanProvider.currentSpan();
+        } else {
+            values[columnId] = decode(reader);
+        }
+    }
+
+    /**
+     * Returns the value of a column, decoding it if needed.
+     *
+     * @param columnId column id.
+     * @return {@link ScalarSlot} or {@link IonValue} of the column, null if it wasn't matched or is an Ion null.
+     */
+    public Object get(final int columnId) {
+        if (slotsSet[columnId]) {
+            return slots[columnId];
+        }
+
+        final Span span = spans[columnId];
+        if (span != null) {
+            seekableReader.hoist(span);
+            reader.next();
+            values[columnId] = decode(reader);
+            spans[columnId] = null;
+        }
+
+        return IonUtil.handleNull(values[columnId]);
+    }
+
+    /**
+     * Returns the number of columns in the row.
+     *
+     * @return number of columns.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Closes the reader of the current record.
+     */
+    public void close() throws IOException {
+        spanProvider = null;
+        seekableReader = null;
+
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    private IonValue decode(final IonReader reader) {
+        final IonValue value = domFactory.newValue(reader);
+
+        return caseSensitive ? value : IonCaseInsensitiveDecorator.wrapValue(value);
+    }
+}
@@ -20,7 +20,8 @@ import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo;
 
 /**
- * Adapts an {@link IonStruct} for the struct Hive type.
+ * Adapts an {@link IonStruct} for the struct Hive type. Also adapts the {@link IonRow}s deserialized for the table,
+ * whose values are accessed by field id.
  */
 public class IonStructToStructInspector extends StructObjectInspector {
 
@@ -65,6 +66,13 @@ public class IonStructToStructInspector extends StructObjectInspector {
 
     @Override
     public Object getStructFieldData(final Object data, final StructField fieldRef) {
+        if (data instanceof IonRow) {
+            if (fieldRef == null) {
+                throw new IllegalArgumentException("fieldRef name cannot be null");
+            }
+
+            return ((IonRow) data).get(fieldRef.getFieldID());
+        }
         if (isIonNull((IonValue) data)) {
             return null;
         }
@@ -79,6 +87,15 @@ public class IonStructToStructInspector extends StructObjectInspector {
 
     @Override
     public List<Object> getStructFieldsDataAsList(final Object data) {
+        if (data instanceof IonRow) {
+            final IonRow row = (IonRow) data;
+            final List<Object> values = new ArrayList<>(fields.size());
+            for (final IonStructField field : fields) {
+                values.add(row.get(field.getFieldID()));
+            }
+
+            return values;
+        }
         if (isIonNull((IonValue) data)) {
             return null;
         }
@@ -5,6 +5,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 
 import com.amazon.ion.IonText;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.common.type.HiveChar;
 import org.apache.hadoop.hive.serde2.io.HiveCharWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.HiveCharObjectInspector;
@@ -20,6 +21,10 @@ public class IonTextToCharObjectInspector extends
     private final int maxLength;
     private final TextMaxLengthValidator validator = new TextMaxLengthValidator();
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<HiveCharWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set(getPrimitiveJavaObjectFromSlot(slot));
+
     /**
      * Creates an IonText to char with a maximum maxLength.
      *
@@ -34,6 +39,9 @@ public class IonTextToCharObjectInspector extends
 
     @Override
     public HiveCharWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(HiveCharWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -43,6 +51,9 @@ public class IonTextToCharObjectInspector extends
 
     @Override
     public HiveChar getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -56,8 +67,18 @@ public class IonTextToCharObjectInspector extends
         return new HiveChar(ionValue.stringValue(), maxLength);
     }
 
+    @Override
+    protected HiveChar getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return new HiveChar(slot.stringValue(), maxLength);
+    }
+
     @Override
     protected void validateSize(final IonText ionValue) {
         validator.validate(ionValue.stringValue(), maxLength);
     }
+
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        validator.validate(slot.stringValue(), maxLength);
+    }
 }
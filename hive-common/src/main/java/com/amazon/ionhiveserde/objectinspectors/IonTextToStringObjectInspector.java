@@ -21,6 +21,9 @@ public class IonTextToStringObjectInspector extends AbstractIonPrimitiveJavaObje
 
     @Override
     public String getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).stringValue();
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -30,6 +33,9 @@ public class IonTextToStringObjectInspector extends AbstractIonPrimitiveJavaObje
 
     @Override
     public Text getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(Text::new, (writable, slot) -> writable.set(slot.stringValue()));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
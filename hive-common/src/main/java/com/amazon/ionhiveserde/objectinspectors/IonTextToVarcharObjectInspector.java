@@ -5,6 +5,7 @@ package com.amazon.ionhiveserde.objectinspectors;
 
 import com.amazon.ion.IonText;
 import com.amazon.ion.IonValue;
+import java.util.function.BiConsumer;
 import org.apache.hadoop.hive.common.type.HiveVarchar;
 import org.apache.hadoop.hive.serde2.io.HiveVarcharWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.HiveVarcharObjectInspector;
@@ -20,6 +21,10 @@ public class IonTextToVarcharObjectInspector extends
     private final int maxLength;
     private final TextMaxLengthValidator validator = new TextMaxLengthValidator();
 
+    // captures the object inspector, kept in a field so it isn't created for every value
+    private final BiConsumer<HiveVarcharWritable, ScalarSlot> slotWriter =
+        (writable, slot) -> writable.set(getPrimitiveJavaObjectFromSlot(slot));
+
     /**
      * Creates an IonText to varchar with a maximum maxLength.
      *
@@ -34,6 +39,9 @@ public class IonTextToVarcharObjectInspector extends
 
     @Override
     public HiveVarcharWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(HiveVarcharWritable::new, slotWriter);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -43,6 +51,9 @@ public class IonTextToVarcharObjectInspector extends
 
     @Override
     public HiveVarchar getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObjectFromSlot((ScalarSlot) o);
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -55,8 +66,18 @@ public class IonTextToVarcharObjectInspector extends
         return new HiveVarchar(ionValue.stringValue(), maxLength);
     }
 
+    @Override
+    protected HiveVarchar getValidatedPrimitiveJavaObject(final ScalarSlot slot) {
+        return new HiveVarchar(slot.stringValue(), maxLength);
+    }
+
     @Override
     protected void validateSize(final IonText ionValue) {
         validator.validate(ionValue.stringValue(), maxLength);
     }
+
+    @Override
+    protected void validateSize(final ScalarSlot slot) {
+        validator.validate(slot.stringValue(), maxLength);
+    }
 }
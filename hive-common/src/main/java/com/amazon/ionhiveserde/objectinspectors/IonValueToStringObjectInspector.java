@@ -27,6 +27,9 @@ public class IonValueToStringObjectInspector extends AbstractIonPrimitiveJavaObj
 
     @Override
     public String getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).stringValue();
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -36,6 +39,9 @@ public class IonValueToStringObjectInspector extends AbstractIonPrimitiveJavaObj
 
     @Override
     public Text getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(Text::new, (writable, slot) -> writable.set(slot.stringValue()));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
@@ -0,0 +1,257 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.objectinspectors;
+
+import com.amazon.ion.IntegerSize;
+import com.amazon.ion.IonReader;
+import com.amazon.ion.IonType;
+import com.amazon.ion.SymbolToken;
+import java.math.BigDecimal;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+
+/**
+ * Scalar column value read straight from an {@link IonReader} by {@link IonRow}, without creating an Ion value. Only
+ * the Ion types the column object inspector accepts are read into the slot: booleans, ints that fit in a long, floats,
+ * decimals, text, lobs and timestamps as milliseconds. Object inspectors apply the same conversions to a slot as to the
+ * equivalent Ion value.
+ *
+ * <p>Each column has its own slot, reused for every row. Like the objects of Hive's lazy object inspectors, the slot
+ * also holds the writable returned by the column object inspector, set once per value and reused for every row, so
+ * reading a column as a writable doesn't allocate one. A copy of the slot has its own writable.
+ */
+public final class ScalarSlot {
+
+    private final PrimitiveCategory category;
+
+    private IonType type;
+    private boolean booleanValue;
+    private long longValue;
+    private double doubleValue;
+    private BigDecimal decimalValue;
+    private String stringValue;
+    private byte[] bytesValue;
+
+    private Object writable;
+    private boolean writableSet;
+
+    /**
+     * Constructor.
+     *
+     * @param category primitive category of the column.
+     */
+    ScalarSlot(final PrimitiveCategory category) {
+        this.category = category;
+    }
+
+    private ScalarSlot(final ScalarSlot other) {
+        this.category = other.category;
+        this.type = other.type;
+        this.booleanValue = other.booleanValue;
+        this.longValue = other.longValue;
+        this.doubleValue = other.doubleValue;
+        this.decimalValue = other.decimalValue;
+        this.stringValue = other.stringValue;
+        this.bytesValue = other.bytesValue == null ? null : other.bytesValue.clone();
+    }
+
+    /**
+     * Reads the current value of the reader if it can be read into the slot for the column category.
+     *
+     * @param reader reader positioned on a non null value.
+     * @return true if the value was read, false if it has to be read as an Ion value.
+     */
+    boolean read(final IonReader reader) {
+        final IonType readerType = reader.getType();
+
+        switch (category) {
+            case BOOLEAN:
+                if (readerType != IonType.BOOL) {
+                    return false;
+                }
+                booleanValue = reader.booleanValue();
+                break;
+
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                if (readerType != IonType.INT || reader.getIntegerSize() == IntegerSize.BIG_INTEGER) {
+                    return false;
+                }
+                longValue = reader.longValue();
+                break;
+
+            case FLOAT:
+            case DOUBLE:
+                if (readerType != IonType.FLOAT) {
+                    return false;
+                }
+                doubleValue = reader.doubleValue();
+                break;
+
+            case DECIMAL:
+                if (readerType == IonType.DECIMAL) {
+                    decimalValue = reader.bigDecimalValue();
+                } else if (readerType == IonType.INT) {
+                    decimalValue = new BigDecimal(reader.bigIntegerValue());
+                } else {
+                    return false;
+                }
+                break;
+
+            case CHAR:
+            case VARCHAR:
+            case STRING:
+                if (readerType == IonType.STRING) {
+                    stringValue = reader.stringValue();
+                } else if (readerType == IonType.SYMBOL) {
+                    // symbols with unknown text fail when converted, like the Ion value
+                    final SymbolToken symbol = reader.symbolValue();
+                    if (symbol.getText() == null) {
+                        return false;
+                    }
+                    stringValue = symbol.getText();
+                } else {
+                    return false;
+                }
+                break;
+
+            case BINARY:
+                if (readerType != IonType.BLOB && readerType != IonType.CLOB) {
+                    return false;
+                }
+                bytesValue = reader.newBytes();
+                break;
+
+            case DATE:
+            case TIMESTAMP:
+                if (readerType != IonType.TIMESTAMP) {
+                    return false;
+                }
+                longValue = reader.timestampValue().getMillis();
+                break;
+
+            default:
+                return false;
+        }
+
+        type = readerType;
+        writableSet = false;
+        return true;
+    }
+
+    /**
+     * Returns the writable of the slot set to the current value, creating it on first use.
+     *
+     * @param factory creates the writable.
+     * @param setter sets the writable to the value of the slot, only called once per value.
+     * @param <W> writable type, always the same for the object inspector of a column.
+     * @return writable for the current value, modified when the next row is read.
+     */
+    @SuppressWarnings("unchecked")
+    <W> W writable(final Supplier<W> factory, final BiConsumer<W, ScalarSlot> setter) {
+        if (writable == null) {
+            writable = factory.get();
+        }
+        if (!writableSet) {
+            setter.accept((W) writable, this);
+            writableSet = true;
+        }
+
+        return (W) writable;
+    }
+
+    /**
+     * Returns a copy that isn't modified when the next row is read.
+     *
+     * @return slot copy.
+     */
+    public ScalarSlot copy() {
+        return new ScalarSlot(this);
+    }
+
+    /**
+     * Returns the Ion type of the value.
+     *
+     * @return Ion type.
+     */
+    public IonType getType() {
+        return type;
+    }
+
+    /**
+     * Returns the value of a bool.
+     *
+     * @return boolean value.
+     */
+    public boolean booleanValue() {
+        return booleanValue;
+    }
+
+    /**
+     * Returns the value of an int, or the milliseconds since the epoch of a timestamp.
+     *
+     * @return long value.
+     */
+    public long longValue() {
+        return longValue;
+    }
+
+    /**
+     * Returns the value of a float.
+     *
+     * @return double value.
+     */
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    /**
+     * Returns the value of a decimal or an int read for a decimal column.
+     *
+     * @return decimal value.
+     */
+    public BigDecimal bigDecimalValue() {
+        return decimalValue;
+    }
+
+    /**
+     * Returns the text of a string or symbol.
+     *
+     * @return text.
+     */
+    public String stringValue() {
+        return stringValue;
+    }
+
+    /**
+     * Returns the content of a blob or clob.
+     *
+     * @return lob bytes.
+     */
+    public byte[] bytesValue() {
+        return bytesValue;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case BOOL:
+                return String.valueOf(booleanValue);
+            case INT:
+                return category == PrimitiveCategory.DECIMAL ? decimalValue.toString() : String.valueOf(longValue);
+            case FLOAT:
+                return String.valueOf(doubleValue);
+            case DECIMAL:
+                return decimalValue.toString();
+            case STRING:
+            case SYMBOL:
+                return stringValue;
+            default:
+                return String.valueOf(type);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.amazon.ion.IonWriter;
 import com.amazon.ionhiveserde.configuration.SerDeProperties;
 import com.amazon.ionhiveserde.configuration.SerializeNullStrategy;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -16,11 +17,26 @@ import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.StringObjectInspector;
 
 /**
- * Base class for struct serializers.
+ * Base class for struct serializers. The serializers for each field are resolved once per {@link ObjectInspector}, Hive
+ * uses the same object inspector for every row so the resolved plan is reused until a different one shows up.
  */
 abstract class AbstractStructSerializer implements IonSerializer {
     private final IonSerializerFactory ionSerializerFactory;
     private final SerDeProperties properties;
+    private final SerializeNullStrategy serializeNull;
+
+    private ObjectInspector compiledObjectInspector;
+
+    // struct plan
+    private StructField[] fields;
+    private String[] fieldNames;
+    private ObjectInspector[] fieldObjectInspectors;
+    private IonSerializer[] fieldSerializers;
+
+    // map plan
+    private StringObjectInspector keyObjectInspector;
+    private ObjectInspector valueObjectInspector;
+    private IonSerializer valueSerializer;
 
     AbstractStructSerializer(
             final IonSerializerFactory ionSerializerFactory,
@@ -28,6 +44,7 @@ abstract class AbstractStructSerializer implements IonSerializer {
     ) {
         this.ionSerializerFactory = ionSerializerFactory;
         this.properties = properties;
+        this.serializeNull = properties.getSerializeNull();
     }
 
     @Override
@@ -36,10 +53,12 @@ abstract class AbstractStructSerializer implements IonSerializer {
                           final ObjectInspector objectInspector) throws IOException {
         switch (objectInspector.getCategory()) {
             case STRUCT:
+                compileStruct((StructObjectInspector) objectInspector);
                 serializeStruct(writer, data, (StructObjectInspector) objectInspector);
                 break;
 
             case MAP:
+                compileMap((MapObjectInspector) objectInspector);
                 serializeMap(writer, data, (MapObjectInspector) objectInspector);
                 break;
 
@@ -48,24 +67,50 @@ abstract class AbstractStructSerializer implements IonSerializer {
         }
     }
 
+    private void compileStruct(final StructObjectInspector objectInspector) {
+        if (objectInspector == compiledObjectInspector) {
+            return;
+        }
+
+        final List<? extends StructField> fieldRefs = objectInspector.getAllStructFieldRefs();
+        fields = fieldRefs.toArray(new StructField[0]);
+        fieldNames = new String[fields.length];
+        fieldObjectInspectors = new ObjectInspector[fields.length];
+        fieldSerializers = new IonSerializer[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            fieldNames[i] = fields[i].getFieldName();
+            fieldObjectInspectors[i] = fields[i].getFieldObjectInspector();
+            fieldSerializers[i] = ionSerializerFactory.serializerForObjectInspector(
+                fieldObjectInspectors[i],
+                properties);
+        }
+
+        compiledObjectInspector = objectInspector;
+    }
+
+    private void compileMap(final MapObjectInspector objectInspector) {
+        if (objectInspector == compiledObjectInspector) {
+            return;
+        }
+
+        keyObjectInspector = (StringObjectInspector) objectInspector.getMapKeyObjectInspector();
+        valueObjectInspector = objectInspector.getMapValueObjectInspector();
+        valueSerializer = ionSerializerFactory.serializerForObjectInspector(valueObjectInspector, properties);
+
+        compiledObjectInspector = objectInspector;
+    }
+
     private void serializeMap(final IonWriter writer,
                               final Object data,
                               final MapObjectInspector objectInspector) throws IOException {
-
-        final StringObjectInspector keyObjectInspector = (StringObjectInspector) objectInspector
-            .getMapKeyObjectInspector();
-        final ObjectInspector valueObjectInspector = objectInspector.getMapValueObjectInspector();
-
         writer.stepIn(IonType.STRUCT);
 
         for (Map.Entry entry : objectInspector.getMap(data).entrySet()) {
             final String key = keyObjectInspector.getPrimitiveJavaObject(entry.getKey());
-            final IonSerializer ionSerializer = ionSerializerFactory.serializerForObjectInspector(
-                valueObjectInspector,
-                properties);
 
             serializeFieldName(writer, entry.getValue(), key);
-            serializeFieldValue(ionSerializer, writer, entry.getValue(), valueObjectInspector);
+            serializeFieldValue(valueSerializer, writer, entry.getValue(), valueObjectInspector);
         }
 
         writer.stepOut();
@@ -76,15 +121,11 @@ abstract class AbstractStructSerializer implements IonSerializer {
                                  final StructObjectInspector objectInspector) throws IOException {
         writer.stepIn(IonType.STRUCT);
 
-        for (StructField field : objectInspector.getAllStructFieldRefs()) {
-            final IonSerializer ionSerializer = ionSerializerFactory.serializerForObjectInspector(
-                field.getFieldObjectInspector(),
-                properties);
-
-            final Object fieldData = objectInspector.getStructFieldData(data, field);
+        for (int i = 0; i < fields.length; i++) {
+            final Object fieldData = objectInspector.getStructFieldData(data, fields[i]);
 
-            serializeFieldName(writer, fieldData, field.getFieldName());
-            serializeFieldValue(ionSerializer, writer, fieldData, field.getFieldObjectInspector());
+            serializeFieldName(writer, fieldData, fieldNames[i]);
+            serializeFieldValue(fieldSerializers[i], writer, fieldData, fieldObjectInspectors[i]);
         }
 
         writer.stepOut();
@@ -103,7 +144,7 @@ abstract class AbstractStructSerializer implements IonSerializer {
                                        final Object data,
                                        final ObjectInspector objectInspector) throws IOException {
         if (data == null) {
-            switch (properties.getSerializeNull()) {
+            switch (serializeNull) {
                 case TYPED:
                     writer.writeNull(ionSerializer.getIonType());
                     break;
@@ -127,7 +168,7 @@ abstract class AbstractStructSerializer implements IonSerializer {
     void serializeFieldName(final IonWriter writer,
                                       final Object data,
                                       final String name) {
-        if (data != null || properties.getSerializeNull() != SerializeNullStrategy.OMIT) {
+        if (data != null || serializeNull != SerializeNullStrategy.OMIT) {
             writer.setFieldName(name);
         }
     }
@@ -11,13 +11,17 @@ import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 
 /**
- * Serializer for sequences.
+ * Serializer for sequences. The element serializer is resolved once per {@link ObjectInspector}.
  */
 class SequenceSerializer implements IonSerializer {
     private final IonSerializerFactory ionSerializerFactory;
     private final SerDeProperties properties;
     private final IonType sequenceType;
 
+    private ObjectInspector compiledObjectInspector;
+    private ObjectInspector elementObjectInspector;
+    private IonSerializer elementSerializer;
+
     SequenceSerializer(
             final IonSerializerFactory ionSerializerFactory,
             final SerDeProperties properties,
@@ -34,14 +38,16 @@ class SequenceSerializer implements IonSerializer {
                           final ObjectInspector objectInspector) throws IOException {
         final ListObjectInspector listObjectInspector = (ListObjectInspector) objectInspector;
 
-        writer.stepIn(sequenceType);
+        if (objectInspector != compiledObjectInspector) {
+            elementObjectInspector = listObjectInspector.getListElementObjectInspector();
+            elementSerializer = ionSerializerFactory.serializerForObjectInspector(elementObjectInspector, properties);
+            compiledObjectInspector = objectInspector;
+        }
 
-        for (int i = 0; i < listObjectInspector.getListLength(data); i++) {
-            final ObjectInspector elementObjectInspector = listObjectInspector.getListElementObjectInspector();
-            final IonSerializer elementSerializer = ionSerializerFactory.serializerForObjectInspector(
-                elementObjectInspector,
-                properties);
+        writer.stepIn(sequenceType);
 
+        final int length = listObjectInspector.getListLength(data);
+        for (int i = 0; i < length; i++) {
             elementSerializer.serialize(writer, listObjectInspector.getListElement(data, i), elementObjectInspector);
         }
         writer.stepOut();
@@ -7,20 +7,23 @@ import com.amazon.ion.IonType;
 import com.amazon.ion.IonWriter;
 import com.amazon.ionhiveserde.configuration.SerDeProperties;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 
 /**
- * Serializes an object to Ion struct using Hive ObjectInspectors to extract information.
+ * Serializes an object to Ion struct using Hive ObjectInspectors to extract information. Column serializers are
+ * resolved on construction and struct fields once per {@link ObjectInspector}.
  */
 public class TableSerializer extends AbstractStructSerializer {
 
-    private final Map<String, IonSerializer> serializerByColumn;
-    private final List<String> columnNames;
+    private final String[] columnNames;
+    private final IonSerializer[] columnSerializers;
+
+    private ObjectInspector compiledObjectInspector;
+    private StructField[] fields;
+    private ObjectInspector[] fieldObjectInspectors;
 
     /**
      * Constructor.
@@ -33,13 +36,12 @@ public class TableSerializer extends AbstractStructSerializer {
         final List<String> columnNames, final SerDeProperties properties
     ) {
         super(ionSerializerFactory, properties);
-        this.columnNames = columnNames;
+        this.columnNames = columnNames.toArray(new String[0]);
 
-        serializerByColumn = new HashMap<>();
+        columnSerializers = new IonSerializer[columnNames.size()];
         for (int i = 0; i < columnNames.size(); i++) {
-            final String columnName = columnNames.get(i);
             final IonType ionType = properties.serializationIonTypeFor(i);
-            serializerByColumn.put(columnName, ionSerializerFactory.serializerForIon(ionType, properties));
+            columnSerializers[i] = ionSerializerFactory.serializerForIon(ionType, properties);
         }
     }
 
@@ -57,21 +59,24 @@ public class TableSerializer extends AbstractStructSerializer {
 
         final StructObjectInspector structObjectInspector = (StructObjectInspector) objectInspector;
 
+        if (objectInspector != compiledObjectInspector) {
+            fields = structObjectInspector.getAllStructFieldRefs().toArray(new StructField[0]);
+            fieldObjectInspectors = new ObjectInspector[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                fieldObjectInspectors[i] = fields[i].getFieldObjectInspector();
+            }
+            compiledObjectInspector = objectInspector;
+        }
+
         writer.stepIn(IonType.STRUCT);
 
-        final List<? extends StructField> fields = structObjectInspector.getAllStructFieldRefs();
-        for (int i = 0; i < fields.size(); i++) {
-            final StructField field = fields.get(i);
-            final String columnName = columnNames.get(i);
-            final IonSerializer ionSerializer = serializerByColumn.get(columnName);
-            final Object fieldData = structObjectInspector.getStructFieldData(data, field);
+        for (int i = 0; i < fields.length; i++) {
+            final Object fieldData = structObjectInspector.getStructFieldData(data, fields[i]);
 
-            serializeFieldName(writer, fieldData, columnName);
-            serializeFieldValue(ionSerializer, writer, fieldData, field.getFieldObjectInspector());
+            serializeFieldName(writer, fieldData, columnNames[i]);
+            serializeFieldValue(columnSerializers[i], writer, fieldData, fieldObjectInspectors[i]);
         }
 
         writer.stepOut();
     }
 }
-
-
@@ -0,0 +1,173 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde
+
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+import com.amazon.ionhiveserde.formats.IonInputFormat
+import com.amazon.ionhiveserde.formats.IonOutputFormat
+import com.amazon.ionhiveserde.formats.IonRecordWritable
+import com.amazon.ionhiveserde.formats.IonRowWritable
+import com.amazon.ionhiveserde.objectinspectors.factories.IonObjectInspectorFactory
+import com.amazon.ionhiveserde.serializers.TableSerializer
+import com.amazon.ionhiveserde.serializers.newTableSerializer
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.hive.serde2.SerDeException
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory
+import org.apache.hadoop.io.BytesWritable
+import org.apache.hadoop.io.LongWritable
+import org.apache.hadoop.io.Text
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.RecordReader
+import org.apache.hadoop.mapred.Reporter
+import org.junit.After
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayOutputStream
+import java.util.Properties
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+/**
+ * SerDe without timestamp columns, which are only supported by the Hive version specific SerDes.
+ */
+private class CommonIonHiveSerDe : AbstractIonHiveSerDe() {
+    override fun getTableSerializer(properties: SerDeProperties): TableSerializer = newTableSerializer(properties)
+
+    override fun getObjectInspectorForTable(properties: SerDeProperties): ObjectInspector {
+        val tableInfo = TypeInfoFactory.getStructTypeInfo(properties.columnNames, properties.columnTypes)
+
+        return IonObjectInspectorFactory(null, null).objectInspectorForTable(tableInfo as StructTypeInfo, properties)
+    }
+}
+
+class AbstractIonHiveSerDeTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val rowObjectInspector = ObjectInspectorFactory.getStandardStructObjectInspector(
+        listOf("id", "name"),
+        listOf(
+            PrimitiveObjectInspectorFactory.javaIntObjectInspector,
+            PrimitiveObjectInspectorFactory.javaStringObjectInspector))
+
+    @After
+    fun tearDown() {
+        TablePlan.clear()
+    }
+
+    private fun initialize(vararg config: Pair<String, String>): AbstractIonHiveSerDe {
+        val properties = Properties()
+        properties.setProperty("columns", "id,name")
+        properties.setProperty("columns.types", "int,string")
+        config.forEach { (key, value) -> properties.setProperty(key, value) }
+
+        return CommonIonHiveSerDe().apply { initialize(null, properties) }
+    }
+
+    @Test
+    fun streamingOutput() {
+        val subject = initialize(
+            "ion.output.streaming" to "true",
+            "file.outputformat" to IonOutputFormat::class.java.name)
+
+        assertEquals(IonRowWritable::class.java, subject.serializedClass)
+    }
+
+    @Test
+    fun streamingRowThatCantBeSerializedFailsInTheSerDe() {
+        val subject = initialize(
+            "ion.output.streaming" to "true",
+            "file.outputformat" to IonOutputFormat::class.java.name)
+        val invalidObjectInspector = ObjectInspectorFactory.getStandardStructObjectInspector(
+            listOf("id", "name"),
+            listOf(
+                PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+                PrimitiveObjectInspectorFactory.javaStringObjectInspector))
+
+        assertFailsWith<SerDeException> { subject.serialize(listOf("1", "foo"), invalidObjectInspector) }
+
+        // the next row is encoded on its own
+        val row = subject.serialize(listOf(1, "foo"), rowObjectInspector) as IonRowWritable
+        assertEquals(row.length.toLong(), subject.serDeStats.rawDataSize)
+    }
+
+    @Test
+    fun streamingOutputRequiresIonOutputFormat() {
+        assertFailsWith<IllegalArgumentException> {
+            initialize(
+                "ion.output.streaming" to "true",
+                "file.outputformat" to "org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat")
+        }
+    }
+
+    @Test
+    fun rawDataSizeOfSerializedText() {
+        val subject = initialize("ion.encoding" to "text")
+
+        val serialized = subject.serialize(listOf(1, "foo"), rowObjectInspector) as Text
+
+        assertEquals(serialized.length.toLong(), subject.serDeStats.rawDataSize)
+    }
+
+    @Test
+    fun rawDataSizeOfSerializedBinary() {
+        val subject = initialize("ion.encoding" to "binary")
+
+        val serialized = subject.serialize(listOf(1, "foo"), rowObjectInspector) as BytesWritable
+
+        assertEquals(serialized.length.toLong(), subject.serDeStats.rawDataSize)
+    }
+
+    @Test
+    fun rawDataSizeOfDeserializedText() {
+        val subject = initialize()
+        val text = Text("{ id: 1, name: \"foo\" }")
+
+        subject.deserialize(text)
+
+        assertEquals(text.length.toLong(), subject.serDeStats.rawDataSize)
+    }
+
+    @Test
+    fun rawDataSizeOfDeserializedBinary() {
+        val subject = initialize()
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer ->
+            ION.newReader("{ id: 1, name: \"foo\" }").use { writer.writeValues(it) }
+        }
+        val file = folder.newFile()
+        file.writeBytes(out.toByteArray())
+
+        val record = readSingleRecord(FileSplit(Path(file.toURI()), 0, file.length(), arrayOf<String>()))
+        subject.deserialize(record)
+
+        // the symbol table context, with the version marker and field names, is not part of the row
+        assertTrue(record.valueOffset > 0)
+        assertEquals(file.length() - record.valueOffset, subject.serDeStats.rawDataSize)
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun readSingleRecord(split: FileSplit): IonRecordWritable {
+        val job = JobConf()
+        val format = IonInputFormat().apply { configure(job) }
+        val recordReader = format.getRecordReader(split, job, Reporter.NULL) as RecordReader<LongWritable, BytesWritable>
+
+        val value = recordReader.createValue() as IonRecordWritable
+        try {
+            assertTrue(recordReader.next(recordReader.createKey(), value))
+        } finally {
+            recordReader.close()
+        }
+
+        return value
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde
+
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import com.amazon.ionhiveserde.formats.IonInputFormat
+import com.amazon.ionhiveserde.formats.IonRecordWritable
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.io.BytesWritable
+import org.apache.hadoop.io.LongWritable
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.RecordReader
+import org.apache.hadoop.mapred.Reporter
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+
+class SymbolTableContextCacheTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val ionFactory = IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf())))
+
+    private fun binaryDocument(ionText: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> ION.newReader(ionText).use { writer.writeValues(it) } }
+
+        return out.toByteArray()
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun assertCachedReadsMatch(subject: SymbolTableContextCache, bytes: ByteArray) {
+        val file = folder.newFile()
+        file.writeBytes(bytes)
+
+        val job = JobConf()
+        val split = FileSplit(Path(file.toURI()), 0, bytes.size.toLong(), arrayOf<String>())
+        val format = IonInputFormat().apply { configure(job) }
+        val recordReader = format.getRecordReader(split, job, Reporter.NULL) as RecordReader<LongWritable, BytesWritable>
+
+        val key = recordReader.createKey()
+        val value = recordReader.createValue() as IonRecordWritable
+        var count = 0
+        while (recordReader.next(key, value)) {
+            assertNotNull(value.symbolTableContext)
+
+            val expected = ION.loader.load(value.copyBytes())[0]
+            val actual = subject.newReader(value).use { reader ->
+                reader.next()
+                ION.newValue(reader)
+            }
+
+            assertEquals(expected, actual)
+            count++
+        }
+        recordReader.close()
+
+        assertEquals(ION.loader.load(bytes).size, count)
+    }
+
+    @Test
+    fun repeatedContext() {
+        val document = binaryDocument("{ name: \"foo\", age: 32, tags: [a, b] } { name: \"bar\", other: c::d }")
+
+        assertCachedReadsMatch(SymbolTableContextCache(ionFactory, ION.catalog, 8), document + document + document)
+    }
+
+    @Test
+    fun evictedContexts() {
+        val documents = listOf(
+            binaryDocument("{ a: 1, b: 2 }"),
+            binaryDocument("{ c: 3, d: 4 }"),
+            binaryDocument("{ e: 5, f: { g: 6 } }")
+        )
+        // each context is used twice in a row so it's resolved before being evicted
+        val file = (1..2).flatMap { documents.flatMap { listOf(it, it) } }.reduce { acc, bytes -> acc + bytes }
+
+        assertCachedReadsMatch(SymbolTableContextCache(ionFactory, ION.catalog, 2), file)
+    }
+}
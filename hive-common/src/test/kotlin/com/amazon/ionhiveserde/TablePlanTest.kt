@@ -0,0 +1,90 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde
+
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils
+import org.junit.After
+import org.junit.Test
+import java.io.File
+import java.util.Properties
+import java.util.function.Function
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+
+class TablePlanTest {
+
+    private var objectInspectorCount = 0
+
+    private val objectInspectorFactory = Function<SerDeProperties, ObjectInspector> {
+        objectInspectorCount++
+        PrimitiveObjectInspectorFactory.javaStringObjectInspector
+    }
+
+    @After
+    fun tearDown() {
+        TablePlan.clear()
+    }
+
+    private fun plan(properties: Map<String, String> = mapOf(),
+                     columnNames: List<String> = listOf("a", "b"),
+                     columnTypes: String = "int,string"): TablePlan {
+        return TablePlan.get(
+            TablePlanTest::class.java,
+            Properties().apply { putAll(properties) },
+            columnNames,
+            TypeInfoUtils.getTypeInfosFromTypeString(columnTypes),
+            objectInspectorFactory)
+    }
+
+    @Test
+    fun sharedByTheSameTable() {
+        val plan = plan(mapOf("ion.encoding" to "text", "location" to "s3://bucket/table/p=1"))
+
+        assertSame(plan, plan(mapOf("ion.encoding" to "text", "location" to "s3://bucket/table/p=2")))
+        assertEquals(1, objectInspectorCount)
+        assertEquals(listOf("a", "b"), plan.serDeProperties.columnNames)
+    }
+
+    @Test
+    fun keyedByIonPropertiesAndColumns() {
+        val plan = plan()
+
+        assertNotSame(plan, plan(mapOf("ion.encoding" to "text")))
+        assertNotSame(plan, plan(columnNames = listOf("a", "c")))
+        assertNotSame(plan, plan(columnTypes = "int,int"))
+        assertEquals(4, objectInspectorCount)
+    }
+
+    @Test
+    fun rebuiltWhenTheCatalogChanges() {
+        val catalogFile = File.createTempFile("catalog", ".ion")
+        catalogFile.deleteOnExit()
+        catalogFile.writeText("${'$'}ion_shared_symbol_table::{ name: \"sst\", version: 1, symbols: [\"a\"] }")
+        val properties = mapOf(
+            "ion.catalog.file" to catalogFile.absolutePath,
+            "ion.catalog.revalidate_seconds" to "0")
+
+        val plan = plan(properties)
+        assertSame(plan, plan(properties))
+
+        catalogFile.writeText("${'$'}ion_shared_symbol_table::{ name: \"sst\", version: 1, symbols: [\"a\", \"b\"] }")
+        val rebuilt = plan(properties)
+
+        assertNotSame(plan, rebuilt)
+        assertEquals(2, rebuilt.serDeProperties.catalog.getTable("sst").maxId)
+        assertSame(rebuilt, plan(properties))
+    }
+
+    @Test
+    fun clear() {
+        val plan = plan()
+        TablePlan.clear()
+
+        assertNotSame(plan, plan())
+    }
+}
@@ -0,0 +1,32 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class BinarySplitConfigTest {
+    private fun makeConfig(value: String) = BinarySplitConfig(
+        MapBasedRawConfiguration(mapOf("ion.binary.split_unindexed" to value))
+    )
+
+    @Test
+    fun splitUnindexedTrue() {
+        val subject = makeConfig("true")
+
+        assertTrue(subject.splitUnindexed)
+    }
+
+    @Test
+    fun splitUnindexedFalse() {
+        val subject = makeConfig("false")
+
+        assertFalse(subject.splitUnindexed)
+    }
+
+    @Test
+    fun splitUnindexedDefault() {
+        val subject = BinarySplitConfig(MapBasedRawConfiguration(mapOf()))
+
+        assertFalse(subject.splitUnindexed)
+    }
+}
@@ -12,6 +12,8 @@ import com.amazon.ionhiveserde.sequence_for
 import com.amazon.ionhiveserde.struct_for
 import org.junit.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
 
 class CaseInsensitiveDecoratorTest {
     @Test
@@ -55,6 +57,15 @@ class CaseInsensitiveDecoratorTest {
         )
     }
 
+    @Test
+    fun ionStructCaseInsensitiveDecoratorGetMatchesEqualsIgnoreCase() {
+        // lower casing the dotted capital I gives two chars, while equalsIgnoreCase compares it equal to i
+        val struct = case_insensitive(struct_for("{'\u0130d': 1}")) as IonStructCaseInsensitiveDecorator
+        assertEquals(true, "\u0130d".equals("id", ignoreCase = true))
+        assertEquals(ION.newInt(1), struct.get("id"))
+        assertEquals(true, struct.containsKey("ID"))
+    }
+
     @Test
     fun ionStructCaseInsensitiveDecoratorGetStruct() {
         val struct = case_insensitive(struct_for("{Foo: {}}")) as IonStructCaseInsensitiveDecorator
@@ -67,6 +78,26 @@ class CaseInsensitiveDecoratorTest {
         assertSequenceWrapper(struct.get("Foo"))
     }
 
+    @Test
+    fun ionStructCaseInsensitiveDecoratorGetStructWrappedOnce() {
+        val struct = case_insensitive(struct_for("{Foo: {Bar: 1}}")) as IonStructCaseInsensitiveDecorator
+        val nested = struct.get("foo")
+
+        assertStructWrapper(nested)
+        assertSame(nested, struct.get("Foo"))
+        assertSame(nested, struct.iterator().next())
+    }
+
+    @Test
+    fun ionStructCaseInsensitiveDecoratorGetIgnoreCaseAfterAdd() {
+        val struct = case_insensitive(struct_for("{Foo: 1}")) as IonStructCaseInsensitiveDecorator
+        assertNull(struct.get("bar"))
+
+        struct.add("Bar", ION.newInt(2))
+
+        assertEquals(ION.newInt(2), struct.get("bar"))
+    }
+
     @Test
     fun ionStructCaseInsensitiveDecoratorRemove() {
         val struct = case_insensitive(struct_for("{Foo: 'bar'}")) as IonStructCaseInsensitiveDecorator
@@ -146,6 +177,12 @@ class CaseInsensitiveDecoratorTest {
         assertSequenceWrapper(sequence[0])
     }
 
+    @Test
+    fun ionSequenceCaseInsensitiveDecoratorGetStructWrappedOnce() {
+        val sequence = case_insensitive(sequence_for("[{}]")) as IonSequenceCaseInsensitiveDecorator
+        assertSame(sequence[0], sequence[0])
+    }
+
     @Test
     fun ionSequenceCaseInsensitiveDecoratorSet() {
         val sequence = case_insensitive(sequence_for("[1]")) as IonSequenceCaseInsensitiveDecorator
@@ -8,13 +8,18 @@ import com.amazon.ion.SymbolTable
 import com.amazon.ion.impl._Private_Utils
 import com.amazon.ion.system.IonReaderBuilder
 import com.amazon.ion.system.SimpleCatalog
+import org.junit.Before
 import org.junit.Test
 import java.io.File
 import java.io.File.createTempFile
 import java.io.FileInputStream
 import java.io.FileWriter
 import kotlin.test.assertEquals
+import kotlin.test.assertFalse
 import kotlin.test.assertNotNull
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
 
 private const val CATALOG = """
     ${'$'}ion_shared_symbol_table::{
@@ -51,6 +56,11 @@ class TestCatalog : IonCatalog {
 
 class CatalogConfigTest {
 
+    @Before
+    fun setUp() {
+        CatalogConfig.clearCache()
+    }
+
     private fun makeConfig(map: Map<String, String>) = com.amazon.ionhiveserde.configuration.CatalogConfig(MapBasedRawConfiguration(map))
 
     private fun assertCatalog(subject: com.amazon.ionhiveserde.configuration.CatalogConfig) {
@@ -103,4 +113,87 @@ class CatalogConfigTest {
         assertEquals(1, subject.symbolTableImports.size)
         assertSst(subject.symbolTableImports[0])
     }
+
+    @Test
+    fun cachedFileCatalog() {
+        val catalogFile = writeTempCatalog()
+        val config = mapOf(
+                "ion.catalog.file" to catalogFile.absolutePath,
+                "ion.catalog.revalidate_seconds" to "0"
+        )
+
+        val catalog = makeConfig(config).catalog
+        assertSame(catalog, makeConfig(config).catalog)
+
+        // modified files are loaded again
+        FileWriter(catalogFile, true).use { it.write(" ") }
+        catalogFile.setLastModified(catalogFile.lastModified() + 2000)
+
+        val reloaded = makeConfig(config).catalog
+        assertNotSame(catalog, reloaded)
+        assertSst(reloaded.getTable("sst"))
+    }
+
+    @Test
+    fun cachedURLCatalog() {
+        val catalogFile = writeTempCatalog()
+        val config = mapOf(
+                "ion.catalog.url" to catalogFile.toURI().toURL().toString(),
+                "ion.catalog.revalidate_seconds" to "0"
+        )
+
+        val catalog = makeConfig(config).catalog
+        assertSame(catalog, makeConfig(config).catalog)
+
+        catalogFile.setLastModified(catalogFile.lastModified() + 2000)
+
+        assertNotSame(catalog, makeConfig(config).catalog)
+    }
+
+    @Test
+    fun sourceIsNotCheckedWithinTheRevalidateInterval() {
+        val catalogFile = writeTempCatalog()
+        val config = mapOf("ion.catalog.url" to catalogFile.toURI().toURL().toString())
+
+        val subject = makeConfig(config)
+        catalogFile.setLastModified(catalogFile.lastModified() + 2000)
+
+        assertSame(subject.catalog, makeConfig(config).catalog)
+        assertTrue(subject.isCurrent)
+
+        // a table checking more often sees the change
+        val revalidated = makeConfig(config + ("ion.catalog.revalidate_seconds" to "0"))
+        assertNotSame(subject.catalog, revalidated.catalog)
+        assertFalse(subject.isCurrent)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun negativeRevalidateInterval() {
+        makeConfig(mapOf("ion.catalog.revalidate_seconds" to "-1"))
+    }
+
+    @Test
+    fun cachedClassCatalog() {
+        val config = mapOf("ion.catalog.class" to TestCatalog::class.java.name)
+
+        assertSame(makeConfig(config).catalog, makeConfig(config).catalog)
+    }
+
+    @Test
+    fun stagedCatalog() {
+        // ADD FILE localizes the catalog in the working directory
+        val stagedFile = File("staged-catalog-${System.nanoTime()}.ion")
+        FileWriter(stagedFile).use { it.write(CATALOG) }
+
+        try {
+            val subject = makeConfig(mapOf(
+                    "ion.catalog.url" to "https://catalogs.invalid/catalogs/${stagedFile.name}?version=1",
+                    "ion.catalog.staged" to "true"
+            ))
+
+            assertCatalog(subject)
+        } finally {
+            stagedFile.delete()
+        }
+    }
 }
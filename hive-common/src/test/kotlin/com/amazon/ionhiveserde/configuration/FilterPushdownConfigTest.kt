@@ -0,0 +1,41 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class FilterPushdownConfigTest {
+    private fun makeConfig(vararg entries: Pair<String, String>) = FilterPushdownConfig(
+        MapBasedRawConfiguration(mapOf(*entries))
+    )
+
+    @Test
+    fun filterPushdownDefault() {
+        assertTrue(makeConfig().filterPushdown)
+    }
+
+    @Test
+    fun filterPushdownFalse() {
+        assertFalse(makeConfig("ion.filter_pushdown" to "false").filterPushdown)
+    }
+
+    @Test
+    fun caseSensitive() {
+        assertFalse(makeConfig().caseSensitive)
+        assertTrue(makeConfig("ion.path_extractor.case_sensitive" to "true").caseSensitive)
+    }
+
+    @Test
+    fun hasDefaultPathExtractor() {
+        val subject = makeConfig(
+            "ion.a.path_extractor" to "(a)",
+            "ion.b.path_extractor" to "(c)",
+            "ion.d.path_extractor" to "(d e)"
+        )
+
+        assertTrue(subject.hasDefaultPathExtractor("a"))
+        assertFalse(subject.hasDefaultPathExtractor("b"))
+        assertTrue(subject.hasDefaultPathExtractor("c"))
+        assertFalse(subject.hasDefaultPathExtractor("d"))
+    }
+}
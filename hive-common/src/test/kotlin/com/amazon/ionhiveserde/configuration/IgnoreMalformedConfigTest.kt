@@ -1,7 +1,9 @@
 package com.amazon.ionhiveserde.configuration
 
 import org.junit.Test
+import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNull
 import kotlin.test.assertTrue
 
 class IgnoreMalformedConfigTest {
@@ -36,4 +38,20 @@ class IgnoreMalformedConfigTest {
 
         assertFalse(subject.ignoreMalformed)
     }
+
+    @Test
+    fun deadLetterDirectory() {
+        val subject = IgnoreMalformedConfig(
+            MapBasedRawConfiguration(mapOf("ion.ignore_malformed.dead_letter_dir" to "/tmp/dead_letters"))
+        )
+
+        assertEquals("/tmp/dead_letters", subject.deadLetterDirectory)
+    }
+
+    @Test
+    fun deadLetterDirectoryDefault() {
+        val subject = IgnoreMalformedConfig(MapBasedRawConfiguration(mapOf()))
+
+        assertNull(subject.deadLetterDirectory)
+    }
 }
@@ -0,0 +1,36 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class LayoutConfigTest {
+    private fun makeConfig(vararg properties: Pair<String, String>) = LayoutConfig(
+        MapBasedRawConfiguration(mapOf(*properties))
+    )
+
+    @Test
+    fun rowGroups() {
+        val subject = makeConfig("ion.layout" to "row_groups", "ion.layout.row_group_rows" to "500")
+
+        assertEquals(IonLayout.ROW_GROUPS, subject.layout)
+        assertEquals(500, subject.rowGroupRows)
+    }
+
+    @Test
+    fun defaultRows() {
+        val subject = makeConfig()
+
+        assertEquals(IonLayout.ROWS, subject.layout)
+        assertEquals(10000, subject.rowGroupRows)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun invalidLayout() {
+        makeConfig("ion.layout" to "columns")
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun nonPositiveRowGroupRows() {
+        makeConfig("ion.layout.row_group_rows" to "0")
+    }
+}
@@ -0,0 +1,32 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class NewlineDelimitedConfigTest {
+    private fun makeConfig(value: String) = NewlineDelimitedConfig(
+        MapBasedRawConfiguration(mapOf("ion.text.newline_delimited" to value))
+    )
+
+    @Test
+    fun newlineDelimitedTrue() {
+        val subject = makeConfig("true")
+
+        assertTrue(subject.newlineDelimited)
+    }
+
+    @Test
+    fun newlineDelimitedFalse() {
+        val subject = makeConfig("false")
+
+        assertFalse(subject.newlineDelimited)
+    }
+
+    @Test
+    fun newlineDelimitedDefault() {
+        val subject = NewlineDelimitedConfig(MapBasedRawConfiguration(mapOf()))
+
+        assertFalse(subject.newlineDelimited)
+    }
+}
@@ -0,0 +1,61 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class OutputIndexConfigTest {
+    private fun makeConfig(vararg properties: Pair<String, String>) = OutputIndexConfig(
+        MapBasedRawConfiguration(mapOf(*properties))
+    )
+
+    @Test
+    fun indexInterval() {
+        val subject = makeConfig("ion.output.index_interval" to "1000")
+
+        assertEquals(1000, subject.indexInterval)
+    }
+
+    @Test
+    fun defaultNoIndex() {
+        val subject = makeConfig()
+
+        assertEquals(0, subject.indexInterval)
+    }
+
+    @Test
+    fun zoneMaps() {
+        assertTrue(makeConfig("ion.output.zone_maps" to "true").zoneMaps)
+        assertFalse(makeConfig().zoneMaps)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun negativeIndexInterval() {
+        makeConfig("ion.output.index_interval" to "-1")
+    }
+
+    @Test
+    fun bloomFilters() {
+        val subject = makeConfig(
+            "ion.output.bloom_filter_columns" to "Id, name,",
+            "ion.output.bloom_filter_fpp" to "0.01"
+        )
+
+        assertEquals(setOf("id", "name"), subject.bloomFilterColumns)
+        assertEquals(0.01, subject.bloomFilterFpp)
+    }
+
+    @Test
+    fun defaultNoBloomFilters() {
+        val subject = makeConfig()
+
+        assertEquals(setOf(), subject.bloomFilterColumns)
+        assertEquals(0.05, subject.bloomFilterFpp)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun invalidBloomFilterFpp() {
+        makeConfig("ion.output.bloom_filter_fpp" to "1")
+    }
+}
@@ -7,8 +7,14 @@ import com.amazon.ion.system.IonReaderBuilder
 import com.amazon.ionhiveserde.ION
 import com.amazon.ionhiveserde.caseinsensitivedecorator.IonSequenceCaseInsensitiveDecorator
 import com.amazon.ionhiveserde.caseinsensitivedecorator.IonStructCaseInsensitiveDecorator
+import com.amazon.ionhiveserde.objectinspectors.IonRow
+import com.amazon.ionhiveserde.objectinspectors.ScalarSlot
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory
 import org.junit.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 class PathExtractionConfigTest {
@@ -36,6 +42,58 @@ class PathExtractionConfigTest {
         assertEquals(2, (struct["c2"] as IonInt).intValue())
     }
 
+    @Test
+    fun projectedRowPathExtractor() {
+        val ionDocument = "{f1: 1, obj: {f2: 2}, f3: 3}"
+
+        val configMap = mapOf(
+                "ion.c1.path_extractor" to "(f1)",
+                "ion.c2.path_extractor" to "(obj f2)",
+                "ion.c3.path_extractor" to "(f3)")
+
+        val config = PathExtractionConfig(MapBasedRawConfiguration(configMap), listOf("c1", "c2", "c3"))
+        val pathExtractor = config.rowPathExtractor(listOf(2, 0))
+
+        val row = newRow(3)
+        val reader = IonReaderBuilder.standard().build(ionDocument)
+        row.start(reader)
+        pathExtractor.match(reader, row)
+
+        assertEquals(1L, (row.get(0) as ScalarSlot).longValue())
+        assertNull(row.get(1))
+        assertEquals(3L, (row.get(2) as ScalarSlot).longValue())
+
+        assertSame(pathExtractor, config.rowPathExtractor(listOf(0, 2, 5)))
+        assertSame(config.rowPathExtractor(null), config.rowPathExtractor(listOf(0, 1, 2)))
+    }
+
+    @Test
+    fun rowPathExtractorsOfLeastRecentProjectionsAreEvicted() {
+        val config = PathExtractionConfig(MapBasedRawConfiguration(mapOf()), List(32) { "c$it" })
+
+        val first = config.rowPathExtractor(listOf(0))
+        val last = (1 until 32).map { config.rowPathExtractor(listOf(it)) }.last()
+
+        assertNotSame(first, config.rowPathExtractor(listOf(0)))
+        assertSame(last, config.rowPathExtractor(listOf(31)))
+    }
+
+    @Test
+    fun emptyProjection() {
+        val pathExtractor = PathExtractionConfig(MapBasedRawConfiguration(mapOf()), listOf("c1", "c2"))
+            .rowPathExtractor(listOf())
+
+        val row = newRow(2)
+        val reader = IonReaderBuilder.standard().build("{c1: 1, c2: 2}")
+        row.start(reader)
+        pathExtractor.match(reader, row)
+
+        assertNull(row.get(0))
+        assertNull(row.get(1))
+    }
+
+    private fun newRow(columnCount: Int) = IonRow(ION, false, true, List(columnCount) { TypeInfoFactory.intTypeInfo })
+
     @Test
     fun caseInsensitiveNestedStruct() {
         val ionDocument = "{f1: [{Foo: 2, foo:3}]}"
@@ -0,0 +1,44 @@
+package com.amazon.ionhiveserde.configuration
+
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class StreamingOutputConfigTest {
+    private fun makeConfig(vararg properties: Pair<String, String>) = StreamingOutputConfig(
+        MapBasedRawConfiguration(mapOf(*properties))
+    )
+
+    @Test
+    fun streaming() {
+        val subject = makeConfig("ion.output.streaming" to "true")
+
+        assertTrue(subject.streaming)
+    }
+
+    @Test
+    fun defaults() {
+        val subject = makeConfig()
+
+        assertFalse(subject.streaming)
+        assertEquals(10000, subject.blockRows)
+    }
+
+    @Test
+    fun blockRows() {
+        val subject = makeConfig("ion.output.block_rows" to "50")
+
+        assertEquals(50, subject.blockRows)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun nonPositiveBlockRows() {
+        makeConfig("ion.output.block_rows" to "0")
+    }
+
+    @Test(expected = NumberFormatException::class)
+    fun invalidBlockRows() {
+        makeConfig("ion.output.block_rows" to "not a number")
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ion.IonException
+import com.amazon.ion.IonValue
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.datagram_for
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class BinaryIonSplitReaderTest {
+
+    private val documents = listOf(
+        "{ name: \"foo\", age: 32 } { name: \"bar\", age: 28 }",
+        "1 a::{ other: [1, 2, 3] } null.struct",
+        "{ name: \"baz\", nested: { age: 30 } }"
+    )
+
+    private val file = documents.map { binaryDocument(it) }.reduce { acc, bytes -> acc + bytes }
+
+    private fun binaryDocument(ionText: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> ION.newReader(ionText).use { writer.writeValues(it) } }
+
+        return out.toByteArray()
+    }
+
+    private fun readSplit(bytes: ByteArray, start: Long, end: Long): List<IonValue> =
+        readRecords(bytes, start, end).map { it.first }
+
+    private fun readRecords(bytes: ByteArray, start: Long, end: Long): List<Pair<IonValue, SymbolTableContext>> {
+        val input = ByteArrayInputStream(bytes)
+        input.skip(start)
+
+        val subject = BinaryIonSplitReader(input, start, end)
+        val value = IonRecordWritable()
+        val records = mutableListOf<Pair<IonValue, SymbolTableContext>>()
+        while (subject.next(value)) {
+            val datagram = ION.loader.load(value.copyBytes())
+            assertEquals(1, datagram.size)
+            records.add(datagram[0] to value.symbolTableContext)
+        }
+
+        return records
+    }
+
+    private fun allValues() = documents.flatMap { datagram_for(it) }
+
+    @Test
+    fun singleSplit() {
+        assertEquals(allValues(), readSplit(file, 0, file.size.toLong()))
+    }
+
+    @Test
+    fun everySplitSizeReadsEveryValueOnce() {
+        for (splitSize in 1..file.size) {
+            val values = (0 until file.size step splitSize).flatMap { start ->
+                readSplit(file, start.toLong(), minOf(start + splitSize, file.size).toLong())
+            }
+
+            assertEquals(allValues(), values, "split size: $splitSize")
+        }
+    }
+
+    @Test
+    fun recordsShareUnchangedContext() {
+        val document = binaryDocument(documents[0])
+        val records = readRecords(document + document + binaryDocument(documents[2]), 0, Long.MAX_VALUE)
+
+        assertEquals(5, records.size)
+        records.subList(1, 4).forEach { assertSame(records[0].second, it.second) }
+        assertNotSame(records[0].second, records[4].second)
+    }
+
+    @Test
+    fun splitWithoutVersionMarkerIsEmpty() {
+        val firstDocumentLength = binaryDocument(documents[0]).size
+
+        assertEquals(emptyList(), readSplit(file, 1, firstDocumentLength.toLong()))
+    }
+
+    @Test
+    fun skipsNopPadding() {
+        val bytes = byteArrayOf(0xE0.toByte(), 0x01, 0x00, 0xEA.toByte(), 0x01, 0x00, 0x21, 0x05)
+
+        assertEquals(listOf<IonValue>(ION.newInt(5)), readSplit(bytes, 0, bytes.size.toLong()))
+    }
+
+    @Test
+    fun truncatedValue() {
+        val bytes = file.copyOf(file.size - 1)
+
+        assertFailsWith<IonException> { readSplit(bytes, 0, bytes.size.toLong()) }
+    }
+
+    @Test
+    fun resyncSkipsToNextVersionMarker() {
+        val first = binaryDocument(documents[0])
+        val malformed = byteArrayOf(0xE0.toByte(), 0x01, 0x00, 0xEA.toByte(), 0xE0.toByte(), 0x09, 0x09, 0x09)
+        val bytes = first + malformed + binaryDocument(documents[2])
+
+        val subject = BinaryIonSplitReader(ByteArrayInputStream(bytes), 0, bytes.size.toLong())
+        val value = IonRecordWritable()
+        val values = mutableListOf<IonValue>()
+        while (true) {
+            try {
+                if (!subject.next(value)) {
+                    break
+                }
+                values.add(ION.loader.load(value.copyBytes())[0])
+            } catch (e: IonException) {
+                assertEquals(first.size + 4L, subject.valueStart)
+                assertTrue(subject.resync())
+                assertEquals(first.size + malformed.size + 4L, subject.position)
+            }
+        }
+
+        assertEquals(datagram_for(documents[0]) + datagram_for(documents[2]), values)
+    }
+
+    @Test
+    fun resyncWithoutVersionMarkerFinishes() {
+        val bytes = file.copyOf(file.size - 1)
+        val subject = BinaryIonSplitReader(ByteArrayInputStream(bytes), 0, bytes.size.toLong())
+        val value = IonRecordWritable()
+
+        assertFailsWith<IonException> { while (subject.next(value)) { } }
+        assertFalse(subject.resync())
+        assertFalse(subject.next(value))
+    }
+}
@@ -0,0 +1,219 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.datagram_for
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.hive.ql.io.IOContextMap
+import org.apache.hadoop.io.DataInputBuffer
+import org.apache.hadoop.io.DataOutputBuffer
+import org.apache.hadoop.mapred.FileInputFormat
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.InputSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.Reporter
+import org.junit.After
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.nio.file.Files
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class CombineIonInputFormatTest {
+
+    private val directory: File = Files.createTempDirectory("combine").toFile()
+
+    @After
+    fun deleteDirectory() {
+        directory.deleteRecursively()
+    }
+
+    private fun writeText(dir: File, name: String, ionText: String): File =
+        File(dir, name).apply { writeText(ionText) }
+
+    private fun writeBinary(dir: File, name: String, ionText: String): File {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> ION.newReader(ionText).use { writer.writeValues(it) } }
+
+        return File(dir, name).apply { writeBytes(out.toByteArray()) }
+    }
+
+    private fun jobFor(vararg dirs: File, config: Map<String, String> = mapOf()): JobConf {
+        val job = JobConf()
+        config.forEach { (key, value) -> job.set(key, value) }
+        FileInputFormat.setInputPaths(job, *dirs.map { Path(it.toURI()) }.toTypedArray())
+
+        return job
+    }
+
+    private val subject = CombineIonInputFormat()
+
+    private fun read(job: JobConf, split: InputSplit): List<String> {
+        val reader = subject.getRecordReader(split, job, Reporter.NULL)
+        val key = reader.createKey()
+        val value = reader.createValue()
+        val values = mutableListOf<String>()
+        try {
+            while (reader.next(key, value)) {
+                values.addAll(ION.loader.load(value.copyBytes()).map { it.toString() })
+            }
+            assertEquals(1.0F, reader.progress)
+        } finally {
+            reader.close()
+        }
+
+        return values
+    }
+
+    private fun values(ionText: String) = datagram_for(ionText).map { it.toString() }
+
+    @Test
+    fun combinesSmallFiles() {
+        writeText(directory, "a.ion", "{ id: 1 } { id: 2 }")
+        writeBinary(directory, "b.ion", "{ id: 3 }")
+        writeText(directory, "c.ion", "{ id: 4 }")
+        writeText(directory, ".hidden", "{ id: 5 }")
+
+        val job = jobFor(directory)
+        val splits = subject.getSplits(job, 1)
+
+        assertEquals(1, splits.size)
+        assertEquals(3, (splits[0] as CombineIonSplit).numParts)
+        assertEquals(
+            values("{ id: 1 } { id: 2 } { id: 3 } { id: 4 }").toSet(),
+            read(job, splits[0]).toSet()
+        )
+    }
+
+    @Test
+    fun doesNotCombineDirectories() {
+        val other = File(directory, "other").apply { mkdir() }
+        val first = File(directory, "first").apply { mkdir() }
+        writeText(first, "a.ion", "{ id: 1 }")
+        writeText(first, "b.ion", "{ id: 2 }")
+        writeText(other, "c.ion", "{ id: 3 }")
+
+        val job = jobFor(first, other)
+        val splits = subject.getSplits(job, 1)
+
+        assertEquals(2, splits.size)
+        splits.forEach { split ->
+            val combined = split as CombineIonSplit
+            assertTrue((0 until combined.numParts).all { combined.getPart(it).path.parent == combined.path.parent })
+        }
+    }
+
+    @Test
+    fun newlineDelimitedText() {
+        writeText(directory, "a.ion", "{ id: 1 }\n{ id: 2 }\n")
+        writeBinary(directory, "b.ion", "{ id: 3 }")
+
+        val job = jobFor(directory, config = mapOf("ion.text.newline_delimited" to "true"))
+        val splits = subject.getSplits(job, 1)
+
+        assertEquals(values("{ id: 1 } { id: 2 } { id: 3 }").toSet(), read(job, splits.single()).toSet())
+    }
+
+    @Test
+    fun textFileSplitAnyway() {
+        val file = writeText(directory, "a.ion", "{ id: 1 }\n{ id: 2 }\n{ id: 3 }")
+        val path = Path(file.toURI())
+        val job = jobFor(directory)
+
+        // CombineHiveInputFormat hands over file splits, whatever IonInputFormat#isSplitable says
+        assertEquals(values("{ id: 1 } { id: 2 } { id: 3 }"), read(job, FileSplit(path, 0, 10, arrayOf<String>())))
+        assertTrue(read(job, FileSplit(path, 10, file.length() - 10, arrayOf<String>())).isEmpty())
+    }
+
+    @Test
+    fun virtualColumnsArePerFile() {
+        val a = writeText(directory, "a.ion", "{ id: 1 }\n{ id: 2 }\n")
+        val b = writeBinary(directory, "b.ion", "{ id: 3 }")
+
+        val job = jobFor(directory)
+        val reader = subject.getRecordReader(subject.getSplits(job, 1).single(), job, Reporter.NULL)
+        val key = reader.createKey()
+        val value = reader.createValue()
+        val files = mutableMapOf<String, Pair<Path, Long>>()
+        try {
+            while (reader.next(key, value)) {
+                val id = ION.loader.load(value.copyBytes()).single().toString()
+                files[id] = IOContextMap.get(job).inputPath to reader.pos
+            }
+        } finally {
+            reader.close()
+        }
+
+        assertEquals(Path(a.toURI()), files.getValue(values("{ id: 1 }").single()).first)
+        assertEquals(Path(b.toURI()), files.getValue(values("{ id: 3 }").single()).first)
+        assertTrue(files.values.all { (path, pos) -> pos <= File(path.toUri()).length() }, "position in the file")
+    }
+
+    private fun partsOf(splits: Array<InputSplit>, file: File): List<FileSplit> = splits
+        .map { it as CombineIonSplit }
+        .flatMap { split -> (0 until split.numParts).map { split.getPart(it) } }
+        .filter { it.path == Path(file.toURI()) }
+
+    @Test
+    fun textIsOnlySplitWhenNewlineDelimited() {
+        val text = writeText(directory, "a.ion", "{ id: 1 }\n".repeat(10))
+        val maxSplitSize = mapOf("mapreduce.input.fileinputformat.split.maxsize" to "20")
+
+        val job = jobFor(directory, config = maxSplitSize)
+        val splits = subject.getSplits(job, 1)
+        assertEquals(listOf(0L to text.length()), partsOf(splits, text).map { it.start to it.length })
+
+        val newlineDelimitedJob = jobFor(directory, config = maxSplitSize + ("ion.text.newline_delimited" to "true"))
+        assertTrue(partsOf(subject.getSplits(newlineDelimitedJob, 1), text).size > 1)
+    }
+
+    @Test
+    fun unindexedBinaryIsOnlySplitWhenEnabled() {
+        val binary = writeBinary(directory, "b.ion", "{ id: 1 }".repeat(10))
+        val maxSplitSize = mapOf("mapreduce.input.fileinputformat.split.maxsize" to "20")
+
+        val job = jobFor(directory, config = maxSplitSize)
+        assertEquals(1, partsOf(subject.getSplits(job, 1), binary).size)
+
+        val splitJob = jobFor(directory, config = maxSplitSize + ("ion.binary.split_unindexed" to "true"))
+        assertTrue(partsOf(subject.getSplits(splitJob, 1), binary).size > 1)
+    }
+
+    @Test
+    fun instanceIsReusedWithOtherProperties() {
+        val text = writeText(directory, "a.ion", "{ id: 1 }\n".repeat(10))
+        fun job(maxSplitSize: Int, newlineDelimited: Boolean) = jobFor(directory, config = mapOf(
+            "mapreduce.input.fileinputformat.split.maxsize" to maxSplitSize.toString(),
+            "ion.text.newline_delimited" to newlineDelimited.toString()))
+
+        // Hive caches input formats and shares them between queries
+        assertTrue(partsOf(subject.getSplits(job(20, true), 1), text).size > 1)
+        assertEquals(1, partsOf(subject.getSplits(job(20, false), 1), text).size)
+        assertEquals(1, partsOf(subject.getSplits(job(1000, true), 1), text).size)
+    }
+
+    @Test
+    fun splitRoundTrip() {
+        val split = CombineIonSplit(
+            arrayOf(Path("/data/a.ion"), Path("/data/b.ion")),
+            longArrayOf(0, 100),
+            longArrayOf(10, 20),
+            arrayOf("host")
+        )
+
+        val out = DataOutputBuffer()
+        split.write(out)
+        val read = CombineIonSplit()
+        read.readFields(DataInputBuffer().apply { reset(out.data, out.length) })
+
+        assertEquals(Path("/data/a.ion"), read.path)
+        assertEquals(30, read.length)
+        assertEquals(2, read.numParts)
+        assertEquals(Path("/data/b.ion"), read.getPart(1).path)
+        assertEquals(100, read.getPart(1).start)
+        assertEquals(20, read.getPart(1).length)
+    }
+}
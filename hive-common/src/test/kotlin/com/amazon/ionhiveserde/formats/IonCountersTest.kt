@@ -0,0 +1,100 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.formats.IonCounters.Counter
+import org.apache.hadoop.mapred.Counters
+import org.apache.hadoop.mapred.InputSplit
+import org.apache.hadoop.mapred.Reporter
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+import kotlin.test.assertTrue
+
+class IonCountersTest {
+
+    private class CountersReporter : Reporter {
+        val counters = Counters()
+
+        fun value(counter: Counter) = counters.getGroup(IonCounters.GROUP).getCounter(counter.name)
+
+        override fun setStatus(status: String?) {}
+        override fun progress() {}
+        override fun getCounter(name: Enum<*>?): Counters.Counter = counters.findCounter(name)
+        override fun getCounter(group: String?, name: String?): Counters.Counter = counters.findCounter(group, name)
+        override fun incrCounter(key: Enum<*>?, amount: Long) = counters.incrCounter(key, amount)
+        override fun incrCounter(group: String?, counter: String?, amount: Long) =
+            counters.incrCounter(group, counter, amount)
+        override fun getInputSplit(): InputSplit = throw UnsupportedOperationException()
+        override fun getProgress(): Float = 0f
+    }
+
+    private val reporter = CountersReporter()
+    private val subject = IonCounters().apply { setReporter(reporter) }
+
+    @Test
+    fun reportedOnClose() {
+        subject.increment(Counter.RECORDS_READ, 1)
+        subject.increment(Counter.BYTES_READ, 10)
+        assertEquals(0, reporter.value(Counter.RECORDS_READ))
+
+        subject.close()
+        assertEquals(1, reporter.value(Counter.RECORDS_READ))
+        assertEquals(10, reporter.value(Counter.BYTES_READ))
+
+        // the reporter is forgotten, counters are kept until there is one
+        subject.increment(Counter.RECORDS_READ, 1)
+        subject.flush()
+        assertEquals(1, reporter.value(Counter.RECORDS_READ))
+
+        subject.setReporter(reporter)
+        subject.flush()
+        assertEquals(2, reporter.value(Counter.RECORDS_READ))
+    }
+
+    @Test
+    fun reportedPeriodically() {
+        repeat(IonCounters.FLUSH_INTERVAL - 1) { subject.increment(Counter.RECORDS_WRITTEN, 1) }
+        assertEquals(0, reporter.value(Counter.RECORDS_WRITTEN))
+
+        subject.increment(Counter.RECORDS_WRITTEN, 1)
+        assertEquals(IonCounters.FLUSH_INTERVAL.toLong(), reporter.value(Counter.RECORDS_WRITTEN))
+    }
+
+    @Test
+    fun nullReporterIsIgnored() {
+        subject.setReporter(Reporter.NULL)
+        subject.setReporter(null)
+        subject.increment(Counter.MALFORMED_RECORDS_SKIPPED, 1)
+        subject.flush()
+
+        assertEquals(1, reporter.value(Counter.MALFORMED_RECORDS_SKIPPED))
+    }
+
+    @Test
+    fun sampledTimer() {
+        val starts = (0 until IonCounters.SAMPLE_INTERVAL * 2).map { subject.start(Counter.READ_NANOS) }
+
+        assertEquals(listOf(0, IonCounters.SAMPLE_INTERVAL), starts.indices.filter { starts[it] != -1L })
+
+        val start = starts[0]
+        Thread.sleep(1)
+        subject.stop(Counter.READ_NANOS, start)
+        subject.stop(Counter.READ_NANOS, starts[1])
+        subject.flush()
+
+        // the sampled time stands for the whole interval
+        assertNotEquals(0, reporter.value(Counter.READ_NANOS))
+        assertTrue(reporter.value(Counter.READ_NANOS) >= 1_000_000L * IonCounters.SAMPLE_INTERVAL)
+    }
+
+    @Test
+    fun threadCounters() {
+        assertEquals(IonCounters.get(), IonCounters.get())
+
+        var other: IonCounters? = null
+        Thread { other = IonCounters.get() }.apply { start() }.join()
+        assertNotEquals(IonCounters.get(), other)
+    }
+}
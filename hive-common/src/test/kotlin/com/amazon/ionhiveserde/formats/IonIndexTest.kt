@@ -0,0 +1,195 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.source.HadoopConfigurationAdapter
+import org.apache.hadoop.conf.Configuration
+import org.apache.hadoop.fs.FileSystem
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory
+import org.apache.hadoop.mapred.FileSplit
+import org.junit.Test
+import java.io.File
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class IonIndexTest {
+
+    private val ionFactory = IonFactory(HadoopProperties(HadoopConfigurationAdapter(Configuration())))
+    private val fs = FileSystem.getLocal(Configuration())
+
+    private fun index(interval: Int, checkpoints: List<Pair<Long, Long>>, dataLength: Long): IonIndex {
+        val builder = IonIndex.Builder(interval, false)
+        checkpoints.forEach { (offset, row) -> builder.checkpoint(offset, row) }
+
+        return builder.build(dataLength)
+    }
+
+    // blocks of records, each one starting at a checkpoint every 100 bytes
+    private fun zoneMapIndex(vararg blocks: String): IonIndex {
+        val builder = IonIndex.Builder(1, true)
+        blocks.forEachIndexed { i, records ->
+            builder.checkpoint(i * 100L, i.toLong())
+            ION.newReader(records).use { builder.addRecords(it) }
+        }
+
+        return builder.build(blocks.size * 100L)
+    }
+
+    private fun split(start: Long, length: Long) = FileSplit(Path("/data"), start, length, arrayOf<String>())
+
+    @Test
+    fun builderKeepsOneCheckpointEveryInterval() {
+        val subject = index(10, (0L until 25L).map { it * 100 to it }, 2500)
+
+        assertEquals(listOf(0L, 1000L, 2000L), subject.offsets.toList())
+        assertEquals(listOf(0L, 10L, 20L), subject.rows.toList())
+    }
+
+    @Test
+    fun builderWithBlockCheckpoints() {
+        val subject = index(10, listOf(0L to 0L, 700L to 7L, 1400L to 14L, 2100L to 21L), 2500)
+
+        assertEquals(listOf(0L, 1400L), subject.offsets.toList())
+        assertEquals(listOf(0L, 14L), subject.rows.toList())
+    }
+
+    @Test
+    fun alignSplit() {
+        val subject = index(1, listOf(0L to 0L, 100L to 1L, 200L to 2L), 300)
+
+        assertEquals(0, subject.alignSplit(0))
+        assertEquals(100, subject.alignSplit(1))
+        assertEquals(100, subject.alignSplit(100))
+        assertEquals(300, subject.alignSplit(250))
+    }
+
+    @Test
+    fun alignSplits() {
+        val subject = index(1, listOf(0L to 0L, 150L to 1L, 160L to 2L, 390L to 3L), 400)
+
+        val splits = listOf(split(0, 100), split(100, 100), split(200, 100), split(300, 100))
+        val aligned = IonInputFormat.alignSplits(splits, subject)
+
+        assertEquals(listOf(0L to 150L, 150L to 240L, 390L to 10L), aligned.map { it.start to it.length })
+    }
+
+    // dataLength bytes of whitespace followed by the index
+    private fun writeWithIndex(index: IonIndex, text: Boolean): File {
+        val dataFile = File.createTempFile("data", ".ion").apply { deleteOnExit() }
+        dataFile.outputStream().use {
+            it.write(ByteArray(index.dataLength.toInt()) { ' '.toByte() })
+            index.writeFooter(it, text, ionFactory)
+        }
+
+        return dataFile
+    }
+
+    private fun read(dataFile: File) = IonIndex.read(fs, Path(dataFile.toURI()), dataFile.length(), ionFactory)
+
+    private fun assertRoundTrip(text: Boolean) {
+        val read = read(writeWithIndex(index(2, (0L until 5L).map { it * 10 to it }, 50), text))
+
+        assertNotNull(read)
+        assertEquals(50, read.dataLength)
+        assertEquals(listOf(0L, 20L, 40L), read.offsets.toList())
+        assertEquals(listOf(0L, 2L, 4L), read.rows.toList())
+    }
+
+    @Test
+    fun binaryRoundTrip() = assertRoundTrip(false)
+
+    @Test
+    fun textRoundTrip() = assertRoundTrip(true)
+
+    @Test
+    fun appendedFileHasNoIndex() {
+        val dataFile = writeWithIndex(index(1, listOf(0L to 0L), 10), false)
+        dataFile.appendBytes(" { a: 1 }".toByteArray())
+
+        assertNull(read(dataFile))
+    }
+
+    @Test
+    fun rewrittenFileWithTheSameLengthHasNoIndex() {
+        val dataFile = writeWithIndex(index(1, listOf(0L to 0L), 10), false)
+        val length = dataFile.length().toInt()
+        dataFile.writeText("{ a: 1 }\n".repeat(length / 9) + " ".repeat(length % 9))
+
+        assertEquals(length.toLong(), dataFile.length())
+        assertNull(read(dataFile))
+    }
+
+    @Test
+    fun corruptedIndexIsIgnored() {
+        val dataFile = writeWithIndex(index(1, listOf(0L to 0L, 100L to 1L), 200), true)
+        val bytes = dataFile.readBytes()
+        // first base64 character of the index
+        bytes[204] = if (bytes[204] == 'A'.toByte()) 'B'.toByte() else 'A'.toByte()
+        dataFile.writeBytes(bytes)
+
+        assertNull(read(dataFile))
+    }
+
+    @Test
+    fun builderCollectsZoneMaps() {
+        val subject = zoneMapIndex("{ a: 1 } { a: 2 }", "{ a: 5 }")
+
+        assertEquals(listOf(0L, 100L), subject.offsets.toList())
+        assertEquals(200, subject.blockEnd(1))
+        assertEquals(3, subject.zoneMap.rowCount)
+        assertEquals(5L, subject.zoneMap.range("a", false, PrimitiveCategory.INT)!!.max)
+        assertEquals(2L, subject.blockZoneMaps[0].range("a", false, PrimitiveCategory.INT)!!.max)
+        assertEquals(5L, subject.blockZoneMaps[1].range("a", false, PrimitiveCategory.INT)!!.min)
+    }
+
+    @Test
+    fun builderWithoutCheckpointsCollectsFileZoneMap() {
+        val builder = IonIndex.Builder(1, true)
+        builder.checkpoint(0, 0)
+        ION.newReader("{ a: 1 }").use { builder.addRecords(it) }
+        builder.stopCheckpoints()
+        builder.checkpoint(10, 1)
+        ION.newReader("{ a: 2 } { a: ").use { builder.addRecords(it) }
+
+        val subject = builder.build(20)
+        assertEquals(0, subject.offsets.size)
+        assertNull(subject.blockZoneMaps)
+        assertTrue(subject.zoneMap.isUnknown, "malformed records")
+    }
+
+    @Test
+    fun splitMayMatch() {
+        val subject = zoneMapIndex("{ a: 1 }", "{ a: 2 }", "{ a: 3 }")
+        val blockMatches = booleanArrayOf(false, true, false)
+
+        assertFalse(IonInputFormat.mayMatch(split(0, 100), subject, blockMatches))
+        assertTrue(IonInputFormat.mayMatch(split(50, 100), subject, blockMatches))
+        assertFalse(IonInputFormat.mayMatch(split(200, 100), subject, blockMatches))
+    }
+
+    @Test
+    fun zoneMapRoundTrip() {
+        val read = read(writeWithIndex(zoneMapIndex("{ s: \"foo\" }", "{ s: \"bar\" }"), false))
+
+        assertNotNull(read)
+        assertEquals("bar", read.zoneMap.range("s", false, PrimitiveCategory.STRING)!!.min)
+        assertEquals(2, read.blockZoneMaps.size)
+        assertEquals("foo", read.blockZoneMaps[0].range("s", false, PrimitiveCategory.STRING)!!.max)
+    }
+
+    @Test
+    fun missingIndex() {
+        val dataFile = File.createTempFile("data", ".ion").apply { deleteOnExit() }
+        dataFile.writeText("{ a: 1 }\n".repeat(10))
+
+        assertNull(read(dataFile))
+    }
+}
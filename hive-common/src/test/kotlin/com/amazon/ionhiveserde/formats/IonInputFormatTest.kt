@@ -0,0 +1,219 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ion.IonInt
+import com.amazon.ion.IonStruct
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import org.apache.hadoop.conf.Configurable
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.io.BytesWritable
+import org.apache.hadoop.io.LongWritable
+import org.apache.hadoop.io.compress.BZip2Codec
+import org.apache.hadoop.io.compress.CompressionCodec
+import org.apache.hadoop.io.compress.GzipCodec
+import org.apache.hadoop.mapred.FileInputFormat
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.RecordReader
+import org.apache.hadoop.mapred.Reporter
+import org.junit.After
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.FileOutputStream
+import java.nio.file.Files
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class IonInputFormatTest {
+
+    private val directory: File = Files.createTempDirectory("input").toFile()
+
+    @After
+    fun deleteDirectory() {
+        directory.deleteRecursively()
+    }
+
+    private fun writeBinary(name: String, ionText: String): File =
+        File(directory, name).apply { writeBytes(binary(ionText)) }
+
+    private fun splitsOf(vararg config: Pair<String, String>): List<FileSplit> {
+        val job = JobConf()
+        config.forEach { (key, value) -> job.set(key, value) }
+        FileInputFormat.setInputPaths(job, Path(directory.toURI()))
+
+        val subject = IonInputFormat()
+        subject.configure(job)
+
+        // a large hint splits small files
+        return subject.getSplits(job, 100).map { it as FileSplit }
+    }
+
+    private val records = (1..50).joinToString("\n") { "{ id: $it, name: \"record $it\" }" }
+
+    @Test
+    fun textIsReadAsASingleSplit() {
+        val file = File(directory, "a.ion").apply { writeText(records) }
+
+        val splits = splitsOf()
+
+        assertEquals(1, splits.size)
+        assertEquals(0, splits[0].start)
+        assertEquals(file.length(), splits[0].length)
+    }
+
+    @Test
+    fun unindexedBinaryIsReadAsASingleSplit() {
+        val file = writeBinary("a.ion", records)
+
+        val splits = splitsOf()
+
+        assertEquals(1, splits.size)
+        assertEquals(file.length(), splits[0].length)
+    }
+
+    @Test
+    fun unindexedBinaryIsSplitWhenEnabled() {
+        val file = writeBinary("a.ion", records)
+
+        val splits = splitsOf("ion.binary.split_unindexed" to "true")
+
+        assertTrue(splits.size > 1)
+        assertEquals(file.length(), splits.sumOf { it.length })
+    }
+
+    // every record holds a blob of binary Ion, so the bytes of a version marker are inside the values
+    private fun recordWithPayload(id: Int): ByteArray {
+        val payload = (1..5).map { binary("{ a: $it }") }.reduce { a, b -> a + b }
+        val record = ION.newEmptyStruct().apply {
+            put("id", ION.newInt(id))
+            put("payload", ION.newBlob(payload))
+        }
+
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { record.writeTo(it) }
+
+        return out.toByteArray()
+    }
+
+    private fun readIds(splits: List<FileSplit>, vararg config: Pair<String, String>): List<Int> {
+        val job = JobConf()
+        config.forEach { (key, value) -> job.set(key, value) }
+        val subject = IonInputFormat().apply { configure(job) }
+
+        return splits.flatMap { split ->
+            @Suppress("UNCHECKED_CAST")
+            val reader = subject.getRecordReader(split, job, Reporter.NULL) as RecordReader<LongWritable, BytesWritable>
+            val key = reader.createKey()
+            val value = reader.createValue()
+            val ids = mutableListOf<Int>()
+            try {
+                while (reader.next(key, value)) {
+                    val records = ION.loader.load(value.copyBytes())
+                    ids.addAll(records.map { ((it as IonStruct)["id"] as IonInt).intValue() })
+                }
+            } finally {
+                reader.close()
+            }
+            ids
+        }
+    }
+
+    // splits computed by other engines, that don't know about version markers
+    private fun byteSplits(file: File, length: Long) = (0 until file.length() step length)
+        .map { FileSplit(Path(file.toURI()), it, minOf(length, file.length() - it), arrayOf<String>()) }
+
+    @Test
+    fun unindexedBinaryWithVersionMarkersInsideValues() {
+        val file = File(directory, "a.ion")
+        file.writeBytes((1..20).map { recordWithPayload(it) }.reduce { a, b -> a + b })
+
+        assertEquals((1..20).toList(), readIds(splitsOf()))
+        assertEquals((1..20).toList(), readIds(byteSplits(file, 100)))
+    }
+
+    @Test
+    fun indexedBinaryWithVersionMarkersInsideValues() {
+        val index = IonIndex.Builder(3, false)
+        val data = ByteArrayOutputStream()
+        (1..20).forEach {
+            index.checkpoint(data.size().toLong(), it - 1L)
+            data.write(recordWithPayload(it))
+        }
+        val file = File(directory, "a.ion")
+        file.outputStream().use {
+            it.write(data.toByteArray())
+            index.build(data.size().toLong())
+                .writeFooter(it, false, IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf()))))
+        }
+
+        val splits = splitsOf()
+        assertTrue(splits.size > 1)
+        assertEquals((1..20).toList(), readIds(splits))
+        assertEquals((1..20).toList(), readIds(byteSplits(file, 100)))
+        assertEquals((1..20).toList(), readIds(byteSplits(file, 7)))
+    }
+
+    @Test
+    fun newlineDelimitedTextIsSplit() {
+        File(directory, "a.ion").writeText(records)
+
+        assertTrue(splitsOf("ion.text.newline_delimited" to "true").size > 1)
+    }
+
+    @Test
+    fun instanceIsReusedWithOtherProperties() {
+        File(directory, "a.ion").writeText(records)
+        writeCompressed("b.ion.bz2", BZip2Codec(), records.toByteArray())
+        fun job(newlineDelimited: Boolean) = JobConf().apply {
+            set("ion.text.newline_delimited", newlineDelimited.toString())
+            FileInputFormat.setInputPaths(this, Path(directory.toURI()))
+        }
+
+        // Hive caches input formats, configured with the first job only
+        val subject = IonInputFormat().apply { configure(job(true)) }
+
+        assertEquals(2, subject.getSplits(job(false), 100).size)
+        assertTrue(subject.getSplits(job(true), 100).size > 2)
+        assertEquals(2, subject.getSplits(job(false), 100).size)
+    }
+
+    private fun writeCompressed(name: String, codec: CompressionCodec, bytes: ByteArray) {
+        (codec as Configurable).conf = JobConf()
+        codec.createOutputStream(FileOutputStream(File(directory, name))).use { it.write(bytes) }
+    }
+
+    private fun binary(ionText: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> ION.newReader(ionText).use { writer.writeValues(it) } }
+
+        return out.toByteArray()
+    }
+
+    @Test
+    fun gzipIsNeverSplit() {
+        writeCompressed("a.ion.gz", GzipCodec(), records.toByteArray())
+
+        assertEquals(1, splitsOf("ion.text.newline_delimited" to "true").size)
+    }
+
+    @Test
+    fun bzip2NewlineDelimitedTextIsSplit() {
+        writeCompressed("a.ion.bz2", BZip2Codec(), records.toByteArray())
+
+        assertTrue(splitsOf("ion.text.newline_delimited" to "true").size > 1)
+        assertEquals(1, splitsOf().size, "not newline delimited")
+    }
+
+    @Test
+    fun bzip2BinaryIsNotSplit() {
+        writeCompressed("a.ion.bz2", BZip2Codec(), binary(records))
+
+        assertEquals(1, splitsOf("ion.text.newline_delimited" to "true").size)
+    }
+}
@@ -0,0 +1,182 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+import com.amazon.ionhiveserde.datagram_for
+import com.amazon.ionhiveserde.serializers.newTableSerializer
+import org.apache.hadoop.fs.FileSystem
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils
+import org.apache.hadoop.io.DataInputBuffer
+import org.apache.hadoop.io.DataOutputBuffer
+import org.apache.hadoop.mapred.JobConf
+import org.junit.After
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+import java.util.Properties
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+class IonOutputFormatTest {
+
+    private val directory: File = Files.createTempDirectory("output").toFile()
+    private val file = File(directory, "a.ion")
+
+    private val columnNames = listOf("id", "name")
+    private val objectInspector = ObjectInspectorFactory.getStandardStructObjectInspector(
+        columnNames,
+        listOf(
+            PrimitiveObjectInspectorFactory.javaIntObjectInspector,
+            PrimitiveObjectInspectorFactory.javaStringObjectInspector))
+
+    @After
+    fun deleteDirectory() {
+        directory.deleteRecursively()
+    }
+
+    private fun writeStreaming(rows: Int, vararg config: Pair<String, String>): ByteArray {
+        val tableProperties = Properties()
+        tableProperties.setProperty("ion.output.streaming", "true")
+        config.forEach { (key, value) -> tableProperties.setProperty(key, value) }
+
+        val row = newRow(*config)
+
+        val subject = IonOutputFormat().getHiveRecordWriter(
+            JobConf(), Path(file.toURI()), IonRowWritable::class.java, false, tableProperties, null)
+        for (i in 0 until rows) {
+            row.set(listOf(i, "name$i"), objectInspector)
+            subject.write(row)
+        }
+        subject.close(false)
+
+        return file.readBytes()
+    }
+
+    private fun newRow(vararg config: Pair<String, String>): IonRowWritable {
+        val tableProperties = Properties()
+        config.forEach { (key, value) -> tableProperties.setProperty(key, value) }
+        val properties = SerDeProperties(
+            tableProperties, columnNames, TypeInfoUtils.getTypeInfosFromTypeString("int,string"))
+
+        return IonRowWritable(newTableSerializer(properties), IonFactory(properties), properties)
+    }
+
+    private fun expectedRows(rows: Int) =
+        datagram_for((0 until rows).joinToString(" ") { "{ id: $it, name: \"name$it\" }" }).toList()
+
+    private fun versionMarkers(bytes: ByteArray): Int {
+        val marker = byteArrayOf(0xE0.toByte(), 0x01, 0x00, 0xEA.toByte())
+
+        return (0..bytes.size - marker.size).count { i -> marker.indices.all { bytes[i + it] == marker[it] } }
+    }
+
+    @Test
+    fun binaryRoundTrip() {
+        val bytes = writeStreaming(5, "ion.encoding" to "binary")
+
+        assertEquals(expectedRows(5), ION.loader.load(bytes).toList())
+    }
+
+    @Test
+    fun textRoundTrip() {
+        val bytes = writeStreaming(5, "ion.encoding" to "text")
+
+        assertEquals(expectedRows(5), ION.loader.load(bytes).toList())
+    }
+
+    @Test
+    fun versionMarkerEveryBlock() {
+        val bytes = writeStreaming(5, "ion.encoding" to "binary", "ion.output.block_rows" to "2")
+
+        assertEquals(3, versionMarkers(bytes))
+        assertEquals(expectedRows(5), ION.loader.load(bytes).toList())
+    }
+
+    @Test
+    fun singleBlock() {
+        val bytes = writeStreaming(5, "ion.encoding" to "binary", "ion.output.block_rows" to "10")
+
+        assertEquals(1, versionMarkers(bytes))
+    }
+
+    // Hive commits the output of a task renaming only the data file
+    private fun committedIndex(): IonIndex? {
+        val committed = File(directory, "000000_0")
+        assertTrue(file.renameTo(committed))
+
+        val ionFactory = IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf())))
+        return IonIndex.read(FileSystem.getLocal(JobConf()), Path(committed.toURI()), committed.length(), ionFactory)
+    }
+
+    @Test
+    fun binaryIndexIsAppendedToTheFile() {
+        val bytes = writeStreaming(
+            5, "ion.encoding" to "binary", "ion.output.block_rows" to "2", "ion.output.index_interval" to "1")
+
+        assertEquals(expectedRows(5), ION.loader.load(bytes).toList())
+
+        val index = committedIndex()
+        assertNotNull(index)
+        assertEquals(listOf(0L, 2L, 4L), index.rows.toList())
+    }
+
+    @Test
+    fun textZoneMapIsAppendedToTheFile() {
+        val bytes = writeStreaming(5, "ion.encoding" to "text", "ion.output.zone_maps" to "true")
+
+        assertEquals(expectedRows(5), ION.loader.load(bytes).toList())
+
+        val index = committedIndex()
+        assertNotNull(index)
+        assertEquals(0, index.offsets.size)
+        assertEquals(5, index.zoneMap.rowCount)
+    }
+
+    @Test
+    fun rowThatCantBeSerializedIsNotWritten() {
+        val row = newRow()
+        val invalidObjectInspector = ObjectInspectorFactory.getStandardStructObjectInspector(
+            columnNames,
+            listOf(
+                PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+                PrimitiveObjectInspectorFactory.javaStringObjectInspector))
+
+        val tableProperties = Properties().apply { setProperty("ion.output.streaming", "true") }
+        val subject = IonOutputFormat().getHiveRecordWriter(
+            JobConf(), Path(file.toURI()), IonRowWritable::class.java, false, tableProperties, null)
+        row.set(listOf(0, "name0"), objectInspector)
+        subject.write(row)
+        assertFailsWith<IllegalArgumentException> { row.set(listOf("1", "name1"), invalidObjectInspector) }
+        row.set(listOf(1, "name1"), objectInspector)
+        subject.write(row)
+        subject.close(false)
+
+        assertEquals(expectedRows(2), ION.loader.load(file.readBytes()).toList())
+    }
+
+    @Test
+    fun rowWritableRoundTrip() {
+        val row = newRow()
+        row.set(listOf(1, "name1"), objectInspector)
+
+        val out = DataOutputBuffer()
+        row.write(out)
+        val read = newRow()
+        read.readFields(DataInputBuffer().apply { reset(out.data, out.length) })
+
+        val copy = ION.newDatagram()
+        ION.newWriter(copy).use { read.writeTo(it) }
+        assertEquals(datagram_for("{ id: 1, name: \"name1\" }").toList(), copy.toList())
+    }
+}
@@ -0,0 +1,225 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ion.IonReader
+import com.amazon.ion.IonStruct
+import com.amazon.ion.IonText
+import com.amazon.ion.IonValue
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import com.amazon.ionhiveserde.datagram_for
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.io.compress.CompressionCodecFactory
+import org.apache.hadoop.io.compress.GzipCodec
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.Reporter
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.InputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Reader that doesn't provide the offsets of the values.
+ */
+private class NoSpanIonReader(private val reader: IonReader) : IonReader by reader {
+    override fun <T : Any?> asFacet(facetType: Class<T>?): T? = null
+}
+
+class IonRecordReaderTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val deadLetterDirectory by lazy { folder.newFolder("dead-letters") }
+
+    private val ionFactory = IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf())))
+
+    private val ignoreMalformed = mapOf(
+        "ion.ignore_malformed" to "true",
+        "ion.ignore_malformed.dead_letter_dir" to deadLetterDirectory.toURI().toString())
+
+    private fun binary(ionText: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> ION.newReader(ionText).use { writer.writeValues(it) } }
+
+        return out.toByteArray()
+    }
+
+    private fun read(
+        file: File,
+        config: Map<String, String> = ignoreMalformed,
+        ionFactory: IonFactory? = null
+    ): List<IonValue> {
+        val job = JobConf()
+        config.forEach { (key, value) -> job.set(key, value) }
+        val properties = HadoopProperties(MapBasedRawConfiguration(config))
+
+        val path = Path(file.toURI())
+        val subject = IonRecordReader(
+            FileSplit(path, 0, file.length(), arrayOf<String>()),
+            job,
+            path.getFileSystem(job).open(path),
+            CompressionCodecFactory(job).getCodec(path),
+            properties,
+            ionFactory ?: IonFactory(properties),
+            null,
+            Reporter.NULL)
+
+        val values = mutableListOf<IonValue>()
+        val key = subject.createKey()
+        val value = subject.createValue()
+        try {
+            while (subject.next(key, value)) {
+                values.addAll(ION.loader.load(value.copyBytes()))
+            }
+        } finally {
+            subject.close()
+        }
+
+        return values
+    }
+
+    private fun deadLetters(): List<IonStruct> = deadLetterDirectory.listFiles()!!
+        .filter { it.name.endsWith(".ion") && !it.name.startsWith(".") }
+        .flatMap { ION.loader.load(it) }
+        .map { it as IonStruct }
+
+    private fun assertDeadLetter(file: File, start: Int, end: Int, bytes: ByteArray, deadLetter: IonStruct) {
+        assertEquals(Path(file.toURI()).toString(), (deadLetter.get("file") as IonText).stringValue())
+        assertEquals(ION.newInt(start), deadLetter.get("start"))
+        assertEquals(ION.newInt(end), deadLetter.get("end"))
+        assertTrue((deadLetter.get("error") as IonText).stringValue().isNotEmpty())
+        assertEquals(ION.newBlob(bytes), deadLetter.get("bytes"))
+    }
+
+    @Test
+    fun binaryResyncsAtTheNextVersionMarker() {
+        val first = binary("{ a: 1 }")
+        // an unsupported version marker followed by a value
+        val malformed = byteArrayOf(0xE0.toByte(), 0x02, 0x00, 0xEA.toByte(), 0x21, 0x01)
+        val file = folder.newFile("a.10n")
+        file.writeBytes(first + malformed + binary("{ a: 3 }"))
+
+        assertEquals(datagram_for("{ a: 1 } { a: 3 }").toList(), read(file))
+
+        val deadLetters = deadLetters()
+        assertEquals(1, deadLetters.size)
+        assertDeadLetter(file, first.size, first.size + malformed.size, malformed, deadLetters[0])
+    }
+
+    @Test
+    fun textResyncsAtTheNextLine() {
+        val text = "{ a: 1 }\n{ a: 2 b }\n{ a: 3 }\n"
+        val file = folder.newFile("a.ion")
+        file.writeText(text)
+
+        assertEquals(datagram_for("{ a: 1 } { a: 3 }").toList(), read(file))
+
+        val start = text.indexOf("{ a: 2")
+        val end = text.indexOf("{ a: 3")
+        assertDeadLetter(file, start, end, text.substring(start, end).toByteArray(), deadLetters().single())
+    }
+
+    @Test
+    fun textResyncsAtTheNextValueWhenPrettyPrinted() {
+        val text = "{\n  a: 1\n}\n{\n  a: 2,\n  b\n}\n{\n  a: 3,\n  b: [\n    1\n  ]\n}\n"
+        val file = folder.newFile("a.ion")
+        file.writeText(text)
+
+        assertEquals(datagram_for("{ a: 1 } { a: 3, b: [1] }").toList(), read(file))
+
+        val start = text.indexOf("{\n  a: 2")
+        val end = text.indexOf("{\n  a: 3")
+        assertDeadLetter(file, start, end, text.substring(start, end).toByteArray(), deadLetters().single())
+    }
+
+    @Test
+    fun compressedTextResyncs() {
+        val text = "{ a: 1 }\n{ a: 2 b }\n{ a: 3 }\n{ a: 4 c }\n{ a: 5 }\n"
+        val file = folder.newFile("a.ion.gz")
+        val codec = GzipCodec().apply { conf = JobConf() }
+        codec.createOutputStream(file.outputStream()).use { it.write(text.toByteArray()) }
+
+        assertEquals(datagram_for("{ a: 1 } { a: 3 } { a: 5 }").toList(), read(file))
+
+        // offsets are in the decompressed stream
+        val deadLetters = deadLetters().sortedBy { it.get("start").toString().toInt() }
+        assertEquals(2, deadLetters.size)
+        listOf("{ a: 2" to "{ a: 3", "{ a: 4" to "{ a: 5").forEachIndexed { i, (from, to) ->
+            val start = text.indexOf(from)
+            val end = text.indexOf(to)
+            assertDeadLetter(file, start, end, text.substring(start, end).toByteArray(), deadLetters[i])
+        }
+    }
+
+    @Test
+    fun textWithoutOffsetsSkipsTheRestOfTheSplit() {
+        val file = folder.newFile("a.ion")
+        file.writeText("{ a: 1 }\n{ a: 2 b }\n{ a: 3 }\n")
+
+        val noSpanFactory = object : IonFactory(HadoopProperties(MapBasedRawConfiguration(ignoreMalformed))) {
+            override fun newReader(input: InputStream): IonReader = NoSpanIonReader(super.newReader(input))
+        }
+
+        assertEquals(datagram_for("{ a: 1 }").toList(), read(file, ionFactory = noSpanFactory))
+    }
+
+    private fun writeWithIndex(file: File, data: ByteArray, text: Boolean) {
+        val index = IonIndex.Builder(1, true)
+        index.checkpoint(0, 0)
+        ION.newReader(data).use { index.addRecords(it) }
+
+        file.outputStream().use {
+            it.write(data)
+            index.build(data.size.toLong()).writeFooter(it, text, ionFactory)
+        }
+    }
+
+    @Test
+    fun binaryIndexFooterIsSkipped() {
+        val file = folder.newFile("a.10n")
+        writeWithIndex(file, binary("{ a: 1 } { a: 2 }"), false)
+
+        assertEquals(datagram_for("{ a: 1 } { a: 2 }").toList(), read(file, mapOf()))
+    }
+
+    @Test
+    fun textIndexFooterIsSkipped() {
+        val file = folder.newFile("a.ion")
+        writeWithIndex(file, "{ a: 1 }\n{ a: 2 }\n".toByteArray(), true)
+
+        assertEquals(datagram_for("{ a: 1 } { a: 2 }").toList(), read(file, mapOf()))
+
+        // newline delimited text is read line by line, the footer is a line without values
+        val path = Path(file.toURI())
+        val job = JobConf()
+        val lineReader = IonTextLineRecordReader(
+            FileSplit(path, 0, file.length(), arrayOf<String>()),
+            job,
+            path.getFileSystem(job).open(path),
+            null,
+            ionFactory,
+            null,
+            Reporter.NULL)
+        val lines = mutableListOf<IonValue>()
+        val key = lineReader.createKey()
+        val value = lineReader.createValue()
+        try {
+            while (lineReader.next(key, value)) {
+                lines.addAll(ION.loader.load(value.toString()))
+            }
+        } finally {
+            lineReader.close()
+        }
+        assertEquals(datagram_for("{ a: 1 } { a: 2 }").toList(), lines)
+    }
+}
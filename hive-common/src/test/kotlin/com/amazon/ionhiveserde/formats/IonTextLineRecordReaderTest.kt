@@ -0,0 +1,126 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import org.apache.hadoop.fs.Path
+import org.apache.hadoop.io.compress.BZip2Codec
+import org.apache.hadoop.io.compress.CompressionCodec
+import org.apache.hadoop.io.compress.GzipCodec
+import org.apache.hadoop.mapred.FileSplit
+import org.apache.hadoop.mapred.JobConf
+import org.apache.hadoop.mapred.Reporter
+import org.junit.After
+import org.junit.Test
+import java.io.File
+import kotlin.test.assertEquals
+
+class IonTextLineRecordReaderTest {
+
+    private val ionFactory = IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf())))
+    private val file: File = File.createTempFile("lines", ".ion")
+
+    @After
+    fun deleteFile() {
+        file.delete()
+    }
+
+    private fun readSplit(start: Long, length: Long, codec: CompressionCodec? = null): List<String> {
+        val path = Path(file.toURI())
+        val job = JobConf()
+        val subject = IonTextLineRecordReader(
+            FileSplit(path, start, length, arrayOf<String>()),
+            job,
+            path.getFileSystem(job).open(path),
+            codec,
+            ionFactory,
+            null,
+            Reporter.NULL
+        )
+
+        val key = subject.createKey()
+        val value = subject.createValue()
+        val lines = mutableListOf<String>()
+        try {
+            while (subject.next(key, value)) {
+                lines.add(value.toString())
+            }
+        } finally {
+            subject.close()
+        }
+
+        return lines
+    }
+
+    @Test
+    fun readsLines() {
+        file.writeText("{ a: 1 }\n{ a: 2 }\n{ a: 3 }")
+
+        assertEquals(listOf("{ a: 1 }", "{ a: 2 }", "{ a: 3 }"), readSplit(0, file.length()))
+    }
+
+    @Test
+    fun crlf() {
+        file.writeText("{ a: 1 }\r\n{ a: 2 }\r\n")
+
+        assertEquals(listOf("{ a: 1 }", "{ a: 2 }"), readSplit(0, file.length()))
+    }
+
+    @Test
+    fun splitsInTheMiddleOfLines() {
+        val lines = (1..20).map { "{ id: $it }" }
+        file.writeText(lines.joinToString("\n"))
+
+        for (boundary in listOf(1L, 5L, 10L, 11L, 37L, file.length() - 1)) {
+            val read = readSplit(0, boundary) + readSplit(boundary, file.length() - boundary)
+            assertEquals(lines, read, "split at $boundary")
+        }
+    }
+
+    @Test
+    fun compressedFileIsReadWholeByTheFirstSplit() {
+        val codec = GzipCodec().apply { conf = JobConf() }
+        val lines = (1..20).map { "{ id: $it }" }
+        codec.createOutputStream(file.outputStream()).use { it.write(lines.joinToString("\n").toByteArray()) }
+
+        assertEquals(lines, readSplit(0, 10, codec))
+        assertEquals(listOf(), readSplit(10, file.length() - 10, codec))
+    }
+
+    @Test
+    fun bzip2SplitsInTheMiddleOfLines() {
+        val codec = BZip2Codec().apply { conf = JobConf() }
+        val lines = (1..20).map { "{ id: $it }" }
+        codec.createOutputStream(file.outputStream()).use { it.write(lines.joinToString("\n").toByteArray()) }
+
+        for (boundary in listOf(1L, 10L, file.length() - 1)) {
+            val read = readSplit(0, boundary, codec) + readSplit(boundary, file.length() - boundary, codec)
+            assertEquals(lines, read, "split at $boundary")
+        }
+    }
+
+    @Test
+    fun skipsLinesWithoutValues() {
+        file.writeText(
+            listOf(
+                "\$ion_1_0",
+                "",
+                "  \t",
+                "\$ion_symbol_table::{ symbols: [\"a\"] }",
+                "// a comment",
+                "/* another comment */",
+                "{ a: 1 }",
+                "\$ion_1_0 { a: 2 }",
+                "/* leading comment */ { a: 3 }"
+            ).joinToString("\n")
+        )
+
+        assertEquals(
+            listOf("{ a: 1 }", "\$ion_1_0 { a: 2 }", "/* leading comment */ { a: 3 }"),
+            readSplit(0, file.length())
+        )
+    }
+}
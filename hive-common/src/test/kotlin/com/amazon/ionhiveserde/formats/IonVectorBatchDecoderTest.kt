@@ -0,0 +1,149 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ion.IonException
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+import com.amazon.ionhiveserde.objectinspectors.factories.IonObjectInspectorFactory
+import org.apache.hadoop.hive.common.type.HiveDecimal
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils
+import org.junit.Test
+import java.util.Properties
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class IonVectorBatchDecoderTest {
+
+    private val columnNames = listOf("b", "i", "t", "d", "s", "dec", "v")
+    private val columnTypes = TypeInfoUtils.getTypeInfosFromTypeString(
+        "boolean,int,tinyint,double,string,decimal(10,2),varchar(3)"
+    )
+
+    private val objectInspectorFactory = IonObjectInspectorFactory(
+        PrimitiveObjectInspectorFactory.javaDateObjectInspector,
+        PrimitiveObjectInspectorFactory.javaTimestampObjectInspector
+    )
+
+    private fun newDecoder(config: Map<String, String> = mapOf(), columnIds: List<Int> = columnNames.indices.toList()):
+        IonVectorBatchDecoder {
+
+        val properties = SerDeProperties(Properties().apply { putAll(config) }, columnNames, columnTypes)
+        val structTypeInfo = TypeInfoFactory.getStructTypeInfo(columnNames, columnTypes) as StructTypeInfo
+        val objectInspector = objectInspectorFactory.objectInspectorForTable(structTypeInfo, properties)
+
+        return IonVectorBatchDecoder(
+            IonFactory(properties),
+            properties,
+            objectInspector as StructObjectInspector,
+            columnIds
+        )
+    }
+
+    private fun newBatch(): VectorizedRowBatch {
+        val batch = VectorizedRowBatch(columnNames.size)
+        batch.cols = arrayOf<ColumnVector>(
+            LongColumnVector(),
+            LongColumnVector(),
+            LongColumnVector(),
+            DoubleColumnVector(),
+            BytesColumnVector(),
+            DecimalColumnVector(VectorizedRowBatch.DEFAULT_SIZE, 10, 2),
+            BytesColumnVector()
+        )
+
+        return batch
+    }
+
+    private fun IonVectorBatchDecoder.decodeAll(batch: VectorizedRowBatch, vararg records: String): Int {
+        startBatch(batch)
+
+        var row = 0
+        for (record in records) {
+            val bytes = record.toByteArray()
+            if (decode(bytes, bytes.size, batch, row)) {
+                row++
+            }
+        }
+        batch.size = row
+
+        return row
+    }
+
+    private fun BytesColumnVector.stringAt(row: Int) = String(vector[row], start[row], length[row])
+
+    @Test
+    fun decodesColumns() {
+        val batch = newBatch()
+        val count = newDecoder().decodeAll(
+            batch,
+            "{ b: true, i: 1, t: 2, d: 1.5e0, s: \"foo\", dec: 1.25, v: \"abc\" }",
+            "{ B: false, i: null, s: bar, extra: 1 }"
+        )
+
+        assertEquals(2, count)
+
+        assertEquals(1, (batch.cols[0] as LongColumnVector).vector[0])
+        assertEquals(1, (batch.cols[1] as LongColumnVector).vector[0])
+        assertEquals(2, (batch.cols[2] as LongColumnVector).vector[0])
+        assertEquals(1.5, (batch.cols[3] as DoubleColumnVector).vector[0])
+        assertEquals("foo", (batch.cols[4] as BytesColumnVector).stringAt(0))
+        assertEquals(HiveDecimal.create("1.25"), (batch.cols[5] as DecimalColumnVector).vector[0].hiveDecimal)
+        assertEquals("abc", (batch.cols[6] as BytesColumnVector).stringAt(0))
+        batch.cols.forEach { assertFalse(it.isNull[0]) }
+
+        // field names are case insensitive by default
+        assertFalse(batch.cols[0].isNull[1])
+        assertEquals(0, (batch.cols[0] as LongColumnVector).vector[1])
+        assertTrue(batch.cols[1].isNull[1])
+        assertEquals("bar", (batch.cols[4] as BytesColumnVector).stringAt(1))
+        assertTrue(batch.cols[5].isNull[1])
+    }
+
+    @Test
+    fun fallsBackToObjectInspectors() {
+        val batch = newBatch()
+        newDecoder(mapOf("ion.fail_on_overflow" to "false")).decodeAll(
+            batch,
+            "{ t: 300, s: { a: 1 }, v: \"abcdef\" }"
+        )
+
+        assertEquals(300.toByte().toLong(), (batch.cols[2] as LongColumnVector).vector[0])
+        assertEquals("{a:1}", (batch.cols[4] as BytesColumnVector).stringAt(0))
+        assertEquals("abc", (batch.cols[6] as BytesColumnVector).stringAt(0))
+    }
+
+    @Test
+    fun projectedColumns() {
+        val batch = newBatch()
+        newDecoder(columnIds = listOf(1)).decodeAll(batch, "{ i: 1, s: \"foo\" }")
+
+        assertEquals(1, (batch.cols[1] as LongColumnVector).vector[0])
+        assertNull((batch.cols[4] as BytesColumnVector).vector[0])
+    }
+
+    @Test
+    fun malformed() {
+        val records = arrayOf("{ i: 1 }", "{ i: ", "{ i: 3 }")
+
+        assertFailsWith<IonException> { newDecoder().decodeAll(newBatch(), *records) }
+
+        val batch = newBatch()
+        assertEquals(2, newDecoder(mapOf("ion.ignore_malformed" to "true")).decodeAll(batch, *records))
+        assertEquals(3, (batch.cols[1] as LongColumnVector).vector[1])
+    }
+}
@@ -0,0 +1,295 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import org.apache.hadoop.hive.ql.exec.SerializationUtilities
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc
+import org.apache.hadoop.hive.ql.plan.TableScanDesc
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDF
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFIn
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPGreaterThan
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNot
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNotEqual
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPNull
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFUpper
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory
+import org.apache.hadoop.mapred.JobConf
+import org.junit.Test
+import java.sql.Timestamp
+import java.time.Instant
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class RecordFilterTest {
+
+    private fun column(name: String, type: TypeInfo = TypeInfoFactory.intTypeInfo, partition: Boolean = false) =
+        ExprNodeColumnDesc(type, name, "t", partition)
+
+    private fun constant(value: Any?, type: TypeInfo = TypeInfoFactory.intTypeInfo) = ExprNodeConstantDesc(type, value)
+
+    private fun function(udf: GenericUDF, vararg children: ExprNodeDesc) =
+        ExprNodeGenericFuncDesc(TypeInfoFactory.booleanTypeInfo, udf, children.toMutableList())
+
+    private fun filterFor(expression: ExprNodeGenericFuncDesc, config: Map<String, String> = mapOf()): RecordFilter? {
+        val job = JobConf()
+        job.set(TableScanDesc.FILTER_EXPR_CONF_STR, SerializationUtilities.serializeExpression(expression))
+        config.forEach { (key, value) -> job.set(key, value) }
+
+        val properties = HadoopProperties(MapBasedRawConfiguration(config))
+
+        return RecordFilter.fromJob(job, properties, IonFactory(properties))
+    }
+
+    private fun RecordFilter.accepts(ionText: String): Boolean {
+        val bytes = ionText.toByteArray()
+
+        return accept(bytes, 0, bytes.size)
+    }
+
+    private fun RecordFilter.mayMatch(ionText: String, bloomFilterFields: Set<String> = setOf()): Boolean {
+        val zoneMap = ZoneMap(bloomFilterFields, 0.001)
+        ION.newReader(ionText).use { reader ->
+            generateSequence { reader.next() }.forEach { type -> zoneMap.add(reader, type) }
+        }
+        zoneMap.finishBloomFilters()
+
+        return mayMatch(zoneMap)
+    }
+
+    @Test
+    fun comparison() {
+        val filter = filterFor(function(GenericUDFOPGreaterThan(), column("a"), constant(10)))!!
+
+        assertTrue(filter.accepts("{ a: 11 }"))
+        assertFalse(filter.accepts("{ a: 10 }"))
+        // unknown for a null a, left to Hive
+        assertTrue(filter.accepts("{ b: 11 }"))
+        assertTrue(filter.accepts("{ a: null }"))
+    }
+
+    @Test
+    fun flippedComparison() {
+        val filter = filterFor(function(GenericUDFOPGreaterThan(), constant(10), column("a")))!!
+
+        assertTrue(filter.accepts("{ a: 9 }"))
+        assertFalse(filter.accepts("{ a: 11 }"))
+    }
+
+    @Test
+    fun threeValuedLogic() {
+        // NOT (a = 1) is unknown for a null a, so the record is kept
+        val notEqual = filterFor(function(GenericUDFOPNot(), function(GenericUDFOPEqual(), column("a"), constant(1))))!!
+
+        assertTrue(notEqual.accepts("{ b: 1 }"))
+        assertTrue(notEqual.accepts("{ a: 2 }"))
+        assertFalse(notEqual.accepts("{ a: 1 }"))
+
+        val isNull = filterFor(function(GenericUDFOPNull(), column("a")))!!
+
+        assertTrue(isNull.accepts("{ a: null.int }"))
+        assertTrue(isNull.accepts("{ b: 1 }"))
+        assertFalse(isNull.accepts("{ a: 1 }"))
+    }
+
+    @Test
+    fun inList() {
+        val stringType = TypeInfoFactory.stringTypeInfo
+        val filter = filterFor(function(
+            GenericUDFIn(),
+            column("s", stringType),
+            constant("foo", stringType),
+            constant("bar", stringType)
+        ))!!
+
+        assertTrue(filter.accepts("{ s: \"foo\" }"))
+        assertTrue(filter.accepts("{ s: bar }"))
+        assertFalse(filter.accepts("{ s: \"baz\" }"))
+        // converted to text by the object inspector
+        assertTrue(filter.accepts("{ s: 1 }"))
+    }
+
+    @Test
+    fun unsupportedExpressions() {
+        val upper = function(GenericUDFUpper(), column("s", TypeInfoFactory.stringTypeInfo))
+        val unsupported = function(GenericUDFOPEqual(), upper, constant("FOO", TypeInfoFactory.stringTypeInfo))
+        val supported = function(GenericUDFOPEqual(), column("a"), constant(1))
+
+        assertNull(filterFor(unsupported))
+
+        val and = filterFor(function(GenericUDFOPAnd(), supported, unsupported))!!
+        assertFalse(and.accepts("{ a: 2, s: \"foo\" }"))
+        assertTrue(and.accepts("{ a: 1, s: \"bar\" }"))
+
+        // the unsupported side may be true
+        val or = filterFor(function(GenericUDFOPOr(), supported, unsupported))!!
+        assertTrue(or.accepts("{ a: 2, s: \"foo\" }"))
+    }
+
+    @Test
+    fun unsupportedColumns() {
+        val partitionColumn = function(GenericUDFOPEqual(), column("a", partition = true), constant(1))
+        assertNull(filterFor(partitionColumn))
+
+        val customPath = function(GenericUDFOPEqual(), column("a"), constant(1))
+        assertNull(filterFor(customPath, mapOf("ion.a.path_extractor" to "(b)")))
+        assertTrue(filterFor(customPath, mapOf("ion.a.path_extractor" to "(a)"))!!.accepts("{ a: 1 }"))
+    }
+
+    @Test
+    fun valuesNotSeenByHiveAreKept() {
+        val filter = filterFor(function(GenericUDFOPEqual(), column("a", TypeInfoFactory.byteTypeInfo), constant(1)))!!
+
+        assertTrue(filter.accepts("{ a: 1000 }"))
+        assertTrue(filter.accepts("{ a: 2.0 }"))
+        assertTrue(filter.accepts("{ a: 2, a: 1 }"))
+        assertTrue(filter.accepts("[1, 2]"))
+        assertTrue(filter.accepts("{ a: 2, b: {"))
+    }
+
+    @Test
+    fun caseSensitivity() {
+        val expression = function(GenericUDFOPEqual(), column("a"), constant(1))
+
+        assertTrue(filterFor(expression)!!.accepts("{ A: 1 }"))
+        assertFalse(filterFor(expression)!!.accepts("{ A: 2 }"))
+
+        val caseSensitive = filterFor(expression, mapOf("ion.path_extractor.case_sensitive" to "true"))!!
+        assertFalse(caseSensitive.accepts("{ A: 1 }"))
+    }
+
+    @Test
+    fun zoneMapComparison() {
+        val filter = filterFor(function(GenericUDFOPGreaterThan(), column("a"), constant(10)))!!
+
+        assertTrue(filter.mayMatch("{ a: 1 } { a: 11 }"))
+        assertFalse(filter.mayMatch("{ a: 1 } { a: 10 }"))
+        // rows with a null a are never returned
+        assertFalse(filter.mayMatch("{ a: 1 } { a: null } { b: 20 }"))
+        // ranges that can't be bounded are read
+        assertTrue(filter.mayMatch("{ a: 1 } { a: \"20\" }"))
+        assertTrue(filter.mayMatch("{ a: 1 } [20]"))
+    }
+
+    @Test
+    fun zoneMapThreeValuedLogic() {
+        val notEqual = filterFor(function(GenericUDFOPNot(), function(GenericUDFOPEqual(), column("a"), constant(1))))!!
+
+        assertFalse(notEqual.mayMatch("{ a: 1 } { a: 1 }"))
+        assertFalse(notEqual.mayMatch("{ a: 1 } { b: 2 }"))
+        assertTrue(notEqual.mayMatch("{ a: 1 } { a: 2 }"))
+
+        val isNull = filterFor(function(GenericUDFOPNull(), column("a")))!!
+
+        assertTrue(isNull.mayMatch("{ a: 1 } { b: 1 }"))
+        assertFalse(isNull.mayMatch("{ a: 1 } { a: 2 }"))
+
+        val isNotNull = filterFor(function(GenericUDFOPNot(), function(GenericUDFOPNull(), column("a"))))!!
+
+        assertFalse(isNotNull.mayMatch("{ b: 1 } { a: null }"))
+        assertTrue(isNotNull.mayMatch("{ b: 1 } { a: 1 }"))
+    }
+
+    @Test
+    fun zoneMapInListAndOr() {
+        val stringType = TypeInfoFactory.stringTypeInfo
+        val inList = function(
+            GenericUDFIn(), column("s", stringType), constant("foo", stringType), constant("bar", stringType))
+        val greater = function(GenericUDFOPGreaterThan(), column("a"), constant(10))
+
+        val filter = filterFor(inList)!!
+        assertTrue(filter.mayMatch("{ s: \"baz\" } { s: \"zzz\" } { s: \"aaa\" }"), "bar is in the range")
+        assertFalse(filter.mayMatch("{ s: \"goo\" } { s: \"zzz\" }"))
+
+        val and = filterFor(function(GenericUDFOPAnd(), inList, greater))!!
+        assertFalse(and.mayMatch("{ s: \"foo\", a: 1 }"))
+        assertTrue(and.mayMatch("{ s: \"foo\", a: 11 }"))
+
+        val or = filterFor(function(GenericUDFOPOr(), inList, greater))!!
+        assertTrue(or.mayMatch("{ s: \"foo\", a: 1 }"))
+        assertFalse(or.mayMatch("{ s: \"goo\", a: 1 }"))
+    }
+
+    @Test
+    fun zoneMapBloomFilter() {
+        val records = "{ a: 1, s: \"foo\" } { a: 100, s: \"zoo\" } { s: null }"
+        val bloomFilterFields = setOf("a", "s")
+
+        val equal = filterFor(function(GenericUDFOPEqual(), column("a"), constant(50)))!!
+        assertTrue(equal.mayMatch(records), "in the range")
+        assertFalse(equal.mayMatch(records, bloomFilterFields))
+        val present = filterFor(function(GenericUDFOPEqual(), column("a"), constant(100)))!!
+        assertTrue(present.mayMatch(records, bloomFilterFields))
+
+        val notEqual = filterFor(function(GenericUDFOPNotEqual(), column("a"), constant(50)))!!
+        assertTrue(notEqual.mayMatch(records, bloomFilterFields))
+
+        val stringType = TypeInfoFactory.stringTypeInfo
+        val inList = filterFor(function(
+            GenericUDFIn(), column("s", stringType), constant("bar", stringType), constant("goo", stringType)))!!
+        assertFalse(inList.mayMatch(records, bloomFilterFields))
+
+        val inListMatch = filterFor(function(
+            GenericUDFIn(), column("s", stringType), constant("bar", stringType), constant("zoo", stringType)))!!
+        assertTrue(inListMatch.mayMatch(records, bloomFilterFields))
+    }
+
+    private val timestampType = TypeInfoFactory.timestampTypeInfo
+
+    // Hive 2 timestamp constant
+    private fun timestamp(instant: String) = Timestamp(Instant.parse(instant).toEpochMilli())
+
+    @Test
+    fun timestampComparison() {
+        val filter = filterFor(function(
+            GenericUDFOPGreaterThan(),
+            column("t", timestampType),
+            constant(timestamp("2020-01-01T00:00:00Z"), timestampType)))!!
+
+        assertTrue(filter.accepts("{ t: 2020-01-01T00:00:00.001Z }"))
+        assertFalse(filter.accepts("{ t: 2020-01-01T00:00:00Z }"))
+        assertFalse(filter.accepts("{ t: 2020-01-01T01:00:00+01:00 }"), "same instant")
+        // truncated to milliseconds by the object inspector
+        assertFalse(filter.accepts("{ t: 2020-01-01T00:00:00.0009Z }"))
+        assertTrue(filter.accepts("{ t: \"2021-01-01\" }"), "converted by the object inspector")
+
+        assertTrue(filter.mayMatch("{ t: 2019-01-01T } { t: 2020-06-01T }"))
+        assertFalse(filter.mayMatch("{ t: 2019-01-01T } { t: 2019-06-01T }"))
+    }
+
+    @Test
+    fun hive3TimestampConstant() {
+        // only available with the Hive 3 runtime
+        val timestampClass = try {
+            Class.forName("org.apache.hadoop.hive.common.type.Timestamp")
+        } catch (e: ClassNotFoundException) {
+            return
+        }
+        val constant = timestampClass.getMethod("valueOf", String::class.java).invoke(null, "2020-01-01 00:00:00.5")
+
+        val filter = filterFor(function(
+            GenericUDFOPEqual(), column("t", timestampType), ExprNodeConstantDesc(timestampType, constant)))!!
+
+        assertTrue(filter.accepts("{ t: 2020-01-01T00:00:00.500Z }"))
+        assertFalse(filter.accepts("{ t: 2020-01-01T00:00:00.501Z }"))
+    }
+
+    @Test
+    fun disabled() {
+        val expression = function(GenericUDFOPEqual(), column("a"), constant(1))
+
+        assertNull(filterFor(expression, mapOf("ion.filter_pushdown" to "false")))
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ion.IonValue
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.IonFactory
+import com.amazon.ionhiveserde.configuration.HadoopProperties
+import com.amazon.ionhiveserde.configuration.MapBasedRawConfiguration
+import com.amazon.ionhiveserde.datagram_for
+import org.apache.hadoop.io.BytesWritable
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
+
+class RowGroupTest {
+
+    private val ionFactory = IonFactory(HadoopProperties(MapBasedRawConfiguration(mapOf())))
+
+    private fun writeGroups(vararg groups: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        val subject = RowGroupWriter(ionFactory)
+        groups.forEach { group ->
+            ION.newReader(group).use { subject.add(it) }
+            subject.writeTo(out)
+        }
+
+        return out.toByteArray()
+    }
+
+    private fun readGroups(bytes: ByteArray, fieldNames: Set<String>?): List<IonValue> {
+        val splitReader = BinaryIonSplitReader(ByteArrayInputStream(bytes), 0, bytes.size.toLong())
+        val record = IonRecordWritable()
+        val row = BytesWritable()
+        val rows = mutableListOf<IonValue>()
+
+        RowGroupReader(ionFactory, fieldNames, false).use { subject ->
+            while (splitReader.next(record)) {
+                ionFactory.newReader(record.bytes, 0, record.length).use { reader ->
+                    assertEquals(RowGroupWriter.ROW_GROUP_ANNOTATION, RowGroupReader.partOf(reader))
+                    subject.start(reader, splitReader)
+                }
+                while (subject.next(row)) {
+                    rows.addAll(ION.loader.load(row.copyBytes()))
+                }
+            }
+        }
+
+        return rows
+    }
+
+    @Test
+    fun roundTrip() {
+        val bytes = writeGroups("{ id: 1, name: \"foo\" } { id: 2, tags: [a, b] }", "{ name: \"bar\", id: 3 }")
+
+        assertEquals(
+            datagram_for("{ id: 1, name: \"foo\" } { id: 2, tags: [a, b] } { id: 3, name: \"bar\" }").toList(),
+            readGroups(bytes, null)
+        )
+    }
+
+    @Test
+    fun projection() {
+        val bytes = writeGroups("{ id: 1, Name: \"foo\", tags: [a] } { id: 2 }", "{ tags: [b], name: \"bar\" }")
+
+        assertEquals(
+            datagram_for("{ Name: \"foo\" } { } { name: \"bar\" }").toList(),
+            readGroups(bytes, setOf("name"))
+        )
+    }
+
+    @Test
+    fun typedNullsAreKept() {
+        val bytes = writeGroups("{ a: null.int, b: null } { a: 1, b: 2 }")
+
+        assertEquals(datagram_for("{ a: null.int } { a: 1, b: 2 }").toList(), readGroups(bytes, null))
+    }
+
+    @Test
+    fun repeatedFieldKeepsFirstValue() {
+        val bytes = writeGroups("{ a: 1, a: 2 }")
+
+        assertEquals(datagram_for("{ a: 1 }").toList(), readGroups(bytes, null))
+    }
+
+    @Test
+    fun otherRecordsAreNotParts() {
+        ION.newReader("{ a: 1 } other::{ b: 2 }").use { reader ->
+            assertNull(RowGroupReader.partOf(reader))
+            assertNull(RowGroupReader.partOf(reader))
+        }
+    }
+
+    @Test
+    fun nonStructRow() {
+        assertFailsWith<IllegalArgumentException> { writeGroups("{ a: 1 } [1]") }
+    }
+}
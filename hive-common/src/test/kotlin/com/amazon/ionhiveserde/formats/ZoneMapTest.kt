@@ -0,0 +1,204 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats
+
+import com.amazon.ionhiveserde.ION
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.time.Instant
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class ZoneMapTest {
+
+    private fun zoneMapFor(ionText: String, bloomFilterFields: Set<String> = setOf()): ZoneMap {
+        val zoneMap = ZoneMap(bloomFilterFields, 0.001)
+        ION.newReader(ionText).use { reader ->
+            generateSequence { reader.next() }.forEach { type -> zoneMap.add(reader, type) }
+        }
+
+        return zoneMap
+    }
+
+    private fun ZoneMap.range(fieldName: String, category: PrimitiveCategory) = range(fieldName, false, category)
+
+    @Test
+    fun columnRanges() {
+        val subject = zoneMapFor("{ a: 3, s: \"foo\", b: true } { a: -1, s: bar, f: 1.5e0 } { a: null, f: -2e0 }")
+
+        assertEquals(3, subject.rowCount)
+
+        val a = assertNotNull(subject.range("a", PrimitiveCategory.INT))
+        assertEquals(1, a.nullCount)
+        assertEquals(2, a.nonNullCount)
+        assertEquals(-1L, a.min)
+        assertEquals(3L, a.max)
+
+        val s = assertNotNull(subject.range("s", PrimitiveCategory.STRING))
+        assertEquals("bar", s.min)
+        assertEquals("foo", s.max)
+
+        val f = assertNotNull(subject.range("f", PrimitiveCategory.DOUBLE))
+        assertEquals(-2.0, f.min)
+        assertEquals(1.5, f.max)
+
+        val b = assertNotNull(subject.range("b", PrimitiveCategory.BOOLEAN))
+        assertEquals(2, b.nullCount)
+        assertEquals(true, b.min)
+    }
+
+    @Test
+    fun missingFieldIsAllNulls() {
+        val range = assertNotNull(zoneMapFor("{ a: 1 } { a: 2 }").range("b", PrimitiveCategory.INT))
+
+        assertEquals(2, range.nullCount)
+        assertEquals(0, range.nonNullCount)
+        assertNull(range.min)
+    }
+
+    @Test
+    fun unboundedColumns() {
+        val subject = zoneMapFor("{ a: 1, a: 2, m: 1, d: 1.0, c: 300, A: 1 } { m: \"x\", l: [1] }")
+
+        assertNull(subject.range("a", PrimitiveCategory.INT), "repeated field")
+        assertNull(subject.range("m", PrimitiveCategory.INT), "mixed types")
+        assertNull(subject.range("d", PrimitiveCategory.DOUBLE), "decimal")
+        assertNull(subject.range("l", PrimitiveCategory.INT), "list")
+        assertNull(subject.range("c", PrimitiveCategory.BYTE), "overflows the column")
+        assertNull(subject.range("c", PrimitiveCategory.STRING), "converted by the object inspector")
+        assertNotNull(subject.range("c", PrimitiveCategory.SHORT))
+        assertNull(zoneMapFor("{ a: 1 } { A: 2 }").range("a", PrimitiveCategory.INT), "fields differing in case")
+    }
+
+    @Test
+    fun nonStructRecordIsUnknown() {
+        val subject = zoneMapFor("{ a: 1 } [1, 2]")
+
+        assertTrue(subject.isUnknown)
+        assertNull(subject.range("a", PrimitiveCategory.INT))
+    }
+
+    @Test
+    fun merge() {
+        val subject = zoneMapFor("{ a: 5 }")
+        subject.merge(zoneMapFor("{ a: 1 } { a: 9 } { b: 1 }"))
+
+        val range = assertNotNull(subject.range("a", PrimitiveCategory.INT))
+        assertEquals(4, subject.rowCount)
+        assertEquals(1, range.nullCount)
+        assertEquals(1L, range.min)
+        assertEquals(9L, range.max)
+    }
+
+    @Test
+    fun roundTrip() {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer ->
+            zoneMapFor("{ a: 1, s: x, f: 2e0 } { a: 2, b: false, l: [] }").writeTo(writer)
+        }
+
+        val read = ION.newReader(out.toByteArray()).use { reader ->
+            reader.next()
+            ZoneMap.readFrom(reader)
+        }
+
+        assertEquals(2, read.rowCount)
+        assertEquals(2L, read.range("a", PrimitiveCategory.LONG)!!.max)
+        assertEquals("x", read.range("s", PrimitiveCategory.STRING)!!.min)
+        assertEquals(2.0, read.range("f", PrimitiveCategory.DOUBLE)!!.min)
+        assertEquals(false, read.range("b", PrimitiveCategory.BOOLEAN)!!.max)
+        assertEquals(1, read.range("b", PrimitiveCategory.BOOLEAN)!!.nullCount)
+        assertNull(read.range("l", PrimitiveCategory.INT))
+    }
+
+    @Test
+    fun timestampRanges() {
+        val subject = zoneMapFor(
+            "{ t: 2020-01-01T01:00:00+01:00 } { t: 2020-01-02T00:00:00.1234Z } { t: null } { t: 2019-12-31T23:59Z }",
+            setOf("t"))
+        subject.finishBloomFilters()
+
+        val t = assertNotNull(subject.range("t", PrimitiveCategory.TIMESTAMP))
+        assertEquals(1, t.nullCount)
+        assertEquals(Instant.parse("2019-12-31T23:59:00Z"), t.min)
+        // read by Hive in milliseconds
+        assertEquals(Instant.parse("2020-01-02T00:00:00.123Z"), t.max)
+        assertTrue(t.mightContain(Instant.parse("2000-01-01T00:00:00Z")), "no Bloom filter")
+
+        assertNull(subject.range("t", PrimitiveCategory.STRING), "converted by the object inspector")
+        assertNull(zoneMapFor("{ t: 2020T } { t: 1 }").range("t", PrimitiveCategory.TIMESTAMP), "mixed types")
+
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> subject.writeTo(writer) }
+        val read = ION.newReader(out.toByteArray()).use { reader ->
+            reader.next()
+            ZoneMap.readFrom(reader)
+        }
+
+        assertEquals(t.min, read.range("t", PrimitiveCategory.TIMESTAMP)!!.min)
+        assertEquals(t.max, read.range("t", PrimitiveCategory.TIMESTAMP)!!.max)
+    }
+
+    @Test
+    fun bloomFilters() {
+        val subject = zoneMapFor("{ Id: 1, s: \"a\", f: 1e0 } { Id: 3, s: \"c\", f: -0e0 }", setOf("id", "s", "f"))
+
+        assertTrue(subject.range("id", PrimitiveCategory.INT)!!.mightContain(5L), "not built yet")
+        subject.finishBloomFilters()
+
+        val id = subject.range("id", PrimitiveCategory.INT)!!
+        assertTrue(id.mightContain(1L))
+        assertTrue(id.mightContain(3L))
+        assertFalse(id.mightContain(2L))
+        assertTrue(subject.range("s", PrimitiveCategory.STRING)!!.mightContain("c"))
+        assertFalse(subject.range("s", PrimitiveCategory.STRING)!!.mightContain("b"))
+        assertTrue(subject.range("f", PrimitiveCategory.DOUBLE)!!.mightContain(0.0))
+    }
+
+    @Test
+    fun bloomFilterRoundTrip() {
+        val zoneMap = zoneMapFor("{ id: 1 } { id: 3 }", setOf("id"))
+        zoneMap.finishBloomFilters()
+
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer -> zoneMap.writeTo(writer) }
+        val read = ION.newReader(out.toByteArray()).use { reader ->
+            reader.next()
+            ZoneMap.readFrom(reader)
+        }
+
+        val id = read.range("id", PrimitiveCategory.INT)!!
+        assertTrue(id.mightContain(3L))
+        assertFalse(id.mightContain(2L))
+    }
+
+    @Test
+    fun bloomFilterHashesAreBounded() {
+        val max = BloomFilter.Hashes.MAX_DISTINCT.toLong()
+        val subject = BloomFilter.Hashes()
+
+        assertTrue((0L until max).all { subject.add(it) })
+        assertTrue((0L until max).all { subject.add(it) }, "repeated values")
+        assertFalse((max until max * 2).all { subject.add(it) })
+    }
+
+    @Test
+    fun mergeKeepsBloomFiltersOfValuesInMemory() {
+        val subject = zoneMapFor("{ id: 1 }", setOf("id"))
+        subject.merge(zoneMapFor("{ id: 3 }", setOf("id")))
+        subject.finishBloomFilters()
+        assertTrue(subject.range("id", PrimitiveCategory.INT)!!.mightContain(3L))
+        assertFalse(subject.range("id", PrimitiveCategory.INT)!!.mightContain(2L))
+
+        val finished = zoneMapFor("{ id: 5 }", setOf("id")).apply { finishBloomFilters() }
+        val merged = zoneMapFor("{ id: 1 }", setOf("id"))
+        merged.merge(finished)
+        merged.finishBloomFilters()
+        assertTrue(merged.range("id", PrimitiveCategory.INT)!!.mightContain(2L), "no Bloom filter")
+    }
+}
@@ -0,0 +1,123 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.objectinspectors
+
+import com.amazon.ion.system.IonBinaryWriterBuilder
+import com.amazon.ion.system.IonReaderBuilder
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.assertStructWrapper
+import com.amazon.ionhiveserde.datagram_for
+import com.amazon.ionpathextraction.PathExtractorBuilder
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class IonRowTest {
+
+    private val searchPaths = listOf("(a)", "(b)", "(c d)", "(e)")
+    private val columnTypes = TypeInfoUtils.getTypeInfosFromTypeString("string,array<string>,string,int")
+
+    private fun newRow(lazy: Boolean = true, caseSensitive: Boolean = true) =
+        IonRow(ION, caseSensitive, lazy, columnTypes)
+
+    private fun IonRow.read(bytes: ByteArray): IonRow {
+        val builder = PathExtractorBuilder.standard<IonRow>().withMatchRelativePaths(false)
+        searchPaths.forEachIndexed { columnId, searchPath ->
+            builder.withSearchPath(searchPath) { reader, row ->
+                row.match(columnId, reader)
+                0
+            }
+        }
+
+        val reader = IonReaderBuilder.standard().build(bytes, 0, bytes.size)
+        start(reader)
+        builder.build().match(reader, this)
+
+        return this
+    }
+
+    private fun IonRow.read(ionText: String) = read(ionText.toByteArray())
+
+    private fun binary(ionText: String): ByteArray {
+        val out = ByteArrayOutputStream()
+        IonBinaryWriterBuilder.standard().build(out).use { datagram_for(ionText).writeTo(it) }
+
+        return out.toByteArray()
+    }
+
+    @Test
+    fun decodesMatchedColumns() {
+        val record = "{ a: [1], b: [x, y], c: { d: \"z\" } }"
+
+        for (lazy in listOf(true, false)) {
+            for (bytes in listOf(record.toByteArray(), binary(record))) {
+                val row = newRow(lazy).read(bytes)
+
+                assertEquals(4, row.size())
+                assertEquals(datagram_for("[1]")[0], row.get(0))
+                assertEquals(datagram_for("[x, y]")[0], row.get(1))
+                assertEquals("z", (row.get(2) as ScalarSlot).stringValue())
+                assertNull(row.get(3))
+            }
+        }
+    }
+
+    @Test
+    fun decodesOnce() {
+        val row = newRow().read("{ b: { e: 1 } }")
+
+        assertSame(row.get(1), row.get(1))
+    }
+
+    @Test
+    fun missingAndNullColumns() {
+        val row = newRow().read("{ a: null, c: { d: null.string }, e: null.int }")
+
+        assertNull(row.get(0))
+        assertNull(row.get(1))
+        assertNull(row.get(2))
+        assertNull(row.get(3))
+    }
+
+    @Test
+    fun lastMatchWins() {
+        val row = newRow().read("{ a: x, a: [y], e: 1, e: 2 }")
+
+        assertEquals(datagram_for("[y]")[0], row.get(0))
+        assertEquals(2L, (row.get(3) as ScalarSlot).longValue())
+    }
+
+    @Test
+    fun startClearsPreviousRecord() {
+        val row = newRow().read("{ a: 1, b: [2], e: 3 }")
+        row.read("{ a: 4 }")
+
+        assertEquals(ION.newInt(4), row.get(0))
+        assertNull(row.get(1))
+        assertNull(row.get(3))
+    }
+
+    @Test
+    fun scalarSlots() {
+        val row = newRow().read("{ a: abc, c: { d: 1 }, e: 1 }")
+
+        // only values of types the column object inspector accepts are read into the slot
+        assertEquals("abc", (row.get(0) as ScalarSlot).stringValue())
+        assertEquals(ION.newInt(1), row.get(2))
+        assertEquals(1L, (row.get(3) as ScalarSlot).longValue())
+
+        assertEquals(ION.newString("x"), newRow().read("{ e: \"x\" }").get(3))
+        assertEquals(datagram_for("12345678901234567890")[0], newRow().read("{ e: 12345678901234567890 }").get(3))
+    }
+
+    @Test
+    fun caseInsensitive() {
+        val row = newRow(caseSensitive = false).read("{ b: { Foo: 1 } }")
+
+        assertStructWrapper(row.get(1))
+    }
+}
@@ -7,9 +7,12 @@ import com.amazon.ion.IonStruct
 import com.amazon.ionhiveserde.ION
 import com.amazon.ionhiveserde.case_insensitive
 import com.amazon.ionhiveserde.struct_for
+import com.amazon.ionpathextraction.PathExtractorBuilder
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category.STRUCT
 import org.apache.hadoop.hive.serde2.objectinspector.StructField
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.BooleanObjectInspector
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.IntObjectInspector
 import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory.*
 import org.junit.Test
@@ -87,6 +90,29 @@ class IonStructToStructInspectorTest {
         assertNull(actual)
     }
 
+    @Test
+    fun getStructFieldDataForRow() {
+        val row = makeRow("{cint: 1, cboolean: true}")
+
+        val boolField = subject.getStructFieldRef("cboolean")
+        val intField = subject.getStructFieldRef("cint")
+        val boolInspector = boolField.fieldObjectInspector as BooleanObjectInspector
+        val intInspector = intField.fieldObjectInspector as IntObjectInspector
+
+        assertEquals(true, boolInspector.get(subject.getStructFieldData(row, boolField)))
+        assertEquals(1, intInspector.get(subject.getStructFieldData(row, intField)))
+    }
+
+    @Test
+    fun getStructFieldsDataAsListForRow() {
+        // values are in column order
+        val list = subject.getStructFieldsDataAsList(makeRow("{cint: 1, cboolean: null}"))
+
+        assertEquals(2, list.size)
+        assertNull(list[0])
+        assertEquals(1, (subject.getStructFieldRef("cint").fieldObjectInspector as IntObjectInspector).get(list[1]))
+    }
+
     @Test
     fun getTypeName() {
         assertEquals("struct<cboolean:boolean,cint:int>", subject.typeName)
@@ -115,6 +141,19 @@ class IonStructToStructInspectorTest {
         return struct
     }
 
+    private fun makeRow(ionText: String): IonRow {
+        val row = IonRow(ION, true, true, makeStructInfo().allStructFieldTypeInfos)
+        val reader = ION.newReader(ionText)
+        row.start(reader)
+        PathExtractorBuilder.standard<IonRow>()
+            .withSearchPath("(cboolean)") { r, ionRow -> ionRow.match(0, r); 0 }
+            .withSearchPath("(cint)") { r, ionRow -> ionRow.match(1, r); 0 }
+            .build()
+            .match(reader, row)
+
+        return row
+    }
+
     private fun assertBoolField(field: StructField) {
         assertEquals(0, field.fieldID)
         assertEquals("cboolean", field.fieldName)
@@ -0,0 +1,102 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.serializers
+
+import com.amazon.ion.IonValue
+import com.amazon.ionhiveserde.ION
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+import com.amazon.ionhiveserde.datagram_for
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils
+import org.apache.hadoop.io.IntWritable
+import org.apache.hadoop.io.Text
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.util.Properties
+import kotlin.test.assertEquals
+
+class TableSerializerTest {
+
+    private val columnNames = listOf("id", "s", "l", "m")
+    private val properties = SerDeProperties(
+        Properties(),
+        columnNames,
+        TypeInfoUtils.getTypeInfosFromTypeString("int,struct<x:int,y:string>,array<int>,map<string,int>"))
+
+    /**
+     * Row object inspector with java primitives, as the ones used by Hive for constants.
+     */
+    private val javaObjectInspector = rowObjectInspector(
+        listOf("x", "y"),
+        PrimitiveObjectInspectorFactory.javaIntObjectInspector,
+        PrimitiveObjectInspectorFactory.javaStringObjectInspector)
+
+    /**
+     * Row object inspector with writable primitives and other struct field names, as the ones used for table rows.
+     */
+    private val writableObjectInspector = rowObjectInspector(
+        listOf("x2", "y2"),
+        PrimitiveObjectInspectorFactory.writableIntObjectInspector,
+        PrimitiveObjectInspectorFactory.writableStringObjectInspector)
+
+    private fun rowObjectInspector(structFieldNames: List<String>,
+                                   intObjectInspector: ObjectInspector,
+                                   stringObjectInspector: ObjectInspector): ObjectInspector =
+        ObjectInspectorFactory.getStandardStructObjectInspector(
+            columnNames,
+            listOf(
+                intObjectInspector,
+                ObjectInspectorFactory.getStandardStructObjectInspector(
+                    structFieldNames,
+                    listOf(intObjectInspector, stringObjectInspector)),
+                ObjectInspectorFactory.getStandardListObjectInspector(intObjectInspector),
+                ObjectInspectorFactory.getStandardMapObjectInspector(stringObjectInspector, intObjectInspector)))
+
+    private fun javaRow(i: Int) = listOf(i, listOf(i + 1, "a$i"), listOf(i + 2, i + 3), mapOf("k" to i + 4))
+
+    private fun writableRow(i: Int) = listOf(
+        IntWritable(i),
+        listOf(IntWritable(i + 1), Text("a$i")),
+        listOf(IntWritable(i + 2), IntWritable(i + 3)),
+        mapOf(Text("k") to IntWritable(i + 4)))
+
+    private fun serialize(subject: TableSerializer, rows: List<Pair<Any, ObjectInspector>>): List<IonValue> {
+        val out = ByteArrayOutputStream()
+        ION.newBinaryWriter(out).use { writer ->
+            rows.forEach { (row, objectInspector) -> subject.serialize(writer, row, objectInspector) }
+        }
+
+        return ION.loader.load(out.toByteArray()).toList()
+    }
+
+    @Test
+    fun serialize() {
+        val actual = serialize(newTableSerializer(properties), listOf(javaRow(1) to javaObjectInspector))
+
+        assertEquals(datagram_for("{ id: 1, s: { x: 2, y: \"a1\" }, l: [3, 4], m: { k: 5 } }").toList(), actual)
+    }
+
+    @Test
+    fun objectInspectorChanges() {
+        // the same serializer is used with both object inspectors, the plan of the previous one must not be reused
+        val actual = serialize(
+            newTableSerializer(properties),
+            listOf(
+                javaRow(1) to javaObjectInspector,
+                writableRow(10) to writableObjectInspector,
+                javaRow(20) to javaObjectInspector,
+                javaRow(30) to javaObjectInspector))
+
+        val expected = datagram_for(
+            """
+            { id: 1, s: { x: 2, y: "a1" }, l: [3, 4], m: { k: 5 } }
+            { id: 10, s: { x2: 11, y2: "a10" }, l: [12, 13], m: { k: 14 } }
+            { id: 20, s: { x: 21, y: "a20" }, l: [22, 23], m: { k: 24 } }
+            { id: 30, s: { x: 31, y: "a30" }, l: [32, 33], m: { k: 34 } }
+            """)
+        assertEquals(expected.toList(), actual)
+    }
+}
@@ -0,0 +1,17 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.serializers
+
+import com.amazon.ionhiveserde.configuration.SerDeProperties
+
+/**
+ * Serializer factory without timestamps, which are serialized by the Hive version specific modules.
+ */
+private class CommonIonSerializerFactory : IonSerializerFactory() {
+    override fun newTimestampSerializer(properties: SerDeProperties): IonSerializer =
+        throw UnsupportedOperationException("timestamps are not supported in hive-common tests")
+}
+
+fun newTableSerializer(properties: SerDeProperties) =
+    TableSerializer(CommonIonSerializerFactory(), properties.columnNames, properties)
@@ -4,14 +4,22 @@
 package com.amazon.ionhiveserde.objectinspectors
 
 import com.amazon.ion.IonValue
+import com.amazon.ionhiveserde.ION
 import com.amazon.ionhiveserde.ionNull
 import junitparams.JUnitParamsRunner
 import junitparams.Parameters
 import org.apache.hadoop.io.Writable
+import org.junit.Assume.assumeTrue
 import org.junit.Test
 import org.junit.runner.RunWith
+import java.lang.management.ManagementFactory
 import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
 import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+private const val ACCESSES = 10_000
 
 /**
  * Base class for primitive ObjectInspector test cases.
@@ -20,6 +28,8 @@ import kotlin.test.assertNull
  * - null values
  * - getPrimitiveWritableObject using validTestCases values
  * - getPrimitiveJavaObject using validTestCases values
+ * - both read from the [ScalarSlot] used by [IonRow], for the values read into a slot
+ * - writables of a slot reused for every value, without allocating when read again
  */
 @RunWith(JUnitParamsRunner::class)
 abstract class AbstractIonPrimitiveJavaObjectInspectorTest<I : IonValue, W : Writable, P> {
@@ -42,6 +52,65 @@ abstract class AbstractIonPrimitiveJavaObjectInspectorTest<I : IonValue, W : Wri
     open fun getPrimitiveJavaObject(testCase: ValidTestCase<out I, W, P>) =
             assertEquals(testCase.expectedPrimitive, subject.getPrimitiveJavaObject(testCase.ionValue))
 
+    @Test
+    @Parameters(method = "validTestCases")
+    open fun getPrimitiveWritableObjectFromSlot(testCase: ValidTestCase<out I, W, P>) {
+        val slot = slotFor(testCase.ionValue) ?: return
+
+        assertEquals(testCase.expectedWritable, subject.getPrimitiveWritableObject(slot))
+    }
+
+    @Test
+    @Parameters(method = "validTestCases")
+    open fun getPrimitiveJavaObjectFromSlot(testCase: ValidTestCase<out I, W, P>) {
+        val slot = slotFor(testCase.ionValue) ?: return
+
+        assertEquals(testCase.expectedPrimitive, subject.getPrimitiveJavaObject(slot))
+        // copies aren't modified when the slot is reused
+        assertEquals(testCase.expectedPrimitive, subject.getPrimitiveJavaObject(subject.copyObject(slot)))
+    }
+
+    @Test
+    open fun reusesWritableOfSlot() {
+        val slot = ScalarSlot(subject.primitiveCategory)
+        var previous: Any? = null
+
+        for (testCase in validTestCases()) {
+            if (!readInto(slot, testCase.ionValue)) {
+                continue
+            }
+
+            val writable = subject.getPrimitiveWritableObject(slot)
+            assertEquals(testCase.expectedWritable, writable)
+            if (previous != null) {
+                assertSame(previous, writable)
+            }
+            previous = writable
+
+            // copies have their own writable, not modified when the slot is reused
+            assertNotSame(writable, subject.getPrimitiveWritableObject(subject.copyObject(slot)))
+        }
+    }
+
+    @Test
+    @Parameters(method = "validTestCases")
+    open fun getPrimitiveWritableObjectFromSlotDoesNotAllocate(testCase: ValidTestCase<out I, W, P>) {
+        val threadBean = ManagementFactory.getThreadMXBean() as com.sun.management.ThreadMXBean
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported && threadBean.isThreadAllocatedMemoryEnabled)
+
+        val slot = slotFor(testCase.ionValue) ?: return
+        // creates the writable
+        subject.getPrimitiveWritableObject(slot)
+
+        val threadId = Thread.currentThread().id
+        val before = threadBean.getThreadAllocatedBytes(threadId)
+        repeat(ACCESSES) { subject.getPrimitiveWritableObject(slot) }
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - before
+
+        // allows for the bytes allocated by the measurement itself, not for an allocation per access
+        assertTrue(allocated < ACCESSES, "allocated $allocated bytes for $ACCESSES accesses")
+    }
+
     @Test
     open fun getPrimitiveWritableObjectForNull() {
         assertNull(subject.getPrimitiveWritableObject(null))
@@ -61,5 +130,21 @@ abstract class AbstractIonPrimitiveJavaObjectInspectorTest<I : IonValue, W : Wri
     open fun getPrimitiveJavaObjectForIonNull() {
         assertNull(subject.getPrimitiveJavaObject(ionNull))
     }
-}
 
+    /**
+     * Reads the value into a slot like [IonRow] does, null if it's read as an Ion value instead.
+     */
+    protected fun slotFor(ionValue: IonValue): ScalarSlot? {
+        val slot = ScalarSlot(subject.primitiveCategory)
+
+        return if (readInto(slot, ionValue)) slot else null
+    }
+
+    private fun readInto(slot: ScalarSlot, ionValue: IonValue): Boolean {
+        ION.newReader(ionValue).use { reader ->
+            reader.next()
+
+            return slot.read(reader)
+        }
+    }
+}
@@ -8,6 +8,7 @@ import junitparams.Parameters
 import org.apache.hadoop.io.Writable
 import org.junit.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 
 /**
  * Base class for primitive ObjectInspector that can overflow. Extends [AbstractIonPrimitiveJavaObjectInspectorTest].
@@ -17,6 +18,7 @@ import kotlin.test.assertEquals
  * - getPrimitiveJavaObject failing on overflow.
  * - getPrimitiveWritableObject overflowing.
  * - getPrimitiveJavaObject overflowing.
+ * - the same read from a [ScalarSlot], for the values read into a slot.
  */
 abstract class AbstractOverflowablePrimitiveObjectInspectorTest<I : IonValue, W : Writable, P>
     : AbstractIonPrimitiveJavaObjectInspectorTest<I, W, P>() {
@@ -58,4 +60,22 @@ abstract class AbstractOverflowablePrimitiveObjectInspectorTest<I : IonValue, W
     open fun getPrimitiveJavaObjectOverflowWithoutFailOnOverflow(testCase: OverflowTestCase<I, W, P>) {
         assertEquals(testCase.expectedPrimitive, subjectOverflow.getPrimitiveJavaObject(testCase.ionValue))
     }
+
+    @Test
+    @Parameters(method = "overflowTestCases")
+    open fun slotOverflow(testCase: OverflowTestCase<I, W, P>) {
+        val slot = slotFor(testCase.ionValue) ?: return
+
+        assertFailsWith<IllegalArgumentException> { subject.getPrimitiveWritableObject(slot) }
+        assertFailsWith<IllegalArgumentException> { subject.getPrimitiveJavaObject(slot) }
+    }
+
+    @Test
+    @Parameters(method = "overflowTestCases")
+    open fun slotOverflowWithoutFailOnOverflow(testCase: OverflowTestCase<I, W, P>) {
+        val slot = slotFor(testCase.ionValue) ?: return
+
+        assertEquals(testCase.expectedWritable, subjectOverflow.getPrimitiveWritableObject(slot))
+        assertEquals(testCase.expectedPrimitive, subjectOverflow.getPrimitiveJavaObject(slot))
+    }
 }
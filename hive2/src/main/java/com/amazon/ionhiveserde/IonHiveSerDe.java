@@ -40,8 +40,8 @@ public class IonHiveSerDe extends AbstractIonHiveSerDe {
     @Override
     protected ObjectInspector getObjectInspectorForTable(final SerDeProperties properties) {
         final StructTypeInfo tableInfo = (StructTypeInfo) TypeInfoFactory.getStructTypeInfo(
-                serDeProperties.getColumnNames(),
-                serDeProperties.getColumnTypes());
-        return ION_OBJECT_INSPECTOR_FACTORY.objectInspectorForTable(tableInfo, serDeProperties);
+                properties.getColumnNames(),
+                properties.getColumnTypes());
+        return ION_OBJECT_INSPECTOR_FACTORY.objectInspectorForTable(tableInfo, properties);
     }
 }
@@ -22,24 +22,32 @@ public class IonTimestampToDateObjectInspector extends AbstractIonPrimitiveJavaO
 
     @Override
     public DateWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                DateWritable::new,
+                (writable, slot) -> writable.set(getPrimitiveJavaObject(slot.longValue())));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return new DateWritable(getPrimitiveJavaObject((IonTimestamp) o));
+        return new DateWritable(getPrimitiveJavaObject(((IonTimestamp) o).getMillis()));
     }
 
     @Override
     public Date getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObject(((ScalarSlot) o).longValue());
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return getPrimitiveJavaObject((IonTimestamp) o);
+        return getPrimitiveJavaObject(((IonTimestamp) o).getMillis());
     }
 
-    private Date getPrimitiveJavaObject(final IonTimestamp ionValue) {
-        return new Date(ionValue.getMillis());
+    private static Date getPrimitiveJavaObject(final long millis) {
+        return new Date(millis);
     }
 }
 
@@ -22,26 +22,34 @@ public class IonTimestampToTimestampObjectInspector extends AbstractIonPrimitive
 
     @Override
     public TimestampWritable getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                TimestampWritable::new,
+                (writable, slot) -> writable.set(getPrimitiveJavaObject(slot.longValue())));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return new TimestampWritable(getPrimitiveJavaObject((IonTimestamp) o));
+        return new TimestampWritable(getPrimitiveJavaObject(((IonTimestamp) o).getMillis()));
     }
 
     @Override
     public Timestamp getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObject(((ScalarSlot) o).longValue());
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return getPrimitiveJavaObject((IonTimestamp) o);
+        return getPrimitiveJavaObject(((IonTimestamp) o).getMillis());
     }
 
-    private Timestamp getPrimitiveJavaObject(final IonTimestamp ionValue) {
+    private static Timestamp getPrimitiveJavaObject(final long millis) {
         // Hive timestamps don't have offset so we always map the ion timestamp to UTC
-        // IonTimestamp.getMillis() is milliseconds from 1970-01-01T00:00:00.000Z
+        // millis are from IonTimestamp.getMillis(), milliseconds from 1970-01-01T00:00:00.000Z
 
-        return new Timestamp(ionValue.getMillis());
+        return new Timestamp(millis);
     }
 }
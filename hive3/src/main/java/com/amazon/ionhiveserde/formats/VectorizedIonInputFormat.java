@@ -0,0 +1,41 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package com.amazon.ionhiveserde.formats;
+
+import com.amazon.ionhiveserde.IonHiveSerDe;
+import java.io.IOException;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedInputFormatInterface;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedSupport;
+import org.apache.hadoop.mapred.FileSplit;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * {@link IonInputFormat} for Hive's vectorized execution. When the query is vectorized records are decoded straight
+ * into vectorized row batches, otherwise it works as {@link IonInputFormat}.
+ */
+public class VectorizedIonInputFormat extends IonInputFormat implements VectorizedInputFormatInterface {
+
+    private static final VectorizedSupport.Support[] SUPPORTED_FEATURES = new VectorizedSupport.Support[0];
+
+    @Override
+    public RecordReader getRecordReader(final InputSplit split, final JobConf job, final Reporter reporter)
+        throws IOException {
+
+        final RecordReader rowReader = super.getRecordReader(split, job, reporter);
+        if (!Utilities.getIsVectorized(job)) {
+            return rowReader;
+        }
+
+        return new IonVectorizedRecordReader(rowReader, (FileSplit) split, job, new IonHiveSerDe());
+    }
+
+    @Override
+    public VectorizedSupport.Support[] getSupportedFeatures() {
+        return SUPPORTED_FEATURES;
+    }
+}
@@ -23,24 +23,32 @@ public class IonTimestampToDateObjectInspector extends AbstractIonPrimitiveJavaO
 
     @Override
     public DateWritableV2 getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                DateWritableV2::new,
+                (writable, slot) -> writable.set(getPrimitiveJavaObject(slot.longValue())));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return new DateWritableV2(getPrimitiveJavaObject((IonTimestamp) o));
+        return new DateWritableV2(getPrimitiveJavaObject(((IonTimestamp) o).getMillis()));
     }
 
     @Override
     public Date getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObject(((ScalarSlot) o).longValue());
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return getPrimitiveJavaObject((IonTimestamp) o);
+        return getPrimitiveJavaObject(((IonTimestamp) o).getMillis());
     }
 
-    private Date getPrimitiveJavaObject(final IonTimestamp ionValue) {
-        return Date.ofEpochMilli(ionValue.getMillis());
+    private static Date getPrimitiveJavaObject(final long millis) {
+        return Date.ofEpochMilli(millis);
     }
 }
 
@@ -23,26 +23,34 @@ public class IonTimestampToTimestampObjectInspector extends AbstractIonPrimitive
 
     @Override
     public TimestampWritableV2 getPrimitiveWritableObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return ((ScalarSlot) o).writable(
+                TimestampWritableV2::new,
+                (writable, slot) -> writable.set(getPrimitiveJavaObject(slot.longValue())));
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return new TimestampWritableV2(getPrimitiveJavaObject((IonTimestamp) o));
+        return new TimestampWritableV2(getPrimitiveJavaObject(((IonTimestamp) o).getMillis()));
     }
 
     @Override
     public Timestamp getPrimitiveJavaObject(final Object o) {
+        if (o instanceof ScalarSlot) {
+            return getPrimitiveJavaObject(((ScalarSlot) o).longValue());
+        }
         if (IonUtil.isIonNull((IonValue) o)) {
             return null;
         }
 
-        return getPrimitiveJavaObject((IonTimestamp) o);
+        return getPrimitiveJavaObject(((IonTimestamp) o).getMillis());
     }
 
-    private Timestamp getPrimitiveJavaObject(final IonTimestamp ionValue) {
+    private static Timestamp getPrimitiveJavaObject(final long millis) {
         // Hive timestamps don't have offset so we always map the ion timestamp to UTC
-        // IonTimestamp.getMillis() is milliseconds from 1970-01-01T00:00:00.000Z
+        // millis are from IonTimestamp.getMillis(), milliseconds from 1970-01-01T00:00:00.000Z
 
-        return Timestamp.ofEpochMilli(ionValue.getMillis());
+        return Timestamp.ofEpochMilli(millis);
     }
 }